@@ -0,0 +1,47 @@
+package br.com.moraesit.netty.server;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps the connections the server holds open: one accepted while {@code maxConnections} are already open is closed
+ * right away and counted in {@code <prefix>.server.connections.rejected}. Shared by every connection.
+ */
+@ChannelHandler.Sharable
+public class ConnectionLimitHandler extends ChannelInboundHandlerAdapter {
+    public static final String NAME = "connection-limit";
+    public static final String REJECTED = "server.connections.rejected";
+
+    private final int maxConnections;
+    private final AtomicInteger open = new AtomicInteger();
+    private final Counter rejected;
+
+    public ConnectionLimitHandler(int maxConnections, String metricPrefix, MeterRegistry meterRegistry) {
+        this.maxConnections = maxConnections;
+        this.rejected = Counter.builder(metricPrefix + "." + REJECTED).register(meterRegistry);
+    }
+
+    // accepted connections are already active when the server sets up their pipeline, so they are counted here
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) {
+        if (open.incrementAndGet() > maxConnections) {
+            rejected.increment();
+            ctx.close();
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        open.decrementAndGet();
+        super.channelInactive(ctx);
+    }
+
+    public int getOpenConnections() {
+        return open.get();
+    }
+}
@@ -0,0 +1,155 @@
+package br.com.moraesit.netty.server;
+
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reactor Netty server settings Boot has no property for, applied by {@link NettyServerPropertiesCustomizer}. Each
+ * service binds them under its own prefix; compression, HTTP/2, the idle timeout and keep-alive come from Boot's
+ * {@code server.*}. Anything left unset keeps the Reactor Netty default.
+ */
+public class NettyServerProperties {
+    private Integer eventLoopThreads;
+    private Integer maxConnections;
+    private final Allocator allocator = new Allocator();
+    private final Metrics metrics = new Metrics();
+
+    public Integer getEventLoopThreads() {
+        return eventLoopThreads;
+    }
+
+    public void setEventLoopThreads(Integer eventLoopThreads) {
+        this.eventLoopThreads = eventLoopThreads;
+    }
+
+    public Integer getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(Integer maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public Allocator getAllocator() {
+        return allocator;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * A {@code PooledByteBufAllocator} for the server channels, built from these settings when {@code type} is set.
+     */
+    public static class Allocator {
+        private Type type;
+        private Boolean preferDirect;
+        private Integer heapArenas;
+        private Integer directArenas;
+        private DataSize pageSize;
+        private Integer maxOrder;
+        private Integer smallCacheSize;
+        private Integer normalCacheSize;
+        private Boolean useCacheForAllThreads;
+
+        public enum Type {
+            POOLED, UNPOOLED
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public void setType(Type type) {
+            this.type = type;
+        }
+
+        public Boolean getPreferDirect() {
+            return preferDirect;
+        }
+
+        public void setPreferDirect(Boolean preferDirect) {
+            this.preferDirect = preferDirect;
+        }
+
+        public Integer getHeapArenas() {
+            return heapArenas;
+        }
+
+        public void setHeapArenas(Integer heapArenas) {
+            this.heapArenas = heapArenas;
+        }
+
+        public Integer getDirectArenas() {
+            return directArenas;
+        }
+
+        public void setDirectArenas(Integer directArenas) {
+            this.directArenas = directArenas;
+        }
+
+        public DataSize getPageSize() {
+            return pageSize;
+        }
+
+        public void setPageSize(DataSize pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        public Integer getMaxOrder() {
+            return maxOrder;
+        }
+
+        public void setMaxOrder(Integer maxOrder) {
+            this.maxOrder = maxOrder;
+        }
+
+        public Integer getSmallCacheSize() {
+            return smallCacheSize;
+        }
+
+        public void setSmallCacheSize(Integer smallCacheSize) {
+            this.smallCacheSize = smallCacheSize;
+        }
+
+        public Integer getNormalCacheSize() {
+            return normalCacheSize;
+        }
+
+        public void setNormalCacheSize(Integer normalCacheSize) {
+            this.normalCacheSize = normalCacheSize;
+        }
+
+        public Boolean getUseCacheForAllThreads() {
+            return useCacheForAllThreads;
+        }
+
+        public void setUseCacheForAllThreads(Boolean useCacheForAllThreads) {
+            this.useCacheForAllThreads = useCacheForAllThreads;
+        }
+    }
+
+    public static class Metrics {
+        private boolean enabled = true;
+        // the uri tag of Reactor Netty's meters; a path matching none of these is tagged "other"
+        private List<String> uriTemplates = new ArrayList<>(List.of("/actuator/**"));
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getUriTemplates() {
+            return uriTemplates;
+        }
+
+        public void setUriTemplates(List<String> uriTemplates) {
+            this.uriTemplates = uriTemplates;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package br.com.moraesit.netty.server;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.netty.http.server.HttpServer;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Applies {@link NettyServerProperties} to the Reactor Netty server Boot builds, after Boot's own settings. Metrics
+ * turn on Reactor Netty's connection, data and response time meters, with the uri tag reduced to the configured
+ * templates.
+ */
+public class NettyServerPropertiesCustomizer implements NettyServerCustomizer {
+    public static final String OTHER_URI = "other";
+
+    private final NettyServerProperties properties;
+    private final ByteBufAllocator allocator;
+    private final ConnectionLimitHandler connectionLimit;
+    private final List<PathPattern> uriTemplates;
+
+    // metricPrefix names the service's own meters, e.g. product.info for product.info.server.connections.rejected
+    public NettyServerPropertiesCustomizer(NettyServerProperties properties, String metricPrefix, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.allocator = allocator(properties.getAllocator());
+        this.connectionLimit = properties.getMaxConnections() != null
+                ? new ConnectionLimitHandler(properties.getMaxConnections(), metricPrefix, meterRegistry)
+                : null;
+        this.uriTemplates = properties.getMetrics().getUriTemplates().stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .sorted(PathPattern.SPECIFICITY_COMPARATOR)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public HttpServer apply(HttpServer server) {
+        if (allocator != null) {
+            server = server.option(ChannelOption.ALLOCATOR, allocator)
+                    .childOption(ChannelOption.ALLOCATOR, allocator);
+        }
+        if (connectionLimit != null) {
+            server = server.doOnChannelInit((observer, channel, remoteAddress) ->
+                    channel.pipeline().addFirst(ConnectionLimitHandler.NAME, connectionLimit));
+        }
+        if (properties.getMetrics().isEnabled()) {
+            server = server.metrics(true, this::uriTag);
+        }
+        return server;
+    }
+
+    String uriTag(String uri) {
+        int query = uri.indexOf('?');
+        var path = PathContainer.parsePath(query < 0 ? uri : uri.substring(0, query));
+        for (PathPattern template : uriTemplates) {
+            if (template.matches(path)) {
+                return template.getPatternString();
+            }
+        }
+        return OTHER_URI;
+    }
+
+    private static ByteBufAllocator allocator(NettyServerProperties.Allocator settings) {
+        if (settings.getType() == null) {
+            return null;
+        }
+        boolean preferDirect = settings.getPreferDirect() != null ? settings.getPreferDirect() : PooledByteBufAllocator.defaultPreferDirect();
+        if (settings.getType() == NettyServerProperties.Allocator.Type.UNPOOLED) {
+            return new UnpooledByteBufAllocator(preferDirect);
+        }
+        return new PooledByteBufAllocator(preferDirect,
+                settings.getHeapArenas() != null ? settings.getHeapArenas() : PooledByteBufAllocator.defaultNumHeapArena(),
+                settings.getDirectArenas() != null ? settings.getDirectArenas() : PooledByteBufAllocator.defaultNumDirectArena(),
+                settings.getPageSize() != null ? (int) settings.getPageSize().toBytes() : PooledByteBufAllocator.defaultPageSize(),
+                settings.getMaxOrder() != null ? settings.getMaxOrder() : PooledByteBufAllocator.defaultMaxOrder(),
+                settings.getSmallCacheSize() != null ? settings.getSmallCacheSize() : PooledByteBufAllocator.defaultSmallCacheSize(),
+                settings.getNormalCacheSize() != null ? settings.getNormalCacheSize() : PooledByteBufAllocator.defaultNormalCacheSize(),
+                settings.getUseCacheForAllThreads() != null ? settings.getUseCacheForAllThreads()
+                        : PooledByteBufAllocator.defaultUseCacheForAllThreads());
+    }
+}
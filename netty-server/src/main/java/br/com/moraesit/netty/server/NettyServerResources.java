@@ -0,0 +1,22 @@
+package br.com.moraesit.netty.server;
+
+import org.springframework.http.client.reactive.ReactorResourceFactory;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * The event loops of {@link NettyServerProperties#getEventLoopThreads()}, as the {@link ReactorResourceFactory} Boot
+ * builds the server with.
+ */
+public final class NettyServerResources {
+
+    private NettyServerResources() {
+    }
+
+    public static ReactorResourceFactory eventLoops(String threadPrefix, NettyServerProperties properties) {
+        var resourceFactory = new ReactorResourceFactory();
+        resourceFactory.setUseGlobalResources(false);
+        resourceFactory.setLoopResourcesSupplier(() ->
+                LoopResources.create(threadPrefix, properties.getEventLoopThreads(), true));
+        return resourceFactory;
+    }
+}
@@ -0,0 +1,74 @@
+package br.com.moraesit.netty.server;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class NettyServerPropertiesCustomizerUnitTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private DisposableServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.disposeNow();
+        }
+    }
+
+    @Test
+    void closesConnectionsOverTheLimit() throws IOException {
+        var properties = new NettyServerProperties();
+        properties.setMaxConnections(1);
+        start(properties);
+
+        try (var first = new Socket("localhost", server.port())) {
+            // accepted connections are set up on different event loops, so the first has to be served before the
+            // second is opened to be sure which one is over the limit
+            first.setSoTimeout((int) Duration.ofSeconds(5).toMillis());
+            first.getOutputStream().write("GET /text HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            assertNotEquals(-1, first.getInputStream().read());
+
+            try (var second = new Socket("localhost", server.port())) {
+                second.setSoTimeout((int) Duration.ofSeconds(5).toMillis());
+                assertEquals(-1, second.getInputStream().read());
+            }
+        }
+        assertEquals(1.0, meterRegistry.get("test." + ConnectionLimitHandler.REJECTED).counter().count());
+    }
+
+    @Test
+    void tagsMetricsWithTheMatchingTemplate() {
+        var properties = new NettyServerProperties();
+        properties.getMetrics().setUriTemplates(List.of("/v1/products", "/v1/products/page", "/v1/products/{id}"));
+        var customizer = new NettyServerPropertiesCustomizer(properties, "test", meterRegistry);
+
+        assertEquals("/v1/products/page", customizer.uriTag("/v1/products/page?size=20"));
+        assertEquals("/v1/products/{id}", customizer.uriTag("/v1/products/product-00000001"));
+        assertEquals("/v1/products", customizer.uriTag("/v1/products"));
+        assertEquals(NettyServerPropertiesCustomizer.OTHER_URI, customizer.uriTag("/favicon.ico"));
+    }
+
+    private void start(NettyServerProperties properties) {
+        var customizer = new NettyServerPropertiesCustomizer(properties, "test", meterRegistry);
+        server = customizer.apply(HttpServer.create().port(0))
+                .route(routes -> routes.get("/text", (request, response) -> response
+                        .header(HttpHeaderNames.CONTENT_TYPE, "text/plain")
+                        .header(HttpHeaderNames.CONTENT_LENGTH, "1")
+                        .sendString(Mono.just("a"))))
+                .bindNow();
+    }
+}
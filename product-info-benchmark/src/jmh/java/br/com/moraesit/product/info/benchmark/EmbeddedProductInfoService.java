@@ -0,0 +1,63 @@
+package br.com.moraesit.product.info.benchmark;
+
+import br.com.moraesit.product.info.service.ProductInfoServiceApplication;
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.repository.ProductInfoRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots product-info-service against embedded Mongo (the {@code test} profile leaves host and port unset,
+ * so flapdoodle picks a free port) and seeds it with {@code documentCount} products. Any extra profiles are activated
+ * after {@code test}.
+ */
+final class EmbeddedProductInfoService implements AutoCloseable {
+    private final ConfigurableApplicationContext context;
+    private final List<String> ids;
+
+    EmbeddedProductInfoService(WebApplicationType webApplicationType, int documentCount, int propertyCount, String... profiles) {
+        var activeProfiles = new ArrayList<String>();
+        activeProfiles.add("test");
+        activeProfiles.addAll(List.of(profiles));
+        this.context = new SpringApplicationBuilder(ProductInfoServiceApplication.class)
+                .web(webApplicationType)
+                .properties("server.port=0", "logging.level.root=WARN")
+                .run("--spring.profiles.active=" + String.join(",", activeProfiles));
+
+        var repository = context.getBean(ProductInfoRepository.class);
+        repository.deleteAll().block();
+
+        var productInfos = new ArrayList<ProductInfo>(documentCount);
+        for (int i = 0; i < documentCount; i++) {
+            productInfos.add(ProductInfoFixtures.productInfo(String.format("product-%08d", i), propertyCount));
+        }
+        this.ids = Flux.fromIterable(productInfos)
+                .buffer(1000)
+                .concatMap(repository::saveAll)
+                .map(ProductInfo::getId)
+                .collectList()
+                .block();
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    int getPort() {
+        return context.getEnvironment().getProperty("local.server.port", Integer.class, 0);
+    }
+
+    List<String> getIds() {
+        return ids;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
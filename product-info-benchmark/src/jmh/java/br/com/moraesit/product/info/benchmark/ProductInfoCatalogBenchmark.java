@@ -0,0 +1,99 @@
+package br.com.moraesit.product.info.benchmark;
+
+import br.com.moraesit.product.info.service.catalog.ProductInfoCatalog;
+import br.com.moraesit.product.info.service.codec.ProductInfoBsonCodec;
+import br.com.moraesit.product.info.service.codec.PropertyNameDictionary;
+import br.com.moraesit.product.info.service.config.ProductInfoServingProperties;
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.domain.ProductInfoPageRequest;
+import com.mongodb.MongoClientSettings;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads from the in-memory catalog of the read replica serving mode over a generated catalog, see
+ * {@link ProductInfoFixtures#catalog(int)}. The catalog size and heap used are printed once it is built; run with
+ * {@code -prof gc} for the allocation per read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx6g")
+public class ProductInfoCatalogBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int documentCount;
+
+    private ProductInfoCatalog catalog;
+    private ProductInfoPageRequest filteredPage;
+    private String[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long heapBefore = usedHeap();
+        catalog = build(documentCount);
+        System.out.printf("%n%d product infos in %d MiB of catalog, %d MiB of heap%n", catalog.size(),
+                catalog.memoryBytes() >> 20, (usedHeap() - heapBefore) >> 20);
+
+        var random = ThreadLocalRandom.current();
+        ids = new String[4096];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = String.format("%024x", random.nextInt(documentCount));
+        }
+
+        filteredPage = new ProductInfoPageRequest();
+        filteredPage.setMinPrice(new BigDecimal("5000"));
+        filteredPage.setNamePrefix("Smartphone Samsung");
+    }
+
+    @Benchmark
+    public ProductInfo getById() {
+        return catalog.get(randomId());
+    }
+
+    @Benchmark
+    public List<ProductInfo> page() {
+        var pageRequest = new ProductInfoPageRequest();
+        pageRequest.setAfter(randomId());
+        return catalog.findPage(pageRequest, ProductInfoPageRequest.DEFAULT_SIZE + 1);
+    }
+
+    @Benchmark
+    public List<ProductInfo> filteredPage() {
+        return catalog.findPage(filteredPage, ProductInfoPageRequest.DEFAULT_SIZE + 1);
+    }
+
+    private String randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    // the generated products are only reachable in here, so they are gone when the heap is measured
+    private static ProductInfoCatalog build(int documentCount) {
+        var properties = new ProductInfoServingProperties();
+        properties.setMode(ProductInfoServingProperties.Mode.MEMORY);
+        var catalog = new ProductInfoCatalog(properties, new ProductInfoBsonCodec(MongoClientSettings.getDefaultCodecRegistry(),
+                PropertyNameDictionary.of(List.of("Marca", "Cor", "Armazenamento"))));
+        var lastModified = Instant.now();
+        for (ProductInfo productInfo : ProductInfoFixtures.catalog(documentCount)) {
+            productInfo.setLastModified(lastModified);
+            catalog.put(productInfo);
+        }
+        catalog.finishLoading();
+        catalog.prepareOrder();
+        return catalog;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+    }
+}
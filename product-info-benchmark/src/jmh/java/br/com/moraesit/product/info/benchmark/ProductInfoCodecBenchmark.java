@@ -0,0 +1,77 @@
+package br.com.moraesit.product.info.benchmark;
+
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Decoder;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.codec.Hints;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode cost of a ProductInfo through the WebFlux codecs behind each supported content type. Run
+ * {@code ./gradlew :product-info-benchmark:payloadSizes} for the matching bytes on the wire.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductInfoCodecBenchmark {
+    private static final ResolvableType PRODUCT_INFO = ResolvableType.forClass(ProductInfo.class);
+    // Spring's Jackson codecs log every value at debug level, which would dominate the measurement
+    private static final Map<String, Object> HINTS = Map.of(Hints.SUPPRESS_LOGGING_HINT, true);
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    private ProductInfoCodecFormat format;
+
+    @Param({"10", "100", "1000"})
+    private int propertyCount;
+
+    private final DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+    private Encoder<Object> encoder;
+    private Decoder<Object> decoder;
+    private ProductInfo productInfo;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        encoder = format.encoder();
+        decoder = format.decoder();
+        productInfo = ProductInfoFixtures.productInfo("d215b5f8-0249-4dc5-89a3-51fd148cfb41", propertyCount);
+        payload = encode(encoder, productInfo, format);
+    }
+
+    @Benchmark
+    public int encode() {
+        DataBuffer buffer = encoder.encodeValue(productInfo, bufferFactory, PRODUCT_INFO, format.mediaType, HINTS);
+        try {
+            return buffer.readableByteCount();
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    @Benchmark
+    public Object decode() {
+        return decoder.decode(bufferFactory.wrap(payload), PRODUCT_INFO, format.mediaType, HINTS);
+    }
+
+    static byte[] encode(Encoder<Object> encoder, ProductInfo productInfo, ProductInfoCodecFormat format) {
+        DataBuffer buffer = encoder.encodeValue(productInfo, DefaultDataBufferFactory.sharedInstance, PRODUCT_INFO,
+                format.mediaType, HINTS);
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return bytes;
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package br.com.moraesit.product.info.benchmark;
+
+import br.com.moraesit.product.info.service.codec.BinaryMediaTypes;
+import br.com.moraesit.product.info.service.codec.Jackson2CborStreamingEncoder;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.core.codec.Decoder;
+import org.springframework.core.codec.Encoder;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+// the same encoder/decoder pairs the service registers for each negotiated content type
+public enum ProductInfoCodecFormat {
+    JSON(MediaType.APPLICATION_JSON) {
+        @Override
+        Encoder<Object> encoder() {
+            return new Jackson2JsonEncoder(mapper(null), mediaType);
+        }
+
+        @Override
+        Decoder<Object> decoder() {
+            return new Jackson2JsonDecoder(mapper(null), mediaType);
+        }
+    },
+    CBOR(MediaType.APPLICATION_CBOR) {
+        @Override
+        Encoder<Object> encoder() {
+            return new Jackson2CborStreamingEncoder(mapper(new CBORFactory()));
+        }
+
+        @Override
+        Decoder<Object> decoder() {
+            return new Jackson2CborDecoder(mapper(new CBORFactory()), mediaType);
+        }
+    },
+    SMILE(BinaryMediaTypes.APPLICATION_SMILE) {
+        @Override
+        Encoder<Object> encoder() {
+            return new Jackson2SmileEncoder(mapper(new SmileFactory()), mediaType);
+        }
+
+        @Override
+        Decoder<Object> decoder() {
+            return new Jackson2SmileDecoder(mapper(new SmileFactory()), mediaType);
+        }
+    };
+
+    final MediaType mediaType;
+
+    ProductInfoCodecFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    abstract Encoder<Object> encoder();
+
+    abstract Decoder<Object> decoder();
+
+    private static ObjectMapper mapper(JsonFactory factory) {
+        var builder = Jackson2ObjectMapperBuilder.json();
+        return factory == null ? builder.build() : builder.factory(factory).build();
+    }
+}
@@ -0,0 +1,79 @@
+package br.com.moraesit.product.info.benchmark;
+
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+final class ProductInfoFixtures {
+    private static final String[] BRANDS = {"Samsung", "Motorola", "Apple", "Xiaomi", "LG", "Sony", "Philips", "Dell",
+            "Lenovo", "Asus", "Acer", "Positivo", "Multilaser", "Electrolux", "Brastemp", "Consul"};
+    private static final String[] TYPES = {"Smartphone", "Notebook", "Smart TV", "Tablet", "Fone de Ouvido", "Monitor",
+            "Geladeira", "Micro-ondas", "Lavadora", "Caixa de Som", "Smartwatch", "Impressora"};
+    private static final String[] COLORS = {"Preto", "Branco", "Azul", "Prata", "Vermelho", "Verde", "Grafite", "Dourado"};
+    private static final String[] STORAGE = {"32GB", "64GB", "128GB", "256GB", "512GB", "1TB"};
+    private static final int VOCABULARY_SIZE = 20_000;
+
+    private ProductInfoFixtures() {
+    }
+
+    static ProductInfo productInfo(String id, int propertyCount) {
+        return ProductInfo.builder()
+                .id(id)
+                .name("Samsung Galaxy A13 " + id)
+                .description("Smartphone Samsung Galaxy A13 128GB Azul 4G, Tela 6.6\", Camera Quadrupla 50MP")
+                .price(new BigDecimal("1200.50"))
+                .properties(properties(propertyCount))
+                .build();
+    }
+
+    static Map<String, Object> properties(int propertyCount) {
+        var properties = new LinkedHashMap<String, Object>();
+        for (int i = 0; i < propertyCount; i++) {
+            switch (i % 4) {
+                case 0 -> properties.put("Marca" + i, "Samsung");
+                case 1 -> properties.put("Armazenamento" + i, 128 + i);
+                case 2 -> properties.put("Dual Chip" + i, i % 3 == 0);
+                default -> properties.put("Cores" + i, List.of("Azul", "Preto", "Branco"));
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * A catalog of made up products whose descriptions draw from a vocabulary with a skewed distribution, so common
+     * terms have long posting lists and rare ones short lists, as in a real catalog.
+     */
+    static List<ProductInfo> catalog(int documentCount) {
+        var random = new Random(42);
+        var catalog = new ArrayList<ProductInfo>(documentCount);
+        for (int i = 0; i < documentCount; i++) {
+            var brand = BRANDS[skewed(random, BRANDS.length)];
+            var type = TYPES[skewed(random, TYPES.length)];
+            var color = COLORS[random.nextInt(COLORS.length)];
+            var storage = STORAGE[random.nextInt(STORAGE.length)];
+            var description = new StringBuilder(type).append(' ').append(brand);
+            for (int word = 0; word < 15; word++) {
+                description.append(" termo").append(skewed(random, VOCABULARY_SIZE));
+            }
+            catalog.add(ProductInfo.builder()
+                    .id(String.format("%024x", i))
+                    .name(type + " " + brand + " Modelo" + i + " " + storage + " " + color)
+                    .description(description.toString())
+                    .price(BigDecimal.valueOf(100 + random.nextInt(10_000)))
+                    .properties(Map.of("Marca", brand, "Cor", color, "Armazenamento", storage))
+                    .version(0L)
+                    .build());
+        }
+        return catalog;
+    }
+
+    // roughly Zipf distributed: low values are much more frequent than high ones
+    private static int skewed(Random random, int bound) {
+        return (int) Math.min(bound - 1, Math.floor(Math.pow(bound + 1, random.nextDouble()) - 1));
+    }
+}
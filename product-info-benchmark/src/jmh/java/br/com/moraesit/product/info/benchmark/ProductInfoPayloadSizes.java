@@ -0,0 +1,33 @@
+package br.com.moraesit.product.info.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Prints the encoded size of a ProductInfo per content type, raw and gzipped, next to {@link ProductInfoCodecBenchmark}.
+ */
+public final class ProductInfoPayloadSizes {
+
+    private ProductInfoPayloadSizes() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.out.printf("%-8s %8s %10s %10s%n", "format", "props", "bytes", "gzipped");
+        for (int propertyCount : new int[]{10, 100, 1000}) {
+            var productInfo = ProductInfoFixtures.productInfo("d215b5f8-0249-4dc5-89a3-51fd148cfb41", propertyCount);
+            for (ProductInfoCodecFormat format : ProductInfoCodecFormat.values()) {
+                byte[] payload = ProductInfoCodecBenchmark.encode(format.encoder(), productInfo, format);
+                System.out.printf("%-8s %8d %10d %10d%n", format, propertyCount, payload.length, gzipped(payload));
+            }
+        }
+    }
+
+    private static int gzipped(byte[] payload) throws IOException {
+        var out = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(out)) {
+            gzip.write(payload);
+        }
+        return out.size();
+    }
+}
@@ -0,0 +1,101 @@
+package br.com.moraesit.product.info.benchmark;
+
+import br.com.moraesit.product.info.service.codec.ProductInfoBsonCodec;
+import br.com.moraesit.product.info.service.codec.ProductInfoJsonSerializer;
+import br.com.moraesit.product.info.service.codec.PropertyNameDictionary;
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One read as the service performs it: a stored document's BSON bytes decoded to a {@link ProductInfo} and written as
+ * JSON. {@code DOCUMENT} is the mapping converter with the bean serializer, {@code CODEC} is
+ * {@link ProductInfoBsonCodec} with {@link ProductInfoJsonSerializer}.
+ * <p>
+ * Run with {@code -Pjmh.profilers=gc} and compare {@code gc.alloc.rate.norm}, the bytes allocated per read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductInfoReadPathBenchmark {
+
+    public enum ReadPath {
+        DOCUMENT, CODEC
+    }
+
+    @Param({"DOCUMENT", "CODEC"})
+    private ReadPath readPath;
+
+    @Param({"10", "100", "1000"})
+    private int propertyCount;
+
+    // whether the fixture's property names are in the dictionary, as the common ones would be
+    @Param({"false", "true"})
+    private boolean commonNames;
+
+    private byte[] bson;
+    private MappingMongoConverter converter;
+    private DocumentCodec documentCodec;
+    private ObjectMapper beanMapper;
+    private ProductInfoBsonCodec productInfoCodec;
+    private ObjectMapper streamingMapper;
+
+    @Setup
+    public void setUp() {
+        var conversions = new MongoCustomConversions(List.of());
+        var mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        var productInfo = ProductInfoFixtures.productInfo("63d9e0b2f5c1a53f2c9b7e11", propertyCount);
+        productInfo.setVersion(3L);
+        var document = new Document();
+        converter.write(productInfo, document);
+        documentCodec = new DocumentCodec();
+        var buffer = new BasicOutputBuffer();
+        documentCodec.encode(new BsonBinaryWriter(buffer), document, EncoderContext.builder().build());
+        bson = buffer.toByteArray();
+
+        var names = commonNames ? PropertyNameDictionary.of(productInfo.getProperties().keySet()) : PropertyNameDictionary.empty();
+        beanMapper = Jackson2ObjectMapperBuilder.json().build();
+        productInfoCodec = new ProductInfoBsonCodec(MongoClientSettings.getDefaultCodecRegistry(), names);
+        streamingMapper = Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(new SimpleModule().addSerializer(ProductInfo.class, new ProductInfoJsonSerializer(names)))
+                .build();
+    }
+
+    @Benchmark
+    public byte[] read() throws IOException {
+        var reader = new BsonBinaryReader(ByteBuffer.wrap(bson));
+        if (readPath == ReadPath.DOCUMENT) {
+            var document = documentCodec.decode(reader, DecoderContext.builder().build());
+            return beanMapper.writeValueAsBytes(converter.read(ProductInfo.class, document));
+        }
+        return streamingMapper.writeValueAsBytes(productInfoCodec.decode(reader, DecoderContext.builder().build()));
+    }
+}
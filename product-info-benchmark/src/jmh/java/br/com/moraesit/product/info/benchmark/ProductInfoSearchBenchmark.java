@@ -0,0 +1,69 @@
+package br.com.moraesit.product.info.benchmark;
+
+import br.com.moraesit.product.info.service.config.ProductInfoSearchProperties;
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.search.ProductInfoSearchHits;
+import br.com.moraesit.product.info.service.search.ProductInfoSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency of the in-memory search index over a generated catalog, see {@link ProductInfoFixtures#catalog(int)}.
+ * Facet counts are included, so queries that match much of the catalog cost the most.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx6g")
+public class ProductInfoSearchBenchmark {
+    public enum Query {
+        // text and filters of a typical search of each kind
+        RARE_TERM("modelo12345", Map.of()),
+        COMMON_TERMS("smartphone samsung", Map.of()),
+        THREE_TERMS("smartphone samsung 128gb", Map.of()),
+        TERM_AND_FILTER("notebook", Map.of("Cor", "Preto")),
+        FILTER_ONLY(null, Map.of("Marca", "Apple", "Armazenamento", "256GB"));
+
+        private final String text;
+        private final Map<String, String> filters;
+
+        Query(String text, Map<String, String> filters) {
+            this.text = text;
+            this.filters = filters;
+        }
+    }
+
+    @Param({"100000", "1000000"})
+    private int documentCount;
+
+    @Param
+    private Query query;
+
+    private ProductInfoSearchIndex searchIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        searchIndex = build(ProductInfoFixtures.catalog(documentCount));
+    }
+
+    @Benchmark
+    public ProductInfoSearchHits search() {
+        return searchIndex.search(query.text, query.filters, 20);
+    }
+
+    static ProductInfoSearchIndex build(List<ProductInfo> catalog) {
+        var properties = new ProductInfoSearchProperties();
+        properties.setFacetKeys(List.of("Marca", "Cor", "Armazenamento"));
+        var searchIndex = new ProductInfoSearchIndex(properties);
+        for (int from = 0; from < catalog.size(); from += properties.getLoadBatchSize()) {
+            searchIndex.load(catalog.subList(from, Math.min(from + properties.getLoadBatchSize(), catalog.size())));
+        }
+        searchIndex.finishLoading();
+        return searchIndex;
+    }
+}
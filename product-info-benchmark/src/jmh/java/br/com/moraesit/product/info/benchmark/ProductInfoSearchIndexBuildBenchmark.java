@@ -0,0 +1,36 @@
+package br.com.moraesit.product.info.benchmark;
+
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.search.ProductInfoSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How long building the search index takes at startup, without reading the collection. Each iteration is one full
+ * build over the catalog of {@link ProductInfoSearchBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx6g")
+public class ProductInfoSearchIndexBuildBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int documentCount;
+
+    private List<ProductInfo> catalog;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = ProductInfoFixtures.catalog(documentCount);
+    }
+
+    @Benchmark
+    public ProductInfoSearchIndex build() {
+        return ProductInfoSearchBenchmark.build(catalog);
+    }
+}
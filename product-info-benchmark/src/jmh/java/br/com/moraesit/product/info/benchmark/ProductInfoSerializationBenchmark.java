@@ -0,0 +1,42 @@
+package br.com.moraesit.product.info.benchmark;
+
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductInfoSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int propertyCount;
+
+    private ObjectMapper objectMapper;
+    private ProductInfo productInfo;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        productInfo = ProductInfoFixtures.productInfo("d215b5f8-0249-4dc5-89a3-51fd148cfb41", propertyCount);
+        json = objectMapper.writeValueAsBytes(productInfo);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(productInfo);
+    }
+
+    @Benchmark
+    public ProductInfo deserialize() throws IOException {
+        return objectMapper.readValue(json, ProductInfo.class);
+    }
+}
@@ -0,0 +1,96 @@
+package br.com.moraesit.product.info.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The by-id and listing endpoints under each server profile of product-info-service, see the {@code server-*}
+ * profiles in its application.yml. {@code default} is Boot's HTTP/1.1 without compression.
+ * <p>
+ * Each benchmark thread is one client waiting for its response before sending the next, so Throughput is requests
+ * per millisecond at that concurrency and SampleTime gives the latency percentiles. The client speaks h2c with prior
+ * knowledge when the profile enables it and asks for gzip when the profile compresses; bodies are read as bytes, so
+ * decoding them does not blur the difference between profiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(16)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class ProductInfoServerBenchmark {
+    private static final String PRODUCT_INFOS_URL = "/v1/product-infos";
+
+    @Param({"default", "server-h2c", "server-gzip", "server-tuned"})
+    private String profile;
+
+    @Param({"10000"})
+    private int documentCount;
+
+    @Param({"20"})
+    private int propertyCount;
+
+    private EmbeddedProductInfoService embeddedService;
+    private ConnectionProvider connectionProvider;
+    private WebClient webClient;
+    private List<String> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var profiles = "default".equals(profile) ? new String[0] : new String[]{profile};
+        embeddedService = new EmbeddedProductInfoService(WebApplicationType.REACTIVE, documentCount, propertyCount, profiles);
+        ids = embeddedService.getIds();
+
+        var server = embeddedService.getBean(ServerProperties.class);
+        connectionProvider = ConnectionProvider.create("product-info-server-benchmark", 64);
+        var httpClient = HttpClient.create(connectionProvider)
+                .protocol(server.getHttp2().isEnabled() ? HttpProtocol.H2C : HttpProtocol.HTTP11)
+                .compress(server.getCompression().getEnabled())
+                .responseTimeout(Duration.ofSeconds(30));
+        webClient = WebClient.builder()
+                .baseUrl("http://localhost:" + embeddedService.getPort())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(16 * 1024 * 1024))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        connectionProvider.dispose();
+        embeddedService.close();
+    }
+
+    private String randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    @Benchmark
+    public byte[] getProductInfoById() {
+        return webClient.get()
+                .uri(PRODUCT_INFOS_URL + "/{id}", randomId())
+                .retrieve()
+                .bodyToMono(byte[].class)
+                .block();
+    }
+
+    @Benchmark
+    public byte[] getProductInfoPage() {
+        return webClient.get()
+                .uri(PRODUCT_INFOS_URL + "/page?size=50&after={after}", randomId())
+                .retrieve()
+                .bodyToMono(byte[].class)
+                .block();
+    }
+}
@@ -0,0 +1,94 @@
+package br.com.moraesit.product.info.benchmark;
+
+import br.com.moraesit.product.info.service.cache.ProductInfoCache;
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.domain.ProductInfoPage;
+import br.com.moraesit.product.info.service.domain.ProductInfoPageRequest;
+import br.com.moraesit.product.info.service.service.ProductInfoService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProductInfoServiceBenchmark {
+
+    @Param({"10000"})
+    private int documentCount;
+
+    @Param({"20"})
+    private int propertyCount;
+
+    private EmbeddedProductInfoService embeddedService;
+    private ProductInfoService productInfoService;
+    private ProductInfoCache productInfoCache;
+    private List<String> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        embeddedService = new EmbeddedProductInfoService(WebApplicationType.NONE, documentCount, propertyCount);
+        productInfoService = embeddedService.getBean(ProductInfoService.class);
+        productInfoCache = embeddedService.getBean(ProductInfoCache.class);
+        ids = embeddedService.getIds();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        embeddedService.close();
+    }
+
+    private String randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    @Benchmark
+    public ProductInfo getProductInfoByIdCached() {
+        return productInfoService.getProductInfoById(randomId()).block();
+    }
+
+    @Benchmark
+    public ProductInfo getProductInfoByIdUncached() {
+        var id = randomId();
+        productInfoCache.invalidate(id);
+        return productInfoService.getProductInfoById(id).block();
+    }
+
+    @Benchmark
+    public ProductInfoPage getProductInfoPage() {
+        var pageRequest = new ProductInfoPageRequest();
+        pageRequest.setAfter(randomId());
+        pageRequest.setSize(50);
+        return productInfoService.getProductInfoPage(pageRequest).block();
+    }
+
+    @Benchmark
+    public ProductInfoPage getProjectedProductInfoPage() {
+        var pageRequest = new ProductInfoPageRequest();
+        pageRequest.setAfter(randomId());
+        pageRequest.setSize(50);
+        pageRequest.setFields(List.of("id", "name", "price"));
+        return productInfoService.getProductInfoPage(pageRequest).block();
+    }
+
+    @Benchmark
+    public ProductInfo patchProductInfoPrice() {
+        var patch = ProductInfo.builder()
+                .price(BigDecimal.valueOf(ThreadLocalRandom.current().nextInt(100_000), 2))
+                .build();
+        return productInfoService.patchProductInfo(randomId(), patch).block();
+    }
+
+    @Benchmark
+    public ProductInfo updateProductInfo() {
+        var id = randomId();
+        return productInfoService.updateProductInfo(id, ProductInfoFixtures.productInfo(id, propertyCount)).block();
+    }
+}
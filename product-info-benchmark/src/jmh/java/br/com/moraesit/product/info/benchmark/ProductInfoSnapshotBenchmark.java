@@ -0,0 +1,117 @@
+package br.com.moraesit.product.info.benchmark;
+
+import br.com.moraesit.product.info.service.codec.ProductInfoBsonCodec;
+import br.com.moraesit.product.info.service.codec.PropertyNameDictionary;
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.snapshot.ProductInfoSnapshotExporter;
+import br.com.moraesit.product.info.service.snapshot.ProductInfoSnapshotImporter;
+import br.com.moraesit.product.info.service.snapshot.ProductInfoSnapshotSummary;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import org.bson.RawBsonDocument;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cloning a generated catalog, see {@link ProductInfoFixtures#catalog(int)}, through a snapshot file. Each iteration is
+ * one full export or import: {@code export} chunks, compresses and writes the documents, {@code read} inflates and
+ * checks every chunk without writing them anywhere, and {@code importIntoMongo} inserts them into an emptied
+ * collection of embedded Mongo. The snapshot size is printed once it is written.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx6g")
+public class ProductInfoSnapshotBenchmark {
+
+    @Param({"1000000"})
+    private int documentCount;
+
+    private List<RawBsonDocument> documents;
+    private Path directory;
+    private Path snapshot;
+    private ProductInfoSnapshotExporter exporter;
+    private ProductInfoSnapshotImporter importer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        var codec = new ProductInfoBsonCodec(MongoClientSettings.getDefaultCodecRegistry(),
+                PropertyNameDictionary.of(List.of("Marca", "Cor", "Armazenamento")));
+        var lastModified = Instant.now();
+        documents = new ArrayList<>(documentCount);
+        for (ProductInfo productInfo : ProductInfoFixtures.catalog(documentCount)) {
+            productInfo.setLastModified(lastModified);
+            documents.add(new RawBsonDocument(productInfo, codec));
+        }
+
+        directory = Files.createTempDirectory("product-info-snapshot");
+        snapshot = directory.resolve("catalog.snapshot");
+        exporter = new ProductInfoSnapshotExporter(ProductInfoSnapshotExporter.DEFAULT_CHUNK_SIZE,
+                ProductInfoSnapshotExporter.DEFAULT_LEVEL, Runtime.getRuntime().availableProcessors(), Schedulers.parallel(),
+                Schedulers.boundedElastic());
+        importer = new ProductInfoSnapshotImporter(8, 1000, Schedulers.boundedElastic());
+        var summary = exporter.export(Flux.fromIterable(documents), snapshot).block();
+        long raw = documents.stream().mapToLong(document -> document.getByteBuffer().remaining()).sum();
+        System.out.printf("%n%d documents, %d MiB of BSON in a %d MiB snapshot of %d chunks%n", summary.getDocuments(),
+                raw >> 20, summary.getBytes() >> 20, summary.getChunks());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(snapshot);
+        Files.deleteIfExists(directory.resolve("exported.snapshot"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public ProductInfoSnapshotSummary export() {
+        return exporter.export(Flux.fromIterable(documents), directory.resolve("exported.snapshot")).block();
+    }
+
+    @Benchmark
+    public ProductInfoSnapshotSummary read() {
+        return importer.importSnapshot(snapshot, null, batch -> Mono.just((long) batch.size())).block();
+    }
+
+    @State(Scope.Benchmark)
+    public static class EmbeddedMongo {
+        private EmbeddedProductInfoService service;
+        private MongoCollection<RawBsonDocument> collection;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            service = new EmbeddedProductInfoService(WebApplicationType.NONE, 0, 0);
+            var template = service.getBean(ReactiveMongoTemplate.class);
+            collection = template.getCollection("productInfoSnapshot").block().withDocumentClass(RawBsonDocument.class);
+        }
+
+        @Setup(Level.Invocation)
+        public void empty() {
+            Mono.from(collection.drop()).block();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            service.close();
+        }
+    }
+
+    @Benchmark
+    public ProductInfoSnapshotSummary importIntoMongo(EmbeddedMongo mongo) {
+        return importer.importSnapshot(snapshot, null, ProductInfoSnapshotImporter.insert(mongo.collection)).block();
+    }
+}
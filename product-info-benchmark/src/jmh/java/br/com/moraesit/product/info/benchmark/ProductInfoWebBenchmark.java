@@ -0,0 +1,91 @@
+package br.com.moraesit.product.info.benchmark;
+
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.domain.ProductInfoPage;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProductInfoWebBenchmark {
+    private static final String PRODUCT_INFOS_URL = "/v1/product-infos";
+
+    @Param({"10000"})
+    private int documentCount;
+
+    @Param({"20"})
+    private int propertyCount;
+
+    private EmbeddedProductInfoService embeddedService;
+    private WebTestClient webTestClient;
+    private List<String> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        embeddedService = new EmbeddedProductInfoService(WebApplicationType.REACTIVE, documentCount, propertyCount);
+        webTestClient = WebTestClient.bindToServer()
+                .baseUrl("http://localhost:" + embeddedService.getPort())
+                .responseTimeout(Duration.ofSeconds(30))
+                .build();
+        ids = embeddedService.getIds();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        embeddedService.close();
+    }
+
+    private String randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    @Benchmark
+    public ProductInfo getProductInfoById() {
+        return webTestClient.get()
+                .uri(PRODUCT_INFOS_URL + "/{id}", randomId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductInfo.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @Benchmark
+    public ProductInfoPage getProductInfoPage() {
+        return webTestClient.get()
+                .uri(PRODUCT_INFOS_URL + "/page?size=50&after={after}", randomId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductInfoPage.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @Benchmark
+    public ProductInfo patchProductInfoPrice() {
+        var patch = ProductInfo.builder()
+                .price(BigDecimal.valueOf(ThreadLocalRandom.current().nextInt(100_000), 2))
+                .build();
+        return webTestClient.patch()
+                .uri(PRODUCT_INFOS_URL + "/{id}", randomId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(patch)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductInfo.class)
+                .returnResult()
+                .getResponseBody();
+    }
+}
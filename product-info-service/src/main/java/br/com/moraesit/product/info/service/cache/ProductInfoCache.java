@@ -0,0 +1,71 @@
+package br.com.moraesit.product.info.service.cache;
+
+import br.com.moraesit.product.info.service.config.ProductInfoCacheProperties;
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Read-through cache for {@link ProductInfo} lookups by id.
+ * <p>
+ * Concurrent misses for the same id share the same in-flight load, and a load that
+ * completes empty or with an error is not retained.
+ */
+public class ProductInfoCache {
+    private final boolean enabled;
+    private final AsyncCache<String, ProductInfo> cache;
+
+    public ProductInfoCache(ProductInfoCacheProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .buildAsync();
+    }
+
+    public Mono<ProductInfo> get(String id, Function<String, Mono<ProductInfo>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        // copy() so that a cancelled caller does not cancel the load shared with other callers
+        return Mono.fromFuture(() -> cache.get(id, (key, executor) -> loader.apply(key).toFuture()).copy());
+    }
+
+    /**
+     * The cached value if its load has already completed, without triggering or waiting for one.
+     */
+    public ProductInfo getIfPresent(String id) {
+        if (!enabled) {
+            return null;
+        }
+        var future = cache.getIfPresent(id);
+        if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+            return null;
+        }
+        return future.join();
+    }
+
+    public void put(ProductInfo productInfo) {
+        if (enabled && productInfo.getId() != null) {
+            cache.put(productInfo.getId(), CompletableFuture.completedFuture(productInfo));
+        }
+    }
+
+    public void invalidate(String id) {
+        cache.synchronous().invalidate(id);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    public Cache<String, ProductInfo> asCache() {
+        return cache.synchronous();
+    }
+}
@@ -0,0 +1,201 @@
+package br.com.moraesit.product.info.service.catalog;
+
+import org.bson.BsonSerializationException;
+import org.bson.BsonType;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads single top-level fields straight out of an encoded BSON document, for the few fields the catalog needs
+ * without decoding the whole product.
+ */
+final class BsonRecords {
+    static final byte[] ID = utf8("_id");
+    static final byte[] NAME = utf8("name");
+    static final byte[] PRICE = utf8("price");
+    static final byte[] VERSION = utf8("version");
+    static final byte[] LAST_MODIFIED = utf8("lastModified");
+
+    private BsonRecords() {
+    }
+
+    // the offset of the type byte of the named field, or -1 when the document does not have it
+    static int find(byte[] bson, int offset, byte[] name) {
+        int end = offset + readInt32(bson, offset) - 1;
+        int position = offset + 4;
+        while (position < end) {
+            byte type = bson[position];
+            int nameStart = position + 1;
+            int nameEnd = nameStart;
+            while (bson[nameEnd] != 0) {
+                nameEnd++;
+            }
+            if (nameEnd - nameStart == name.length && equals(bson, nameStart, name)) {
+                return position;
+            }
+            position = valueEnd(type, bson, nameEnd + 1);
+        }
+        return -1;
+    }
+
+    static int valueOffset(byte[] bson, int field) {
+        int position = field + 1;
+        while (bson[position] != 0) {
+            position++;
+        }
+        return position + 1;
+    }
+
+    static String readId(byte[] bson, int offset) {
+        int field = find(bson, offset, ID);
+        if (field < 0) {
+            return null;
+        }
+        int value = valueOffset(bson, field);
+        switch (BsonType.findByValue(bson[field])) {
+            case OBJECT_ID:
+                return new ObjectId(ByteBuffer.wrap(bson, value, 12)).toHexString();
+            case STRING:
+                return new String(bson, value + 4, readInt32(bson, value) - 1, StandardCharsets.UTF_8);
+            default:
+                throw new BsonSerializationException("Unsupported product info _id type " + bson[field]);
+        }
+    }
+
+    // Long.MIN_VALUE when the document has no date under that name
+    static long readDateTime(byte[] bson, int offset, byte[] name) {
+        int field = find(bson, offset, name);
+        if (field < 0 || bson[field] != BsonType.DATE_TIME.getValue()) {
+            return Long.MIN_VALUE;
+        }
+        return readInt64(bson, valueOffset(bson, field));
+    }
+
+    // Long.MIN_VALUE when the document has no version
+    static long readVersion(byte[] bson, int offset) {
+        int field = find(bson, offset, VERSION);
+        if (field < 0) {
+            return Long.MIN_VALUE;
+        }
+        int value = valueOffset(bson, field);
+        if (bson[field] == BsonType.INT64.getValue()) {
+            return readInt64(bson, value);
+        }
+        return bson[field] == BsonType.INT32.getValue() ? readInt32(bson, value) : Long.MIN_VALUE;
+    }
+
+    static BigDecimal readDecimal(byte[] bson, int offset, byte[] name) {
+        int field = find(bson, offset, name);
+        if (field < 0) {
+            return null;
+        }
+        int value = valueOffset(bson, field);
+        switch (BsonType.findByValue(bson[field])) {
+            case DECIMAL128:
+                return Decimal128.fromIEEE754BIDEncoding(readInt64(bson, value + 8), readInt64(bson, value)).bigDecimalValue();
+            case DOUBLE:
+                return BigDecimal.valueOf(Double.longBitsToDouble(readInt64(bson, value)));
+            case INT32:
+                return BigDecimal.valueOf(readInt32(bson, value));
+            case INT64:
+                return BigDecimal.valueOf(readInt64(bson, value));
+            default:
+                return null;
+        }
+    }
+
+    static boolean startsWith(byte[] bson, int offset, byte[] name, byte[] prefix) {
+        int field = find(bson, offset, name);
+        if (field < 0 || bson[field] != BsonType.STRING.getValue()) {
+            return false;
+        }
+        int value = valueOffset(bson, field);
+        return readInt32(bson, value) - 1 >= prefix.length && equals(bson, value + 4, prefix);
+    }
+
+    static int compare(byte[] left, int leftOffset, int leftLength, byte[] right, int rightOffset, int rightLength) {
+        return Arrays.compareUnsigned(left, leftOffset, leftOffset + leftLength, right, rightOffset, rightOffset + rightLength);
+    }
+
+    static int readInt32(byte[] bson, int offset) {
+        return (bson[offset] & 0xff)
+                | (bson[offset + 1] & 0xff) << 8
+                | (bson[offset + 2] & 0xff) << 16
+                | (bson[offset + 3] & 0xff) << 24;
+    }
+
+    static long readInt64(byte[] bson, int offset) {
+        return (readInt32(bson, offset) & 0xffffffffL) | (long) readInt32(bson, offset + 4) << 32;
+    }
+
+    static void writeInt32(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >>> 8);
+        bytes[offset + 2] = (byte) (value >>> 16);
+        bytes[offset + 3] = (byte) (value >>> 24);
+    }
+
+    static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static boolean equals(byte[] bson, int offset, byte[] expected) {
+        for (int i = 0; i < expected.length; i++) {
+            if (bson[offset + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int valueEnd(byte type, byte[] bson, int offset) {
+        switch (BsonType.findByValue(type)) {
+            case DOUBLE:
+            case DATE_TIME:
+            case TIMESTAMP:
+            case INT64:
+                return offset + 8;
+            case STRING:
+            case JAVASCRIPT:
+            case SYMBOL:
+                return offset + 4 + readInt32(bson, offset);
+            case DOCUMENT:
+            case ARRAY:
+            case JAVASCRIPT_WITH_SCOPE:
+                return offset + readInt32(bson, offset);
+            case BINARY:
+                return offset + 4 + 1 + readInt32(bson, offset);
+            case OBJECT_ID:
+                return offset + 12;
+            case BOOLEAN:
+                return offset + 1;
+            case INT32:
+                return offset + 4;
+            case DECIMAL128:
+                return offset + 16;
+            case UNDEFINED:
+            case NULL:
+            case MIN_KEY:
+            case MAX_KEY:
+                return offset;
+            case REGULAR_EXPRESSION:
+                return cStringEnd(bson, cStringEnd(bson, offset));
+            case DB_POINTER:
+                return offset + 4 + readInt32(bson, offset) + 12;
+            default:
+                throw new BsonSerializationException("Unexpected BSON type " + type + " in product info");
+        }
+    }
+
+    private static int cStringEnd(byte[] bson, int offset) {
+        while (bson[offset] != 0) {
+            offset++;
+        }
+        return offset + 1;
+    }
+}
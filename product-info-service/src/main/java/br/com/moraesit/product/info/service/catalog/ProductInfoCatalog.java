@@ -0,0 +1,793 @@
+package br.com.moraesit.product.info.service.catalog;
+
+import br.com.moraesit.product.info.service.codec.ProductInfoBsonCodec;
+import br.com.moraesit.product.info.service.config.ProductInfoServingProperties;
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.domain.ProductInfoCatalogRevision;
+import br.com.moraesit.product.info.service.domain.ProductInfoPageRequest;
+import br.com.moraesit.product.info.service.domain.ProductInfoRevision;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.IntBinaryOperator;
+
+import static br.com.moraesit.product.info.service.catalog.BsonRecords.LAST_MODIFIED;
+import static br.com.moraesit.product.info.service.catalog.BsonRecords.NAME;
+import static br.com.moraesit.product.info.service.catalog.BsonRecords.PRICE;
+import static br.com.moraesit.product.info.service.catalog.BsonRecords.readDateTime;
+import static br.com.moraesit.product.info.service.catalog.BsonRecords.readInt32;
+import static br.com.moraesit.product.info.service.catalog.BsonRecords.readVersion;
+
+/**
+ * Product infos kept in memory as the BSON documents Mongo returns, packed back to back into 1 MiB pages, so millions
+ * of products are a few hundred large arrays rather than millions of objects and maps. An open addressing table from
+ * id to record finds a product without taking a lock, and a {@link ProductInfo} is only decoded for the products a
+ * request returns.
+ * <p>
+ * Writers are serialized. A replaced or removed record stays in its page, where a reader may still be looking at it,
+ * until there is enough of them to copy the live records into new pages. Removed ids keep their slot until then, and
+ * the lastModified and version of what they held after it, so an older copy of a product removed here is not brought
+ * back by a late sync. The sync forgets them once what it reads can no longer be that old.
+ */
+public class ProductInfoCatalog {
+    static final int PAGE_SIZE = 1 << 20;
+    private static final int MAX_PAGES = 1 << 16;
+    private static final int MIN_CAPACITY = 1 << 10;
+    private static final long MIN_COMPACTION_GARBAGE = 64L * PAGE_SIZE;
+    private static final int[] NO_SLOTS = new int[0];
+    private static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+
+    private final boolean enabled;
+    private final ProductInfoBsonCodec codec;
+    private final long minCompactionGarbage;
+    private volatile Table table;
+    private volatile Order order;
+    private volatile boolean loaded;
+    private volatile int size;
+    private volatile long memoryBytes;
+    // a different one per catalog, so two catalogs never hand out the same revision for different contents
+    private final String revisionSource = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private volatile long modifications;
+
+    // guarded by this
+    private int pageCount;
+    private int currentPage = -1;
+    private int position;
+    private long pageBytes;
+    private long garbageBytes;
+    private int usedSlots;
+    // slots taken since the table was built, in the order they were taken
+    private int[] recent = new int[64];
+    private int recentCount;
+    // ids a rebuild dropped the removed slot of
+    private final Map<String, Removed> removedIds = new HashMap<>();
+
+    public ProductInfoCatalog(ProductInfoServingProperties properties, ProductInfoBsonCodec codec) {
+        this(properties.getMode() == ProductInfoServingProperties.Mode.MEMORY, codec, MIN_COMPACTION_GARBAGE);
+    }
+
+    ProductInfoCatalog(boolean enabled, ProductInfoBsonCodec codec, long minCompactionGarbage) {
+        this.enabled = enabled;
+        this.codec = codec;
+        this.minCompactionGarbage = minCompactionGarbage;
+        this.table = new Table(new AtomicLongArray(MIN_CAPACITY), new byte[enabled ? MAX_PAGES : 0][]);
+        this.memoryBytes = MIN_CAPACITY * 8L;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // reads are answered here once the first full load is done
+    public boolean isServing() {
+        return enabled && loaded;
+    }
+
+    public void finishLoading() {
+        loaded = true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long memoryBytes() {
+        return memoryBytes;
+    }
+
+    public void put(ProductInfo productInfo) {
+        if (!enabled) {
+            return;
+        }
+        var buffer = new BasicOutputBuffer();
+        try (var writer = new BsonBinaryWriter(buffer)) {
+            codec.encode(writer, productInfo, EncoderContext.builder().build());
+        }
+        put(buffer.getInternalBuffer(), 0, buffer.getPosition());
+    }
+
+    /**
+     * Stores the document unless the catalog has a newer copy of it, by lastModified and then version. Documents
+     * without a lastModified always replace what is stored, and are always replaced.
+     */
+    public boolean put(byte[] document, int offset, int length) {
+        if (!enabled) {
+            return false;
+        }
+        var id = BsonRecords.readId(document, offset);
+        if (id == null) {
+            throw new IllegalArgumentException("Product info without an _id");
+        }
+        var idBytes = id.getBytes(StandardCharsets.UTF_8);
+        long modified = readDateTime(document, offset, LAST_MODIFIED);
+        long version = readVersion(document, offset);
+        int hash = hash(id);
+
+        synchronized (this) {
+            if (usedSlots + 1 > table.slots.length() / 3 * 2) {
+                rebuild(false);
+            }
+            var current = table;
+            int index = indexOf(current, id, hash);
+            long previous = index < 0 ? 0 : current.slots.get(index);
+            if (previous == 0 && !removedIds.isEmpty()) {
+                var removed = removedIds.get(id);
+                if (removed != null) {
+                    if (!isNewer(modified, version, removed.modified, removed.version)) {
+                        return false;
+                    }
+                    removedIds.remove(id);
+                }
+            }
+            if (previous != 0) {
+                long location = Math.abs(previous) - 1;
+                var page = current.page(location);
+                if (!isNewer(modified, version, page, documentOffset(page, location))) {
+                    return false;
+                }
+                garbageBytes += recordLength(page, location);
+            }
+            long location = allocate(current.pages, 4 + idBytes.length + length);
+            var page = current.page(location);
+            int at = (int) location;
+            BsonRecords.writeInt32(page, at, idBytes.length);
+            System.arraycopy(idBytes, 0, page, at + 4, idBytes.length);
+            System.arraycopy(document, offset, page, at + 4 + idBytes.length, length);
+            if (index < 0) {
+                index = ~index;
+                usedSlots++;
+                addRecent(index);
+            }
+            current.slots.set(index, location + 1);
+            if (previous <= 0) {
+                size++;
+            }
+            modifications++;
+            compactIfWasteful();
+            return true;
+        }
+    }
+
+    public boolean remove(String id) {
+        if (!enabled) {
+            return false;
+        }
+        int hash = hash(id);
+        synchronized (this) {
+            var current = table;
+            int index = indexOf(current, id, hash);
+            if (index < 0) {
+                return false;
+            }
+            long slot = current.slots.get(index);
+            if (slot < 0) {
+                return false;
+            }
+            removeSlot(current, index, slot);
+            compactIfWasteful();
+            return true;
+        }
+    }
+
+    public ProductInfo get(String id) {
+        var current = table;
+        int index = indexOf(current, id, hash(id));
+        if (index < 0) {
+            return null;
+        }
+        long slot = current.slots.get(index);
+        if (slot <= 0) {
+            return null;
+        }
+        var page = current.page(slot - 1);
+        return decode(page, documentOffset(page, slot - 1));
+    }
+
+    public ProductInfoRevision getRevision(String id) {
+        var current = table;
+        int index = indexOf(current, id, hash(id));
+        if (index < 0) {
+            return null;
+        }
+        long slot = current.slots.get(index);
+        if (slot <= 0) {
+            return null;
+        }
+        var page = current.page(slot - 1);
+        int document = documentOffset(page, slot - 1);
+        long version = readVersion(page, document);
+        long modified = readDateTime(page, document, LAST_MODIFIED);
+        return new ProductInfoRevision(id, version == Long.MIN_VALUE ? null : version,
+                modified == Long.MIN_VALUE ? null : Instant.ofEpochMilli(modified));
+    }
+
+    public ProductInfoCatalogRevision getCatalogRevision() {
+        return new ProductInfoCatalogRevision(revisionSource, modifications);
+    }
+
+    // every product, in no particular order, decoded as the iteration reaches it
+    public Iterable<ProductInfo> all() {
+        return () -> new Records(table);
+    }
+
+    /**
+     * The same page {@code findPage} returns from Mongo: products by id after {@code after}, filtered and projected
+     * in memory. Filters are checked on the stored bytes, so only the products returned are decoded.
+     */
+    public List<ProductInfo> findPage(ProductInfoPageRequest pageRequest, int limit) {
+        var after = pageRequest.getAfter() == null ? null : pageRequest.getAfter().getBytes(StandardCharsets.UTF_8);
+        var namePrefix = pageRequest.getNamePrefix() == null || pageRequest.getNamePrefix().isEmpty()
+                ? null
+                : pageRequest.getNamePrefix().getBytes(StandardCharsets.UTF_8);
+        var sortedOrder = order();
+        var current = sortedOrder.table;
+        var sorted = sortedOrder.sorted;
+        var recentlySorted = sortedOrder.recent;
+
+        int i = after == null ? 0 : firstAfter(current, sorted, after);
+        int j = after == null ? 0 : firstAfter(current, recentlySorted, after);
+        var productInfos = new ArrayList<ProductInfo>(Math.min(limit, 64));
+        while (productInfos.size() < limit && (i < sorted.length || j < recentlySorted.length)) {
+            int index = j >= recentlySorted.length || i < sorted.length && compareIds(current, sorted[i], recentlySorted[j]) < 0
+                    ? sorted[i++]
+                    : recentlySorted[j++];
+            long slot = current.slots.get(index);
+            if (slot <= 0) {
+                continue;
+            }
+            var page = current.page(slot - 1);
+            int document = documentOffset(page, slot - 1);
+            if (matches(page, document, pageRequest, namePrefix)) {
+                productInfos.add(project(decode(page, document), pageRequest.getFields()));
+            }
+        }
+        return productInfos;
+    }
+
+    // sorts the ids written since the last page request ahead of the next one, so it does not pay for it
+    public void prepareOrder() {
+        if (enabled) {
+            order();
+        }
+    }
+
+    /**
+     * Starts looking for products removed from Mongo by someone else: mark every id Mongo still has, then
+     * {@link Sweep#finish(Instant, Consumer)} removes the rest.
+     */
+    public synchronized Sweep startSweep() {
+        return new Sweep(table);
+    }
+
+    public final class Sweep {
+        private final Table sweptTable;
+        private final BitSet seen = new BitSet();
+
+        private Sweep(Table sweptTable) {
+            this.sweptTable = sweptTable;
+        }
+
+        public void mark(String id) {
+            int index = indexOf(sweptTable, id, hash(id));
+            if (index >= 0) {
+                seen.set(index);
+            }
+        }
+
+        /**
+         * Removes the products that were not marked, unless modified at or after {@code keepModifiedSince}, which
+         * should be before the sweep started reading from Mongo. Products stored without a lastModified are kept: the
+         * next sync brings them with one. Each removed id is handed to {@code removed}. Returns how many were removed,
+         * or -1 when the catalog was rebuilt in the meantime and the sweep has to start over.
+         */
+        public int finish(Instant keepModifiedSince, Consumer<String> removed) {
+            long keep = keepModifiedSince.toEpochMilli();
+            synchronized (ProductInfoCatalog.this) {
+                if (sweptTable != table) {
+                    return -1;
+                }
+                int count = 0;
+                for (int index = 0; index < sweptTable.slots.length(); index++) {
+                    long slot = sweptTable.slots.get(index);
+                    if (slot <= 0 || seen.get(index)) {
+                        continue;
+                    }
+                    var page = sweptTable.page(slot - 1);
+                    long modified = readDateTime(page, documentOffset(page, slot - 1), LAST_MODIFIED);
+                    if (modified != Long.MIN_VALUE && modified < keep) {
+                        removeSlot(sweptTable, index, slot);
+                        removed.accept(recordId(page, slot - 1));
+                        count++;
+                    }
+                }
+                compactIfWasteful();
+                return count;
+            }
+        }
+    }
+
+    /**
+     * Forgets the ids removed before the last rebuild whose removed copy was modified before {@code modifiedBefore},
+     * once nothing the sync reads can be older than that.
+     */
+    public synchronized void forgetRemovedBefore(Instant modifiedBefore) {
+        long before = modifiedBefore.toEpochMilli();
+        removedIds.values().removeIf(removed -> removed.modified < before);
+    }
+
+    private void removeSlot(Table current, int index, long slot) {
+        current.slots.set(index, -slot);
+        size--;
+        modifications++;
+        garbageBytes += recordLength(current.page(slot - 1), slot - 1);
+    }
+
+    private ProductInfo decode(byte[] page, int document) {
+        var bson = ByteBuffer.wrap(page, document, readInt32(page, document)).slice();
+        return codec.decode(new BsonBinaryReader(bson), DECODER_CONTEXT);
+    }
+
+    private void compactIfWasteful() {
+        if (garbageBytes >= minCompactionGarbage && garbageBytes * 2 >= pageBytes) {
+            rebuild(true);
+        }
+    }
+
+    // a new table sized for the live records, moving removed ids to removedIds; compacting also copies the live records
+    // into new pages, leaving the old ones to the readers still on them
+    private void rebuild(boolean compact) {
+        var old = table;
+        var pages = old.pages;
+        if (compact) {
+            pages = new byte[MAX_PAGES][];
+            pageCount = 0;
+            currentPage = -1;
+            position = 0;
+            pageBytes = 0;
+            garbageBytes = 0;
+        }
+        int capacity = MIN_CAPACITY;
+        while (capacity < size * 3L) {
+            capacity <<= 1;
+        }
+        var rebuilt = new Table(new AtomicLongArray(capacity), pages);
+        int mask = capacity - 1;
+        for (int index = 0; index < old.slots.length(); index++) {
+            long slot = old.slots.get(index);
+            if (slot < 0) {
+                keepRemoved(old.page(-slot - 1), -slot - 1);
+            }
+            if (slot <= 0) {
+                continue;
+            }
+            long location = slot - 1;
+            var page = old.page(location);
+            if (compact) {
+                int length = recordLength(page, location);
+                location = allocate(pages, length);
+                System.arraycopy(page, (int) (slot - 1), rebuilt.page(location), (int) location, length);
+            }
+            int i = hash(page, (int) (slot - 1)) & mask;
+            while (rebuilt.slots.get(i) != 0) {
+                i = (i + 1) & mask;
+            }
+            rebuilt.slots.set(i, location + 1);
+        }
+        usedSlots = size;
+        recentCount = 0;
+        order = null;
+        table = rebuilt;
+        memoryBytes = pageBytes + capacity * 8L;
+    }
+
+    // a copy without a lastModified is replaced by anything, so there is nothing to keep for it
+    private void keepRemoved(byte[] page, long location) {
+        int document = documentOffset(page, location);
+        long modified = readDateTime(page, document, LAST_MODIFIED);
+        if (modified != Long.MIN_VALUE) {
+            removedIds.put(recordId(page, location), new Removed(modified, readVersion(page, document)));
+        }
+    }
+
+    private long allocate(byte[][] pages, int length) {
+        if (length > PAGE_SIZE) {
+            // a document bigger than a page gets one of its own
+            return (long) newPage(pages, length) << 32;
+        }
+        if (currentPage < 0 || position + length > PAGE_SIZE) {
+            currentPage = newPage(pages, PAGE_SIZE);
+            position = 0;
+        }
+        long location = (long) currentPage << 32 | position;
+        position += length;
+        return location;
+    }
+
+    private int newPage(byte[][] pages, int length) {
+        if (pageCount == MAX_PAGES) {
+            throw new IllegalStateException("The product info catalog has no pages left");
+        }
+        pages[pageCount] = new byte[length];
+        pageBytes += length;
+        memoryBytes = pageBytes + table.slots.length() * 8L;
+        return pageCount++;
+    }
+
+    private void addRecent(int index) {
+        if (recentCount == recent.length) {
+            recent = Arrays.copyOf(recent, recentCount * 2);
+        }
+        recent[recentCount++] = index;
+    }
+
+    // the slots of the table sorted by id: a full sort now and then, plus the ids added since sorted on their own
+    private Order order() {
+        var previous = order;
+        Table current;
+        int[] slots;
+        int covered;
+        boolean full;
+        synchronized (this) {
+            current = table;
+            if (previous != null && previous.table == current && previous.covered == recentCount) {
+                return previous;
+            }
+            full = previous == null || previous.table != current
+                    || recentCount - previous.sortedCovered > 1024 + previous.sorted.length / 16;
+            if (full) {
+                slots = new int[usedSlots];
+                int taken = 0;
+                for (int index = 0; index < current.slots.length(); index++) {
+                    if (current.slots.get(index) != 0) {
+                        slots[taken++] = index;
+                    }
+                }
+            } else {
+                slots = Arrays.copyOfRange(recent, previous.sortedCovered, recentCount);
+            }
+            covered = recentCount;
+        }
+        // a slot only ever holds one id, so they can be sorted while writers go on
+        sortById(current, slots);
+        var sorted = full
+                ? new Order(current, slots, covered, NO_SLOTS, covered)
+                : new Order(current, previous.sorted, previous.sortedCovered, slots, covered);
+        order = sorted;
+        return sorted;
+    }
+
+    private static void sortById(Table table, int[] slots) {
+        int count = slots.length;
+        // the first 16 bytes of each id settle nearly every comparison without going back to the pages
+        var high = new long[count];
+        var low = new long[count];
+        for (int k = 0; k < count; k++) {
+            long location = Math.abs(table.slots.get(slots[k])) - 1;
+            var page = table.page(location);
+            int at = (int) location;
+            int length = readInt32(page, at);
+            high[k] = prefix(page, at + 4, length);
+            low[k] = length > 8 ? prefix(page, at + 12, length - 8) : 0;
+        }
+        IntBinaryOperator comparator = (left, right) -> {
+            int compared = Long.compareUnsigned(high[left], high[right]);
+            if (compared == 0) {
+                compared = Long.compareUnsigned(low[left], low[right]);
+            }
+            return compared != 0 ? compared : compareIds(table, slots[left], slots[right]);
+        };
+        var positions = new int[count];
+        for (int k = 0; k < count; k++) {
+            positions[k] = k;
+        }
+        mergeSort(positions.clone(), positions, 0, count, comparator);
+        var sorted = new int[count];
+        for (int k = 0; k < count; k++) {
+            sorted[k] = slots[positions[k]];
+        }
+        System.arraycopy(sorted, 0, slots, 0, count);
+    }
+
+    private static void mergeSort(int[] source, int[] target, int from, int to, IntBinaryOperator comparator) {
+        if (to - from < 16) {
+            for (int i = from + 1; i < to; i++) {
+                for (int k = i; k > from && comparator.applyAsInt(target[k - 1], target[k]) > 0; k--) {
+                    int swapped = target[k];
+                    target[k] = target[k - 1];
+                    target[k - 1] = swapped;
+                }
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(target, source, from, middle, comparator);
+        mergeSort(target, source, middle, to, comparator);
+        for (int k = from, left = from, right = middle; k < to; k++) {
+            if (right >= to || left < middle && comparator.applyAsInt(source[left], source[right]) <= 0) {
+                target[k] = source[left++];
+            } else {
+                target[k] = source[right++];
+            }
+        }
+    }
+
+    private static long prefix(byte[] page, int offset, int length) {
+        long prefix = 0;
+        for (int i = 0; i < 8; i++) {
+            prefix = prefix << 8 | (i < length ? page[offset + i] & 0xff : 0);
+        }
+        return prefix;
+    }
+
+    private static int firstAfter(Table table, int[] sorted, byte[] after) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            long location = Math.abs(table.slots.get(sorted[middle])) - 1;
+            var page = table.page(location);
+            int at = (int) location;
+            if (BsonRecords.compare(page, at + 4, readInt32(page, at), after, 0, after.length) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int compareIds(Table table, int leftIndex, int rightIndex) {
+        long left = Math.abs(table.slots.get(leftIndex)) - 1;
+        long right = Math.abs(table.slots.get(rightIndex)) - 1;
+        var leftPage = table.page(left);
+        var rightPage = table.page(right);
+        return BsonRecords.compare(leftPage, (int) left + 4, readInt32(leftPage, (int) left),
+                rightPage, (int) right + 4, readInt32(rightPage, (int) right));
+    }
+
+    private static boolean matches(byte[] page, int document, ProductInfoPageRequest pageRequest, byte[] namePrefix) {
+        if (pageRequest.getMinPrice() != null || pageRequest.getMaxPrice() != null) {
+            BigDecimal price = BsonRecords.readDecimal(page, document, PRICE);
+            if (price == null
+                    || pageRequest.getMinPrice() != null && price.compareTo(pageRequest.getMinPrice()) < 0
+                    || pageRequest.getMaxPrice() != null && price.compareTo(pageRequest.getMaxPrice()) > 0) {
+                return false;
+            }
+        }
+        return namePrefix == null || BsonRecords.startsWith(page, document, NAME, namePrefix);
+    }
+
+    // what an inclusion projection returns from Mongo: the id and the listed fields only
+    private static ProductInfo project(ProductInfo productInfo, List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return productInfo;
+        }
+        String name = null;
+        String description = null;
+        BigDecimal price = null;
+        Map<String, Object> properties = null;
+        for (String field : fields) {
+            switch (field) {
+                case "name":
+                    name = productInfo.getName();
+                    break;
+                case "description":
+                    description = productInfo.getDescription();
+                    break;
+                case "price":
+                    price = productInfo.getPrice();
+                    break;
+                case "properties":
+                    properties = productInfo.getProperties();
+                    break;
+                default:
+                    if (field.startsWith("properties.") && productInfo.getProperties() != null && properties != productInfo.getProperties()) {
+                        if (properties == null) {
+                            properties = new LinkedHashMap<>();
+                        }
+                        var key = field.substring("properties.".length());
+                        if (productInfo.getProperties().containsKey(key)) {
+                            properties.put(key, productInfo.getProperties().get(key));
+                        }
+                    }
+            }
+        }
+        return new ProductInfo(productInfo.getId(), name, description, price, properties, null, null);
+    }
+
+    private static boolean isNewer(long modified, long version, byte[] page, int document) {
+        return isNewer(modified, version, readDateTime(page, document, LAST_MODIFIED), readVersion(page, document));
+    }
+
+    private static boolean isNewer(long modified, long version, long storedModified, long storedVersion) {
+        if (modified == Long.MIN_VALUE) {
+            return true;
+        }
+        if (storedModified == Long.MIN_VALUE || modified != storedModified) {
+            return modified > storedModified;
+        }
+        return version > storedVersion;
+    }
+
+    // the slot holding id, or the complement of the empty slot it would go into
+    private static int indexOf(Table table, String id, int hash) {
+        int mask = table.slots.length() - 1;
+        for (int index = hash & mask; ; index = (index + 1) & mask) {
+            long slot = table.slots.get(index);
+            if (slot == 0) {
+                return ~index;
+            }
+            long location = Math.abs(slot) - 1;
+            if (idEquals(table.page(location), (int) location, id)) {
+                return index;
+            }
+        }
+    }
+
+    private static boolean idEquals(byte[] page, int record, String id) {
+        int length = readInt32(page, record);
+        for (int i = 0; i < length; i++) {
+            byte b = page[record + 4 + i];
+            if (b < 0) {
+                return new String(page, record + 4, length, StandardCharsets.UTF_8).equals(id);
+            }
+            if (i >= id.length() || id.charAt(i) != b) {
+                return false;
+            }
+        }
+        return length == id.length();
+    }
+
+    private static int hash(String id) {
+        return spread(id.hashCode());
+    }
+
+    // the same hash as the id's String, without creating it for the usual ASCII ids
+    private static int hash(byte[] page, int record) {
+        int length = readInt32(page, record);
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            byte b = page[record + 4 + i];
+            if (b < 0) {
+                return hash(new String(page, record + 4, length, StandardCharsets.UTF_8));
+            }
+            h = 31 * h + b;
+        }
+        return spread(h);
+    }
+
+    private static int spread(int h) {
+        h *= 0x9e3779b9;
+        return h ^ h >>> 16;
+    }
+
+    private static String recordId(byte[] page, long location) {
+        return new String(page, (int) location + 4, readInt32(page, (int) location), StandardCharsets.UTF_8);
+    }
+
+    private static int documentOffset(byte[] page, long location) {
+        return (int) location + 4 + readInt32(page, (int) location);
+    }
+
+    private static int recordLength(byte[] page, long location) {
+        int document = documentOffset(page, location);
+        return document - (int) location + readInt32(page, document);
+    }
+
+    private static final class Table {
+        // location + 1 of each record: page index in the high half, offset in the low one; negated once removed
+        final AtomicLongArray slots;
+        final byte[][] pages;
+
+        Table(AtomicLongArray slots, byte[][] pages) {
+            this.slots = slots;
+            this.pages = pages;
+        }
+
+        byte[] page(long location) {
+            return pages[(int) (location >>> 32)];
+        }
+    }
+
+    private static final class Removed {
+        final long modified;
+        final long version;
+
+        Removed(long modified, long version) {
+            this.modified = modified;
+            this.version = version;
+        }
+    }
+
+    private static final class Order {
+        final Table table;
+        final int[] sorted;
+        // how many of the table's recent slots are in sorted, and in sorted plus recent
+        final int sortedCovered;
+        final int[] recent;
+        final int covered;
+
+        Order(Table table, int[] sorted, int sortedCovered, int[] recent, int covered) {
+            this.table = table;
+            this.sorted = sorted;
+            this.sortedCovered = sortedCovered;
+            this.recent = recent;
+            this.covered = covered;
+        }
+    }
+
+    private final class Records implements Iterator<ProductInfo> {
+        private final Table records;
+        private int index = -1;
+        private long slot;
+
+        Records(Table records) {
+            this.records = records;
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < records.slots.length();
+        }
+
+        @Override
+        public ProductInfo next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            var page = records.page(slot - 1);
+            var productInfo = decode(page, documentOffset(page, slot - 1));
+            advance();
+            return productInfo;
+        }
+
+        private void advance() {
+            while (++index < records.slots.length()) {
+                slot = records.slots.get(index);
+                if (slot > 0) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package br.com.moraesit.product.info.service.catalog;
+
+import br.com.moraesit.product.info.service.config.ProductInfoMongoProperties;
+import br.com.moraesit.product.info.service.config.ProductInfoServingProperties;
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.search.ProductInfoSearchIndex;
+import br.com.moraesit.product.info.service.snapshot.ProductInfoSnapshotReader;
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+
+/**
+ * Keeps the {@link ProductInfoCatalog} of a read replica current. On start it pulls the whole collection once as raw
+ * BSON, which is what the catalog stores, or loads the configured snapshot and pulls only what changed since, and
+ * serves from it from then on. Every sync interval it pulls the documents
+ * modified since the newest lastModified it has seen, less the sync overlap, through the lastModified index.
+ * <p>
+ * A delete leaves nothing to pull, so every delete sweep interval the ids Mongo still has are read and the products
+ * missing from them are removed. Until then a product deleted through another instance is still served here.
+ * <p>
+ * What a pull applies and a sweep removes is passed on to the {@link ProductInfoSearchIndex}, which otherwise only
+ * sees the writes made through this instance.
+ */
+public class ProductInfoCatalogSync implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(ProductInfoCatalogSync.class);
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final ProductInfoCatalog catalog;
+    private final ProductInfoSearchIndex searchIndex;
+    private final ProductInfoServingProperties properties;
+    private final ProductInfoMongoProperties.ReadOptions streamingRead;
+    private final Scheduler scheduler;
+    private volatile Disposable subscription;
+    // the newest lastModified pulled from Mongo, by Mongo's clocks rather than ours
+    private volatile long watermark = Long.MIN_VALUE;
+    private volatile long lastSynced = Long.MIN_VALUE;
+
+    public ProductInfoCatalogSync(ReactiveMongoTemplate reactiveMongoTemplate, ProductInfoCatalog catalog,
+                                  ProductInfoSearchIndex searchIndex, ProductInfoServingProperties properties,
+                                  ProductInfoMongoProperties mongoProperties, Scheduler scheduler) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.catalog = catalog;
+        this.searchIndex = searchIndex;
+        this.properties = properties;
+        this.streamingRead = mongoProperties.getStreamingRead();
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void start() {
+        if (!catalog.isEnabled() || isRunning()) {
+            return;
+        }
+        subscription = Mono.defer(this::load)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, properties.getMinRetryBackoff())
+                        .maxBackoff(properties.getMaxRetryBackoff())
+                        .doBeforeRetry(signal -> log.warn("Reloading the product info catalog", signal.failure())))
+                .thenMany(Flux.merge(
+                        Flux.interval(properties.getSyncInterval())
+                                .onBackpressureDrop()
+                                .concatMap(tick -> pull().onErrorResume(e -> {
+                                    log.warn("Could not sync the product info catalog", e);
+                                    return Mono.empty();
+                                }), 1),
+                        Flux.interval(properties.getDeleteSweepInterval())
+                                .onBackpressureDrop()
+                                .concatMap(tick -> sweep().onErrorResume(e -> {
+                                    log.warn("Could not sweep deleted product infos from the catalog", e);
+                                    return Mono.empty();
+                                }), 1)))
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+            subscription = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return subscription != null && !subscription.isDisposed();
+    }
+
+    // how long ago the last successful pull started, NaN before the first one
+    public double stalenessMillis() {
+        long synced = lastSynced;
+        return synced == Long.MIN_VALUE ? Double.NaN : System.currentTimeMillis() - synced;
+    }
+
+    private Mono<Void> load() {
+        long startNanos = System.nanoTime();
+        var snapshotFile = properties.getSnapshotFile();
+        var loaded = snapshotFile != null && Files.exists(snapshotFile)
+                ? loadSnapshot(snapshotFile).then(Mono.defer(this::pull)).then(Mono.defer(this::sweep))
+                : loadCollection();
+        return loaded.then(Mono.fromRunnable(() -> {
+            catalog.finishLoading();
+            catalog.prepareOrder();
+            log.info("Loaded {} product infos into the catalog, {} MiB, in {} ms", catalog.size(),
+                    catalog.memoryBytes() >> 20, (System.nanoTime() - startNanos) / 1_000_000);
+        }));
+    }
+
+    private Mono<Void> loadCollection() {
+        long started = System.currentTimeMillis();
+        return find(new Document(), null)
+                .doOnNext(this::apply)
+                .then(Mono.fromRunnable(() -> lastSynced = started));
+    }
+
+    // the snapshot holds everything written before it was created, the pull after it brings what was written since
+    private Mono<Void> loadSnapshot(Path file) {
+        return Mono.using(() -> ProductInfoSnapshotReader.open(file),
+                reader -> Flux.fromIterable(reader.getChunks())
+                        .flatMap(chunk -> Mono.fromCallable(() -> reader.read(chunk))
+                                .subscribeOn(scheduler), Schedulers.DEFAULT_POOL_SIZE)
+                        .doOnNext(documents -> documents.forEach(this::apply))
+                        .then(Mono.fromRunnable(() -> {
+                            watermark = Math.min(watermark, reader.getCreatedAt().toEpochMilli());
+                            log.info("Loaded {} product infos from {} created at {}", reader.getDocumentCount(), file,
+                                    reader.getCreatedAt());
+                        })),
+                ProductInfoSnapshotReader::close);
+    }
+
+    private Mono<Void> pull() {
+        long since = watermark;
+        long started = System.currentTimeMillis();
+        long from = since == Long.MIN_VALUE ? Long.MIN_VALUE : since - properties.getSyncOverlap().toMillis();
+        var filter = from == Long.MIN_VALUE ? new Document() : Filters.gte("lastModified", new Date(from));
+        return find(filter, null)
+                .filter(this::apply)
+                .doOnNext(this::index)
+                .count()
+                .doOnNext(applied -> {
+                    catalog.prepareOrder();
+                    // the pulls after this one start no earlier, so they cannot bring back a copy older than from
+                    if (from != Long.MIN_VALUE) {
+                        catalog.forgetRemovedBefore(Instant.ofEpochMilli(from));
+                    }
+                    lastSynced = started;
+                    if (applied > 0) {
+                        log.debug("Applied {} changed product infos to the catalog", applied);
+                    }
+                })
+                .then();
+    }
+
+    private Mono<Void> sweep() {
+        var sweep = catalog.startSweep();
+        // anything written since shortly before the ids are read may be missing from them
+        var keepModifiedSince = Instant.now().minus(properties.getSyncOverlap());
+        var removedIds = new ArrayList<String>();
+        return find(new Document(), Projections.include("_id"))
+                .doOnNext(document -> {
+                    var buffer = document.getByteBuffer();
+                    sweep.mark(BsonRecords.readId(buffer.array(), buffer.position()));
+                })
+                .then(Mono.fromCallable(() -> sweep.finish(keepModifiedSince, removedIds::add)))
+                .doOnNext(removed -> {
+                    removedIds.forEach(searchIndex::remove);
+                    if (removed < 0) {
+                        log.debug("The product info catalog was rebuilt during the delete sweep, sweeping again next time");
+                    } else if (removed > 0) {
+                        log.info("Removed {} product infos deleted from Mongo from the catalog", removed);
+                    }
+                })
+                .then();
+    }
+
+    private boolean apply(RawBsonDocument document) {
+        var buffer = document.getByteBuffer();
+        var bytes = buffer.array();
+        int offset = buffer.position();
+        long modified = BsonRecords.readDateTime(bytes, offset, BsonRecords.LAST_MODIFIED);
+        if (modified > watermark) {
+            watermark = modified;
+        }
+        return catalog.put(bytes, offset, buffer.limit() - offset);
+    }
+
+    // decoded from the catalog's copy, which a concurrent write may already have replaced with a newer one
+    private void index(RawBsonDocument document) {
+        if (!searchIndex.isEnabled()) {
+            return;
+        }
+        var buffer = document.getByteBuffer();
+        var productInfo = catalog.get(BsonRecords.readId(buffer.array(), buffer.position()));
+        if (productInfo != null) {
+            searchIndex.index(productInfo);
+        }
+    }
+
+    private Flux<RawBsonDocument> find(Bson filter, Bson projection) {
+        return reactiveMongoTemplate.getCollection(reactiveMongoTemplate.getCollectionName(ProductInfo.class))
+                .map(this::withStreamingRead)
+                .flatMapMany(collection -> collection.withDocumentClass(RawBsonDocument.class)
+                        .find(filter)
+                        .projection(projection)
+                        .batchSize(properties.getLoadBatchSize()));
+    }
+
+    // the same read preference and concern as the repository's listings, which replicas point at secondaries
+    private MongoCollection<Document> withStreamingRead(MongoCollection<Document> collection) {
+        if (streamingRead.getReadPreference() != null) {
+            collection = collection.withReadPreference(ReadPreference.valueOf(streamingRead.getReadPreference()));
+        }
+        if (streamingRead.getReadConcern() != null) {
+            collection = collection.withReadConcern(new ReadConcern(streamingRead.getReadConcern()));
+        }
+        return collection;
+    }
+}
@@ -0,0 +1,344 @@
+package br.com.moraesit.product.info.service.change;
+
+import br.com.moraesit.product.info.service.cache.ProductInfoCache;
+import br.com.moraesit.product.info.service.config.ProductInfoChangeStreamProperties;
+import br.com.moraesit.product.info.service.domain.ChangeStreamCheckpoint;
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.domain.ProductInfoChange;
+import br.com.moraesit.product.info.service.repository.ChangeStreamCheckpointRepository;
+import br.com.moraesit.product.info.service.service.FeatureDisabledException;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.model.changestream.FullDocument;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+/**
+ * Follows the {@link ProductInfo} collection's change stream, keeps the local cache in line with it and fans the
+ * changes out to in-process subscribers.
+ * <p>
+ * Each change is applied to the cache and published as it arrives. The resume token is persisted every
+ * {@code checkpoint-every} changes or {@code checkpoint-interval}, whichever comes first, and once more on stop, so a
+ * restart resumes close to the last published change: nothing written while the service was down is missed, and a
+ * crash republishes at most the changes since the last checkpoint. Every instance checkpoints under its own id.
+ * <p>
+ * Every change carries its resume token as {@code eventId}. The last {@code history-size} changes are kept, so a
+ * subscriber that reconnects with one of them as Last-Event-ID gets what it missed. An older id, or one from another
+ * instance or from before a restart, has its gap replayed from Mongo with a change stream of its own, which is closed
+ * as soon as it reaches a change the shared stream has published; from there the subscriber follows the shared stream
+ * like everyone else. At most {@code max-resumes} such replays run at once. A subscriber beyond that, or whose id fell
+ * off the oplog, gets an INVALIDATE change, telling it to resync, and then the live changes.
+ * <p>
+ * A subscriber that falls more than {@code subscriber-buffer-size} changes behind is disconnected with an overflow
+ * error rather than silently missing changes.
+ */
+@Component
+public class ProductInfoChangeStream implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(ProductInfoChangeStream.class);
+    // ChangeStreamFatalError and ChangeStreamHistoryLost: the token fell off the oplog and cannot be resumed from
+    private static final Set<Integer> HISTORY_LOST_CODES = Set.of(280, 286);
+    private static final Pattern EVENT_ID = Pattern.compile("[0-9A-Fa-f]+");
+    private static final Duration FLUSH_TIMEOUT = Duration.ofSeconds(5);
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final ChangeStreamCheckpointRepository checkpointRepository;
+    private final ProductInfoCache productInfoCache;
+    private final ProductInfoChangeStreamProperties properties;
+    private final Sinks.Many<Published> changes;
+    // event id to sequence for the changes the sink still replays; also guards sequence
+    private final Map<String, Long> recentEventIds;
+    private final AtomicReference<ChangeStreamCheckpoint> pendingCheckpoint = new AtomicReference<>();
+    private final AtomicInteger resuming = new AtomicInteger();
+    private long sequence;
+    private String lastPublishedEventId;
+    private volatile Disposable subscription;
+
+    public ProductInfoChangeStream(ReactiveMongoTemplate reactiveMongoTemplate, ChangeStreamCheckpointRepository checkpointRepository,
+                                   ProductInfoCache productInfoCache, ProductInfoChangeStreamProperties properties) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.checkpointRepository = checkpointRepository;
+        this.productInfoCache = productInfoCache;
+        this.properties = properties;
+        this.changes = Sinks.many().replay().limit(properties.getHistorySize());
+        this.recentEventIds = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > properties.getHistorySize();
+            }
+        };
+    }
+
+    public Flux<ProductInfoChange> changes() {
+        return changes(null);
+    }
+
+    /**
+     * The changes published after the one whose {@code eventId} is {@code lastEventId}, or from now on when it is
+     * null.
+     */
+    public Flux<ProductInfoChange> changes(String lastEventId) {
+        if (!properties.isEnabled()) {
+            return Flux.error(new FeatureDisabledException("The product info change stream is disabled"));
+        }
+        if (lastEventId != null && !EVENT_ID.matcher(lastEventId).matches()) {
+            return Flux.error(new IllegalArgumentException("Malformed Last-Event-ID: " + lastEventId));
+        }
+        return Flux.defer(() -> {
+                    Long after;
+                    synchronized (recentEventIds) {
+                        after = lastEventId == null ? sequence : recentEventIds.get(lastEventId);
+                    }
+                    return after == null ? resume(lastEventId) : publishedAfter(after);
+                })
+                .onBackpressureBuffer(properties.getSubscriberBufferSize());
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled() || isRunning()) {
+            return;
+        }
+        subscription = Flux.defer(this::follow)
+                .repeat()
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, properties.getMinRetryBackoff())
+                        .maxBackoff(properties.getMaxRetryBackoff())
+                        .doBeforeRetry(signal -> log.warn("Reopening the product info change stream", signal.failure())))
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+            subscription = null;
+        }
+        var checkpoint = pendingCheckpoint.getAndSet(null);
+        if (checkpoint != null) {
+            try {
+                checkpointRepository.save(checkpoint).block(FLUSH_TIMEOUT);
+            } catch (RuntimeException e) {
+                log.warn("Could not save the last product info change stream checkpoint", e);
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return subscription != null && !subscription.isDisposed();
+    }
+
+    private Flux<ChangeStreamCheckpoint> follow() {
+        var checkpointId = properties.getCheckpointId();
+        return checkpointRepository.findById(checkpointId)
+                .switchIfEmpty(Mono.defer(() -> checkpointRepository.save(new ChangeStreamCheckpoint(checkpointId, null, false, Instant.now()))))
+                .flatMapMany(checkpoint -> reactiveMongoTemplate.changeStream(reactiveMongoTemplate.getCollectionName(ProductInfo.class),
+                        options(checkpoint), ProductInfo.class))
+                .map(event -> {
+                    var resumeToken = event.getResumeToken().asDocument();
+                    var change = toChange(event, toEventId(resumeToken));
+                    if (change != null) {
+                        updateCache(change);
+                        publish(change);
+                    }
+                    var checkpoint = new ChangeStreamCheckpoint(checkpointId, resumeToken.toJson(),
+                            change != null && change.getType() == ProductInfoChange.Type.INVALIDATE, null);
+                    pendingCheckpoint.set(checkpoint);
+                    return checkpoint;
+                })
+                // only the latest position matters, so a slow save skips the ones it could not keep up with
+                .bufferTimeout(properties.getCheckpointEvery(), properties.getCheckpointInterval())
+                .onBackpressureLatest()
+                .concatMap(checkpoints -> saveCheckpoint(checkpoints.get(checkpoints.size() - 1)), 1)
+                .onErrorResume(this::isHistoryLost, e -> {
+                    log.error("Product info change stream history lost, dropping the cache and starting over", e);
+                    pendingCheckpoint.set(null);
+                    productInfoCache.invalidateAll();
+                    return checkpointRepository.deleteById(checkpointId).then(Mono.error(e));
+                });
+    }
+
+    private Mono<ChangeStreamCheckpoint> saveCheckpoint(ChangeStreamCheckpoint checkpoint) {
+        return checkpointRepository.save(checkpoint)
+                .doOnNext(saved -> pendingCheckpoint.compareAndSet(checkpoint, null));
+    }
+
+    private void publish(ProductInfoChange change) {
+        synchronized (recentEventIds) {
+            long published = ++sequence;
+            recentEventIds.put(change.getEventId(), published);
+            lastPublishedEventId = change.getEventId();
+            // fails only when a subscriber is being disconnected, which does not stop the stream
+            changes.tryEmitNext(new Published(published, change));
+        }
+    }
+
+    // the sink replays its history to every subscriber, which skips what it has already seen
+    private Flux<ProductInfoChange> publishedAfter(long after) {
+        return changes.asFlux()
+                .filter(published -> published.sequence > after)
+                .map(published -> published.change);
+    }
+
+    private Flux<ProductInfoChange> resume(String lastEventId) {
+        if (resuming.incrementAndGet() > properties.getMaxResumes()) {
+            resuming.decrementAndGet();
+            return invalidateAndFollow();
+        }
+        var options = ChangeStreamOptions.builder()
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP)
+                // unlike resumeAfter, also accepts the token of an invalidate event
+                .startAfter(new BsonDocument("_data", new BsonString(lastEventId)))
+                .build();
+        var joinAfter = new AtomicLong(-1);
+        return reactiveMongoTemplate.changeStream(reactiveMongoTemplate.getCollectionName(ProductInfo.class), options, ProductInfo.class)
+                .<ProductInfoChange>handle((event, sink) -> {
+                    var eventId = toEventId(event.getResumeToken().asDocument());
+                    var join = joinPoint(eventId);
+                    if (join != null) {
+                        joinAfter.set(join);
+                        sink.complete();
+                        return;
+                    }
+                    var change = toChange(event, eventId);
+                    if (change != null) {
+                        sink.next(change);
+                    }
+                })
+                .doFinally(signalType -> resuming.decrementAndGet())
+                .concatWith(Flux.defer(() -> publishedAfter(joinAfter.get())))
+                .onErrorResume(this::isHistoryLost, e -> invalidateAndFollow());
+    }
+
+    /**
+     * Where a replay that got to {@code eventId} continues on the shared stream: right before it when the shared
+     * stream has published it, after everything published so far when it is newer than that, otherwise null.
+     */
+    private Long joinPoint(String eventId) {
+        synchronized (recentEventIds) {
+            var published = recentEventIds.get(eventId);
+            if (published != null) {
+                return published - 1;
+            }
+            // event ids order like the oplog, and the shared stream publishes in that order
+            if (lastPublishedEventId != null && eventId != null && eventId.compareTo(lastPublishedEventId) > 0) {
+                return sequence;
+            }
+            return null;
+        }
+    }
+
+    private Flux<ProductInfoChange> invalidateAndFollow() {
+        return Flux.defer(() -> {
+            long after;
+            synchronized (recentEventIds) {
+                after = sequence;
+            }
+            return Flux.just(new ProductInfoChange(ProductInfoChange.Type.INVALIDATE, null, null))
+                    .concatWith(publishedAfter(after));
+        });
+    }
+
+    private void updateCache(ProductInfoChange change) {
+        switch (change.getType()) {
+            case UPSERT:
+                if (change.getProductInfo() != null) {
+                    productInfoCache.put(change.getProductInfo());
+                } else {
+                    productInfoCache.invalidate(change.getId());
+                }
+                break;
+            case DELETE:
+                productInfoCache.invalidate(change.getId());
+                break;
+            default:
+                productInfoCache.invalidateAll();
+        }
+    }
+
+    private static ChangeStreamOptions options(ChangeStreamCheckpoint checkpoint) {
+        var options = ChangeStreamOptions.builder()
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP);
+        if (checkpoint.getResumeToken() == null) {
+            return options.resumeAt(checkpoint.getStartedAt()).build();
+        }
+        var resumeToken = BsonDocument.parse(checkpoint.getResumeToken());
+        return (checkpoint.isInvalidated() ? options.startAfter(resumeToken) : options.resumeAfter(resumeToken)).build();
+    }
+
+    private static ProductInfoChange toChange(ChangeStreamEvent<ProductInfo> event, String eventId) {
+        var documentKey = event.getRaw().getDocumentKey();
+        var id = documentKey == null ? null : toId(documentKey.get("_id"));
+        switch (event.getOperationType()) {
+            case INSERT:
+            case UPDATE:
+            case REPLACE:
+                return new ProductInfoChange(ProductInfoChange.Type.UPSERT, id, event.getBody(), eventId);
+            case DELETE:
+                return new ProductInfoChange(ProductInfoChange.Type.DELETE, id, null, eventId);
+            case DROP:
+            case RENAME:
+            case DROP_DATABASE:
+            case INVALIDATE:
+                return new ProductInfoChange(ProductInfoChange.Type.INVALIDATE, null, null, eventId);
+            default:
+                return null;
+        }
+    }
+
+    private static String toEventId(BsonDocument resumeToken) {
+        var data = resumeToken.get("_data");
+        return data != null && data.isString() ? data.asString().getValue() : null;
+    }
+
+    private static String toId(BsonValue id) {
+        if (id == null) {
+            return null;
+        }
+        if (id.isString()) {
+            return id.asString().getValue();
+        }
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.toString();
+    }
+
+    private boolean isHistoryLost(Throwable e) {
+        // the driver exception usually arrives wrapped in a translated DataAccessException
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoCommandException) {
+                return HISTORY_LOST_CODES.contains(((MongoCommandException) cause).getErrorCode());
+            }
+        }
+        return false;
+    }
+
+    private static final class Published {
+        private final long sequence;
+        private final ProductInfoChange change;
+
+        private Published(long sequence, ProductInfoChange change) {
+            this.sequence = sequence;
+            this.change = change;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package br.com.moraesit.product.info.service.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.json.UTF8JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonReader;
+import org.bson.BsonSerializationException;
+import org.bson.BsonType;
+import org.bson.codecs.BsonValueCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@code ProductInfo} properties kept as the BSON bytes they were read with.
+ * <p>
+ * Serializing them to JSON walks the bytes straight into the generator. The map view is only decoded when
+ * something actually reads it, e.g. a patch or a cache comparison, and is read-only.
+ *
+ * @see ProductInfoBsonCodec
+ */
+public final class BsonProperties extends AbstractMap<String, Object> {
+    private static final BsonValueCodec BSON_VALUE_CODEC = new BsonValueCodec();
+
+    private final byte[] bson;
+    private final PropertyNameDictionary names;
+    private volatile Map<String, Object> decoded;
+
+    public BsonProperties(byte[] bson, PropertyNameDictionary names) {
+        this.bson = bson;
+        this.names = names;
+    }
+
+    public byte[] getBson() {
+        return bson;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        var map = decoded;
+        if (map == null) {
+            try (var reader = reader()) {
+                map = Collections.unmodifiableMap(readDocument(reader, names));
+            }
+            decoded = map;
+        }
+        return map.entrySet();
+    }
+
+    public void writeJson(JsonGenerator generator, SerializerProvider provider) throws IOException {
+        writeDocument(0, false, generator, provider);
+    }
+
+    private BsonBinaryReader reader() {
+        return new BsonBinaryReader(ByteBuffer.wrap(bson));
+    }
+
+    static Map<String, Object> readDocument(BsonReader reader, PropertyNameDictionary names) {
+        var document = new LinkedHashMap<String, Object>();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            document.put(names.intern(reader.readName()), readValue(reader, names));
+        }
+        reader.readEndDocument();
+        return document;
+    }
+
+    private static Object readValue(BsonReader reader, PropertyNameDictionary names) {
+        switch (reader.getCurrentBsonType()) {
+            case STRING:
+                return reader.readString();
+            case INT32:
+                return reader.readInt32();
+            case INT64:
+                return reader.readInt64();
+            case DOUBLE:
+                return reader.readDouble();
+            case DECIMAL128:
+                return reader.readDecimal128().bigDecimalValue();
+            case BOOLEAN:
+                return reader.readBoolean();
+            case NULL:
+                reader.readNull();
+                return null;
+            case DATE_TIME:
+                return new Date(reader.readDateTime());
+            case OBJECT_ID:
+                return reader.readObjectId().toHexString();
+            case DOCUMENT:
+                return readDocument(reader, names);
+            case ARRAY:
+                var array = new ArrayList<>();
+                reader.readStartArray();
+                while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                    array.add(readValue(reader, names));
+                }
+                reader.readEndArray();
+                return array;
+            default:
+                return BSON_VALUE_CODEC.decode(reader, DecoderContext.builder().build());
+        }
+    }
+
+    // walks the bytes directly, so names and strings go to the generator as UTF-8 without becoming Strings first;
+    // returns the offset just past the document
+    private int writeDocument(int offset, boolean array, JsonGenerator generator, SerializerProvider provider)
+            throws IOException {
+        int end = offset + readInt32(offset) - 1;
+        int position = offset + 4;
+        if (array) {
+            generator.writeStartArray();
+        } else {
+            generator.writeStartObject();
+        }
+        while (position < end) {
+            byte type = bson[position++];
+            int nameEnd = position;
+            while (bson[nameEnd] != 0) {
+                nameEnd++;
+            }
+            if (!array) {
+                var serialized = names.serialized(bson, position, nameEnd - position);
+                if (serialized != null) {
+                    generator.writeFieldName(serialized);
+                } else {
+                    generator.writeFieldName(new String(bson, position, nameEnd - position, StandardCharsets.UTF_8));
+                }
+            }
+            position = writeValue(type, nameEnd + 1, generator, provider);
+        }
+        if (array) {
+            generator.writeEndArray();
+        } else {
+            generator.writeEndObject();
+        }
+        return end + 1;
+    }
+
+    // must write exactly what serializing the value readValue returns would write
+    private int writeValue(byte type, int offset, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        switch (BsonType.findByValue(type)) {
+            case STRING:
+                int length = readInt32(offset);
+                if (generator instanceof UTF8JsonGenerator) {
+                    generator.writeUTF8String(bson, offset + 4, length - 1);
+                } else {
+                    // writer based generators and token buffers only take Strings
+                    generator.writeString(new String(bson, offset + 4, length - 1, StandardCharsets.UTF_8));
+                }
+                return offset + 4 + length;
+            case INT32:
+                generator.writeNumber(readInt32(offset));
+                return offset + 4;
+            case INT64:
+                generator.writeNumber(readInt64(offset));
+                return offset + 8;
+            case DOUBLE:
+                generator.writeNumber(Double.longBitsToDouble(readInt64(offset)));
+                return offset + 8;
+            case DECIMAL128:
+                generator.writeNumber(Decimal128.fromIEEE754BIDEncoding(readInt64(offset + 8), readInt64(offset)).bigDecimalValue());
+                return offset + 16;
+            case BOOLEAN:
+                generator.writeBoolean(bson[offset] != 0);
+                return offset + 1;
+            case NULL:
+                generator.writeNull();
+                return offset;
+            case OBJECT_ID:
+                generator.writeString(new ObjectId(ByteBuffer.wrap(bson, offset, 12)).toHexString());
+                return offset + 12;
+            case DOCUMENT:
+                return writeDocument(offset, false, generator, provider);
+            case ARRAY:
+                return writeDocument(offset, true, generator, provider);
+            default:
+                // dates and the rare BSON types follow the mapper's settings for the Java value
+                int valueEnd = valueEnd(type, offset);
+                provider.defaultSerializeValue(readSingleValue(type, offset, valueEnd), generator);
+                return valueEnd;
+        }
+    }
+
+    private int valueEnd(byte type, int offset) {
+        switch (BsonType.findByValue(type)) {
+            case BINARY:
+                return offset + 4 + 1 + readInt32(offset);
+            case UNDEFINED:
+            case MIN_KEY:
+            case MAX_KEY:
+                return offset;
+            case REGULAR_EXPRESSION:
+                return cStringEnd(cStringEnd(offset));
+            case DB_POINTER:
+                return offset + 4 + readInt32(offset) + 12;
+            case JAVASCRIPT:
+            case SYMBOL:
+                return offset + 4 + readInt32(offset);
+            case JAVASCRIPT_WITH_SCOPE:
+                return offset + readInt32(offset);
+            case DATE_TIME:
+            case TIMESTAMP:
+                return offset + 8;
+            default:
+                throw new BsonSerializationException("Unexpected BSON type " + type + " in product info properties");
+        }
+    }
+
+    private int cStringEnd(int offset) {
+        while (bson[offset] != 0) {
+            offset++;
+        }
+        return offset + 1;
+    }
+
+    // wraps the value in a one field document so the regular reader can decode it
+    private Object readSingleValue(byte type, int offset, int end) {
+        var document = ByteBuffer.allocate(4 + 1 + 1 + (end - offset) + 1).order(ByteOrder.LITTLE_ENDIAN);
+        document.putInt(document.capacity())
+                .put(type)
+                .put((byte) 0)
+                .put(bson, offset, end - offset)
+                .put((byte) 0)
+                .flip();
+        try (var reader = new BsonBinaryReader(document)) {
+            reader.readStartDocument();
+            reader.readBsonType();
+            reader.skipName();
+            return readValue(reader, names);
+        }
+    }
+
+    private int readInt32(int offset) {
+        return (bson[offset] & 0xff)
+                | (bson[offset + 1] & 0xff) << 8
+                | (bson[offset + 2] & 0xff) << 16
+                | (bson[offset + 3] & 0xff) << 24;
+    }
+
+    private long readInt64(int offset) {
+        return (readInt32(offset) & 0xffffffffL) | (long) readInt32(offset + 4) << 32;
+    }
+}
@@ -0,0 +1,77 @@
+package br.com.moraesit.product.info.service.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * CBOR encoder that, unlike {@link Jackson2CborEncoder}, can write a {@code Flux}.
+ * <p>
+ * A stream is written as an indefinite-length CBOR array, one element per buffer as it is emitted, so readers see a
+ * plain array while the server never holds the whole stream. Each value is serialized straight into the
+ * {@link DataBuffer} it is sent in, without an intermediate byte array.
+ */
+public class Jackson2CborStreamingEncoder extends Jackson2CborEncoder {
+    private static final byte INDEFINITE_ARRAY_START = (byte) 0x9F;
+    private static final byte BREAK = (byte) 0xFF;
+
+    public Jackson2CborStreamingEncoder(ObjectMapper objectMapper) {
+        super(objectMapper, MediaType.APPLICATION_CBOR);
+    }
+
+    // Custom writers are consulted before the default JSON one, so only take part when CBOR was actually negotiated
+    @Override
+    public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+        return mimeType != null && super.canEncode(elementType, mimeType);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory, ResolvableType elementType,
+                                   MimeType mimeType, Map<String, Object> hints) {
+        if (inputStream instanceof Mono) {
+            return Mono.from(inputStream)
+                    .map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints))
+                    .flux();
+        }
+        return Flux.concat(
+                Mono.fromCallable(() -> singleByte(bufferFactory, INDEFINITE_ARRAY_START)),
+                Flux.from(inputStream).map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints)),
+                Mono.fromCallable(() -> singleByte(bufferFactory, BREAK)));
+    }
+
+    @Override
+    public DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory, ResolvableType valueType,
+                                  MimeType mimeType, Map<String, Object> hints) {
+        var writer = getObjectMapper().writerFor(getJavaType(valueType.getType(), null));
+        var buffer = bufferFactory.allocateBuffer();
+        var release = true;
+        try (OutputStream outputStream = buffer.asOutputStream()) {
+            writer.writeValue(outputStream, value);
+            release = false;
+            return buffer;
+        } catch (IOException e) {
+            throw new EncodingException("Could not write CBOR: " + e.getMessage(), e);
+        } finally {
+            if (release) {
+                DataBufferUtils.release(buffer);
+            }
+        }
+    }
+
+    private static DataBuffer singleByte(DataBufferFactory bufferFactory, byte value) {
+        return bufferFactory.allocateBuffer(1).write(value);
+    }
+}
@@ -0,0 +1,162 @@
+package br.com.moraesit.product.info.service.codec;
+
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+/**
+ * Reads and writes {@link ProductInfo} documents field by field, in the same layout the mapping converter uses,
+ * without going through an intermediate {@link Document}.
+ * <p>
+ * Properties are not decoded: their bytes are copied into {@link BsonProperties} as they are, and written back the
+ * same way.
+ */
+public class ProductInfoBsonCodec implements Codec<ProductInfo> {
+    private final CodecRegistry codecRegistry;
+    private final PropertyNameDictionary names;
+
+    public ProductInfoBsonCodec(CodecRegistry codecRegistry, PropertyNameDictionary names) {
+        this.codecRegistry = codecRegistry;
+        this.names = names;
+    }
+
+    @Override
+    public ProductInfo decode(BsonReader reader, DecoderContext decoderContext) {
+        String id = null;
+        String name = null;
+        String description = null;
+        BigDecimal price = null;
+        BsonProperties properties = null;
+        Long version = null;
+        Instant lastModified = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            var field = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (field) {
+                case "_id":
+                    id = reader.getCurrentBsonType() == BsonType.OBJECT_ID ? reader.readObjectId().toHexString() : reader.readString();
+                    break;
+                case "name":
+                    name = reader.readString();
+                    break;
+                case "description":
+                    description = reader.readString();
+                    break;
+                case "price":
+                    price = readDecimal(reader);
+                    break;
+                case "properties":
+                    properties = new BsonProperties(copyDocument(reader), names);
+                    break;
+                case "version":
+                    version = reader.getCurrentBsonType() == BsonType.INT32 ? (long) reader.readInt32() : reader.readInt64();
+                    break;
+                case "lastModified":
+                    lastModified = Instant.ofEpochMilli(reader.readDateTime());
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return new ProductInfo(id, name, description, price, properties, version, lastModified);
+    }
+
+    @Override
+    public void encode(BsonWriter writer, ProductInfo productInfo, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        if (productInfo.getId() != null) {
+            writer.writeName("_id");
+            // the mapping converter stores ids that look like an ObjectId as one
+            if (ObjectId.isValid(productInfo.getId())) {
+                writer.writeObjectId(new ObjectId(productInfo.getId()));
+            } else {
+                writer.writeString(productInfo.getId());
+            }
+        }
+        if (productInfo.getName() != null) {
+            writer.writeString("name", productInfo.getName());
+        }
+        if (productInfo.getDescription() != null) {
+            writer.writeString("description", productInfo.getDescription());
+        }
+        if (productInfo.getPrice() != null) {
+            writer.writeDecimal128("price", new Decimal128(productInfo.getPrice()));
+        }
+        if (productInfo.getProperties() != null) {
+            writer.writeName("properties");
+            if (productInfo.getProperties() instanceof BsonProperties) {
+                writer.pipe(new BsonBinaryReader(ByteBuffer.wrap(((BsonProperties) productInfo.getProperties()).getBson())));
+            } else {
+                encoderContext.encodeWithChildContext(codecRegistry.get(Document.class), writer, new Document(productInfo.getProperties()));
+            }
+        }
+        if (productInfo.getVersion() != null) {
+            writer.writeInt64("version", productInfo.getVersion());
+        }
+        if (productInfo.getLastModified() != null) {
+            writer.writeDateTime("lastModified", productInfo.getLastModified().toEpochMilli());
+        }
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<ProductInfo> getEncoderClass() {
+        return ProductInfo.class;
+    }
+
+    private static BigDecimal readDecimal(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case DECIMAL128:
+                return reader.readDecimal128().bigDecimalValue();
+            case DOUBLE:
+                return BigDecimal.valueOf(reader.readDouble());
+            case INT32:
+                return BigDecimal.valueOf(reader.readInt32());
+            case INT64:
+                return BigDecimal.valueOf(reader.readInt64());
+            default:
+                return new BigDecimal(reader.readString());
+        }
+    }
+
+    private static byte[] copyDocument(BsonReader reader) {
+        if (reader instanceof BsonBinaryReader) {
+            // skip the document to learn its length, then read its bytes straight off the input
+            var input = ((BsonBinaryReader) reader).getBsonInput();
+            var start = input.getMark(Integer.MAX_VALUE);
+            var startPosition = input.getPosition();
+            reader.skipValue();
+            var bytes = new byte[input.getPosition() - startPosition];
+            start.reset();
+            input.readBytes(bytes);
+            return bytes;
+        }
+        var buffer = new BasicOutputBuffer();
+        try (var writer = new BsonBinaryWriter(buffer)) {
+            writer.pipe(reader);
+        }
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,85 @@
+package br.com.moraesit.product.info.service.codec;
+
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link ProductInfo} with pre-encoded field names, in the same shape as the bean serializer. Properties read
+ * through {@link ProductInfoBsonCodec} are streamed from their BSON bytes instead of being decoded into a map first.
+ */
+public class ProductInfoJsonSerializer extends StdSerializer<ProductInfo> {
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString DESCRIPTION = new SerializedString("description");
+    private static final SerializableString PRICE = new SerializedString("price");
+    private static final SerializableString PROPERTIES = new SerializedString("properties");
+    private static final SerializableString VERSION = new SerializedString("version");
+    private static final SerializableString LAST_MODIFIED = new SerializedString("lastModified");
+
+    private final PropertyNameDictionary names;
+
+    public ProductInfoJsonSerializer(PropertyNameDictionary names) {
+        super(ProductInfo.class);
+        this.names = names;
+    }
+
+    @Override
+    public void serialize(ProductInfo productInfo, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        var inclusion = provider.getConfig().getDefaultPropertyInclusion(ProductInfo.class).getValueInclusion();
+        var writeNulls = inclusion == JsonInclude.Include.ALWAYS || inclusion == JsonInclude.Include.USE_DEFAULTS;
+
+        generator.writeStartObject(productInfo);
+        writeString(generator, ID, productInfo.getId(), writeNulls);
+        writeString(generator, NAME, productInfo.getName(), writeNulls);
+        writeString(generator, DESCRIPTION, productInfo.getDescription(), writeNulls);
+        if (productInfo.getPrice() != null) {
+            generator.writeFieldName(PRICE);
+            generator.writeNumber(productInfo.getPrice());
+        } else if (writeNulls) {
+            generator.writeFieldName(PRICE);
+            generator.writeNull();
+        }
+        if (productInfo.getProperties() instanceof BsonProperties) {
+            generator.writeFieldName(PROPERTIES);
+            ((BsonProperties) productInfo.getProperties()).writeJson(generator, provider);
+        } else if (productInfo.getProperties() != null) {
+            generator.writeFieldName(PROPERTIES);
+            provider.defaultSerializeValue(productInfo.getProperties(), generator);
+        } else if (writeNulls) {
+            generator.writeFieldName(PROPERTIES);
+            generator.writeNull();
+        }
+        if (productInfo.getVersion() != null) {
+            generator.writeFieldName(VERSION);
+            generator.writeNumber(productInfo.getVersion());
+        } else if (writeNulls) {
+            generator.writeFieldName(VERSION);
+            generator.writeNull();
+        }
+        if (productInfo.getLastModified() != null) {
+            generator.writeFieldName(LAST_MODIFIED);
+            provider.defaultSerializeValue(productInfo.getLastModified(), generator);
+        } else if (writeNulls) {
+            generator.writeFieldName(LAST_MODIFIED);
+            generator.writeNull();
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeString(JsonGenerator generator, SerializableString field, String value, boolean writeNulls) throws IOException {
+        if (value != null) {
+            generator.writeFieldName(field);
+            generator.writeString(value);
+        } else if (writeNulls) {
+            generator.writeFieldName(field);
+            generator.writeNull();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package br.com.moraesit.product.info.service.codec;
+
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Attribute names that most products share, e.g. Marca or Cor. Decoded properties reuse one String instance per
+ * known name instead of one per document, and JSON output writes them pre-encoded.
+ */
+public class PropertyNameDictionary {
+    private static final PropertyNameDictionary EMPTY = new PropertyNameDictionary(Map.of());
+
+    private final Map<String, SerializedString> names;
+    // open addressing table over the UTF-8 bytes, for lookups straight from BSON without decoding the name
+    private final byte[][] utf8Keys;
+    private final SerializedString[] utf8Values;
+
+    private PropertyNameDictionary(Map<String, SerializedString> names) {
+        this.names = names;
+        int capacity = Integer.highestOneBit(Math.max(1, names.size()) * 4);
+        this.utf8Keys = new byte[capacity][];
+        this.utf8Values = new SerializedString[capacity];
+        for (SerializedString name : names.values()) {
+            byte[] key = name.getValue().getBytes(StandardCharsets.UTF_8);
+            int slot = hash(key, 0, key.length) & (capacity - 1);
+            while (utf8Keys[slot] != null) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            utf8Keys[slot] = key;
+            utf8Values[slot] = name;
+        }
+    }
+
+    public static PropertyNameDictionary of(Collection<String> names) {
+        if (names == null || names.isEmpty()) {
+            return EMPTY;
+        }
+        var dictionary = new HashMap<String, SerializedString>(names.size() * 2);
+        for (String name : names) {
+            dictionary.put(name, new SerializedString(name));
+        }
+        return new PropertyNameDictionary(dictionary);
+    }
+
+    public static PropertyNameDictionary empty() {
+        return EMPTY;
+    }
+
+    public String intern(String name) {
+        var serialized = names.get(name);
+        return serialized == null ? name : serialized.getValue();
+    }
+
+    /**
+     * The pre-encoded form of a known name, or null for any other name.
+     */
+    public SerializableString serialized(String name) {
+        return names.get(name);
+    }
+
+    /**
+     * Same as {@link #serialized(String)} for a name given as UTF-8 bytes.
+     */
+    public SerializableString serialized(byte[] utf8, int offset, int length) {
+        int mask = utf8Keys.length - 1;
+        int slot = hash(utf8, offset, length) & mask;
+        byte[] key;
+        while ((key = utf8Keys[slot]) != null) {
+            if (Arrays.equals(key, 0, key.length, utf8, offset, offset + length)) {
+                return utf8Values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    private static int hash(byte[] bytes, int offset, int length) {
+        int hash = 1;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,24 @@
+package br.com.moraesit.product.info.service.config;
+
+import br.com.moraesit.product.info.service.cache.ProductInfoCache;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ProductInfoCacheProperties.class)
+public class ProductInfoCacheConfiguration {
+
+    @Bean
+    public ProductInfoCache productInfoCache(ProductInfoCacheProperties properties) {
+        return new ProductInfoCache(properties);
+    }
+
+    @Bean
+    public MeterBinder productInfoCacheMetrics(ProductInfoCache productInfoCache) {
+        return new CaffeineCacheMetrics<>(productInfoCache.asCache(), "productInfo", Tags.empty());
+    }
+}
@@ -0,0 +1,108 @@
+package br.com.moraesit.product.info.service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "product-info.change-stream")
+public class ProductInfoChangeStreamProperties {
+    // change streams need a replica set or a sharded cluster
+    private boolean enabled = false;
+    // every instance keeps its own cache in line, so each needs its own resume token
+    private String checkpointId = "productInfo-" + hostName();
+    private int checkpointEvery = 100;
+    private Duration checkpointInterval = Duration.ofSeconds(1);
+    // recent changes kept for subscribers resuming with a Last-Event-ID
+    private int historySize = 1000;
+    private int subscriberBufferSize = 256;
+    // subscribers replaying an older Last-Event-ID from Mongo at once, each on a change stream cursor of its own
+    private int maxResumes = 16;
+    private Duration minRetryBackoff = Duration.ofSeconds(1);
+    private Duration maxRetryBackoff = Duration.ofSeconds(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getCheckpointId() {
+        return checkpointId;
+    }
+
+    public void setCheckpointId(String checkpointId) {
+        this.checkpointId = checkpointId;
+    }
+
+    public int getCheckpointEvery() {
+        return checkpointEvery;
+    }
+
+    public void setCheckpointEvery(int checkpointEvery) {
+        this.checkpointEvery = checkpointEvery;
+    }
+
+    public Duration getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    public void setCheckpointInterval(Duration checkpointInterval) {
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    public int getHistorySize() {
+        return historySize;
+    }
+
+    public void setHistorySize(int historySize) {
+        this.historySize = historySize;
+    }
+
+    public int getSubscriberBufferSize() {
+        return subscriberBufferSize;
+    }
+
+    public void setSubscriberBufferSize(int subscriberBufferSize) {
+        this.subscriberBufferSize = subscriberBufferSize;
+    }
+
+    public int getMaxResumes() {
+        return maxResumes;
+    }
+
+    public void setMaxResumes(int maxResumes) {
+        this.maxResumes = maxResumes;
+    }
+
+    public Duration getMinRetryBackoff() {
+        return minRetryBackoff;
+    }
+
+    public void setMinRetryBackoff(Duration minRetryBackoff) {
+        this.minRetryBackoff = minRetryBackoff;
+    }
+
+    public Duration getMaxRetryBackoff() {
+        return maxRetryBackoff;
+    }
+
+    public void setMaxRetryBackoff(Duration maxRetryBackoff) {
+        this.maxRetryBackoff = maxRetryBackoff;
+    }
+
+    private static String hostName() {
+        var hostName = System.getenv("HOSTNAME");
+        if (hostName != null && !hostName.isBlank()) {
+            return hostName;
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "localhost";
+        }
+    }
+}
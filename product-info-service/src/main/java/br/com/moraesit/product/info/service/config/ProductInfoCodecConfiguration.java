@@ -0,0 +1,55 @@
+package br.com.moraesit.product.info.service.config;
+
+import br.com.moraesit.product.info.service.codec.BinaryMediaTypes;
+import br.com.moraesit.product.info.service.codec.Jackson2CborStreamingEncoder;
+import br.com.moraesit.product.info.service.codec.ProductInfoJsonSerializer;
+import br.com.moraesit.product.info.service.codec.PropertyNameDictionary;
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Adds CBOR and Smile next to JSON for both the server and WebClient, built from Boot's Jackson settings so all
+ * three formats carry the same fields. JSON stays the default for clients that accept anything.
+ */
+@Configuration
+@EnableConfigurationProperties(ProductInfoCodecProperties.class)
+public class ProductInfoCodecConfiguration {
+
+    @Bean
+    public PropertyNameDictionary propertyNameDictionary(ProductInfoCodecProperties properties) {
+        return PropertyNameDictionary.of(properties.getCommonPropertyNames());
+    }
+
+    // picked up by Boot's Jackson2ObjectMapperBuilder, so it applies to JSON, CBOR and Smile alike
+    @Bean
+    public Module productInfoJacksonModule(PropertyNameDictionary propertyNameDictionary) {
+        return new SimpleModule("ProductInfo")
+                .addSerializer(ProductInfo.class, new ProductInfoJsonSerializer(propertyNameDictionary));
+    }
+
+    @Bean
+    public CodecCustomizer binaryCodecCustomizer(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder) {
+        var cborMapper = objectMapperBuilder.getObject().factory(new CBORFactory()).build();
+        var smileMapper = objectMapperBuilder.getObject().factory(new SmileFactory()).build();
+
+        return configurer -> {
+            configurer.customCodecs().register(new Jackson2CborStreamingEncoder(cborMapper));
+            configurer.customCodecs().register(new Jackson2CborDecoder(cborMapper, MediaType.APPLICATION_CBOR));
+            configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper, BinaryMediaTypes.APPLICATION_SMILE, BinaryMediaTypes.APPLICATION_STREAM_SMILE));
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper, BinaryMediaTypes.APPLICATION_SMILE, BinaryMediaTypes.APPLICATION_STREAM_SMILE));
+        };
+    }
+}
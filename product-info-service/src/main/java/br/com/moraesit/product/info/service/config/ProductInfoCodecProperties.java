@@ -0,0 +1,20 @@
+package br.com.moraesit.product.info.service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "product-info.codec")
+public class ProductInfoCodecProperties {
+    // attribute names shared by most products; empty leaves every name as read
+    private List<String> commonPropertyNames = new ArrayList<>();
+
+    public List<String> getCommonPropertyNames() {
+        return commonPropertyNames;
+    }
+
+    public void setCommonPropertyNames(List<String> commonPropertyNames) {
+        this.commonPropertyNames = commonPropertyNames;
+    }
+}
@@ -0,0 +1,29 @@
+package br.com.moraesit.product.info.service.config;
+
+import br.com.moraesit.product.info.service.limit.LoadSheddingWebFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.reactive.result.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.core.publisher.Mono;
+
+@Configuration
+@EnableConfigurationProperties(ProductInfoLimiterProperties.class)
+@ConditionalOnProperty(prefix = "product-info.limiter", name = "enabled")
+public class ProductInfoLimiterConfiguration {
+
+    @Bean
+    public LoadSheddingWebFilter loadSheddingWebFilter(ProductInfoLimiterProperties properties,
+                                                       @Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping,
+                                                       MeterRegistry meterRegistry) {
+        // routes are keyed by the controller mapping that will serve the request, e.g. /v1/product-infos/{id}
+        return new LoadSheddingWebFilter(properties, exchange -> handlerMapping.getHandler(exchange)
+                .flatMap(handler -> Mono.justOrEmpty(exchange.<PathPattern>getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE)))
+                .map(PathPattern::getPatternString), meterRegistry);
+    }
+}
@@ -0,0 +1,121 @@
+package br.com.moraesit.product.info.service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "product-info.limiter")
+public class ProductInfoLimiterProperties {
+    private boolean enabled = false;
+    private List<String> includedPaths = new ArrayList<>(List.of("/v1/**"));
+    // streamed responses and bulk uploads would report transfer time as latency; an entry may name a method first
+    private List<String> excludedPaths = new ArrayList<>(List.of("GET /v1/product-infos", "/v1/product-infos/changes",
+            "/v1/product-infos/bulk"));
+    private int initialLimit = 20;
+    private int minLimit = 4;
+    private int maxLimit = 500;
+    private double backoffRatio = 0.9;
+    private double rttTolerance = 2.0;
+    private int shortRttSamples = 10;
+    private int longRttSamples = 500;
+    // share of a route's limit each class may occupy; reads are shed first since they are cacheable and safe to retry
+    private double readShare = 0.8;
+    private double writeShare = 1.0;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getIncludedPaths() {
+        return includedPaths;
+    }
+
+    public void setIncludedPaths(List<String> includedPaths) {
+        this.includedPaths = includedPaths;
+    }
+
+    public List<String> getExcludedPaths() {
+        return excludedPaths;
+    }
+
+    public void setExcludedPaths(List<String> excludedPaths) {
+        this.excludedPaths = excludedPaths;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public void setBackoffRatio(double backoffRatio) {
+        this.backoffRatio = backoffRatio;
+    }
+
+    public double getRttTolerance() {
+        return rttTolerance;
+    }
+
+    public void setRttTolerance(double rttTolerance) {
+        this.rttTolerance = rttTolerance;
+    }
+
+    public int getShortRttSamples() {
+        return shortRttSamples;
+    }
+
+    public void setShortRttSamples(int shortRttSamples) {
+        this.shortRttSamples = shortRttSamples;
+    }
+
+    public int getLongRttSamples() {
+        return longRttSamples;
+    }
+
+    public void setLongRttSamples(int longRttSamples) {
+        this.longRttSamples = longRttSamples;
+    }
+
+    public double getReadShare() {
+        return readShare;
+    }
+
+    public void setReadShare(double readShare) {
+        this.readShare = readShare;
+    }
+
+    public double getWriteShare() {
+        return writeShare;
+    }
+
+    public void setWriteShare(double writeShare) {
+        this.writeShare = writeShare;
+    }
+}
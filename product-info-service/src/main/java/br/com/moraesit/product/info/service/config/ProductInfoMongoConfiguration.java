@@ -0,0 +1,83 @@
+package br.com.moraesit.product.info.service.config;
+
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadPreference;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Configuration
+@EnableConfigurationProperties(ProductInfoMongoProperties.class)
+public class ProductInfoMongoConfiguration {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer productInfoMongoClientSettings(ProductInfoMongoProperties properties) {
+        return builder -> {
+            var pool = properties.getPool();
+            // applied to the builders Boot already populated, so the pool metrics listener is kept
+            builder.applyToConnectionPoolSettings(settings -> {
+                if (pool.getMinSize() != null) {
+                    settings.minSize(pool.getMinSize());
+                }
+                if (pool.getMaxSize() != null) {
+                    settings.maxSize(pool.getMaxSize());
+                }
+                if (pool.getMaxConnecting() != null) {
+                    settings.maxConnecting(pool.getMaxConnecting());
+                }
+                if (pool.getMaxWaitTime() != null) {
+                    settings.maxWaitTime(pool.getMaxWaitTime().toMillis(), TimeUnit.MILLISECONDS);
+                }
+                if (pool.getMaxConnectionIdleTime() != null) {
+                    settings.maxConnectionIdleTime(pool.getMaxConnectionIdleTime().toMillis(), TimeUnit.MILLISECONDS);
+                }
+                if (pool.getMaxConnectionLifeTime() != null) {
+                    settings.maxConnectionLifeTime(pool.getMaxConnectionLifeTime().toMillis(), TimeUnit.MILLISECONDS);
+                }
+            });
+
+            var socket = properties.getSocket();
+            builder.applyToSocketSettings(settings -> {
+                if (socket.getConnectTimeout() != null) {
+                    settings.connectTimeout((int) socket.getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS);
+                }
+                if (socket.getReadTimeout() != null) {
+                    settings.readTimeout((int) socket.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS);
+                }
+            });
+
+            if (properties.getServerSelectionTimeout() != null) {
+                builder.applyToClusterSettings(settings ->
+                        settings.serverSelectionTimeout(properties.getServerSelectionTimeout().toMillis(), TimeUnit.MILLISECONDS));
+            }
+            if (!properties.getCompressors().isEmpty()) {
+                // the server picks the first one in this list that it also supports
+                builder.compressorList(properties.getCompressors().stream()
+                        .map(ProductInfoMongoConfiguration::compressor)
+                        .collect(Collectors.toList()));
+            }
+            if (properties.getRead().getReadPreference() != null) {
+                builder.readPreference(ReadPreference.valueOf(properties.getRead().getReadPreference()));
+            }
+            if (properties.getRead().getReadConcern() != null) {
+                builder.readConcern(new ReadConcern(properties.getRead().getReadConcern()));
+            }
+        };
+    }
+
+    private static MongoCompressor compressor(ProductInfoMongoProperties.Compressor compressor) {
+        switch (compressor) {
+            case ZSTD:
+                return MongoCompressor.createZstdCompressor();
+            case SNAPPY:
+                return MongoCompressor.createSnappyCompressor();
+            default:
+                return MongoCompressor.createZlibCompressor();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package br.com.moraesit.product.info.service.config;
+
+import com.mongodb.ReadConcernLevel;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Driver settings applied on top of {@code spring.data.mongodb}. Anything left unset keeps the driver default.
+ */
+@ConfigurationProperties(prefix = "product-info.mongodb")
+public class ProductInfoMongoProperties {
+    private final Pool pool = new Pool();
+    private final Socket socket = new Socket();
+    private Duration serverSelectionTimeout;
+    private List<Compressor> compressors = new ArrayList<>();
+    private final ReadOptions read = new ReadOptions();
+    private final ReadOptions streamingRead = new ReadOptions();
+    // migrate the productInfo collection and create its indexes on startup, see ProductInfoIndexInitializer
+    private boolean manageCollection = true;
+
+    public Pool getPool() {
+        return pool;
+    }
+
+    public Socket getSocket() {
+        return socket;
+    }
+
+    public Duration getServerSelectionTimeout() {
+        return serverSelectionTimeout;
+    }
+
+    public void setServerSelectionTimeout(Duration serverSelectionTimeout) {
+        this.serverSelectionTimeout = serverSelectionTimeout;
+    }
+
+    public List<Compressor> getCompressors() {
+        return compressors;
+    }
+
+    public void setCompressors(List<Compressor> compressors) {
+        this.compressors = compressors;
+    }
+
+    public ReadOptions getRead() {
+        return read;
+    }
+
+    public ReadOptions getStreamingRead() {
+        return streamingRead;
+    }
+
+    public boolean isManageCollection() {
+        return manageCollection;
+    }
+
+    public void setManageCollection(boolean manageCollection) {
+        this.manageCollection = manageCollection;
+    }
+
+    public enum Compressor {
+        ZSTD, SNAPPY, ZLIB
+    }
+
+    public static class Pool {
+        private Integer minSize;
+        private Integer maxSize;
+        private Integer maxConnecting;
+        private Duration maxWaitTime;
+        private Duration maxConnectionIdleTime;
+        private Duration maxConnectionLifeTime;
+
+        public Integer getMinSize() {
+            return minSize;
+        }
+
+        public void setMinSize(Integer minSize) {
+            this.minSize = minSize;
+        }
+
+        public Integer getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(Integer maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Integer getMaxConnecting() {
+            return maxConnecting;
+        }
+
+        public void setMaxConnecting(Integer maxConnecting) {
+            this.maxConnecting = maxConnecting;
+        }
+
+        public Duration getMaxWaitTime() {
+            return maxWaitTime;
+        }
+
+        public void setMaxWaitTime(Duration maxWaitTime) {
+            this.maxWaitTime = maxWaitTime;
+        }
+
+        public Duration getMaxConnectionIdleTime() {
+            return maxConnectionIdleTime;
+        }
+
+        public void setMaxConnectionIdleTime(Duration maxConnectionIdleTime) {
+            this.maxConnectionIdleTime = maxConnectionIdleTime;
+        }
+
+        public Duration getMaxConnectionLifeTime() {
+            return maxConnectionLifeTime;
+        }
+
+        public void setMaxConnectionLifeTime(Duration maxConnectionLifeTime) {
+            this.maxConnectionLifeTime = maxConnectionLifeTime;
+        }
+    }
+
+    public static class Socket {
+        private Duration connectTimeout;
+        private Duration readTimeout;
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+    }
+
+    public static class ReadOptions {
+        private String readPreference;
+        private ReadConcernLevel readConcern;
+
+        public String getReadPreference() {
+            return readPreference;
+        }
+
+        public void setReadPreference(String readPreference) {
+            this.readPreference = readPreference;
+        }
+
+        public ReadConcernLevel getReadConcern() {
+            return readConcern;
+        }
+
+        public void setReadConcern(ReadConcernLevel readConcern) {
+            this.readConcern = readConcern;
+        }
+    }
+}
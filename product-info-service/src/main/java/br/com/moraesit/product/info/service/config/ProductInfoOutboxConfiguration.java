@@ -0,0 +1,55 @@
+package br.com.moraesit.product.info.service.config;
+
+import br.com.moraesit.product.info.service.outbox.FileProductInfoEventSink;
+import br.com.moraesit.product.info.service.outbox.InMemoryProductInfoEventSink;
+import br.com.moraesit.product.info.service.outbox.ProductInfoEventSink;
+import br.com.moraesit.product.info.service.outbox.ProductInfoOutbox;
+import br.com.moraesit.product.info.service.outbox.ProductInfoOutboxRelay;
+import br.com.moraesit.product.info.service.repository.ProductInfoOutboxRepository;
+import br.com.moraesit.product.info.service.scheduler.ProductInfoSchedulers;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.ReactiveMongoTransactionManager;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+@Configuration
+@EnableConfigurationProperties(ProductInfoOutboxProperties.class)
+public class ProductInfoOutboxConfiguration {
+
+    @Bean
+    public ProductInfoOutbox productInfoOutbox(ProductInfoOutboxProperties properties, ProductInfoOutboxRepository outboxRepository,
+                                               ReactiveMongoTemplate reactiveMongoTemplate, ReactiveMongoDatabaseFactory databaseFactory) {
+        if (!properties.isEnabled()) {
+            return ProductInfoOutbox.disabled();
+        }
+        // kept out of the context so nothing else starts running in transactions
+        var transactionManager = new ReactiveMongoTransactionManager(databaseFactory);
+        return new ProductInfoOutbox(outboxRepository, reactiveMongoTemplate, TransactionalOperator.create(transactionManager));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "product-info.outbox", name = "enabled")
+    public ProductInfoEventSink productInfoEventSink(ProductInfoOutboxProperties properties, ObjectMapper objectMapper,
+                                                     ProductInfoSchedulers productInfoSchedulers) {
+        if (properties.getSink() == ProductInfoOutboxProperties.Sink.MEMORY) {
+            return new InMemoryProductInfoEventSink();
+        }
+        return new FileProductInfoEventSink(properties.getFile(), objectMapper, productInfoSchedulers.getIo());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "product-info.outbox", name = "enabled")
+    public ProductInfoOutboxRelay productInfoOutboxRelay(ProductInfoOutboxRepository outboxRepository, ReactiveMongoTemplate reactiveMongoTemplate,
+                                                         ProductInfoEventSink sink, ProductInfoOutboxProperties properties,
+                                                         MeterRegistry meterRegistry) {
+        return new ProductInfoOutboxRelay(outboxRepository, reactiveMongoTemplate, sink, properties, meterRegistry);
+    }
+}
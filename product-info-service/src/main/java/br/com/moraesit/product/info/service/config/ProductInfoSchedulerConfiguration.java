@@ -0,0 +1,43 @@
+package br.com.moraesit.product.info.service.config;
+
+import br.com.moraesit.product.info.service.metrics.EventLoopLatencyProbe;
+import br.com.moraesit.product.info.service.scheduler.PayloadOffloadingWebFilter;
+import br.com.moraesit.product.info.service.scheduler.ProductInfoSchedulers;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorResourceFactory;
+import reactor.netty.http.HttpResources;
+import reactor.netty.resources.LoopResources;
+
+@Configuration
+@EnableConfigurationProperties(ProductInfoSchedulerProperties.class)
+public class ProductInfoSchedulerConfiguration {
+
+    @Bean(destroyMethod = "dispose")
+    public ProductInfoSchedulers productInfoSchedulers(ProductInfoSchedulerProperties properties, MeterRegistry meterRegistry) {
+        return new ProductInfoSchedulers(properties, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public PayloadOffloadingWebFilter payloadOffloadingWebFilter(ProductInfoSchedulers productInfoSchedulers,
+                                                                 ProductInfoSchedulerProperties properties) {
+        return new PayloadOffloadingWebFilter(productInfoSchedulers.getCpu(), properties);
+    }
+
+    // the loops the server runs on, which Boot takes from the ReactorResourceFactory
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public EventLoopLatencyProbe eventLoopLatencyProbe(ObjectProvider<ReactorResourceFactory> resourceFactory,
+                                                       ProductInfoSchedulerProperties properties, MeterRegistry meterRegistry) {
+        return new EventLoopLatencyProbe(() -> {
+            var factory = resourceFactory.getIfAvailable();
+            var loopResources = factory != null ? factory.getLoopResources() : HttpResources.get();
+            return loopResources.onServer(LoopResources.DEFAULT_NATIVE);
+        }, properties.getEventLoopProbeInterval(), meterRegistry);
+    }
+}
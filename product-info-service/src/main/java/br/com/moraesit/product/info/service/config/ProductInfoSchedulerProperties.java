@@ -0,0 +1,78 @@
+package br.com.moraesit.product.info.service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "product-info.schedulers")
+public class ProductInfoSchedulerProperties {
+    private int cpuThreads = Runtime.getRuntime().availableProcessors();
+    private int cpuQueueCapacity = 10000;
+    private int ioThreads = 10 * Runtime.getRuntime().availableProcessors();
+    private int ioQueueCapacity = 10000;
+    // request bodies above this size, or of unknown size, are decoded off the event loop
+    private DataSize offloadRequestBodiesOver = DataSize.ofKilobytes(64);
+    // responses of these paths are encoded off the event loop, they can hold a whole page of products
+    private List<String> offloadedResponsePaths = new ArrayList<>(List.of("/v1/product-infos", "/v1/product-infos/page",
+            "/v1/product-infos/search"));
+    private Duration eventLoopProbeInterval = Duration.ofMillis(100);
+
+    public int getCpuThreads() {
+        return cpuThreads;
+    }
+
+    public void setCpuThreads(int cpuThreads) {
+        this.cpuThreads = cpuThreads;
+    }
+
+    public int getCpuQueueCapacity() {
+        return cpuQueueCapacity;
+    }
+
+    public void setCpuQueueCapacity(int cpuQueueCapacity) {
+        this.cpuQueueCapacity = cpuQueueCapacity;
+    }
+
+    public int getIoThreads() {
+        return ioThreads;
+    }
+
+    public void setIoThreads(int ioThreads) {
+        this.ioThreads = ioThreads;
+    }
+
+    public int getIoQueueCapacity() {
+        return ioQueueCapacity;
+    }
+
+    public void setIoQueueCapacity(int ioQueueCapacity) {
+        this.ioQueueCapacity = ioQueueCapacity;
+    }
+
+    public DataSize getOffloadRequestBodiesOver() {
+        return offloadRequestBodiesOver;
+    }
+
+    public void setOffloadRequestBodiesOver(DataSize offloadRequestBodiesOver) {
+        this.offloadRequestBodiesOver = offloadRequestBodiesOver;
+    }
+
+    public List<String> getOffloadedResponsePaths() {
+        return offloadedResponsePaths;
+    }
+
+    public void setOffloadedResponsePaths(List<String> offloadedResponsePaths) {
+        this.offloadedResponsePaths = offloadedResponsePaths;
+    }
+
+    public Duration getEventLoopProbeInterval() {
+        return eventLoopProbeInterval;
+    }
+
+    public void setEventLoopProbeInterval(Duration eventLoopProbeInterval) {
+        this.eventLoopProbeInterval = eventLoopProbeInterval;
+    }
+}
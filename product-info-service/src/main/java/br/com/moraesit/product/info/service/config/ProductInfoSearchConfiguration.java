@@ -0,0 +1,37 @@
+package br.com.moraesit.product.info.service.config;
+
+import br.com.moraesit.product.info.service.repository.ProductInfoRepository;
+import br.com.moraesit.product.info.service.search.ProductInfoSearchIndex;
+import br.com.moraesit.product.info.service.search.ProductInfoSearchIndexLoader;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ProductInfoSearchProperties.class)
+public class ProductInfoSearchConfiguration {
+
+    @Bean
+    public ProductInfoSearchIndex productInfoSearchIndex(ProductInfoSearchProperties properties) {
+        return new ProductInfoSearchIndex(properties);
+    }
+
+    @Bean
+    public ProductInfoSearchIndexLoader productInfoSearchIndexLoader(ProductInfoRepository productInfoRepository,
+                                                                     ProductInfoSearchIndex productInfoSearchIndex,
+                                                                     ProductInfoSearchProperties properties) {
+        return new ProductInfoSearchIndexLoader(productInfoRepository, productInfoSearchIndex, properties);
+    }
+
+    @Bean
+    public MeterBinder productInfoSearchIndexMetrics(ProductInfoSearchIndex productInfoSearchIndex) {
+        return registry -> {
+            Gauge.builder("product.info.search.documents", productInfoSearchIndex, ProductInfoSearchIndex::size)
+                    .register(registry);
+            Gauge.builder("product.info.search.terms", productInfoSearchIndex, ProductInfoSearchIndex::termCount)
+                    .register(registry);
+        };
+    }
+}
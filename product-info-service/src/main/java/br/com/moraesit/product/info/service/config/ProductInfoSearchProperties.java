@@ -0,0 +1,76 @@
+package br.com.moraesit.product.info.service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "product-info.search")
+public class ProductInfoSearchProperties {
+    private boolean enabled = true;
+    // properties keys whose values are counted and filterable, only scalar values are faceted
+    private List<String> facetKeys = new ArrayList<>();
+    private int facetValueLimit = 10;
+    // a name match counts this many times a description match
+    private int nameWeight = 2;
+    private int loadBatchSize = 1000;
+    private Duration minRetryBackoff = Duration.ofSeconds(1);
+    private Duration maxRetryBackoff = Duration.ofSeconds(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getFacetKeys() {
+        return facetKeys;
+    }
+
+    public void setFacetKeys(List<String> facetKeys) {
+        this.facetKeys = facetKeys;
+    }
+
+    public int getFacetValueLimit() {
+        return facetValueLimit;
+    }
+
+    public void setFacetValueLimit(int facetValueLimit) {
+        this.facetValueLimit = facetValueLimit;
+    }
+
+    public int getNameWeight() {
+        return nameWeight;
+    }
+
+    public void setNameWeight(int nameWeight) {
+        this.nameWeight = nameWeight;
+    }
+
+    public int getLoadBatchSize() {
+        return loadBatchSize;
+    }
+
+    public void setLoadBatchSize(int loadBatchSize) {
+        this.loadBatchSize = loadBatchSize;
+    }
+
+    public Duration getMinRetryBackoff() {
+        return minRetryBackoff;
+    }
+
+    public void setMinRetryBackoff(Duration minRetryBackoff) {
+        this.minRetryBackoff = minRetryBackoff;
+    }
+
+    public Duration getMaxRetryBackoff() {
+        return maxRetryBackoff;
+    }
+
+    public void setMaxRetryBackoff(Duration maxRetryBackoff) {
+        this.maxRetryBackoff = maxRetryBackoff;
+    }
+}
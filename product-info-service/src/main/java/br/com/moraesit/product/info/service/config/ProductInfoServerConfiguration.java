@@ -0,0 +1,30 @@
+package br.com.moraesit.product.info.service.config;
+
+import br.com.moraesit.netty.server.NettyServerPropertiesCustomizer;
+import br.com.moraesit.netty.server.NettyServerResources;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorResourceFactory;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableConfigurationProperties(ProductInfoServerProperties.class)
+public class ProductInfoServerConfiguration {
+
+    @Bean
+    public NettyServerPropertiesCustomizer productInfoNettyServerCustomizer(ProductInfoServerProperties properties,
+                                                                          MeterRegistry meterRegistry) {
+        return new NettyServerPropertiesCustomizer(properties, "product.info", meterRegistry);
+    }
+
+    // replaces Boot's, whose loops the server runs on; the global loops size themselves from reactor.netty.ioWorkerCount
+    @Bean
+    @ConditionalOnProperty(prefix = "product-info.server", name = "event-loop-threads")
+    public ReactorResourceFactory productInfoResourceFactory(ProductInfoServerProperties properties) {
+        return NettyServerResources.eventLoops("product-info-http", properties);
+    }
+}
@@ -0,0 +1,21 @@
+package br.com.moraesit.product.info.service.config;
+
+import br.com.moraesit.netty.server.NettyServerProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reactor Netty settings applied on top of {@code server}; compression, HTTP/2, the idle timeout and keep-alive are
+ * Boot's own {@code server.*} properties.
+ */
+@ConfigurationProperties(prefix = "product-info.server")
+public class ProductInfoServerProperties extends NettyServerProperties {
+
+    public ProductInfoServerProperties() {
+        getMetrics().setUriTemplates(new ArrayList<>(List.of("/v1/product-infos", "/v1/product-infos/page",
+                "/v1/product-infos/search", "/v1/product-infos/changes", "/v1/product-infos/bulk", "/v1/product-infos/{id}",
+                "/actuator/**")));
+    }
+}
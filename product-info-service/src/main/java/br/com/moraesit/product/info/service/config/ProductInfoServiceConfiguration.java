@@ -0,0 +1,9 @@
+package br.com.moraesit.product.info.service.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({ProductInfoBulkProperties.class, ProductInfoBatchProperties.class, ProductInfoChangeStreamProperties.class})
+public class ProductInfoServiceConfiguration {
+}
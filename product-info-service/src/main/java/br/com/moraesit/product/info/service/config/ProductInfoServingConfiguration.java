@@ -0,0 +1,58 @@
+package br.com.moraesit.product.info.service.config;
+
+import br.com.moraesit.product.info.service.catalog.ProductInfoCatalog;
+import br.com.moraesit.product.info.service.catalog.ProductInfoCatalogSync;
+import br.com.moraesit.product.info.service.codec.ProductInfoBsonCodec;
+import br.com.moraesit.product.info.service.codec.PropertyNameDictionary;
+import br.com.moraesit.product.info.service.scheduler.ProductInfoSchedulers;
+import br.com.moraesit.product.info.service.search.ProductInfoSearchIndex;
+import com.mongodb.MongoClientSettings;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableConfigurationProperties(ProductInfoServingProperties.class)
+public class ProductInfoServingConfiguration {
+
+    @Bean
+    public ProductInfoCatalog productInfoCatalog(ProductInfoServingProperties properties, PropertyNameDictionary propertyNameDictionary) {
+        var codec = new ProductInfoBsonCodec(MongoClientSettings.getDefaultCodecRegistry(), propertyNameDictionary);
+        return new ProductInfoCatalog(properties, codec);
+    }
+
+    @Bean
+    public ProductInfoCatalogSync productInfoCatalogSync(ReactiveMongoTemplate reactiveMongoTemplate, ProductInfoCatalog productInfoCatalog,
+                                                         ProductInfoSearchIndex productInfoSearchIndex,
+                                                         ProductInfoServingProperties properties,
+                                                         ObjectProvider<ProductInfoMongoProperties> mongoProperties,
+                                                         ProductInfoSchedulers productInfoSchedulers) {
+        return new ProductInfoCatalogSync(reactiveMongoTemplate, productInfoCatalog, productInfoSearchIndex, properties,
+                mongoProperties.getIfAvailable(ProductInfoMongoProperties::new), productInfoSchedulers.getIo());
+    }
+
+    @Bean
+    public MeterBinder productInfoCatalogMetrics(ProductInfoCatalog productInfoCatalog, ProductInfoCatalogSync productInfoCatalogSync) {
+        return registry -> {
+            if (!productInfoCatalog.isEnabled()) {
+                return;
+            }
+            Gauge.builder("product.info.catalog.documents", productInfoCatalog, ProductInfoCatalog::size)
+                    .register(registry);
+            Gauge.builder("product.info.catalog.memory", productInfoCatalog, ProductInfoCatalog::memoryBytes)
+                    .baseUnit(BaseUnits.BYTES)
+                    .register(registry);
+            TimeGauge.builder("product.info.catalog.staleness", productInfoCatalogSync, TimeUnit.MILLISECONDS,
+                            ProductInfoCatalogSync::stalenessMillis)
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,89 @@
+package br.com.moraesit.product.info.service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "product-info.serving")
+public class ProductInfoServingProperties {
+    // memory serves reads from the in-memory catalog once it is loaded, writes always go to Mongo
+    private Mode mode = Mode.MONGO;
+    private int loadBatchSize = 1000;
+    private Duration syncInterval = Duration.ofSeconds(5);
+    // how far back each sync looks before the newest lastModified it has seen, covering writes whose clocks lag
+    private Duration syncOverlap = Duration.ofSeconds(10);
+    private Duration deleteSweepInterval = Duration.ofMinutes(5);
+    private Duration minRetryBackoff = Duration.ofSeconds(1);
+    private Duration maxRetryBackoff = Duration.ofSeconds(30);
+    // a snapshot to load the catalog from instead of the whole collection, only the changes since it are pulled
+    private Path snapshotFile;
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public int getLoadBatchSize() {
+        return loadBatchSize;
+    }
+
+    public void setLoadBatchSize(int loadBatchSize) {
+        this.loadBatchSize = loadBatchSize;
+    }
+
+    public Duration getSyncInterval() {
+        return syncInterval;
+    }
+
+    public void setSyncInterval(Duration syncInterval) {
+        this.syncInterval = syncInterval;
+    }
+
+    public Duration getSyncOverlap() {
+        return syncOverlap;
+    }
+
+    public void setSyncOverlap(Duration syncOverlap) {
+        this.syncOverlap = syncOverlap;
+    }
+
+    public Duration getDeleteSweepInterval() {
+        return deleteSweepInterval;
+    }
+
+    public void setDeleteSweepInterval(Duration deleteSweepInterval) {
+        this.deleteSweepInterval = deleteSweepInterval;
+    }
+
+    public Duration getMinRetryBackoff() {
+        return minRetryBackoff;
+    }
+
+    public void setMinRetryBackoff(Duration minRetryBackoff) {
+        this.minRetryBackoff = minRetryBackoff;
+    }
+
+    public Duration getMaxRetryBackoff() {
+        return maxRetryBackoff;
+    }
+
+    public void setMaxRetryBackoff(Duration maxRetryBackoff) {
+        this.maxRetryBackoff = maxRetryBackoff;
+    }
+
+    public Path getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    public void setSnapshotFile(Path snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    public enum Mode {
+        MONGO, MEMORY
+    }
+}
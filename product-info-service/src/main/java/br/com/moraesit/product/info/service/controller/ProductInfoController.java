@@ -1,40 +1,146 @@
 package br.com.moraesit.product.info.service.controller;
 
+import br.com.moraesit.product.info.service.change.ProductInfoChangeStream;
+import br.com.moraesit.product.info.service.codec.BinaryMediaTypes;
 import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.domain.ProductInfoBulkOperation;
+import br.com.moraesit.product.info.service.domain.ProductInfoBulkResult;
+import br.com.moraesit.product.info.service.domain.ProductInfoChange;
+import br.com.moraesit.product.info.service.domain.ProductInfoPage;
+import br.com.moraesit.product.info.service.domain.ProductInfoPageRequest;
+import br.com.moraesit.product.info.service.domain.ProductInfoRevision;
+import br.com.moraesit.product.info.service.domain.ProductInfoSearchRequest;
+import br.com.moraesit.product.info.service.domain.ProductInfoSearchResult;
+import br.com.moraesit.product.info.service.search.SearchIndexNotReadyException;
+import br.com.moraesit.product.info.service.service.FeatureDisabledException;
 import br.com.moraesit.product.info.service.service.ProductInfoService;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.concurrent.RejectedExecutionException;
+
 @RestController
-@RequestMapping("/v1/product-infos")
+// JSON stays first so clients that accept anything keep getting it; binary formats are served on request
+@RequestMapping(value = "/v1/product-infos", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+        BinaryMediaTypes.APPLICATION_SMILE_VALUE})
 public class ProductInfoController {
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
     private final ProductInfoService productInfoService;
+    private final ProductInfoChangeStream productInfoChangeStream;
 
-    public ProductInfoController(ProductInfoService productInfoService) {
+    public ProductInfoController(ProductInfoService productInfoService, ProductInfoChangeStream productInfoChangeStream) {
         this.productInfoService = productInfoService;
+        this.productInfoChangeStream = productInfoChangeStream;
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, BinaryMediaTypes.APPLICATION_SMILE_VALUE, BinaryMediaTypes.APPLICATION_STREAM_SMILE_VALUE})
+    public Mono<ResponseEntity<Flux<ProductInfo>>> getAllProductInfos() {
+        // the body is only subscribed when the If-None-Match check passes, so a 304 never streams the collection
+        return productInfoService.getCatalogRevision()
+                .map(revision -> ResponseEntity.ok()
+                        .eTag(revision.getETag())
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .body(productInfoService.getAllProductInfos()));
+    }
+
+    @GetMapping("/page")
+    public Mono<ProductInfoPage> getProductInfoPage(ProductInfoPageRequest pageRequest) {
+        return productInfoService.getProductInfoPage(pageRequest)
+                .onErrorMap(IllegalArgumentException.class,
+                        e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e));
+    }
+
+    @GetMapping("/search")
+    public Mono<ProductInfoSearchResult> searchProductInfos(ProductInfoSearchRequest searchRequest) {
+        return productInfoService.searchProductInfos(searchRequest)
+                .onErrorMap(SearchIndexNotReadyException.class,
+                        e -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e))
+                .onErrorMap(FeatureDisabledException.class,
+                        e -> new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, e.getMessage(), e))
+                .onErrorMap(IllegalArgumentException.class,
+                        e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e));
+    }
+
+    // each event's id is the change's eventId, which an EventSource sends back as Last-Event-ID when it reconnects
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ProductInfoChange>> streamProductInfoChanges(
+            @RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId) {
+        return getProductInfoChanges(lastEventId)
+                .map(change -> ServerSentEvent.builder(change).id(change.getEventId()).build());
     }
 
-    @GetMapping
-    public Flux<ProductInfo> getAllProductInfos() {
-        return productInfoService.getAllProductInfos();
+    @GetMapping(value = "/changes", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            BinaryMediaTypes.APPLICATION_STREAM_SMILE_VALUE})
+    public Flux<ProductInfoChange> getProductInfoChanges(@RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId) {
+        return productInfoChangeStream.changes(lastEventId)
+                .onErrorMap(FeatureDisabledException.class,
+                        e -> new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, e.getMessage(), e))
+                .onErrorMap(IllegalArgumentException.class,
+                        e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e));
     }
 
     @GetMapping("/{id}")
-    public Mono<ProductInfo> getProductInfoById(@PathVariable String id) {
-        return productInfoService.getProductInfoById(id).log();
+    public Mono<ResponseEntity<ProductInfo>> getProductInfoById(@PathVariable String id, ServerWebExchange exchange) {
+        Mono<ResponseEntity<ProductInfo>> notModified = Mono.empty();
+        if (isConditional(exchange.getRequest().getHeaders())) {
+            notModified = productInfoService.getProductInfoRevision(id)
+                    .filter(revision -> revision.getETag() != null
+                            && exchange.checkNotModified(revision.getETag(), revision.getLastModified()))
+                    .map(revision -> withValidators(ResponseEntity.status(HttpStatus.NOT_MODIFIED), revision).build());
+        }
+
+        return notModified.switchIfEmpty(Mono.defer(() -> productInfoService.getProductInfoById(id)
+                        .map(productInfo -> withValidators(ResponseEntity.ok(), ProductInfoRevision.of(productInfo)).body(productInfo))
+                        .defaultIfEmpty(ResponseEntity.ok().build())))
+                // the batch loader turns lookups away once too many are waiting on Mongo
+                .onErrorMap(RejectedExecutionException.class,
+                        e -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e));
     }
 
+    // creates only: an id that already exists is a conflict, replace it through PUT with its current version
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public Mono<ProductInfo> addProductInfo(@RequestBody ProductInfo productInfo) {
-        return productInfoService.addProductInfo(productInfo);
+        return productInfoService.addProductInfo(productInfo)
+                .onErrorMap(e -> e instanceof DuplicateKeyException || e instanceof OptimisticLockingFailureException,
+                        e -> new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e));
+    }
+
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, BinaryMediaTypes.APPLICATION_STREAM_SMILE_VALUE},
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, BinaryMediaTypes.APPLICATION_STREAM_SMILE_VALUE})
+    public Flux<ProductInfoBulkResult> bulkWriteProductInfos(@RequestBody Flux<ProductInfoBulkOperation> operations,
+                                                             @RequestParam(defaultValue = "false") boolean ordered) {
+        return productInfoService.bulkWriteProductInfos(operations, ordered)
+                .onErrorMap(FeatureDisabledException.class,
+                        e -> new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, e.getMessage(), e));
     }
 
     @PutMapping("/{id}")
     public Mono<ProductInfo> updateProductInfo(@PathVariable String id, @RequestBody ProductInfo updatedProductInfo) {
-        return productInfoService.updateProductInfo(id, updatedProductInfo);
+        return productInfoService.updateProductInfo(id, updatedProductInfo)
+                .onErrorMap(OptimisticLockingFailureException.class,
+                        e -> new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e));
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<ProductInfo> patchProductInfo(@PathVariable String id, @RequestBody ProductInfo patch) {
+        return productInfoService.patchProductInfo(id, patch)
+                .onErrorMap(OptimisticLockingFailureException.class,
+                        e -> new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e))
+                .onErrorMap(IllegalArgumentException.class,
+                        e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e));
     }
 
     @DeleteMapping("/{id}")
@@ -42,4 +148,15 @@ public class ProductInfoController {
     public Mono<Void> deleteProductInfo(@PathVariable String id) {
         return productInfoService.deleteProductInfo(id);
     }
+
+    private static boolean isConditional(HttpHeaders headers) {
+        return !headers.getIfNoneMatch().isEmpty() || headers.getIfModifiedSince() != -1;
+    }
+
+    private static ResponseEntity.BodyBuilder withValidators(ResponseEntity.BodyBuilder response, ProductInfoRevision revision) {
+        if (revision.getETag() != null) {
+            response.eTag(revision.getETag()).lastModified(revision.getLastModified());
+        }
+        return response.varyBy(HttpHeaders.ACCEPT);
+    }
 }
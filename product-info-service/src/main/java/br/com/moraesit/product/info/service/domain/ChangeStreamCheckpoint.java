@@ -0,0 +1,57 @@
+package br.com.moraesit.product.info.service.domain;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Where a change stream left off: the resume token of the last event it handled, or the time it first started
+ * when it has not handled any event yet.
+ */
+@Document
+public class ChangeStreamCheckpoint {
+    @Id
+    private String id;
+    private String resumeToken;
+    // the token belongs to an invalidate event, which can only be started after, not resumed after
+    private boolean invalidated;
+    private Instant startedAt;
+
+    public ChangeStreamCheckpoint(String id, String resumeToken, boolean invalidated, Instant startedAt) {
+        this.id = id;
+        this.resumeToken = resumeToken;
+        this.invalidated = invalidated;
+        this.startedAt = startedAt;
+    }
+
+    public ChangeStreamCheckpoint() {
+
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getResumeToken() {
+        return resumeToken;
+    }
+
+    public boolean isInvalidated() {
+        return invalidated;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeStreamCheckpoint{" +
+                "id='" + id + '\'' +
+                ", resumeToken='" + resumeToken + '\'' +
+                ", invalidated=" + invalidated +
+                ", startedAt=" + startedAt +
+                '}';
+    }
+}
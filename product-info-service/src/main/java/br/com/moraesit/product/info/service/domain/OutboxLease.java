@@ -0,0 +1,39 @@
+package br.com.moraesit.product.info.service.domain;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Which relay instance may drain an outbox, until when. Only one holder at a time keeps events in order.
+ */
+@Document
+public class OutboxLease {
+    @Id
+    private String id;
+    private String owner;
+    private Instant expiresAt;
+
+    public OutboxLease(String id, String owner, Instant expiresAt) {
+        this.id = id;
+        this.owner = owner;
+        this.expiresAt = expiresAt;
+    }
+
+    public OutboxLease() {
+
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -2,27 +2,46 @@ package br.com.moraesit.product.info.service.domain;
 
 import lombok.Builder;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.WildcardIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.Map;
 
 @Builder
 @Document
+// also serves name-only lookups and prefixes, so name has no index of its own
+@CompoundIndex(name = "name_price", def = "{'name': 1, 'price': 1}")
 public class ProductInfo {
     @Id
     private String id;
     private String name;
     private String description;
+    @Indexed(name = "price")
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal price;
+    @WildcardIndexed
     private Map<String, Object> properties;
+    @Version
+    private Long version;
+    @Indexed(name = "lastModified")
+    private Instant lastModified;
 
-    public ProductInfo(String id, String name, String description, BigDecimal price, Map<String, Object> properties) {
+    public ProductInfo(String id, String name, String description, BigDecimal price, Map<String, Object> properties, Long version,
+                       Instant lastModified) {
         this.id = id;
         this.name = name;
         this.description = description;
         this.price = price;
         this.properties = properties;
+        this.version = version;
+        this.lastModified = lastModified;
     }
 
     public ProductInfo() {
@@ -65,6 +84,22 @@ public class ProductInfo {
         return properties;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -88,6 +123,8 @@ public class ProductInfo {
                 ", description='" + description + '\'' +
                 ", price=" + price +
                 ", properties=" + properties +
+                ", version=" + version +
+                ", lastModified=" + lastModified +
                 '}';
     }
 }
@@ -0,0 +1,44 @@
+package br.com.moraesit.product.info.service.domain;
+
+public class ProductInfoBulkOperation {
+    public enum Type {
+        UPSERT, DELETE
+    }
+
+    private Type type;
+    private String id;
+    private ProductInfo productInfo;
+
+    public ProductInfoBulkOperation(Type type, String id, ProductInfo productInfo) {
+        this.type = type;
+        this.id = id;
+        this.productInfo = productInfo;
+    }
+
+    public ProductInfoBulkOperation() {
+
+    }
+
+    public static ProductInfoBulkOperation upsert(ProductInfo productInfo) {
+        return new ProductInfoBulkOperation(Type.UPSERT, productInfo.getId(), productInfo);
+    }
+
+    public static ProductInfoBulkOperation delete(String id) {
+        return new ProductInfoBulkOperation(Type.DELETE, id, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getId() {
+        if (id == null && productInfo != null) {
+            return productInfo.getId();
+        }
+        return id;
+    }
+
+    public ProductInfo getProductInfo() {
+        return productInfo;
+    }
+}
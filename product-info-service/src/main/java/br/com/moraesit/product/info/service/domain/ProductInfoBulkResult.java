@@ -0,0 +1,45 @@
+package br.com.moraesit.product.info.service.domain;
+
+public class ProductInfoBulkResult {
+    public enum Status {
+        OK, FAILED, SKIPPED
+    }
+
+    private long index;
+    private ProductInfoBulkOperation.Type type;
+    private String id;
+    private Status status;
+    private String error;
+
+    public ProductInfoBulkResult(long index, ProductInfoBulkOperation.Type type, String id, Status status, String error) {
+        this.index = index;
+        this.type = type;
+        this.id = id;
+        this.status = status;
+        this.error = error;
+    }
+
+    public ProductInfoBulkResult() {
+
+    }
+
+    public long getIndex() {
+        return index;
+    }
+
+    public ProductInfoBulkOperation.Type getType() {
+        return type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,33 @@
+package br.com.moraesit.product.info.service.domain;
+
+/**
+ * A counter that moves on every write to the {@link ProductInfo} collection, within a source that names where it is
+ * kept: Mongo, shared by every instance, or one in-memory catalog.
+ * <p>
+ * The ETag is weak: the listing is served as JSON, CBOR or Smile under the same revision, which are equivalent but
+ * not byte for byte the same.
+ */
+public class ProductInfoCatalogRevision {
+    // Mongo's counters, one document per product info collection, keyed by the collection's name
+    public static final String COLLECTION = "catalogRevision";
+
+    private final String source;
+    private final long revision;
+
+    public ProductInfoCatalogRevision(String source, long revision) {
+        this.source = source;
+        this.revision = revision;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public String getETag() {
+        return "W/\"" + source + "-" + Long.toHexString(revision) + "\"";
+    }
+}
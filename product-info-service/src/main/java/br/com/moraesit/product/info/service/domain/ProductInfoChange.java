@@ -0,0 +1,54 @@
+package br.com.moraesit.product.info.service.domain;
+
+public class ProductInfoChange {
+    public enum Type {
+        UPSERT, DELETE, INVALIDATE
+    }
+
+    private Type type;
+    private String id;
+    private ProductInfo productInfo;
+    // the change stream position right after this change, sent back as Last-Event-ID to resume from it
+    private String eventId;
+
+    public ProductInfoChange(Type type, String id, ProductInfo productInfo) {
+        this(type, id, productInfo, null);
+    }
+
+    public ProductInfoChange(Type type, String id, ProductInfo productInfo, String eventId) {
+        this.type = type;
+        this.id = id;
+        this.productInfo = productInfo;
+        this.eventId = eventId;
+    }
+
+    public ProductInfoChange() {
+
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public ProductInfo getProductInfo() {
+        return productInfo;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductInfoChange{" +
+                "type=" + type +
+                ", id='" + id + '\'' +
+                ", productInfo=" + productInfo +
+                ", eventId='" + eventId + '\'' +
+                '}';
+    }
+}
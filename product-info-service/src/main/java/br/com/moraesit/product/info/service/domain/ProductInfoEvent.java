@@ -0,0 +1,83 @@
+package br.com.moraesit.product.info.service.domain;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * One committed change to a {@link ProductInfo}, as stored in the outbox and handed to event sinks.
+ * <p>
+ * {@code sequence} counts the product's changes in commit order and never starts over, not even when a deleted product
+ * is created again, so a consumer that sees an event twice, or a smaller sequence than it already applied, can drop it.
+ */
+@Document(collection = "productInfoOutbox")
+public class ProductInfoEvent {
+    @Id
+    private String id;
+    private String productId;
+    private Type type;
+    private long sequence;
+    private ProductInfo productInfo;
+    private Instant createdAt;
+
+    public ProductInfoEvent(String id, String productId, Type type, long sequence, ProductInfo productInfo, Instant createdAt) {
+        this.id = id;
+        this.productId = productId;
+        this.type = type;
+        this.sequence = sequence;
+        this.productInfo = productInfo;
+        this.createdAt = createdAt;
+    }
+
+    public ProductInfoEvent() {
+
+    }
+
+    public static ProductInfoEvent upsert(ProductInfo productInfo, long sequence) {
+        return new ProductInfoEvent(null, productInfo.getId(), Type.UPSERT, sequence, productInfo, Instant.now());
+    }
+
+    public static ProductInfoEvent delete(String productId, long sequence) {
+        return new ProductInfoEvent(null, productId, Type.DELETE, sequence, null, Instant.now());
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public ProductInfo getProductInfo() {
+        return productInfo;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductInfoEvent{" +
+                "id='" + id + '\'' +
+                ", productId='" + productId + '\'' +
+                ", type=" + type +
+                ", sequence=" + sequence +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+
+    public enum Type {
+        UPSERT, DELETE
+    }
+}
@@ -0,0 +1,33 @@
+package br.com.moraesit.product.info.service.domain;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * A one-off migration of the productInfo collection that has been applied, so later startups skip it.
+ */
+@Document
+public class ProductInfoMigration {
+    @Id
+    private String id;
+    private Instant appliedAt;
+
+    public ProductInfoMigration(String id, Instant appliedAt) {
+        this.id = id;
+        this.appliedAt = appliedAt;
+    }
+
+    public ProductInfoMigration() {
+
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Instant getAppliedAt() {
+        return appliedAt;
+    }
+}
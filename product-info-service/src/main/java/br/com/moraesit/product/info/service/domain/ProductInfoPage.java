@@ -0,0 +1,25 @@
+package br.com.moraesit.product.info.service.domain;
+
+import java.util.List;
+
+public class ProductInfoPage {
+    private List<ProductInfo> items;
+    private String next;
+
+    public ProductInfoPage(List<ProductInfo> items, String next) {
+        this.items = items;
+        this.next = next;
+    }
+
+    public ProductInfoPage() {
+
+    }
+
+    public List<ProductInfo> getItems() {
+        return items;
+    }
+
+    public String getNext() {
+        return next;
+    }
+}
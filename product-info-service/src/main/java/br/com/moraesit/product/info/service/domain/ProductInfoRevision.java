@@ -0,0 +1,42 @@
+package br.com.moraesit.product.info.service.domain;
+
+import java.time.Instant;
+
+/**
+ * The validators of one stored {@link ProductInfo}: enough to answer a conditional request without the document.
+ */
+public class ProductInfoRevision {
+    private final String id;
+    private final Long version;
+    private final Instant lastModified;
+
+    public ProductInfoRevision(String id, Long version, Instant lastModified) {
+        this.id = id;
+        this.version = version;
+        this.lastModified = lastModified;
+    }
+
+    public static ProductInfoRevision of(ProductInfo productInfo) {
+        return new ProductInfoRevision(productInfo.getId(), productInfo.getVersion(), productInfo.getLastModified());
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    // every write bumps lastModified, including bulk replaces which do not carry a version
+    public String getETag() {
+        if (lastModified == null) {
+            return null;
+        }
+        return "\"" + Long.toHexString(version == null ? 0 : version) + "-" + Long.toHexString(lastModified.toEpochMilli()) + "\"";
+    }
+}
@@ -0,0 +1,37 @@
+package br.com.moraesit.product.info.service.domain;
+
+import java.util.List;
+
+public class ProductInfoSearchRequest {
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    private String q;
+    // facet filters as key:value, all of them must match
+    private List<String> filter;
+    private int size = DEFAULT_SIZE;
+
+    public String getQ() {
+        return q;
+    }
+
+    public void setQ(String q) {
+        this.q = q;
+    }
+
+    public List<String> getFilter() {
+        return filter;
+    }
+
+    public void setFilter(List<String> filter) {
+        this.filter = filter;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+}
@@ -0,0 +1,32 @@
+package br.com.moraesit.product.info.service.domain;
+
+import java.util.List;
+import java.util.Map;
+
+public class ProductInfoSearchResult {
+    private List<ProductInfo> items;
+    private long total;
+    private Map<String, Map<String, Integer>> facets;
+
+    public ProductInfoSearchResult(List<ProductInfo> items, long total, Map<String, Map<String, Integer>> facets) {
+        this.items = items;
+        this.total = total;
+        this.facets = facets;
+    }
+
+    public ProductInfoSearchResult() {
+
+    }
+
+    public List<ProductInfo> getItems() {
+        return items;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public Map<String, Map<String, Integer>> getFacets() {
+        return facets;
+    }
+}
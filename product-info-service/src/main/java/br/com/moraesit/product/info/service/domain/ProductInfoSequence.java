@@ -0,0 +1,32 @@
+package br.com.moraesit.product.info.service.domain;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * The last outbox sequence handed out for a product. It outlives the product, so a product deleted and created again
+ * keeps counting up instead of starting over with its version.
+ */
+@Document
+public class ProductInfoSequence {
+    @Id
+    private String id;
+    private long sequence;
+
+    public ProductInfoSequence(String id, long sequence) {
+        this.id = id;
+        this.sequence = sequence;
+    }
+
+    public ProductInfoSequence() {
+
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+}
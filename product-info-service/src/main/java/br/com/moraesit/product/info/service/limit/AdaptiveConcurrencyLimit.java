@@ -0,0 +1,120 @@
+package br.com.moraesit.product.info.service.limit;
+
+import br.com.moraesit.product.info.service.config.ProductInfoLimiterProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit for one route that adapts to observed latency (AIMD).
+ * <p>
+ * Each request class keeps its own latency baseline, a long-term average over about {@code long-rtt-samples}
+ * responses, compared against a short-term average over about {@code short-rtt-samples}. Averages absorb a route's
+ * normal mix of fast and slow responses (cache hits and Mongo lookups behind {@code /v1/product-infos/{id}}), so only a
+ * sustained slowdown reads as congestion. When the short-term average exceeds {@code rtt-tolerance} times the baseline,
+ * or a response fails, the limit shrinks by {@code backoff-ratio}. Responses to requests that started before the last
+ * decrease do not shrink it again, so one slow burst is only punished once. A response on time while at least half the
+ * limit was in use grows it by one.
+ */
+public class AdaptiveConcurrencyLimit {
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double rttTolerance;
+    private final int shortRttSamples;
+    private final int longRttSamples;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<String, Baseline> baselines = new HashMap<>();
+
+    private volatile double limit;
+    private double smoothedRttNanos;
+    private long lastDecreaseAt;
+
+    public AdaptiveConcurrencyLimit(ProductInfoLimiterProperties properties) {
+        this.minLimit = properties.getMinLimit();
+        this.maxLimit = properties.getMaxLimit();
+        this.backoffRatio = properties.getBackoffRatio();
+        this.rttTolerance = properties.getRttTolerance();
+        this.shortRttSamples = properties.getShortRttSamples();
+        this.longRttSamples = properties.getLongRttSamples();
+        this.limit = Math.max(minLimit, Math.min(maxLimit, properties.getInitialLimit()));
+    }
+
+    /**
+     * Takes a slot if fewer than {@code share} of the limit are in flight; returns the in-flight count including the
+     * new request, or -1 when rejected.
+     */
+    public int tryAcquire(double share) {
+        int allowed = Math.max(1, (int) (limit * share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public synchronized void onSample(String requestClass, long startedAt, long rttNanos, int inFlightAtStart, boolean dropped) {
+        boolean congested = dropped;
+        if (!dropped) {
+            var baseline = baselines.computeIfAbsent(requestClass, c -> new Baseline());
+            congested = baseline.update(rttNanos);
+            smoothedRttNanos = smoothedRttNanos == 0 ? rttNanos : smoothedRttNanos * 0.9 + rttNanos * 0.1;
+        }
+
+        long now = startedAt + rttNanos;
+        if (congested) {
+            if (startedAt - lastDecreaseAt >= 0 || lastDecreaseAt == 0) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastDecreaseAt = now;
+            }
+        } else if (inFlightAtStart * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    public double getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public synchronized long getSmoothedRttNanos() {
+        return (long) smoothedRttNanos;
+    }
+
+    private class Baseline {
+        private long samples;
+        private double shortRttNanos;
+        private double longRttNanos;
+
+        /**
+         * Folds in one response time and tells whether the class is congested. Until the short-term average has
+         * {@code short-rtt-samples} responses behind it, nothing counts as congestion.
+         */
+        private boolean update(long rttNanos) {
+            if (samples++ == 0) {
+                shortRttNanos = rttNanos;
+                longRttNanos = rttNanos;
+                return false;
+            }
+            shortRttNanos += (rttNanos - shortRttNanos) * 2 / (shortRttSamples + 1);
+            longRttNanos += (rttNanos - longRttNanos) * 2 / (longRttSamples + 1);
+            if (longRttNanos > shortRttNanos * 2) {
+                // latency dropped well below the baseline, e.g. a cold cache warmed up: let it follow quickly
+                longRttNanos = longRttNanos * 0.95 + shortRttNanos * 0.05;
+            }
+            return samples >= shortRttSamples && shortRttNanos > longRttNanos * rttTolerance;
+        }
+    }
+}
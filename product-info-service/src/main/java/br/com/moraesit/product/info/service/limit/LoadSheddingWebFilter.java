@@ -0,0 +1,176 @@
+package br.com.moraesit.product.info.service.limit;
+
+import br.com.moraesit.product.info.service.config.ProductInfoLimiterProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Admits requests per route against an {@link AdaptiveConcurrencyLimit}, rejecting the excess immediately instead of
+ * letting it queue behind a slow database.
+ * <p>
+ * A request whose class (read or write) has used up its share of the route's limit gets {@code 429}; when the whole
+ * limit is in use it gets {@code 503}. Both carry a {@code Retry-After} of about one smoothed response time. Limiter
+ * state is published as {@code product.info.limiter.limit}, {@code product.info.limiter.in.flight} and
+ * {@code product.info.limiter.rejected}, tagged by route.
+ */
+public class LoadSheddingWebFilter implements WebFilter, Ordered {
+    public static final String LIMIT = "product.info.limiter.limit";
+    public static final String IN_FLIGHT = "product.info.limiter.in.flight";
+    public static final String REJECTED = "product.info.limiter.rejected";
+
+    private final ProductInfoLimiterProperties properties;
+    private final Function<ServerWebExchange, Mono<String>> routeResolver;
+    private final MeterRegistry meterRegistry;
+    private final List<RouteMatcher> includedPaths;
+    private final List<RouteMatcher> excludedPaths;
+    private final Map<String, AdaptiveConcurrencyLimit> limits = new ConcurrentHashMap<>();
+
+    public LoadSheddingWebFilter(ProductInfoLimiterProperties properties, Function<ServerWebExchange, Mono<String>> routeResolver,
+                                 MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.routeResolver = routeResolver;
+        this.meterRegistry = meterRegistry;
+        this.includedPaths = parse(properties.getIncludedPaths());
+        this.excludedPaths = parse(properties.getExcludedPaths());
+    }
+
+    @Override
+    public int getOrder() {
+        // after the http.server.requests metrics filter, so shed requests still show up there
+        return Ordered.HIGHEST_PRECEDENCE + 10;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        var request = exchange.getRequest();
+        if (!matches(includedPaths, request.getMethod(), request.getPath().pathWithinApplication())
+                || matches(excludedPaths, request.getMethod(), request.getPath().pathWithinApplication())) {
+            return chain.filter(exchange);
+        }
+
+        return routeResolver.apply(exchange)
+                .onErrorResume(e -> Mono.empty())
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                // unmapped requests are left for the dispatcher to answer
+                .flatMap(route -> route.isPresent() ? admit(route.get(), exchange, chain) : chain.filter(exchange));
+    }
+
+    private Mono<Void> admit(String route, ServerWebExchange exchange, WebFilterChain chain) {
+        var limit = limits.computeIfAbsent(route, this::register);
+        var requestClass = isRead(exchange.getRequest().getMethod()) ? "read" : "write";
+        var share = "read".equals(requestClass) ? properties.getReadShare() : properties.getWriteShare();
+
+        int inFlight = limit.tryAcquire(share);
+        if (inFlight < 0) {
+            var status = limit.getInFlight() >= (int) limit.getLimit() ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS;
+            return reject(exchange, route, requestClass, status, limit);
+        }
+
+        long startedAt = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    limit.release();
+                    if (signal != SignalType.CANCEL) {
+                        limit.onSample(requestClass, startedAt, System.nanoTime() - startedAt, inFlight,
+                                signal == SignalType.ON_ERROR || isServerError(exchange));
+                    }
+                });
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, String route, String requestClass, HttpStatus status,
+                              AdaptiveConcurrencyLimit limit) {
+        Counter.builder(REJECTED)
+                .tag("route", route)
+                .tag("class", requestClass)
+                .tag("status", String.valueOf(status.value()))
+                .register(meterRegistry)
+                .increment();
+
+        var response = exchange.getResponse();
+        response.setStatusCode(status);
+        long retryAfterSeconds = Math.max(1, (long) Math.ceil(limit.getSmoothedRttNanos() / (double) Duration.ofSeconds(1).toNanos()));
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return response.setComplete();
+    }
+
+    private AdaptiveConcurrencyLimit register(String route) {
+        var limit = new AdaptiveConcurrencyLimit(properties);
+        Gauge.builder(LIMIT, limit, AdaptiveConcurrencyLimit::getLimit)
+                .tag("route", route)
+                .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT, limit, AdaptiveConcurrencyLimit::getInFlight)
+                .tag("route", route)
+                .register(meterRegistry);
+        return limit;
+    }
+
+    private static boolean isRead(HttpMethod method) {
+        return method == HttpMethod.GET || method == HttpMethod.HEAD || method == HttpMethod.OPTIONS;
+    }
+
+    private static boolean isServerError(ServerWebExchange exchange) {
+        var status = exchange.getResponse().getStatusCode();
+        return status != null && status.is5xxServerError();
+    }
+
+    private static boolean matches(List<RouteMatcher> matchers, HttpMethod method, PathContainer path) {
+        return matchers.stream().anyMatch(matcher -> matcher.matches(method, path));
+    }
+
+    private static List<RouteMatcher> parse(List<String> patterns) {
+        return patterns.stream()
+                .map(RouteMatcher::parse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * A path pattern, optionally preceded by the one method it applies to, e.g. {@code GET /v1/product-infos}.
+     */
+    private static class RouteMatcher {
+        private final HttpMethod method;
+        private final PathPattern pattern;
+
+        private RouteMatcher(HttpMethod method, PathPattern pattern) {
+            this.method = method;
+            this.pattern = pattern;
+        }
+
+        private static RouteMatcher parse(String route) {
+            var parts = route.trim().split("\\s+", 2);
+            if (parts.length == 1) {
+                return new RouteMatcher(null, PathPatternParser.defaultInstance.parse(parts[0]));
+            }
+            var method = HttpMethod.resolve(parts[0].toUpperCase());
+            if (method == null) {
+                throw new IllegalArgumentException("Unknown method in limiter route: " + route);
+            }
+            return new RouteMatcher(method, PathPatternParser.defaultInstance.parse(parts[1]));
+        }
+
+        private boolean matches(HttpMethod method, PathContainer path) {
+            return (this.method == null || this.method == method) && pattern.matches(path);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package br.com.moraesit.product.info.service.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.ScheduledFuture;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures how late the Netty event loops run a task, which is how long any request on them waits behind whatever the
+ * loop is busy with, blocking calls and long (de)serialization in particular.
+ * <p>
+ * Each loop runs a task every interval and how long after it was due it ran is recorded in
+ * {@code netty.event.loop.latency}, with a percentile histogram. {@code netty.event.loop.pending.tasks} is the queue
+ * depth of each loop, tagged with its index.
+ */
+public class EventLoopLatencyProbe implements SmartLifecycle {
+    public static final String LATENCY = "netty.event.loop.latency";
+    public static final String PENDING_TASKS = "netty.event.loop.pending.tasks";
+
+    private final Supplier<EventLoopGroup> eventLoops;
+    private final Duration interval;
+    private final MeterRegistry meterRegistry;
+    private final Timer latency;
+    private final Map<EventExecutor, ScheduledFuture<?>> probes = new ConcurrentHashMap<>();
+    private volatile boolean running;
+
+    public EventLoopLatencyProbe(Supplier<EventLoopGroup> eventLoops, Duration interval, MeterRegistry meterRegistry) {
+        this.eventLoops = eventLoops;
+        this.interval = interval;
+        this.meterRegistry = meterRegistry;
+        this.latency = Timer.builder(LATENCY)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        int index = 0;
+        for (EventExecutor loop : eventLoops.get()) {
+            if (loop instanceof SingleThreadEventExecutor) {
+                Gauge.builder(PENDING_TASKS, (SingleThreadEventExecutor) loop, SingleThreadEventExecutor::pendingTasks)
+                        .tag("loop", String.valueOf(index))
+                        .register(meterRegistry);
+            }
+            index++;
+            schedule(loop);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        probes.values().forEach(probe -> probe.cancel(false));
+        probes.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void schedule(EventExecutor loop) {
+        long due = System.nanoTime() + interval.toNanos();
+        probes.put(loop, loop.schedule(() -> {
+            latency.record(Math.max(0, System.nanoTime() - due), TimeUnit.NANOSECONDS);
+            if (running) {
+                schedule(loop);
+            }
+        }, interval.toNanos(), TimeUnit.NANOSECONDS));
+    }
+}
@@ -0,0 +1,96 @@
+package br.com.moraesit.product.info.service.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * Times reactive service calls from subscription to termination.
+ * <p>
+ * Each call records {@code product.info.service} (a timer tagged with method, outcome and exception) and
+ * {@code product.info.service.result.size} (how many items the call returned), both with percentile histograms.
+ */
+@Component
+public class ProductInfoMetrics {
+    public static final String SERVICE_TIMER = "product.info.service";
+    public static final String RESULT_SIZE = "product.info.service.result.size";
+
+    private final MeterRegistry meterRegistry;
+
+    public ProductInfoMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> Mono<T> timed(String method, Mono<T> mono) {
+        return timed(method, mono, value -> 1);
+    }
+
+    public <T> Mono<T> timed(String method, Mono<T> mono, ToIntFunction<T> resultSize) {
+        return Mono.defer(() -> {
+            var call = new Call(method);
+            return mono
+                    .doOnNext(value -> call.size += resultSize.applyAsInt(value))
+                    .doOnError(call::failed)
+                    .doFinally(call::stop);
+        });
+    }
+
+    public <T> Flux<T> timed(String method, Flux<T> flux) {
+        return Flux.defer(() -> {
+            var call = new Call(method);
+            return flux
+                    .doOnNext(value -> call.size++)
+                    .doOnError(call::failed)
+                    .doFinally(call::stop);
+        });
+    }
+
+    private class Call {
+        private final String method;
+        private final long startNanos = meterRegistry.config().clock().monotonicTime();
+        private String exception = "none";
+        private long size;
+
+        private Call(String method) {
+            this.method = method;
+        }
+
+        private void failed(Throwable error) {
+            exception = error.getClass().getSimpleName();
+        }
+
+        private void stop(SignalType signalType) {
+            String outcome;
+            if (signalType == SignalType.ON_ERROR) {
+                outcome = "ERROR";
+            } else if (signalType == SignalType.CANCEL) {
+                outcome = "CANCELLED";
+            } else {
+                outcome = "SUCCESS";
+            }
+
+            Timer.builder(SERVICE_TIMER)
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(meterRegistry.config().clock().monotonicTime() - startNanos, TimeUnit.NANOSECONDS);
+
+            if (signalType != SignalType.CANCEL) {
+                DistributionSummary.builder(RESULT_SIZE)
+                        .tag("method", method)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+                        .record(size);
+            }
+        }
+    }
+}
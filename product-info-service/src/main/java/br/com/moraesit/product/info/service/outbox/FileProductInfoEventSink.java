@@ -0,0 +1,59 @@
+package br.com.moraesit.product.info.service.outbox;
+
+import br.com.moraesit.product.info.service.domain.ProductInfoEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends events to a file as newline-delimited JSON, on the given scheduler since the writes block. A call only
+ * completes once its lines are forced to disk.
+ */
+public class FileProductInfoEventSink implements ProductInfoEventSink {
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    private final Scheduler scheduler;
+
+    public FileProductInfoEventSink(Path file, ObjectMapper objectMapper, Scheduler scheduler) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Mono<Void> publish(List<ProductInfoEvent> events) {
+        return Mono.<Void>fromRunnable(() -> append(events))
+                .subscribeOn(scheduler);
+    }
+
+    private void append(List<ProductInfoEvent> events) {
+        try {
+            var lines = new ByteArrayOutputStream();
+            for (ProductInfoEvent event : events) {
+                lines.write(objectMapper.writeValueAsBytes(event));
+                lines.write('\n');
+            }
+            // concurrent groups of different products must not interleave their lines
+            synchronized (this) {
+                try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                    var buffer = ByteBuffer.wrap(lines.toByteArray());
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    channel.force(false);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
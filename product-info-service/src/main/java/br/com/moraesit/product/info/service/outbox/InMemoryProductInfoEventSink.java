@@ -0,0 +1,25 @@
+package br.com.moraesit.product.info.service.outbox;
+
+import br.com.moraesit.product.info.service.domain.ProductInfoEvent;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class InMemoryProductInfoEventSink implements ProductInfoEventSink {
+    private final List<ProductInfoEvent> events = new CopyOnWriteArrayList<>();
+
+    @Override
+    public Mono<Void> publish(List<ProductInfoEvent> events) {
+        return Mono.fromRunnable(() -> this.events.addAll(events));
+    }
+
+    public List<ProductInfoEvent> getEvents() {
+        return new ArrayList<>(events);
+    }
+
+    public void clear() {
+        events.clear();
+    }
+}
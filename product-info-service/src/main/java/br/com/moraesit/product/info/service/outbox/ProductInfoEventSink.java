@@ -0,0 +1,18 @@
+package br.com.moraesit.product.info.service.outbox;
+
+import br.com.moraesit.product.info.service.domain.ProductInfoEvent;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Where {@link ProductInfoOutboxRelay} delivers events. Each call carries the pending events of a single product in
+ * the order they were written; completing the returned {@link Mono} acknowledges all of them.
+ * <p>
+ * Delivery is at least once: a failed or unacknowledged call is retried with the same events, possibly followed by
+ * newer ones, so implementations should tolerate duplicates (see {@link ProductInfoEvent#getSequence()}).
+ */
+public interface ProductInfoEventSink {
+
+    Mono<Void> publish(List<ProductInfoEvent> events);
+}
@@ -0,0 +1,103 @@
+package br.com.moraesit.product.info.service.outbox;
+
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.domain.ProductInfoEvent;
+import br.com.moraesit.product.info.service.domain.ProductInfoRevision;
+import br.com.moraesit.product.info.service.domain.ProductInfoSequence;
+import br.com.moraesit.product.info.service.repository.ProductInfoOutboxRepository;
+import com.mongodb.MongoException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * Records a {@link ProductInfoEvent} for each product write in the same Mongo transaction as the write, so an event
+ * exists exactly when its write committed. {@link ProductInfoOutboxRelay} publishes them afterwards.
+ * <p>
+ * Each event takes the next sequence of its product from a {@link ProductInfoSequence} counter in the same
+ * transaction. Two transactions writing one product conflict on that counter, so sequences follow commit order.
+ * <p>
+ * A transaction that loses a write conflict or hits another transient transaction error is retried a few times, which
+ * subscribes to the write again: it must be a fresh write on every subscription.
+ * <p>
+ * When the outbox is disabled the writes pass through untouched and outside any transaction.
+ */
+public class ProductInfoOutbox {
+    private static final int WRITE_CONFLICT = 112;
+    private static final int MAX_TRANSACTION_RETRIES = 3;
+    private static final Duration MIN_TRANSACTION_BACKOFF = Duration.ofMillis(10);
+
+    private final ProductInfoOutboxRepository outboxRepository;
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final TransactionalOperator transactionalOperator;
+
+    public ProductInfoOutbox(ProductInfoOutboxRepository outboxRepository, ReactiveMongoTemplate reactiveMongoTemplate,
+                             TransactionalOperator transactionalOperator) {
+        this.outboxRepository = outboxRepository;
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    public static ProductInfoOutbox disabled() {
+        return new ProductInfoOutbox(null, null, null);
+    }
+
+    public boolean isEnabled() {
+        return transactionalOperator != null;
+    }
+
+    public Mono<ProductInfo> recordUpsert(Mono<ProductInfo> write) {
+        if (!isEnabled()) {
+            return write;
+        }
+        return write
+                .flatMap(productInfo -> nextSequence(productInfo.getId())
+                        .flatMap(sequence -> outboxRepository.save(ProductInfoEvent.upsert(productInfo, sequence)))
+                        .thenReturn(productInfo))
+                .as(transactionalOperator::transactional)
+                .retryWhen(transientTransactionErrors());
+    }
+
+    public Mono<Void> recordDelete(Mono<ProductInfoRevision> delete) {
+        if (!isEnabled()) {
+            return delete.then();
+        }
+        return delete
+                .flatMap(deleted -> nextSequence(deleted.getId())
+                        .flatMap(sequence -> outboxRepository.save(ProductInfoEvent.delete(deleted.getId(), sequence))))
+                .then()
+                .as(transactionalOperator::transactional)
+                .retryWhen(transientTransactionErrors());
+    }
+
+    private Mono<Long> nextSequence(String productId) {
+        return reactiveMongoTemplate.findAndModify(Query.query(Criteria.where("id").is(productId)), new Update().inc("sequence", 1),
+                        FindAndModifyOptions.options().upsert(true).returnNew(true), ProductInfoSequence.class)
+                .map(ProductInfoSequence::getSequence);
+    }
+
+    private static Retry transientTransactionErrors() {
+        return Retry.backoff(MAX_TRANSACTION_RETRIES, MIN_TRANSACTION_BACKOFF)
+                .filter(ProductInfoOutbox::isTransient)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    // Spring translates driver exceptions, so the label may sit on a cause
+    static boolean isTransient(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException) {
+                var mongoException = (MongoException) cause;
+                return mongoException.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)
+                        || mongoException.getCode() == WRITE_CONFLICT;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,208 @@
+package br.com.moraesit.product.info.service.outbox;
+
+import br.com.moraesit.product.info.service.config.ProductInfoOutboxProperties;
+import br.com.moraesit.product.info.service.domain.OutboxLease;
+import br.com.moraesit.product.info.service.domain.ProductInfoEvent;
+import br.com.moraesit.product.info.service.repository.ProductInfoOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the outbox to a {@link ProductInfoEventSink}, oldest events first.
+ * <p>
+ * Only the instance holding the outbox lease relays, so events of one product reach the sink in order. Each batch is
+ * split per product and the products are published concurrently; a product's events are deleted only after the sink
+ * acknowledged them, so a failure or crash in between publishes them again (at least once). A product whose publish
+ * failed keeps its events at the head of the outbox and is retried on the next poll, ahead of anything newer.
+ * <p>
+ * Before publishing a product the lease is renewed once half of it has passed. A relay that lost the lease publishes
+ * nothing more of the batch, so a slow sink cannot keep it publishing alongside the next holder.
+ * <p>
+ * Publishes {@code product.info.outbox.lag} (age of the oldest pending event, reported by the lease holder only),
+ * {@code product.info.outbox.published} and {@code product.info.outbox.failed}.
+ */
+public class ProductInfoOutboxRelay implements SmartLifecycle {
+    public static final String LAG = "product.info.outbox.lag";
+    public static final String PUBLISHED = "product.info.outbox.published";
+    public static final String FAILED = "product.info.outbox.failed";
+
+    private static final Logger log = LoggerFactory.getLogger(ProductInfoOutboxRelay.class);
+
+    private final ProductInfoOutboxRepository outboxRepository;
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final ProductInfoEventSink sink;
+    private final ProductInfoOutboxProperties properties;
+    private final String owner = UUID.randomUUID().toString();
+    private final AtomicLong lagMillis = new AtomicLong();
+    // System.nanoTime() after which the lease is renewed before publishing more
+    private volatile long leaseRenewalDueAt;
+    private final Counter published;
+    private final Counter failed;
+    private volatile Disposable subscription;
+
+    public ProductInfoOutboxRelay(ProductInfoOutboxRepository outboxRepository, ReactiveMongoTemplate reactiveMongoTemplate,
+                                  ProductInfoEventSink sink, ProductInfoOutboxProperties properties, MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.sink = sink;
+        this.properties = properties;
+        TimeGauge.builder(LAG, lagMillis, TimeUnit.MILLISECONDS, AtomicLong::doubleValue)
+                .register(meterRegistry);
+        this.published = meterRegistry.counter(PUBLISHED);
+        this.failed = meterRegistry.counter(FAILED);
+    }
+
+    @Override
+    public void start() {
+        if (isRunning()) {
+            return;
+        }
+        subscription = Mono.defer(this::poll)
+                .repeat()
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, properties.getMinRetryBackoff())
+                        .maxBackoff(properties.getMaxRetryBackoff())
+                        .doBeforeRetry(signal -> log.warn("Restarting the product info outbox relay", signal.failure())))
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+            subscription = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return subscription != null && !subscription.isDisposed();
+    }
+
+    private Mono<Void> poll() {
+        return acquireLease()
+                .flatMap(held -> {
+                    if (!held) {
+                        lagMillis.set(0);
+                        return Mono.just(false);
+                    }
+                    return relayBatch();
+                })
+                // a full batch that went through means there is probably more waiting
+                .flatMap(more -> more ? Mono.<Void>empty() : Mono.delay(properties.getPollInterval()).then());
+    }
+
+    /**
+     * Publishes one batch and tells whether the next one should follow right away.
+     */
+    Mono<Boolean> relayBatch() {
+        var batchSize = properties.getBatchSize();
+        var leaseLost = new AtomicBoolean();
+        return outboxRepository.findBy(PageRequest.of(0, batchSize, Sort.by("id")))
+                .collectList()
+                .flatMap(events -> {
+                    lagMillis.set(events.isEmpty() ? 0 : Math.max(0, Instant.now().toEpochMilli() - oldest(events).toEpochMilli()));
+                    if (events.isEmpty()) {
+                        return Mono.just(false);
+                    }
+                    return Flux.fromIterable(groupByProduct(events))
+                            .flatMap(group -> holdLease(leaseLost).flatMap(held -> held ? publish(group) : Mono.just(false)),
+                                    properties.getConcurrency())
+                            .reduce(true, Boolean::logicalAnd)
+                            .map(allPublished -> allPublished && events.size() == batchSize);
+                });
+    }
+
+    private Mono<Boolean> publish(List<ProductInfoEvent> events) {
+        return sink.publish(events)
+                .then(outboxRepository.deleteAllById(events.stream().map(ProductInfoEvent::getId).collect(Collectors.toList())))
+                .then(Mono.fromCallable(() -> {
+                    published.increment(events.size());
+                    return true;
+                }))
+                .onErrorResume(e -> {
+                    log.warn("Failed to publish {} events of product info {}", events.size(), events.get(0).getProductId(), e);
+                    failed.increment(events.size());
+                    return Mono.just(false);
+                });
+    }
+
+    private Mono<Boolean> holdLease(AtomicBoolean leaseLost) {
+        if (leaseLost.get()) {
+            return Mono.just(false);
+        }
+        if (System.nanoTime() - leaseRenewalDueAt < 0) {
+            return Mono.just(true);
+        }
+        return acquireLease()
+                .doOnNext(held -> {
+                    if (!held) {
+                        log.warn("Lost the product info outbox lease, leaving the rest of the batch to its new holder");
+                        leaseLost.set(true);
+                    }
+                });
+    }
+
+    private Mono<Boolean> acquireLease() {
+        var now = Instant.now();
+        long renewalDueAt = System.nanoTime() + properties.getLeaseDuration().toNanos() / 2;
+        var query = Query.query(Criteria.where("id").is(properties.getLeaseId())
+                .orOperator(Criteria.where("owner").is(owner), Criteria.where("expiresAt").lt(now)));
+        var update = new Update()
+                .set("owner", owner)
+                .set("expiresAt", now.plus(properties.getLeaseDuration()));
+
+        return reactiveMongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().upsert(true).returnNew(true), OutboxLease.class)
+                .map(lease -> {
+                    leaseRenewalDueAt = renewalDueAt;
+                    return true;
+                })
+                // the lease exists but someone else holds it, so the upsert collided with it
+                .onErrorResume(DuplicateKeyException.class, e -> Mono.just(false))
+                .defaultIfEmpty(false);
+    }
+
+    static Collection<List<ProductInfoEvent>> groupByProduct(List<ProductInfoEvent> events) {
+        var groups = new LinkedHashMap<String, List<ProductInfoEvent>>();
+        for (ProductInfoEvent event : events) {
+            groups.computeIfAbsent(event.getProductId(), productId -> new ArrayList<>()).add(event);
+        }
+        // ids are only roughly ordered across writers, while a product's sequence follows commit order
+        groups.values().forEach(group -> group.sort(Comparator.comparingLong(ProductInfoEvent::getSequence)));
+        return groups.values();
+    }
+
+    private static Instant oldest(List<ProductInfoEvent> events) {
+        return events.stream()
+                .map(ProductInfoEvent::getCreatedAt)
+                .min(Comparator.naturalOrder())
+                .orElseGet(Instant::now);
+    }
+}
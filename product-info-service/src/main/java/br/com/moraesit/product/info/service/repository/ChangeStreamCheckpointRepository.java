@@ -0,0 +1,9 @@
+package br.com.moraesit.product.info.service.repository;
+
+import br.com.moraesit.product.info.service.domain.ChangeStreamCheckpoint;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ChangeStreamCheckpointRepository extends ReactiveMongoRepository<ChangeStreamCheckpoint, String> {
+}
@@ -0,0 +1,88 @@
+package br.com.moraesit.product.info.service.repository;
+
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.domain.ProductInfoMigration;
+import com.mongodb.client.result.UpdateResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * Creates the indexes declared on {@link ProductInfo} before the application starts serving.
+ * <p>
+ * Spring Data's auto index creation is fire-and-forget on the reactive template, so startup would neither wait for it
+ * nor surface a failure. Creating an index that already exists with the same definition is a no-op.
+ * <p>
+ * Prices written before they were stored as Decimal128 are still strings, which the price range filters and the
+ * {@code name_price} index order apart from every other price. They are converted first, so the indexes are built over
+ * the converted values. A string that is not a number is left as it is. The conversion runs once per database: a
+ * {@link ProductInfoMigration} records it, and later startups skip it rather than scan the collection again.
+ * <p>
+ * Instances with {@code product-info.mongodb.manage-collection} off, such as read replicas, do neither and leave both to
+ * the instances that write.
+ */
+@Component
+@ConditionalOnProperty(prefix = "product-info.mongodb", name = "manage-collection", matchIfMissing = true)
+public class ProductInfoIndexInitializer {
+    private static final Logger log = LoggerFactory.getLogger(ProductInfoIndexInitializer.class);
+    private static final String DECIMAL_PRICES = "decimal-prices";
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    public ProductInfoIndexInitializer(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void onContextRefreshed() {
+        migratePrices().thenMany(ensureIndexes()).blockLast();
+    }
+
+    // how many prices were converted, or empty when an earlier startup already did it
+    public Mono<Long> migratePrices() {
+        return reactiveMongoTemplate.exists(Query.query(Criteria.where("_id").is(DECIMAL_PRICES)), ProductInfoMigration.class)
+                .filter(applied -> !applied)
+                .flatMap(notApplied -> convertStringPrices())
+                // recorded only once it succeeded; a concurrent startup converting too finds nothing left to convert
+                .flatMap(converted -> reactiveMongoTemplate.save(new ProductInfoMigration(DECIMAL_PRICES, Instant.now()))
+                        .thenReturn(converted));
+    }
+
+    private Mono<Long> convertStringPrices() {
+        var stringPrices = Query.query(Criteria.where("price").type(JsonSchemaObject.Type.STRING));
+        var toDecimal = AggregationUpdate.update()
+                .set("price").toValue(ConvertOperators.Convert.convertValueOf("price")
+                        .to("decimal")
+                        .onErrorReturnValueOf("price"));
+
+        return reactiveMongoTemplate.updateMulti(stringPrices, toDecimal, ProductInfo.class)
+                .map(UpdateResult::getModifiedCount)
+                .doOnNext(converted -> {
+                    if (converted > 0) {
+                        log.info("Converted {} string prices to Decimal128", converted);
+                    }
+                });
+    }
+
+    public Flux<String> ensureIndexes() {
+        var indexResolver = IndexResolver.create(reactiveMongoTemplate.getConverter().getMappingContext());
+        var indexOperations = reactiveMongoTemplate.indexOps(ProductInfo.class);
+
+        return Flux.fromIterable(indexResolver.resolveIndexFor(ProductInfo.class))
+                .concatMap(indexOperations::ensureIndex);
+    }
+}
@@ -0,0 +1,13 @@
+package br.com.moraesit.product.info.service.repository;
+
+import br.com.moraesit.product.info.service.domain.ProductInfoEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ProductInfoOutboxRepository extends ReactiveMongoRepository<ProductInfoEvent, String> {
+
+    Flux<ProductInfoEvent> findBy(Pageable pageable);
+}
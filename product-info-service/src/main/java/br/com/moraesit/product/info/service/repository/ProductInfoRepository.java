@@ -3,7 +3,16 @@ package br.com.moraesit.product.info.service.repository;
 import br.com.moraesit.product.info.service.domain.ProductInfo;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Repository
-public interface ProductInfoRepository extends ReactiveMongoRepository<ProductInfo, String> {
+public interface ProductInfoRepository extends ReactiveMongoRepository<ProductInfo, String>, ProductInfoRepositoryCustom {
+
+    // both inherited twice, these resolve to the ProductInfoRepositoryCustom implementations
+    @Override
+    Mono<ProductInfo> findById(String id);
+
+    @Override
+    Flux<ProductInfo> findAllById(Iterable<String> ids);
 }
@@ -0,0 +1,78 @@
+package br.com.moraesit.product.info.service.repository;
+
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.domain.ProductInfoBulkOperation;
+import br.com.moraesit.product.info.service.domain.ProductInfoBulkResult;
+import br.com.moraesit.product.info.service.domain.ProductInfoCatalogRevision;
+import br.com.moraesit.product.info.service.domain.ProductInfoPageRequest;
+import br.com.moraesit.product.info.service.domain.ProductInfoRevision;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface ProductInfoRepositoryCustom {
+
+    /**
+     * Streams every document straight off the Mongo cursor, fetching at most
+     * {@code product-info.streaming.cursor-batch-size} documents ahead of downstream demand.
+     */
+    Flux<ProductInfo> findAll();
+
+    /**
+     * Looks one document up by {@code _id}, decoded with {@link br.com.moraesit.product.info.service.codec.ProductInfoBsonCodec}.
+     */
+    Mono<ProductInfo> findById(String id);
+
+    /**
+     * Looks documents up with a single {@code $in} on {@code _id}, decoded like {@link #findById(String)}.
+     */
+    Flux<ProductInfo> findAllById(Iterable<String> ids);
+
+    /**
+     * Keyset page ordered by {@code _id}: seeks past {@link ProductInfoPageRequest#getAfter()} on the
+     * {@code _id} index instead of skipping, and only fetches {@link ProductInfoPageRequest#getFields()}
+     * when a projection is requested.
+     */
+    Flux<ProductInfo> findPage(ProductInfoPageRequest pageRequest, int limit);
+
+    /**
+     * Applies one batch as a single Mongo {@code bulkWrite}. Results are reported per operation, numbered
+     * from {@code firstIndex}; with {@code ordered} the operations after the first failure are skipped.
+     */
+    Mono<List<ProductInfoBulkResult>> bulkWrite(List<ProductInfoBulkOperation> operations, long firstIndex, boolean ordered);
+
+    /**
+     * Replaces name, description, price and properties with a single {@code findAndModify}, returning the new
+     * document. When {@link ProductInfo#getVersion()} is set the update only applies to that version and fails
+     * with {@link org.springframework.dao.OptimisticLockingFailureException} if the document has moved on.
+     */
+    Mono<ProductInfo> replaceFields(String id, ProductInfo productInfo);
+
+    /**
+     * Like {@link #replaceFields(String, ProductInfo)} but only {@code $set}s the non-null fields of {@code patch};
+     * properties are set (or unset, for null values) key by key instead of rewriting the whole map.
+     */
+    Mono<ProductInfo> patchFields(String id, ProductInfo patch);
+
+    /**
+     * Fetches only the version and lastModified of one document, for answering conditional requests.
+     */
+    Mono<ProductInfoRevision> findRevisionById(String id);
+
+    /**
+     * The collection's revision counter, read with the same read preference as {@link #findAll()}.
+     */
+    Mono<ProductInfoCatalogRevision> findCatalogRevision();
+
+    /**
+     * Moves the collection's revision counter. Called after every write, so the revision never runs ahead of the
+     * documents it stands for.
+     */
+    Mono<Void> incrementCatalogRevision();
+
+    /**
+     * Deletes one document with a single {@code findAndModify}, returning the version it was deleted at.
+     */
+    Mono<ProductInfoRevision> findAndDeleteById(String id);
+}
@@ -0,0 +1,368 @@
+package br.com.moraesit.product.info.service.repository;
+
+import br.com.moraesit.product.info.service.codec.ProductInfoBsonCodec;
+import br.com.moraesit.product.info.service.codec.PropertyNameDictionary;
+import br.com.moraesit.product.info.service.config.ProductInfoMongoProperties;
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.domain.ProductInfoBulkOperation;
+import br.com.moraesit.product.info.service.domain.ProductInfoBulkResult;
+import br.com.moraesit.product.info.service.domain.ProductInfoCatalogRevision;
+import br.com.moraesit.product.info.service.domain.ProductInfoPageRequest;
+import br.com.moraesit.product.info.service.domain.ProductInfoRevision;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadPreference;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import org.bson.Document;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class ProductInfoRepositoryImpl implements ProductInfoRepositoryCustom {
+    private static final Pattern REGEX_META_CHARACTERS = Pattern.compile("[\\\\^$.|?*+()\\[\\]{}]");
+    private static final String CATALOG_REVISION_SOURCE = "m";
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final QueryMapper queryMapper;
+    private final int cursorBatchSize;
+    private final ProductInfoMongoProperties.ReadOptions streamingRead;
+    private final PropertyNameDictionary propertyNames;
+    private volatile CodecRegistry codecRegistry;
+
+    public ProductInfoRepositoryImpl(ReactiveMongoTemplate reactiveMongoTemplate,
+                                     @Value("${product-info.streaming.cursor-batch-size:256}") int cursorBatchSize,
+                                     ObjectProvider<ProductInfoMongoProperties> mongoProperties,
+                                     ObjectProvider<PropertyNameDictionary> propertyNames) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.queryMapper = new QueryMapper(reactiveMongoTemplate.getConverter());
+        this.cursorBatchSize = cursorBatchSize;
+        this.streamingRead = mongoProperties.getIfAvailable(ProductInfoMongoProperties::new).getStreamingRead();
+        this.propertyNames = propertyNames.getIfAvailable(PropertyNameDictionary::empty);
+    }
+
+    @Override
+    public Flux<ProductInfo> findAll() {
+        return find(new Query().cursorBatchSize(cursorBatchSize), true)
+                .limitRate(cursorBatchSize);
+    }
+
+    @Override
+    public Mono<ProductInfo> findById(String id) {
+        return find(Query.query(Criteria.where("id").is(id)).limit(1), false)
+                .next();
+    }
+
+    @Override
+    public Flux<ProductInfo> findAllById(Iterable<String> ids) {
+        var idList = new ArrayList<String>();
+        ids.forEach(idList::add);
+        return find(Query.query(Criteria.where("id").in(idList)), false);
+    }
+
+    @Override
+    public Flux<ProductInfo> findPage(ProductInfoPageRequest pageRequest, int limit) {
+        var query = new Query()
+                .with(Sort.by(Sort.Direction.ASC, "id"))
+                .limit(limit)
+                .cursorBatchSize(limit);
+
+        if (pageRequest.getAfter() != null) {
+            query.addCriteria(Criteria.where("id").gt(pageRequest.getAfter()));
+        }
+        if (pageRequest.getMinPrice() != null || pageRequest.getMaxPrice() != null) {
+            var price = Criteria.where("price");
+            if (pageRequest.getMinPrice() != null) {
+                price = price.gte(new Decimal128(pageRequest.getMinPrice()));
+            }
+            if (pageRequest.getMaxPrice() != null) {
+                price = price.lte(new Decimal128(pageRequest.getMaxPrice()));
+            }
+            query.addCriteria(price);
+        }
+        if (pageRequest.getNamePrefix() != null && !pageRequest.getNamePrefix().isEmpty()) {
+            // an anchored prefix without regex metacharacters is turned into index bounds on name
+            query.addCriteria(Criteria.where("name").regex("^" + escapeRegex(pageRequest.getNamePrefix())));
+        }
+        if (pageRequest.getFields() != null && !pageRequest.getFields().isEmpty()) {
+            pageRequest.getFields().forEach(field -> query.fields().include(field));
+        }
+
+        return find(query, true);
+    }
+
+    @Override
+    public Mono<List<ProductInfoBulkResult>> bulkWrite(List<ProductInfoBulkOperation> operations, long firstIndex, boolean ordered) {
+        var writes = new ArrayList<WriteModel<Document>>(operations.size());
+        var writeIndexes = new ArrayList<Integer>(operations.size());
+        var ids = new ArrayList<Object>(operations.size());
+        var failed = new HashMap<Integer, String>();
+
+        for (int i = 0; i < operations.size(); i++) {
+            var operation = operations.get(i);
+            var error = validate(operation);
+            if (error != null) {
+                failed.put(i, error);
+                ids.add(operation.getId());
+                if (ordered) {
+                    // an ordered bulk write stops at the first failure, so nothing after it is sent
+                    operations.subList(i + 1, operations.size()).forEach(skipped -> ids.add(skipped.getId()));
+                    break;
+                }
+                continue;
+            }
+            if (operation.getType() == ProductInfoBulkOperation.Type.DELETE) {
+                Object id = reactiveMongoTemplate.getConverter().convertId(operation.getId(), ObjectId.class);
+                writes.add(new DeleteOneModel<>(Filters.eq("_id", id)));
+                ids.add(id);
+            } else {
+                var document = new Document();
+                var lastModified = new Date();
+                reactiveMongoTemplate.getConverter().write(operation.getProductInfo(), document);
+                document.put("lastModified", lastModified);
+                // the version is the server's to assign, whatever the client sent
+                document.remove("version");
+                // what was stored, as far as it is known here, for whoever keeps a copy of the written products
+                operation.getProductInfo().setLastModified(lastModified.toInstant());
+                operation.getProductInfo().setVersion(operation.getId() == null ? 0L : null);
+                if (operation.getId() == null) {
+                    document.put("_id", new ObjectId());
+                    document.put("version", 0L);
+                    writes.add(new InsertOneModel<>(document));
+                } else {
+                    document.put("_id", reactiveMongoTemplate.getConverter().convertId(operation.getId(), ObjectId.class));
+                    writes.add(new UpdateOneModel<>(Filters.eq("_id", document.get("_id")), replaceBumpingVersion(document),
+                            new UpdateOptions().upsert(true)));
+                }
+                ids.add(document.get("_id"));
+            }
+            writeIndexes.add(i);
+        }
+
+        if (writes.isEmpty()) {
+            return Mono.just(toResults(operations, ids, firstIndex, failed, ordered));
+        }
+
+        return reactiveMongoTemplate.getCollection(reactiveMongoTemplate.getCollectionName(ProductInfo.class))
+                .flatMap(collection -> Mono.from(collection.bulkWrite(writes, new BulkWriteOptions().ordered(ordered))))
+                .map(bulkWriteResult -> toResults(operations, ids, firstIndex, failed, ordered))
+                .onErrorResume(MongoBulkWriteException.class, e -> {
+                    for (BulkWriteError writeError : e.getWriteErrors()) {
+                        failed.put(writeIndexes.get(writeError.getIndex()), writeError.getMessage());
+                    }
+                    return Mono.just(toResults(operations, ids, firstIndex, failed, ordered));
+                });
+    }
+
+    @Override
+    public Mono<ProductInfo> replaceFields(String id, ProductInfo productInfo) {
+        var update = new Update()
+                .set("name", productInfo.getName())
+                .set("description", productInfo.getDescription())
+                .set("price", productInfo.getPrice() == null ? null : new Decimal128(productInfo.getPrice()))
+                .set("properties", productInfo.getProperties());
+
+        return modify(id, productInfo.getVersion(), update);
+    }
+
+    @Override
+    public Mono<ProductInfo> patchFields(String id, ProductInfo patch) {
+        var update = new Update();
+        if (patch.getName() != null) {
+            update.set("name", patch.getName());
+        }
+        if (patch.getDescription() != null) {
+            update.set("description", patch.getDescription());
+        }
+        if (patch.getPrice() != null) {
+            update.set("price", new Decimal128(patch.getPrice()));
+        }
+        if (patch.getProperties() != null) {
+            for (Map.Entry<String, Object> property : patch.getProperties().entrySet()) {
+                if (property.getKey().isEmpty() || property.getKey().contains(".") || property.getKey().startsWith("$")) {
+                    return Mono.error(new IllegalArgumentException("Invalid property name: " + property.getKey()));
+                }
+                if (property.getValue() == null) {
+                    update.unset("properties." + property.getKey());
+                } else {
+                    update.set("properties." + property.getKey(), property.getValue());
+                }
+            }
+        }
+
+        return modify(id, patch.getVersion(), update);
+    }
+
+    private Mono<ProductInfo> modify(String id, Long expectedVersion, Update update) {
+        var query = Query.query(Criteria.where("id").is(id));
+        if (expectedVersion != null) {
+            query.addCriteria(Criteria.where("version").is(expectedVersion));
+        }
+        update.inc("version", 1).currentDate("lastModified");
+
+        var result = reactiveMongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), ProductInfo.class);
+        if (expectedVersion == null) {
+            return result;
+        }
+        // only a missed conditional update pays for the extra round trip telling a conflict apart from a missing document
+        return result.switchIfEmpty(Mono.defer(() -> reactiveMongoTemplate.exists(Query.query(Criteria.where("id").is(id)), ProductInfo.class)
+                .flatMap(exists -> exists
+                        ? Mono.error(new OptimisticLockingFailureException("ProductInfo " + id + " is no longer at version " + expectedVersion))
+                        : Mono.empty())));
+    }
+
+    @Override
+    public Mono<ProductInfoRevision> findRevisionById(String id) {
+        var query = Query.query(Criteria.where("id").is(id));
+        query.fields().include("version", "lastModified");
+
+        return reactiveMongoTemplate.findOne(query, ProductInfo.class)
+                .map(ProductInfoRevision::of);
+    }
+
+    @Override
+    public Mono<ProductInfoCatalogRevision> findCatalogRevision() {
+        // read like the listing it tags, so a secondary never pairs a newer revision with an older body
+        return reactiveMongoTemplate.getCollection(ProductInfoCatalogRevision.COLLECTION)
+                .map(this::withStreamingRead)
+                .flatMap(collection -> Mono.from(collection.find(Filters.eq("_id", reactiveMongoTemplate.getCollectionName(ProductInfo.class))).first()))
+                .map(document -> document.get("revision", Number.class).longValue())
+                .defaultIfEmpty(0L)
+                .map(revision -> new ProductInfoCatalogRevision(CATALOG_REVISION_SOURCE, revision));
+    }
+
+    @Override
+    public Mono<Void> incrementCatalogRevision() {
+        return reactiveMongoTemplate.getCollection(ProductInfoCatalogRevision.COLLECTION)
+                .flatMap(collection -> Mono.from(collection.updateOne(Filters.eq("_id", reactiveMongoTemplate.getCollectionName(ProductInfo.class)),
+                        Updates.inc("revision", 1L), new UpdateOptions().upsert(true))))
+                .then();
+    }
+
+    @Override
+    public Mono<ProductInfoRevision> findAndDeleteById(String id) {
+        var query = Query.query(Criteria.where("id").is(id));
+        query.fields().include("version", "lastModified");
+
+        return reactiveMongoTemplate.findAndRemove(query, ProductInfo.class)
+                .map(ProductInfoRevision::of);
+    }
+
+    // reads go to the collection directly so documents are decoded by ProductInfoBsonCodec rather than through a
+    // Document and the mapping converter; only listings use the streaming read preference and read concern, while
+    // lookups by id and writes keep the client defaults
+    private Flux<ProductInfo> find(Query query, boolean streaming) {
+        var converter = reactiveMongoTemplate.getConverter();
+        var entity = converter.getMappingContext().getRequiredPersistentEntity(ProductInfo.class);
+        var filter = queryMapper.getMappedObject(query.getQueryObject(), entity);
+        var sort = queryMapper.getMappedSort(query.getSortObject(), entity);
+        var projection = queryMapper.getMappedFields(query.getFieldsObject(), entity);
+        var batchSize = query.getMeta().getCursorBatchSize();
+
+        return reactiveMongoTemplate.getCollection(reactiveMongoTemplate.getCollectionName(ProductInfo.class))
+                .map(collection -> streaming ? withStreamingRead(collection) : collection)
+                .map(this::withProductInfoCodec)
+                .flatMapMany(collection -> collection.find(filter)
+                        .projection(projection)
+                        .sort(sort)
+                        .limit(query.getLimit())
+                        .batchSize(batchSize == null ? 0 : batchSize));
+    }
+
+    private MongoCollection<ProductInfo> withProductInfoCodec(MongoCollection<Document> collection) {
+        var registry = codecRegistry;
+        if (registry == null) {
+            // the client's registry never changes, so racing callers build the same one
+            var codec = new ProductInfoBsonCodec(collection.getCodecRegistry(), propertyNames);
+            registry = CodecRegistries.fromRegistries(CodecRegistries.fromCodecs(codec), collection.getCodecRegistry());
+            codecRegistry = registry;
+        }
+        return collection
+                .withCodecRegistry(registry)
+                .withDocumentClass(ProductInfo.class);
+    }
+
+    private MongoCollection<Document> withStreamingRead(MongoCollection<Document> collection) {
+        if (streamingRead.getReadPreference() != null) {
+            collection = collection.withReadPreference(ReadPreference.valueOf(streamingRead.getReadPreference()));
+        }
+        if (streamingRead.getReadConcern() != null) {
+            collection = collection.withReadConcern(new ReadConcern(streamingRead.getReadConcern()));
+        }
+        return collection;
+    }
+
+    // replaces the whole document like a replaceOne, but increments the stored version (0 on insert) instead of
+    // writing one; $literal keeps property values that start with '$' from being read as field paths
+    private static List<Document> replaceBumpingVersion(Document document) {
+        var version = new Document("$add", List.of(new Document("$ifNull", List.of("$version", -1L)), 1L));
+        var replacement = new Document("$mergeObjects", List.of(new Document("$literal", document), new Document("version", version)));
+        return List.of(new Document("$replaceWith", replacement));
+    }
+
+    private static String validate(ProductInfoBulkOperation operation) {
+        if (operation.getType() == null) {
+            return "Missing operation type";
+        }
+        if (operation.getType() == ProductInfoBulkOperation.Type.DELETE && operation.getId() == null) {
+            return "Missing id for DELETE";
+        }
+        if (operation.getType() == ProductInfoBulkOperation.Type.UPSERT && operation.getProductInfo() == null) {
+            return "Missing productInfo for UPSERT";
+        }
+        return null;
+    }
+
+    private static List<ProductInfoBulkResult> toResults(List<ProductInfoBulkOperation> operations, List<Object> ids, long firstIndex,
+                                                         Map<Integer, String> failed, boolean ordered) {
+        int firstFailure = failed.keySet().stream().mapToInt(Integer::intValue).min().orElse(Integer.MAX_VALUE);
+        var results = new ArrayList<ProductInfoBulkResult>(operations.size());
+
+        for (int i = 0; i < operations.size(); i++) {
+            var id = ids.get(i) == null ? null : ids.get(i).toString();
+            var type = operations.get(i).getType();
+
+            if (failed.containsKey(i)) {
+                results.add(new ProductInfoBulkResult(firstIndex + i, type, id, ProductInfoBulkResult.Status.FAILED, failed.get(i)));
+            } else if (ordered && i > firstFailure) {
+                results.add(new ProductInfoBulkResult(firstIndex + i, type, id, ProductInfoBulkResult.Status.SKIPPED, null));
+            } else {
+                results.add(new ProductInfoBulkResult(firstIndex + i, type, id, ProductInfoBulkResult.Status.OK, null));
+            }
+        }
+        return results;
+    }
+
+    private static String escapeRegex(String literal) {
+        return REGEX_META_CHARACTERS.matcher(literal).replaceAll(match -> Matcher.quoteReplacement("\\" + match.group()));
+    }
+}
@@ -0,0 +1,114 @@
+package br.com.moraesit.product.info.service.scheduler;
+
+import br.com.moraesit.product.info.service.config.ProductInfoSchedulerProperties;
+import org.reactivestreams.Publisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Moves (de)serialization that can take long off the Netty event loop, where it would hold up every other connection
+ * of that loop.
+ * <p>
+ * A request body over the configured size, or of unknown size, is handed to the scheduler as it arrives, so it is
+ * decoded there, and so is whatever the handler does next until it waits on something else. A request to one of the
+ * offloaded response paths is handled on the scheduler from the start, and a streamed response is also produced there
+ * as the connection asks for more, so values that are already at hand, e.g. from the in-memory catalog or the search
+ * index, are encoded there; values that arrive from Mongo are encoded on the driver's threads.
+ */
+public class PayloadOffloadingWebFilter implements WebFilter, Ordered {
+    private final Scheduler scheduler;
+    private final long requestBodyThreshold;
+    private final List<PathPattern> responsePaths;
+
+    public PayloadOffloadingWebFilter(Scheduler scheduler, ProductInfoSchedulerProperties properties) {
+        this.scheduler = scheduler;
+        this.requestBodyThreshold = properties.getOffloadRequestBodiesOver().toBytes();
+        this.responsePaths = properties.getOffloadedResponsePaths().stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public int getOrder() {
+        // after load shedding, a rejected request is not worth a thread hop
+        return Ordered.HIGHEST_PRECEDENCE + 20;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        var offloadRequest = hasLargeBody(exchange.getRequest().getHeaders());
+        var offloadResponse = matches(exchange.getRequest().getPath().pathWithinApplication());
+        if (!offloadRequest && !offloadResponse) {
+            return chain.filter(exchange);
+        }
+
+        var mutated = exchange.mutate();
+        if (offloadRequest) {
+            mutated.request(new OffloadedRequest(exchange.getRequest()));
+        }
+        if (!offloadResponse) {
+            return chain.filter(mutated.build());
+        }
+        return chain.filter(mutated.response(new OffloadedResponse(exchange.getResponse())).build())
+                .subscribeOn(scheduler);
+    }
+
+    private boolean hasLargeBody(HttpHeaders headers) {
+        long length = headers.getContentLength();
+        return length > requestBodyThreshold || (length < 0 && headers.containsKey(HttpHeaders.TRANSFER_ENCODING));
+    }
+
+    private boolean matches(PathContainer path) {
+        for (PathPattern pattern : responsePaths) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final class OffloadedRequest extends ServerHttpRequestDecorator {
+        private OffloadedRequest(ServerHttpRequest delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Flux<DataBuffer> getBody() {
+            return super.getBody().publishOn(scheduler);
+        }
+    }
+
+    private final class OffloadedResponse extends ServerHttpResponseDecorator {
+        private OffloadedResponse(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        // a single value is already encoded by now, a stream is encoded as the connection asks for more
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return super.writeWith(body instanceof Mono ? body : Flux.from(body).subscribeOn(scheduler));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return super.writeAndFlushWith(Flux.from(body).subscribeOn(scheduler));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package br.com.moraesit.product.info.service.scheduler;
+
+import br.com.moraesit.product.info.service.config.ProductInfoSchedulerProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import reactor.core.scheduler.NonBlocking;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The schedulers work is moved to so that it stays off the Netty event loops, each a fixed pool of named threads in
+ * front of a bounded queue; a task that finds the queue full fails with a {@code RejectedExecutionException} instead
+ * of waiting.
+ * <ul>
+ *     <li>{@code product-info-cpu}, one thread per core, for CPU-bound work such as encoding large payloads. Its
+ *     threads are {@link NonBlocking}, so Reactor and BlockHound reject blocking calls made on them, except the
+ *     pool's own wait for work ({@link ProductInfoSchedulersBlockHoundIntegration}).</li>
+ *     <li>{@code product-info-io} for blocking calls, file access in particular.</li>
+ * </ul>
+ * Both are published with Micrometer's executor metrics tagged with their name: {@code executor.queued} is the queue
+ * depth, {@code executor.idle} how long tasks waited in it and {@code executor.active} the busy threads.
+ */
+public class ProductInfoSchedulers {
+    public static final String CPU = "product-info-cpu";
+    public static final String IO = "product-info-io";
+
+    private final Scheduler cpu;
+    private final Scheduler io;
+
+    public ProductInfoSchedulers(ProductInfoSchedulerProperties properties, MeterRegistry meterRegistry) {
+        this.cpu = newBounded(CPU, properties.getCpuThreads(), properties.getCpuQueueCapacity(), true, meterRegistry);
+        this.io = newBounded(IO, properties.getIoThreads(), properties.getIoQueueCapacity(), false, meterRegistry);
+    }
+
+    public static Scheduler newBounded(String name, int threads, int queueCapacity, boolean nonBlocking, MeterRegistry meterRegistry) {
+        var executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory(name, nonBlocking));
+        executor.allowCoreThreadTimeOut(!nonBlocking);
+        return Schedulers.fromExecutorService(ExecutorServiceMetrics.monitor(meterRegistry, executor, name), name);
+    }
+
+    public Scheduler getCpu() {
+        return cpu;
+    }
+
+    public Scheduler getIo() {
+        return io;
+    }
+
+    public void dispose() {
+        cpu.dispose();
+        io.dispose();
+    }
+
+    private static ThreadFactory threadFactory(String name, boolean nonBlocking) {
+        var count = new AtomicInteger();
+        return task -> {
+            var threadName = name + "-" + count.incrementAndGet();
+            var thread = nonBlocking ? new NonBlockingThread(task, threadName) : new Thread(task, threadName);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class NonBlockingThread extends Thread implements NonBlocking {
+        private NonBlockingThread(Runnable task, String name) {
+            super(task, name);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package br.com.moraesit.product.info.service.scheduler;
+
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.integration.BlockHoundIntegration;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Lets the {@link reactor.core.scheduler.NonBlocking} threads of {@link ProductInfoSchedulers} run under BlockHound.
+ * An idle worker parks on the pool's queue until work arrives, and submitting work briefly takes the queue's lock, the
+ * same waits Reactor allows inside its own schedulers' executors. Loaded through {@code META-INF/services} only when
+ * BlockHound is installed.
+ */
+public class ProductInfoSchedulersBlockHoundIntegration implements BlockHoundIntegration {
+
+    @Override
+    public void applyTo(BlockHound.Builder builder) {
+        builder.allowBlockingCallsInside(ThreadPoolExecutor.class.getName(), "getTask");
+        builder.allowBlockingCallsInside(ThreadPoolExecutor.class.getName(), "execute");
+    }
+}
@@ -0,0 +1,32 @@
+package br.com.moraesit.product.info.service.search;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The best matching product ids of a search, best first, with how many products matched in total and how those are
+ * spread over the facet values.
+ */
+public class ProductInfoSearchHits {
+    private final List<String> ids;
+    private final long total;
+    private final Map<String, Map<String, Integer>> facets;
+
+    public ProductInfoSearchHits(List<String> ids, long total, Map<String, Map<String, Integer>> facets) {
+        this.ids = ids;
+        this.total = total;
+        this.facets = facets;
+    }
+
+    public List<String> getIds() {
+        return ids;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public Map<String, Map<String, Integer>> getFacets() {
+        return facets;
+    }
+}
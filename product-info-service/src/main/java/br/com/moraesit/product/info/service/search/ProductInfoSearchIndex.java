@@ -0,0 +1,603 @@
+package br.com.moraesit.product.info.service.search;
+
+import br.com.moraesit.product.info.service.config.ProductInfoSearchProperties;
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.service.FeatureDisabledException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory inverted index over the name and description of every product, with facet counts on selected
+ * properties keys.
+ * <p>
+ * Products get dense document numbers in the order they are indexed, so posting lists are sorted by construction and
+ * only ever appended to. Replacing or removing a product marks its old document deleted, and once a quarter of the
+ * documents are deleted the postings are compacted. Every query term and facet filter must match; matches are ranked
+ * with BM25 and facet counts cover all of them, not only the returned ones.
+ * <p>
+ * Searches share a read lock, writes take the write lock for one product at a time. While the index is loaded from the
+ * collection, concurrent writes win: a loaded product that is older than the indexed one, or was removed meanwhile, is
+ * skipped.
+ */
+public class ProductInfoSearchIndex {
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int MIN_DELETED_TO_COMPACT = 1024;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int LINEAR_SCAN = 8;
+
+    private final boolean enabled;
+    private final int nameWeight;
+    private final int facetValueLimit;
+    private final Facet[] facets;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> documents = new HashMap<>();
+    private final Map<String, Postings> terms = new HashMap<>();
+    private String[] ids = new String[INITIAL_CAPACITY];
+    private long[] versions = new long[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private final BitSet deleted = new BitSet();
+    private int documentCount;
+    private int deletedCount;
+    private long totalLength;
+
+    private volatile boolean loading = true;
+    private final Set<String> removedWhileLoading = new HashSet<>();
+
+    public ProductInfoSearchIndex(ProductInfoSearchProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.nameWeight = properties.getNameWeight();
+        this.facetValueLimit = properties.getFacetValueLimit();
+        this.facets = properties.getFacetKeys().stream()
+                .distinct()
+                .map(Facet::new)
+                .toArray(Facet[]::new);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    /**
+     * Indexes a product that was just written, unless a newer version of it is indexed already.
+     */
+    public void index(ProductInfo productInfo) {
+        if (!enabled || productInfo.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            put(productInfo.getId(), productInfo, false);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a product whatever version is indexed, for writes that do not maintain the version.
+     */
+    public void replace(String id, ProductInfo productInfo) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+            put(id, productInfo, false);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String id) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                removedWhileLoading.add(id);
+            }
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes products read from the collection while loading.
+     */
+    public void load(List<ProductInfo> productInfos) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (ProductInfo productInfo : productInfos) {
+                if (!removedWhileLoading.contains(productInfo.getId())) {
+                    put(productInfo.getId(), productInfo, true);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void finishLoading() {
+        lock.writeLock().lock();
+        try {
+            loading = false;
+            removedWhileLoading.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public ProductInfoSearchHits search(String text, Map<String, String> filters, int limit) {
+        if (!enabled) {
+            throw new FeatureDisabledException("Product info search is disabled");
+        }
+        if (loading) {
+            throw new SearchIndexNotReadyException("The product info search index is still loading");
+        }
+        var queryTerms = new LinkedHashSet<String>();
+        SearchTokenizer.tokenize(text, queryTerms::add);
+
+        lock.readLock().lock();
+        try {
+            return search(queryTerms, filters, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentCount - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private ProductInfoSearchHits search(Set<String> queryTerms, Map<String, String> filters, int limit) {
+        var collector = new TopDocuments(limit);
+        var facetCounts = new int[facets.length][];
+        for (int i = 0; i < facets.length; i++) {
+            facetCounts[i] = new int[facets[i].values.size()];
+        }
+
+        // filters are walked like terms, they just do not add to the score
+        var postings = new Postings[queryTerms.size() + filters.size()];
+        var scored = new boolean[postings.length];
+        boolean matchesNothing = false;
+        int p = 0;
+        for (String term : queryTerms) {
+            scored[p] = true;
+            postings[p] = terms.get(term);
+            matchesNothing |= postings[p++] == null;
+        }
+        for (Map.Entry<String, String> filter : filters.entrySet()) {
+            var facet = facetIndex(filter.getKey());
+            if (facet < 0) {
+                throw new IllegalArgumentException("Not a facet: " + filter.getKey());
+            }
+            postings[p] = facets[facet].postings(filter.getValue());
+            matchesNothing |= postings[p++] == null;
+        }
+
+        long total = 0;
+        if (!matchesNothing) {
+            var scorer = new Scorer(postings, scored);
+            for (int document = scorer.next(); document >= 0; document = scorer.next()) {
+                if (deleted.get(document)) {
+                    continue;
+                }
+                total++;
+                for (int i = 0; i < facets.length; i++) {
+                    var ordinal = facets[i].ordinalOf(document);
+                    if (ordinal >= 0) {
+                        facetCounts[i][ordinal]++;
+                    }
+                }
+                collector.offer(document, scorer.score(document));
+            }
+        }
+
+        return new ProductInfoSearchHits(collector.ids(), total, facetResults(facetCounts));
+    }
+
+    private Map<String, Map<String, Integer>> facetResults(int[][] facetCounts) {
+        var results = new LinkedHashMap<String, Map<String, Integer>>();
+        for (int i = 0; i < facets.length; i++) {
+            var counts = facetCounts[i];
+            var values = new LinkedHashMap<String, Integer>();
+            var facet = facets[i];
+            IntStream.range(0, counts.length)
+                    .filter(ordinal -> counts[ordinal] > 0)
+                    .boxed()
+                    .sorted(Comparator.<Integer>comparingInt(ordinal -> counts[ordinal]).reversed())
+                    .limit(facetValueLimit)
+                    .forEach(ordinal -> values.put(facet.values.get(ordinal), counts[ordinal]));
+            results.put(facet.key, values);
+        }
+        return results;
+    }
+
+    private int facetIndex(String key) {
+        for (int i = 0; i < facets.length; i++) {
+            if (facets[i].key.equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void put(String id, ProductInfo productInfo, boolean loaded) {
+        long version = productInfo.getVersion() == null ? -1 : productInfo.getVersion();
+        var existing = documents.get(id);
+        if (existing != null) {
+            // a loaded copy with the same version is the one indexed already
+            if (version < versions[existing] || loaded && version == versions[existing]) {
+                return;
+            }
+            delete(existing);
+        }
+
+        int document = documentCount++;
+        ensureCapacity(documentCount);
+        ids[document] = id;
+        versions[document] = version;
+
+        var frequencies = new HashMap<String, Integer>();
+        SearchTokenizer.tokenize(productInfo.getName(), term -> frequencies.merge(term, nameWeight, Integer::sum));
+        SearchTokenizer.tokenize(productInfo.getDescription(), term -> frequencies.merge(term, 1, Integer::sum));
+        int length = 0;
+        for (Map.Entry<String, Integer> frequency : frequencies.entrySet()) {
+            terms.computeIfAbsent(frequency.getKey(), term -> new Postings()).add(document, frequency.getValue());
+            length += frequency.getValue();
+        }
+        lengths[document] = length;
+        totalLength += length;
+
+        var properties = productInfo.getProperties();
+        for (Facet facet : facets) {
+            var value = properties == null ? null : properties.get(facet.key);
+            facet.add(document, value instanceof String || value instanceof Number || value instanceof Boolean
+                    ? value.toString()
+                    : null);
+        }
+        documents.put(id, document);
+        compactIfNeeded();
+    }
+
+    private void removeDocument(String id) {
+        var document = documents.remove(id);
+        if (document != null) {
+            delete(document);
+            compactIfNeeded();
+        }
+    }
+
+    private void delete(int document) {
+        deleted.set(document);
+        deletedCount++;
+        totalLength -= lengths[document];
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ids.length) {
+            int newCapacity = Math.max(capacity, ids.length + (ids.length >> 1));
+            ids = Arrays.copyOf(ids, newCapacity);
+            versions = Arrays.copyOf(versions, newCapacity);
+            lengths = Arrays.copyOf(lengths, newCapacity);
+            for (Facet facet : facets) {
+                facet.documents = Arrays.copyOf(facet.documents, newCapacity);
+            }
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (deletedCount < MIN_DELETED_TO_COMPACT || deletedCount * 4 < documentCount) {
+            return;
+        }
+        var renumbered = new int[documentCount];
+        int live = 0;
+        for (int document = 0; document < documentCount; document++) {
+            if (deleted.get(document)) {
+                renumbered[document] = -1;
+                continue;
+            }
+            renumbered[document] = live;
+            ids[live] = ids[document];
+            versions[live] = versions[document];
+            lengths[live] = lengths[document];
+            for (Facet facet : facets) {
+                facet.documents[live] = facet.documents[document];
+            }
+            documents.put(ids[live], live);
+            live++;
+        }
+        Arrays.fill(ids, live, documentCount, null);
+
+        var postings = terms.values().iterator();
+        while (postings.hasNext()) {
+            if (postings.next().renumber(renumbered) == 0) {
+                postings.remove();
+            }
+        }
+        for (Facet facet : facets) {
+            facet.postings.forEach(values -> values.renumber(renumbered));
+        }
+        documentCount = live;
+        deleted.clear();
+        deletedCount = 0;
+    }
+
+    private static final class Postings {
+        private int[] documents = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        void add(int document, int frequency) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            documents[size] = document;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        // numbers only ever shrink, so the list stays sorted
+        int renumber(int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int document = renumbered[documents[i]];
+                if (document >= 0) {
+                    documents[kept] = document;
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+
+        // first position at or after from holding a document >= target, size if there is none
+        int advance(int from, int target) {
+            // in dense lists the target is a few steps away, sparse ones are galloped over
+            int end = Math.min(from + LINEAR_SCAN, size);
+            for (int position = from; position < end; position++) {
+                if (documents[position] >= target) {
+                    return position;
+                }
+            }
+            if (end == size) {
+                return size;
+            }
+            from = end;
+            int bound = 1;
+            while (from + bound < size && documents[from + bound] < target) {
+                bound <<= 1;
+            }
+            int position = Arrays.binarySearch(documents, from + (bound >> 1), Math.min(from + bound + 1, size), target);
+            return position >= 0 ? position : -position - 1;
+        }
+    }
+
+    private static final class Facet {
+        private final String key;
+        private final Map<String, Integer> ordinals = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private final List<Postings> postings = new ArrayList<>();
+        // the value of each document, -1 for none
+        private int[] documents = new int[INITIAL_CAPACITY];
+
+        Facet(String key) {
+            this.key = key;
+        }
+
+        void add(int document, String value) {
+            if (value == null) {
+                documents[document] = -1;
+                return;
+            }
+            int ordinal = ordinals.computeIfAbsent(value, v -> {
+                values.add(v);
+                postings.add(new Postings());
+                return values.size() - 1;
+            });
+            documents[document] = ordinal;
+            postings.get(ordinal).add(document, 0);
+        }
+
+        Postings postings(String value) {
+            var ordinal = ordinals.get(value);
+            return ordinal == null ? null : postings.get(ordinal);
+        }
+
+        int ordinalOf(int document) {
+            return documents[document];
+        }
+    }
+
+    /**
+     * Walks the documents that are in every posting list, or all documents when there are none, and scores them.
+     */
+    private final class Scorer {
+        private final Postings[] postings;
+        private final int[] positions;
+        private final float[] idfs;
+        private final float averageLength;
+        private int next;
+
+        Scorer(Postings[] postings, boolean[] scored) {
+            // the shortest list leads, the others only jump ahead to its documents
+            var order = IntStream.range(0, postings.length)
+                    .boxed()
+                    .sorted(Comparator.comparingInt(i -> postings[i].size))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            this.postings = new Postings[postings.length];
+            this.positions = new int[postings.length];
+            this.idfs = new float[postings.length];
+            int live = documentCount - deletedCount;
+            for (int i = 0; i < postings.length; i++) {
+                this.postings[i] = postings[order[i]];
+                if (scored[order[i]]) {
+                    // postings still count deleted documents until the next compaction
+                    int frequency = Math.min(this.postings[i].size, live);
+                    idfs[i] = (float) Math.log(1 + (live - frequency + 0.5) / (frequency + 0.5));
+                }
+            }
+            this.averageLength = live == 0 ? 1 : (float) totalLength / live;
+        }
+
+        int next() {
+            if (postings.length == 0) {
+                return next < documentCount ? next++ : -1;
+            }
+            var lead = postings[0];
+            int position = positions[0];
+            candidates:
+            while (position < lead.size) {
+                int document = lead.documents[position++];
+                for (int i = 1; i < postings.length; i++) {
+                    var list = postings[i];
+                    int at = positions[i] = list.advance(positions[i], document);
+                    if (at == list.size) {
+                        positions[0] = lead.size;
+                        return -1;
+                    }
+                    if (list.documents[at] != document) {
+                        continue candidates;
+                    }
+                }
+                positions[0] = position;
+                return document;
+            }
+            positions[0] = position;
+            return -1;
+        }
+
+        // called right after next returned the document, so every position points at it
+        float score(int document) {
+            float score = 0;
+            float lengthNorm = K1 * (1 - B + B * lengths[document] / averageLength);
+            for (int i = 0; i < postings.length; i++) {
+                int frequency = i == 0 ? postings[0].frequencies[positions[0] - 1] : postings[i].frequencies[positions[i]];
+                score += idfs[i] * frequency * (K1 + 1) / (frequency + lengthNorm);
+            }
+            return score;
+        }
+    }
+
+    /**
+     * The best documents seen so far in a min heap, so the worst of them is replaced first. Equal scores keep the
+     * document indexed first.
+     */
+    private final class TopDocuments {
+        private final int[] heapDocuments;
+        private final float[] heapScores;
+        private int size;
+
+        TopDocuments(int limit) {
+            this.heapDocuments = new int[limit];
+            this.heapScores = new float[limit];
+        }
+
+        void offer(int document, float score) {
+            if (size < heapDocuments.length) {
+                heapDocuments[size] = document;
+                heapScores[size] = score;
+                up(size++);
+            } else if (size > 0 && worse(heapDocuments[0], heapScores[0], document, score)) {
+                heapDocuments[0] = document;
+                heapScores[0] = score;
+                down(0);
+            }
+        }
+
+        List<String> ids() {
+            var result = new String[size];
+            while (size > 0) {
+                result[size - 1] = ids[heapDocuments[0]];
+                size--;
+                heapDocuments[0] = heapDocuments[size];
+                heapScores[0] = heapScores[size];
+                down(0);
+            }
+            return Arrays.asList(result);
+        }
+
+        private boolean worse(int document, float score, int otherDocument, float otherScore) {
+            return score < otherScore || score == otherScore && document > otherDocument;
+        }
+
+        private void up(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!worse(heapDocuments[i], heapScores[i], heapDocuments[parent], heapScores[parent])) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void down(int i) {
+            while (true) {
+                int worst = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && worse(heapDocuments[left], heapScores[left], heapDocuments[worst], heapScores[worst])) {
+                    worst = left;
+                }
+                if (right < size && worse(heapDocuments[right], heapScores[right], heapDocuments[worst], heapScores[worst])) {
+                    worst = right;
+                }
+                if (worst == i) {
+                    return;
+                }
+                swap(i, worst);
+                i = worst;
+            }
+        }
+
+        private void swap(int i, int j) {
+            int document = heapDocuments[i];
+            heapDocuments[i] = heapDocuments[j];
+            heapDocuments[j] = document;
+            float score = heapScores[i];
+            heapScores[i] = heapScores[j];
+            heapScores[j] = score;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package br.com.moraesit.product.info.service.search;
+
+import br.com.moraesit.product.info.service.config.ProductInfoSearchProperties;
+import br.com.moraesit.product.info.service.repository.ProductInfoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Builds the search index from the whole collection once the application starts. Searches answer 503 until it is
+ * done; writes made in the meantime are indexed right away. A failed load starts over, which skips the products
+ * indexed already.
+ */
+public class ProductInfoSearchIndexLoader implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(ProductInfoSearchIndexLoader.class);
+
+    private final ProductInfoRepository productInfoRepository;
+    private final ProductInfoSearchIndex searchIndex;
+    private final ProductInfoSearchProperties properties;
+    private volatile Disposable subscription;
+
+    public ProductInfoSearchIndexLoader(ProductInfoRepository productInfoRepository, ProductInfoSearchIndex searchIndex,
+                                        ProductInfoSearchProperties properties) {
+        this.productInfoRepository = productInfoRepository;
+        this.searchIndex = searchIndex;
+        this.properties = properties;
+    }
+
+    @Override
+    public void start() {
+        if (!searchIndex.isEnabled() || isRunning()) {
+            return;
+        }
+        subscription = Mono.defer(this::load)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, properties.getMinRetryBackoff())
+                        .maxBackoff(properties.getMaxRetryBackoff())
+                        .doBeforeRetry(signal -> log.warn("Reloading the product info search index", signal.failure())))
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+            subscription = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return subscription != null && !subscription.isDisposed();
+    }
+
+    private Mono<Void> load() {
+        long startNanos = System.nanoTime();
+        return productInfoRepository.findAll()
+                .buffer(properties.getLoadBatchSize())
+                .doOnNext(searchIndex::load)
+                .then(Mono.fromRunnable(() -> {
+                    searchIndex.finishLoading();
+                    log.info("Indexed {} product infos with {} terms for search in {} ms", searchIndex.size(),
+                            searchIndex.termCount(), (System.nanoTime() - startNanos) / 1_000_000);
+                }));
+    }
+}
@@ -0,0 +1,11 @@
+package br.com.moraesit.product.info.service.search;
+
+/**
+ * The search index is still being built from the collection, so its results would be incomplete.
+ */
+public class SearchIndexNotReadyException extends IllegalStateException {
+
+    public SearchIndexNotReadyException(String message) {
+        super(message);
+    }
+}
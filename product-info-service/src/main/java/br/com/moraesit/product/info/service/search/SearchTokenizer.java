@@ -0,0 +1,47 @@
+package br.com.moraesit.product.info.service.search;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Splits text into lower case terms of letters and digits, with accents removed so "memória" matches "memoria".
+ */
+final class SearchTokenizer {
+
+    private SearchTokenizer() {
+    }
+
+    static void tokenize(String text, Consumer<String> terms) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        text = fold(text);
+        int start = -1;
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.isLetterOrDigit(text.charAt(i))) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                terms.accept(text.substring(start, i));
+                start = -1;
+            }
+        }
+        if (start >= 0) {
+            terms.accept(text.substring(start));
+        }
+    }
+
+    private static String fold(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7f) {
+                // decomposes é into e plus a combining accent, which is then dropped
+                return Normalizer.normalize(text, Normalizer.Form.NFD)
+                        .replaceAll("\\p{M}", "")
+                        .toLowerCase(Locale.ROOT);
+            }
+        }
+        return text.toLowerCase(Locale.ROOT);
+    }
+}
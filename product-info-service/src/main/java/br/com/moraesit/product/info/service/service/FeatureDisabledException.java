@@ -0,0 +1,12 @@
+package br.com.moraesit.product.info.service.service;
+
+/**
+ * The request needs a feature this instance runs without, such as search or the change stream, or one that its
+ * configuration rules out, such as bulk writes next to the outbox.
+ */
+public class FeatureDisabledException extends RuntimeException {
+
+    public FeatureDisabledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,173 @@
+package br.com.moraesit.product.info.service.service;
+
+import br.com.moraesit.product.info.service.config.ProductInfoBatchProperties;
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent lookups by id into one {@code $in} query.
+ * <p>
+ * A lookup that finds no batch loading is loaded right away, so an idle service pays no wait. Lookups arriving while
+ * batches are loading are collected until {@code max-batch-size} are pending, {@code max-wait} has passed or a batch
+ * finishes, then loaded with a single call, with at most {@code concurrency} batches loading at once. Callers asking
+ * for the same id within a batch share its result; ids the query does not return complete empty, and a failed query
+ * fails every caller in the batch.
+ * <p>
+ * At most {@code max-pending} lookups wait for a batch. Past that, for instance while Mongo stalls, a lookup fails
+ * right away with a {@link RejectedExecutionException} instead of queueing.
+ */
+public class ProductInfoBatchLoader implements Disposable {
+    private final Function<List<String>, Flux<ProductInfo>> batchLookup;
+    private final int maxBatchSize;
+    private final Duration maxWait;
+    private final int concurrency;
+    private final int maxPending;
+    private final Scheduler timer = Schedulers.parallel();
+    private final Queue<Lookup> queue = new ConcurrentLinkedQueue<>();
+    // lookups admitted and not yet taken into a batch
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger loading = new AtomicInteger();
+    // serializes drain(): whoever moves it from 0 drains, everyone else only asks for another pass
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicBoolean timerArmed = new AtomicBoolean();
+    private volatile boolean flushRequested;
+    private volatile boolean disposed;
+
+    public ProductInfoBatchLoader(Function<List<String>, Flux<ProductInfo>> batchLookup, ProductInfoBatchProperties properties) {
+        this.batchLookup = batchLookup;
+        this.maxBatchSize = properties.getMaxBatchSize();
+        this.maxWait = properties.getMaxWait();
+        this.concurrency = properties.getConcurrency();
+        this.maxPending = properties.getMaxPending();
+    }
+
+    public Mono<ProductInfo> load(String id) {
+        return Mono.defer(() -> {
+            if (disposed) {
+                return Mono.error(new IllegalStateException("Batch loader is not accepting lookups: disposed"));
+            }
+            if (pending.incrementAndGet() > maxPending) {
+                pending.decrementAndGet();
+                return Mono.error(new RejectedExecutionException("Batch loader has " + maxPending + " lookups pending"));
+            }
+            var lookup = new Lookup(id);
+            queue.offer(lookup);
+            drain();
+            return lookup.result.asMono();
+        });
+    }
+
+    @Override
+    public void dispose() {
+        disposed = true;
+        // batches already loading finish, lookups still waiting for one fail
+        for (Lookup lookup = queue.poll(); lookup != null; lookup = queue.poll()) {
+            pending.decrementAndGet();
+            lookup.result.tryEmitError(new IllegalStateException("Batch loader is not accepting lookups: disposed"));
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            while (!disposed && pending.get() > 0 && loading.get() < concurrency) {
+                // a partial batch waits only while another one is loading, to collect the lookups arriving meanwhile
+                if (pending.get() < maxBatchSize && loading.get() > 0 && !flushRequested) {
+                    armTimer();
+                    break;
+                }
+                flushRequested = false;
+                var batch = new ArrayList<Lookup>(Math.min(pending.get(), maxBatchSize));
+                for (Lookup lookup = queue.poll(); lookup != null; lookup = batch.size() < maxBatchSize ? queue.poll() : null) {
+                    pending.decrementAndGet();
+                    batch.add(lookup);
+                }
+                if (batch.isEmpty()) {
+                    // admitted but not queued yet; its own drain() picks it up
+                    break;
+                }
+                loading.incrementAndGet();
+                load(batch).subscribe();
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void armTimer() {
+        if (timerArmed.compareAndSet(false, true)) {
+            timer.schedule(() -> {
+                timerArmed.set(false);
+                flushRequested = true;
+                drain();
+            }, maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Mono<Void> load(List<Lookup> batch) {
+        var waiting = new LinkedHashMap<String, List<Lookup>>();
+        batch.forEach(lookup -> waiting.computeIfAbsent(lookup.id, id -> new ArrayList<>()).add(lookup));
+
+        return Flux.defer(() -> batchLookup.apply(new ArrayList<>(waiting.keySet())))
+                .doOnNext(productInfo -> {
+                    var lookups = waiting.remove(productInfo.getId());
+                    if (lookups != null) {
+                        lookups.forEach(lookup -> lookup.result.tryEmitValue(productInfo));
+                    }
+                })
+                .then()
+                .doOnSuccess(done -> complete(waiting, null))
+                .onErrorResume(e -> {
+                    complete(waiting, e);
+                    return Mono.empty();
+                })
+                .doFinally(signalType -> {
+                    loading.decrementAndGet();
+                    drain();
+                });
+    }
+
+    private static void complete(Map<String, List<Lookup>> waiting, Throwable error) {
+        waiting.values().forEach(lookups -> lookups.forEach(lookup -> {
+            if (error == null) {
+                lookup.result.tryEmitEmpty();
+            } else {
+                lookup.result.tryEmitError(error);
+            }
+        }));
+    }
+
+    private static class Lookup {
+        private final String id;
+        private final Sinks.One<ProductInfo> result = Sinks.one();
+
+        private Lookup(String id) {
+            this.id = id;
+        }
+    }
+}
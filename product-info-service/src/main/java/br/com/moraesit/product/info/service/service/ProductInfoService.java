@@ -1,43 +1,306 @@
 package br.com.moraesit.product.info.service.service;
 
+import br.com.moraesit.product.info.service.cache.ProductInfoCache;
+import br.com.moraesit.product.info.service.catalog.ProductInfoCatalog;
+import br.com.moraesit.product.info.service.config.ProductInfoBatchProperties;
+import br.com.moraesit.product.info.service.config.ProductInfoBulkProperties;
 import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.domain.ProductInfoBulkOperation;
+import br.com.moraesit.product.info.service.domain.ProductInfoBulkResult;
+import br.com.moraesit.product.info.service.domain.ProductInfoCatalogRevision;
+import br.com.moraesit.product.info.service.domain.ProductInfoPage;
+import br.com.moraesit.product.info.service.domain.ProductInfoPageRequest;
+import br.com.moraesit.product.info.service.domain.ProductInfoRevision;
+import br.com.moraesit.product.info.service.domain.ProductInfoSearchRequest;
+import br.com.moraesit.product.info.service.domain.ProductInfoSearchResult;
+import br.com.moraesit.product.info.service.metrics.ProductInfoMetrics;
+import br.com.moraesit.product.info.service.outbox.ProductInfoOutbox;
 import br.com.moraesit.product.info.service.repository.ProductInfoRepository;
+import br.com.moraesit.product.info.service.search.ProductInfoSearchIndex;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 @Service
 public class ProductInfoService {
+    private static final Set<String> PROJECTABLE_FIELDS = Set.of("id", "name", "description", "price", "properties");
+
     private final ProductInfoRepository productInfoRepository;
+    private final ProductInfoCache productInfoCache;
+    private final ProductInfoBulkProperties bulkProperties;
+    private final ProductInfoMetrics productInfoMetrics;
+    private final ProductInfoOutbox productInfoOutbox;
+    private final ProductInfoSearchIndex productInfoSearchIndex;
+    private final ProductInfoCatalog productInfoCatalog;
+    private final ProductInfoBatchLoader batchLoader;
 
-    public ProductInfoService(ProductInfoRepository productInfoRepository) {
+    public ProductInfoService(ProductInfoRepository productInfoRepository, ProductInfoCache productInfoCache,
+                              ProductInfoBulkProperties bulkProperties, ProductInfoBatchProperties batchProperties,
+                              ProductInfoMetrics productInfoMetrics, ProductInfoOutbox productInfoOutbox,
+                              ProductInfoSearchIndex productInfoSearchIndex, ProductInfoCatalog productInfoCatalog) {
         this.productInfoRepository = productInfoRepository;
+        this.productInfoCache = productInfoCache;
+        this.bulkProperties = bulkProperties;
+        this.productInfoMetrics = productInfoMetrics;
+        this.productInfoOutbox = productInfoOutbox;
+        this.productInfoSearchIndex = productInfoSearchIndex;
+        this.productInfoCatalog = productInfoCatalog;
+        this.batchLoader = batchProperties.isEnabled()
+                ? new ProductInfoBatchLoader(ids -> productInfoMetrics.timed("loadProductInfoBatch", productInfoRepository.findAllById(ids)),
+                batchProperties)
+                : null;
     }
 
     public Mono<ProductInfo> addProductInfo(ProductInfo productInfo) {
-        return productInfoRepository.save(productInfo);
+        // Mongo keeps milliseconds, so the cached copy must not carry more precision than the stored one
+        productInfo.setLastModified(Instant.now().truncatedTo(ChronoUnit.MILLIS));
+        // save() stamps the id and version onto what it saves, so a retried outbox transaction must save a fresh copy;
+        // without a version it is always an insert, so an id that already exists fails instead of being overwritten
+        var save = Mono.defer(() -> productInfoRepository.save(new ProductInfo(productInfo.getId(), productInfo.getName(),
+                productInfo.getDescription(), productInfo.getPrice(), productInfo.getProperties(), null,
+                productInfo.getLastModified())));
+        return productInfoMetrics.timed("addProductInfo", movingCatalogRevision(productInfoOutbox.recordUpsert(save))
+                .doOnNext(productInfoCache::put)
+                .doOnNext(productInfoSearchIndex::index)
+                .doOnNext(productInfoCatalog::put));
     }
 
     public Flux<ProductInfo> getAllProductInfos() {
-        return productInfoRepository.findAll();
+        if (productInfoCatalog.isServing()) {
+            return productInfoMetrics.timed("getAllProductInfos", Flux.fromIterable(productInfoCatalog.all()));
+        }
+        return productInfoMetrics.timed("getAllProductInfos", productInfoRepository.findAll());
     }
 
     public Mono<ProductInfo> getProductInfoById(String id) {
-        return productInfoRepository.findById(id);
+        // the catalog is memory already, caching what it decodes would only hold a second copy
+        if (productInfoCatalog.isServing()) {
+            return productInfoMetrics.timed("getProductInfoById", Mono.fromSupplier(() -> productInfoCatalog.get(id)));
+        }
+        return productInfoMetrics.timed("getProductInfoById", productInfoCache.get(id, this::findById));
+    }
+
+    public Mono<ProductInfoRevision> getProductInfoRevision(String id) {
+        if (productInfoCatalog.isServing()) {
+            return Mono.fromSupplier(() -> productInfoCatalog.getRevision(id));
+        }
+        var cached = productInfoCache.getIfPresent(id);
+        if (cached != null) {
+            return Mono.just(ProductInfoRevision.of(cached));
+        }
+        return productInfoMetrics.timed("getProductInfoRevision", productInfoRepository.findRevisionById(id));
+    }
+
+    public Mono<ProductInfoCatalogRevision> getCatalogRevision() {
+        if (productInfoCatalog.isServing()) {
+            return Mono.fromSupplier(productInfoCatalog::getCatalogRevision);
+        }
+        return productInfoMetrics.timed("getCatalogRevision", productInfoRepository.findCatalogRevision());
+    }
+
+    public Mono<ProductInfoPage> getProductInfoPage(ProductInfoPageRequest pageRequest) {
+        if (pageRequest.getFields() != null) {
+            for (String field : pageRequest.getFields()) {
+                if (!isProjectable(field)) {
+                    return Mono.error(new IllegalArgumentException("Unknown field: " + field));
+                }
+            }
+        }
+        int size = Math.max(1, Math.min(pageRequest.getSize(), ProductInfoPageRequest.MAX_SIZE));
+
+        var page = productInfoCatalog.isServing()
+                ? Mono.fromSupplier(() -> productInfoCatalog.findPage(pageRequest, size + 1))
+                : productInfoRepository.findPage(pageRequest, size + 1).collectList();
+
+        return productInfoMetrics.timed("getProductInfoPage", page
+                .map(productInfos -> productInfos.size() > size
+                        ? new ProductInfoPage(productInfos.subList(0, size), productInfos.get(size - 1).getId())
+                        : new ProductInfoPage(productInfos, null)), productInfoPage -> productInfoPage.getItems().size());
+    }
+
+    public Mono<ProductInfoSearchResult> searchProductInfos(ProductInfoSearchRequest searchRequest) {
+        var filters = new HashMap<String, String>();
+        if (searchRequest.getFilter() != null) {
+            for (String filter : searchRequest.getFilter()) {
+                int separator = filter.indexOf(':');
+                if (separator <= 0) {
+                    return Mono.error(new IllegalArgumentException("Filters are key:value, got: " + filter));
+                }
+                filters.put(filter.substring(0, separator), filter.substring(separator + 1));
+            }
+        }
+        int size = Math.max(1, Math.min(searchRequest.getSize(), ProductInfoSearchRequest.MAX_SIZE));
+
+        return productInfoMetrics.timed("searchProductInfos", Mono.fromCallable(() -> productInfoSearchIndex.search(searchRequest.getQ(), filters, size))
+                .flatMap(hits -> findAllInOrder(hits.getIds())
+                        .map(productInfos -> new ProductInfoSearchResult(productInfos, hits.getTotal(), hits.getFacets()))),
+                searchResult -> searchResult.getItems().size());
     }
 
     public Mono<ProductInfo> updateProductInfo(String id, ProductInfo updatedProductInfo) {
-        return productInfoRepository.findById(id)
-                .flatMap(productInfo -> {
-                    productInfo.setName(updatedProductInfo.getName());
-                    productInfo.setDescription(updatedProductInfo.getDescription());
-                    productInfo.setPrice(updatedProductInfo.getPrice());
-                    productInfo.setProperties(updatedProductInfo.getProperties());
-                    return productInfoRepository.save(productInfo);
-                });
+        return productInfoMetrics.timed("updateProductInfo", movingCatalogRevision(productInfoOutbox.recordUpsert(productInfoRepository.replaceFields(id, updatedProductInfo)))
+                .doOnNext(productInfoCache::put)
+                .doOnNext(productInfoSearchIndex::index)
+                .doOnNext(productInfoCatalog::put)
+                .doOnError(OptimisticLockingFailureException.class, e -> productInfoCache.invalidate(id)));
+    }
+
+    public Mono<ProductInfo> patchProductInfo(String id, ProductInfo patch) {
+        return productInfoMetrics.timed("patchProductInfo", movingCatalogRevision(productInfoOutbox.recordUpsert(productInfoRepository.patchFields(id, patch)))
+                .doOnNext(productInfoCache::put)
+                .doOnNext(productInfoSearchIndex::index)
+                .doOnNext(productInfoCatalog::put)
+                .doOnError(OptimisticLockingFailureException.class, e -> productInfoCache.invalidate(id)));
     }
 
     public Mono<Void> deleteProductInfo(String id) {
-        return productInfoRepository.deleteById(id);
+        // only a delete that found the product records an event, which a plain delete does not tell
+        var delete = productInfoOutbox.isEnabled()
+                ? productInfoOutbox.recordDelete(productInfoRepository.findAndDeleteById(id))
+                : productInfoRepository.deleteById(id);
+        return productInfoMetrics.timed("deleteProductInfo", delete
+                .then(productInfoRepository.incrementCatalogRevision())
+                .doOnSuccess(deleted -> {
+                    productInfoSearchIndex.remove(id);
+                    productInfoCatalog.remove(id);
+                })
+                .doFinally(signalType -> productInfoCache.invalidate(id)));
+    }
+
+    public Flux<ProductInfoBulkResult> bulkWriteProductInfos(Flux<ProductInfoBulkOperation> operations, boolean ordered) {
+        if (productInfoOutbox.isEnabled()) {
+            // a bulk write cannot join the outbox transaction, so its events would be lost
+            return Flux.error(new FeatureDisabledException("Bulk writes are disabled while the product info outbox is enabled"));
+        }
+        int batchSize = bulkProperties.getBatchSize();
+        var batches = operations.buffer(batchSize).index();
+
+        Flux<List<ProductInfoBulkResult>> results;
+        if (ordered) {
+            var halted = new AtomicBoolean();
+            results = batches.concatMap(batch -> {
+                long firstIndex = batch.getT1() * batchSize;
+                if (halted.get()) {
+                    return Mono.just(toBulkResults(batch.getT2(), firstIndex, ProductInfoBulkResult.Status.SKIPPED, null));
+                }
+                return writeBatch(batch.getT2(), firstIndex, true)
+                        .doOnNext(batchResults -> {
+                            if (batchResults.stream().anyMatch(result -> result.getStatus() != ProductInfoBulkResult.Status.OK)) {
+                                halted.set(true);
+                            }
+                        });
+            });
+        } else {
+            results = batches.flatMapSequential(batch -> writeBatch(batch.getT2(), batch.getT1() * batchSize, false),
+                    bulkProperties.getConcurrency());
+        }
+
+        return productInfoMetrics.timed("bulkWriteProductInfos", results.flatMapIterable(Function.identity()));
+    }
+
+    // cached products first, the rest in one query; anything deleted since it was found is left out
+    private Mono<List<ProductInfo>> findAllInOrder(List<String> ids) {
+        if (productInfoCatalog.isServing()) {
+            return Mono.fromSupplier(() -> ids.stream()
+                    .map(productInfoCatalog::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList()));
+        }
+        var found = new HashMap<String, ProductInfo>();
+        var missing = new ArrayList<String>();
+        for (String id : ids) {
+            var cached = productInfoCache.getIfPresent(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        var loaded = missing.isEmpty()
+                ? Mono.just(found)
+                : productInfoRepository.findAllById(missing)
+                .doOnNext(productInfo -> found.put(productInfo.getId(), productInfo))
+                .then(Mono.just(found));
+        return loaded.map(productInfos -> ids.stream()
+                .map(productInfos::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+    }
+
+    // after the write, never before it: a listing read in between pairs the old revision with the new documents,
+    // which only costs that client a full response next time, never a stale 304
+    private Mono<ProductInfo> movingCatalogRevision(Mono<ProductInfo> write) {
+        return write.flatMap(written -> productInfoRepository.incrementCatalogRevision().thenReturn(written));
+    }
+
+    private Mono<ProductInfo> findById(String id) {
+        return batchLoader == null ? productInfoRepository.findById(id) : batchLoader.load(id);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (batchLoader != null) {
+            batchLoader.dispose();
+        }
+    }
+
+    private Mono<List<ProductInfoBulkResult>> writeBatch(List<ProductInfoBulkOperation> batch, long firstIndex, boolean ordered) {
+        return productInfoRepository.bulkWrite(batch, firstIndex, ordered)
+                .onErrorResume(e -> Mono.just(toBulkResults(batch, firstIndex, ProductInfoBulkResult.Status.FAILED, e.getMessage())))
+                // even a failed batch may have written some of its operations
+                .flatMap(batchResults -> productInfoRepository.incrementCatalogRevision().thenReturn(batchResults))
+                .doOnNext(batchResults -> batchResults.stream()
+                        .filter(result -> result.getId() != null)
+                        .forEach(result -> productInfoCache.invalidate(result.getId())))
+                .doOnNext(batchResults -> indexBatch(batch, firstIndex, batchResults));
+    }
+
+    // bulk writes replace whole documents, so they replace whatever is indexed; the repository stamped each product with
+    // the lastModified it stored and, for an upsert, no version, which the next sync fills in with the one Mongo assigned
+    private void indexBatch(List<ProductInfoBulkOperation> batch, long firstIndex, List<ProductInfoBulkResult> batchResults) {
+        for (ProductInfoBulkResult result : batchResults) {
+            if (result.getStatus() != ProductInfoBulkResult.Status.OK || result.getId() == null) {
+                continue;
+            }
+            var operation = batch.get((int) (result.getIndex() - firstIndex));
+            if (operation.getType() == ProductInfoBulkOperation.Type.DELETE) {
+                productInfoSearchIndex.remove(result.getId());
+                productInfoCatalog.remove(result.getId());
+            } else {
+                var productInfo = operation.getProductInfo();
+                var written = new ProductInfo(result.getId(), productInfo.getName(), productInfo.getDescription(),
+                        productInfo.getPrice(), productInfo.getProperties(), productInfo.getVersion(), productInfo.getLastModified());
+                productInfoSearchIndex.replace(result.getId(), written);
+                productInfoCatalog.put(written);
+            }
+        }
+    }
+
+    private static List<ProductInfoBulkResult> toBulkResults(List<ProductInfoBulkOperation> batch, long firstIndex,
+                                                             ProductInfoBulkResult.Status status, String error) {
+        return IntStream.range(0, batch.size())
+                .mapToObj(i -> new ProductInfoBulkResult(firstIndex + i, batch.get(i).getType(), batch.get(i).getId(), status, error))
+                .collect(Collectors.toList());
+    }
+
+    private static boolean isProjectable(String field) {
+        if (PROJECTABLE_FIELDS.contains(field)) {
+            return true;
+        }
+        return field.startsWith("properties.") && field.length() > "properties.".length() && !field.contains("$");
     }
 }
@@ -0,0 +1,89 @@
+package br.com.moraesit.product.info.service.snapshot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Properties;
+
+/**
+ * The chunks of a snapshot an import has finished, rewritten after each of them so that an interrupted import picks up
+ * where it stopped. A checkpoint left by another snapshot is ignored.
+ */
+class ProductInfoSnapshotCheckpoint {
+    private static final Logger log = LoggerFactory.getLogger(ProductInfoSnapshotCheckpoint.class);
+
+    private final Path file;
+    private final String snapshot;
+    private final BitSet done;
+
+    private ProductInfoSnapshotCheckpoint(Path file, String snapshot, BitSet done) {
+        this.file = file;
+        this.snapshot = snapshot;
+        this.done = done;
+    }
+
+    static ProductInfoSnapshotCheckpoint open(Path file, ProductInfoSnapshotReader reader) throws IOException {
+        var snapshot = reader.getCreatedAt().toEpochMilli() + "/" + reader.getChunks().size() + "/" + reader.getDocumentCount();
+        var done = new BitSet();
+        if (file != null && Files.exists(file)) {
+            var properties = new Properties();
+            try (Reader in = Files.newBufferedReader(file)) {
+                properties.load(in);
+            }
+            if (snapshot.equals(properties.getProperty("snapshot"))) {
+                done = BitSet.valueOf(Base64.getDecoder().decode(properties.getProperty("done", "")));
+            } else {
+                log.warn("Ignoring {}, it was left by another snapshot", file);
+            }
+        }
+        return new ProductInfoSnapshotCheckpoint(file, snapshot, done);
+    }
+
+    synchronized boolean isDone(int chunk) {
+        return done.get(chunk);
+    }
+
+    synchronized int doneCount() {
+        return done.cardinality();
+    }
+
+    synchronized void complete(int chunk) {
+        done.set(chunk);
+        if (file == null) {
+            return;
+        }
+        var properties = new Properties();
+        properties.setProperty("snapshot", snapshot);
+        properties.setProperty("done", Base64.getEncoder().encodeToString(done.toByteArray()));
+        var partial = file.resolveSibling(file.getFileName() + ".partial");
+        try {
+            try (Writer out = Files.newBufferedWriter(partial)) {
+                properties.store(out, null);
+            }
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // once every chunk is in, a new import of the same snapshot starts over
+    synchronized void delete() {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
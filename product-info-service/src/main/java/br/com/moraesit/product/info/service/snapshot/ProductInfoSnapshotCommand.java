@@ -0,0 +1,108 @@
+package br.com.moraesit.product.info.service.snapshot;
+
+import br.com.moraesit.product.info.service.domain.ProductInfoCatalogRevision;
+import com.mongodb.ConnectionString;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.reactivestreams.client.MongoClients;
+import org.bson.RawBsonDocument;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Exports the product info collection to a snapshot file, or imports one into it, without starting the service:
+ * <pre>
+ * export --file=catalog.snapshot [--uri=mongodb://localhost:27017/local] [--collection=productInfo]
+ *        [--chunk-size=4194304] [--level=1] [--concurrency=processors]
+ * import --file=catalog.snapshot [--uri=mongodb://localhost:27017/local] [--collection=productInfo]
+ *        [--mode=insert|upsert] [--concurrency=8] [--batch-size=1000] [--checkpoint=catalog.snapshot.checkpoint]
+ * </pre>
+ * Also run by the exportSnapshot and importSnapshot Gradle tasks, e.g.
+ * {@code ./gradlew :product-info-service:importSnapshot -PsnapshotArgs="--file=catalog.snapshot"}. The import leaves
+ * index creation to the service's startup, which is cheaper once the documents are in.
+ */
+public final class ProductInfoSnapshotCommand {
+    private static final String DEFAULT_URI = "mongodb://localhost:27017/local";
+
+    private ProductInfoSnapshotCommand() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0 || !(args[0].equals("export") || args[0].equals("import"))) {
+            System.err.println("Usage: export|import --file=<snapshot> [--uri=" + DEFAULT_URI + "] [--collection=productInfo] ...");
+            System.exit(2);
+        }
+        var options = options(args);
+        var file = Path.of(required(options, "file"));
+        var uri = new ConnectionString(options.getOrDefault("uri", DEFAULT_URI));
+        var database = uri.getDatabase() != null ? uri.getDatabase() : "local";
+        var collectionName = options.getOrDefault("collection", "productInfo");
+        // the Mongo driver is chatty at logback's default level
+        LoggingSystem.get(ProductInfoSnapshotCommand.class.getClassLoader()).setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, LogLevel.INFO);
+
+        var cpuScheduler = Schedulers.newParallel("product-info-snapshot-cpu");
+        var ioScheduler = Schedulers.newBoundedElastic(Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE,
+                Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "product-info-snapshot-io");
+        try (var client = MongoClients.create(uri)) {
+            var collection = client.getDatabase(database).getCollection(collectionName, RawBsonDocument.class);
+            ProductInfoSnapshotSummary summary;
+            if (args[0].equals("export")) {
+                var exporter = new ProductInfoSnapshotExporter(
+                        intOption(options, "chunk-size", ProductInfoSnapshotExporter.DEFAULT_CHUNK_SIZE),
+                        intOption(options, "level", ProductInfoSnapshotExporter.DEFAULT_LEVEL),
+                        intOption(options, "concurrency", Runtime.getRuntime().availableProcessors()), cpuScheduler, ioScheduler);
+                summary = exporter.export(Flux.from(collection.find().batchSize(1000)), file).block();
+                System.out.println("Exported " + database + "." + collectionName + " to " + file + ": " + summary);
+            } else {
+                var importer = new ProductInfoSnapshotImporter(intOption(options, "concurrency", 8),
+                        intOption(options, "batch-size", 1000), ioScheduler);
+                var writer = options.getOrDefault("mode", "insert").equals("upsert")
+                        ? ProductInfoSnapshotImporter.upsert(collection)
+                        : ProductInfoSnapshotImporter.insert(collection);
+                var checkpoint = Path.of(options.getOrDefault("checkpoint", file + ".checkpoint"));
+                summary = importer.importSnapshot(file, checkpoint, writer).block();
+                // the listing's ETag comes from this counter, and it only moves on the service's own writes
+                Mono.from(client.getDatabase(database).getCollection(ProductInfoCatalogRevision.COLLECTION)
+                                .updateOne(Filters.eq("_id", collectionName), Updates.inc("revision", 1L), new UpdateOptions().upsert(true)))
+                        .block();
+                System.out.println("Imported " + file + " into " + database + "." + collectionName + ": " + summary);
+            }
+        } finally {
+            cpuScheduler.dispose();
+            ioScheduler.dispose();
+        }
+    }
+
+    private static Map<String, String> options(String[] args) {
+        var options = new HashMap<String, String>();
+        for (int i = 1; i < args.length; i++) {
+            int equals = args[i].indexOf('=');
+            if (!args[i].startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + args[i]);
+            }
+            options.put(args[i].substring(2, equals), args[i].substring(equals + 1));
+        }
+        return options;
+    }
+
+    private static String required(Map<String, String> options, String name) {
+        var value = options.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("--" + name + " is required");
+        }
+        return value;
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        var value = options.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+}
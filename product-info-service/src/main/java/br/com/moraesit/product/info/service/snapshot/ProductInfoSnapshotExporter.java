@@ -0,0 +1,111 @@
+package br.com.moraesit.product.info.service.snapshot;
+
+import org.bson.RawBsonDocument;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Streams documents into a snapshot file. They are copied as raw BSON into chunks of about {@code chunkSize} bytes,
+ * the chunks are compressed on the CPU scheduler, {@code concurrency} at a time, and written to the file in order on the
+ * IO one.
+ * Only that many chunks are held at once, whatever the size of the collection.
+ */
+public class ProductInfoSnapshotExporter {
+    public static final int DEFAULT_CHUNK_SIZE = 4 << 20;
+    // deflate's fastest level already shrinks product infos about 4 times, the higher ones gain little for the time
+    public static final int DEFAULT_LEVEL = 1;
+
+    private final int chunkSize;
+    private final int level;
+    private final int concurrency;
+    private final Scheduler cpuScheduler;
+    private final Scheduler ioScheduler;
+
+    public ProductInfoSnapshotExporter(int chunkSize, int level, int concurrency, Scheduler cpuScheduler, Scheduler ioScheduler) {
+        this.chunkSize = chunkSize;
+        this.level = level;
+        this.concurrency = concurrency;
+        this.cpuScheduler = cpuScheduler;
+        this.ioScheduler = ioScheduler;
+    }
+
+    /**
+     * @param documents read from the collection from now on, so that anything written before the call is in the
+     *                  snapshot
+     */
+    public Mono<ProductInfoSnapshotSummary> export(Flux<RawBsonDocument> documents, Path file) {
+        return Mono.defer(() -> {
+            var createdAt = Instant.now();
+            long startNanos = System.nanoTime();
+            return Mono.using(() -> ProductInfoSnapshotWriter.create(file, createdAt),
+                    writer -> chunks(documents)
+                            .flatMapSequential(chunk -> Mono.fromCallable(() -> chunk.compress(level))
+                                    .subscribeOn(cpuScheduler), concurrency, 1)
+                            .concatMap(chunk -> Mono.fromCallable(() -> {
+                                writer.write(chunk);
+                                return (long) chunk.getCompressedLength();
+                            }).subscribeOn(ioScheduler), 1)
+                            .reduce(0L, Long::sum)
+                            .flatMap(compressed -> Mono.fromCallable(() -> {
+                                writer.finish();
+                                return new ProductInfoSnapshotSummary(writer.getChunkCount(), 0, writer.getDocumentCount(),
+                                        writer.getDocumentCount(), compressed, Duration.ofNanos(System.nanoTime() - startNanos));
+                            }).subscribeOn(ioScheduler)),
+                    ProductInfoSnapshotWriter::close);
+        });
+    }
+
+    private Flux<Chunk> chunks(Flux<RawBsonDocument> documents) {
+        return Flux.defer(() -> {
+            var current = new Chunk[]{new Chunk(chunkSize)};
+            return documents
+                    .concatMapIterable(document -> {
+                        var buffer = document.getByteBuffer();
+                        int length = buffer.remaining();
+                        if (current[0].fits(length)) {
+                            current[0].add(buffer.array(), buffer.position(), length);
+                            return List.of();
+                        }
+                        var full = current[0];
+                        current[0] = new Chunk(Math.max(chunkSize, length));
+                        current[0].add(buffer.array(), buffer.position(), length);
+                        return full.isEmpty() ? List.of() : List.of(full);
+                    })
+                    .concatWith(Flux.defer(() -> current[0].isEmpty() ? Flux.empty() : Flux.just(current[0])));
+        });
+    }
+
+    private static final class Chunk {
+        private final byte[] bytes;
+        private int length;
+        private int documentCount;
+
+        private Chunk(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        private boolean fits(int documentLength) {
+            return documentLength <= bytes.length - length;
+        }
+
+        private void add(byte[] document, int offset, int documentLength) {
+            System.arraycopy(document, offset, bytes, length, documentLength);
+            length += documentLength;
+            documentCount++;
+        }
+
+        private boolean isEmpty() {
+            return documentCount == 0;
+        }
+
+        private ProductInfoSnapshotWriter.CompressedChunk compress(int level) {
+            return ProductInfoSnapshotWriter.compress(bytes, length, documentCount, level);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package br.com.moraesit.product.info.service.snapshot;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import org.bson.RawBsonDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Loads a snapshot into a collection. {@code concurrency} chunks are inflated and written at once, each in batches of
+ * {@code batchSize} documents, and every finished chunk is recorded in the checkpoint file, if there is one, so that an
+ * interrupted import can be run again and skip them.
+ */
+public class ProductInfoSnapshotImporter {
+    private static final Logger log = LoggerFactory.getLogger(ProductInfoSnapshotImporter.class);
+
+    private final int concurrency;
+    private final int batchSize;
+    private final Scheduler scheduler;
+
+    // the chunks are inflated on the scheduler too, reading a mapped file can block on the disk
+    public ProductInfoSnapshotImporter(int concurrency, int batchSize, Scheduler scheduler) {
+        this.concurrency = concurrency;
+        this.batchSize = batchSize;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Inserts the documents with unordered batches, counting the ones whose id the collection already has as existing
+     * rather than failing, which makes importing a chunk again harmless.
+     */
+    public static BatchWriter insert(MongoCollection<RawBsonDocument> collection) {
+        var options = new InsertManyOptions().ordered(false);
+        return documents -> Mono.from(collection.insertMany(documents, options))
+                .map(result -> (long) result.getInsertedIds().size())
+                .onErrorResume(MongoBulkWriteException.class, e -> e.getWriteErrors().stream()
+                        .allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY)
+                        ? Mono.just((long) e.getWriteResult().getInsertedCount())
+                        : Mono.error(e));
+    }
+
+    /**
+     * Replaces the documents by id, inserting the missing ones, for importing over a collection that may hold older
+     * copies.
+     */
+    public static BatchWriter upsert(MongoCollection<RawBsonDocument> collection) {
+        var options = new ReplaceOptions().upsert(true);
+        var bulkOptions = new BulkWriteOptions().ordered(false);
+        return documents -> Mono.from(collection.bulkWrite(documents.stream()
+                                .map(document -> new ReplaceOneModel<>(Filters.eq("_id", document.get("_id")), document, options))
+                                .collect(Collectors.toList()), bulkOptions))
+                .map(result -> (long) result.getUpserts().size() + result.getModifiedCount());
+    }
+
+    public Mono<ProductInfoSnapshotSummary> importSnapshot(Path file, Path checkpointFile, BatchWriter writer) {
+        return Mono.defer(() -> {
+            long startNanos = System.nanoTime();
+            return Mono.using(() -> ProductInfoSnapshotReader.open(file),
+                    reader -> Mono.fromCallable(() -> ProductInfoSnapshotCheckpoint.open(checkpointFile, reader))
+                            .flatMap(checkpoint -> {
+                                var pending = reader.getChunks().stream()
+                                        .filter(chunk -> !checkpoint.isDone(chunk.getIndex()))
+                                        .collect(Collectors.toList());
+                                int skipped = reader.getChunks().size() - pending.size();
+                                if (skipped > 0) {
+                                    log.info("Resuming the import of {} from {}, {} of {} chunks are done", file, checkpointFile,
+                                            skipped, reader.getChunks().size());
+                                }
+                                long documents = pending.stream().mapToLong(ProductInfoSnapshotReader.Chunk::getDocumentCount).sum();
+                                return Flux.fromIterable(pending)
+                                        .flatMap(chunk -> importChunk(reader, chunk, writer)
+                                                .flatMap(written -> Mono.fromRunnable(() -> checkpoint.complete(chunk.getIndex()))
+                                                        .subscribeOn(scheduler)
+                                                        .thenReturn(written))
+                                                .doOnNext(written -> log.debug("Imported chunk {} of {}, {} chunks done",
+                                                        chunk.getIndex(), file, checkpoint.doneCount())), concurrency)
+                                        .reduce(0L, Long::sum)
+                                        .flatMap(written -> Mono.fromCallable(() -> {
+                                            checkpoint.delete();
+                                            return new ProductInfoSnapshotSummary(reader.getChunks().size(), skipped, documents,
+                                                    written, reader.getSize(), Duration.ofNanos(System.nanoTime() - startNanos));
+                                        }).subscribeOn(scheduler));
+                            })
+                            .subscribeOn(scheduler),
+                    ProductInfoSnapshotReader::close);
+        });
+    }
+
+    private Mono<Long> importChunk(ProductInfoSnapshotReader reader, ProductInfoSnapshotReader.Chunk chunk, BatchWriter writer) {
+        return Mono.fromCallable(() -> reader.read(chunk))
+                .subscribeOn(scheduler)
+                .flatMapMany(documents -> Flux.fromIterable(documents).buffer(batchSize))
+                .concatMap(writer::write)
+                .reduce(0L, Long::sum);
+    }
+
+    @FunctionalInterface
+    public interface BatchWriter {
+        // completes with how many of the documents were written, the rest were already in the collection
+        Mono<Long> write(List<RawBsonDocument> documents);
+    }
+}
@@ -0,0 +1,200 @@
+package br.com.moraesit.product.info.service.snapshot;
+
+import org.bson.RawBsonDocument;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static br.com.moraesit.product.info.service.snapshot.ProductInfoSnapshotWriter.CHUNK_HEADER_SIZE;
+import static br.com.moraesit.product.info.service.snapshot.ProductInfoSnapshotWriter.END_OF_CHUNKS;
+import static br.com.moraesit.product.info.service.snapshot.ProductInfoSnapshotWriter.HEADER_SIZE;
+import static br.com.moraesit.product.info.service.snapshot.ProductInfoSnapshotWriter.MAGIC;
+import static br.com.moraesit.product.info.service.snapshot.ProductInfoSnapshotWriter.TRAILER_SIZE;
+
+/**
+ * Reads a snapshot written by {@link ProductInfoSnapshotWriter}. Opening it walks the chunk headers and checks them
+ * against the trailer, so a truncated file fails before anything is imported. Each chunk is inflated straight from a
+ * read-only mapping of its bytes and checked against its CRC32C; chunks can be read from several threads at once.
+ */
+public class ProductInfoSnapshotReader implements Closeable {
+    private final Path file;
+    private final FileChannel channel;
+    private final Instant createdAt;
+    private final List<Chunk> chunks;
+    private final long documentCount;
+
+    private ProductInfoSnapshotReader(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            var header = readAt(0, HEADER_SIZE, size);
+            if (header.getLong() != MAGIC) {
+                throw new IOException(file + " is not a product info snapshot");
+            }
+            this.createdAt = Instant.ofEpochMilli(header.getLong());
+
+            var chunks = new ArrayList<Chunk>();
+            long documents = 0;
+            long position = HEADER_SIZE;
+            while (true) {
+                var chunkHeader = readAt(position, CHUNK_HEADER_SIZE, size);
+                int compressedLength = chunkHeader.getInt();
+                if (compressedLength == END_OF_CHUNKS) {
+                    int chunkCount = chunkHeader.getInt();
+                    long documentCount = chunkHeader.getLong();
+                    if (chunkCount != chunks.size() || documentCount != documents || position + TRAILER_SIZE != size) {
+                        throw new IOException(file + " does not match its trailer");
+                    }
+                    break;
+                }
+                int uncompressedLength = chunkHeader.getInt();
+                int chunkDocuments = chunkHeader.getInt();
+                int checksum = chunkHeader.getInt();
+                if (compressedLength < 0 || uncompressedLength < 0 || chunkDocuments < 0) {
+                    throw new IOException(file + " has a corrupt header at " + position);
+                }
+                chunks.add(new Chunk(chunks.size(), position + CHUNK_HEADER_SIZE, compressedLength, uncompressedLength,
+                        chunkDocuments, checksum));
+                documents += chunkDocuments;
+                position += CHUNK_HEADER_SIZE + compressedLength;
+            }
+            this.chunks = List.copyOf(chunks);
+            this.documentCount = documents;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static ProductInfoSnapshotReader open(Path file) throws IOException {
+        return new ProductInfoSnapshotReader(file);
+    }
+
+    public List<RawBsonDocument> read(Chunk chunk) throws IOException {
+        var documents = new byte[chunk.uncompressedLength];
+        var inflater = new Inflater(true);
+        try {
+            inflater.setInput(channel.map(FileChannel.MapMode.READ_ONLY, chunk.offset, chunk.compressedLength));
+            int length = 0;
+            while (length < documents.length && !inflater.finished()) {
+                int inflated = inflater.inflate(documents, length, documents.length - length);
+                if (inflated == 0 && inflater.needsInput()) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != documents.length) {
+                throw corrupt(chunk);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Chunk " + chunk.index + " of " + file + " is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+
+        var checksum = new CRC32C();
+        checksum.update(documents);
+        if ((int) checksum.getValue() != chunk.checksum) {
+            throw corrupt(chunk);
+        }
+
+        var result = new ArrayList<RawBsonDocument>(chunk.documentCount);
+        var lengths = ByteBuffer.wrap(documents).order(ByteOrder.LITTLE_ENDIAN);
+        int offset = 0;
+        while (offset < documents.length) {
+            int length = lengths.getInt(offset);
+            if (length < 5 || length > documents.length - offset) {
+                throw corrupt(chunk);
+            }
+            result.add(new RawBsonDocument(documents, offset, length));
+            offset += length;
+        }
+        if (result.size() != chunk.documentCount) {
+            throw corrupt(chunk);
+        }
+        return result;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public List<Chunk> getChunks() {
+        return chunks;
+    }
+
+    public long getDocumentCount() {
+        return documentCount;
+    }
+
+    public long getSize() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ByteBuffer readAt(long position, int length, long size) throws IOException {
+        if (position + length > size) {
+            throw new IOException(file + " is truncated");
+        }
+        var buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            channel.read(buffer, position + buffer.position());
+        }
+        return buffer.flip();
+    }
+
+    private IOException corrupt(Chunk chunk) {
+        return new IOException("Chunk " + chunk.index + " of " + file + " is corrupt");
+    }
+
+    public static final class Chunk {
+        private final int index;
+        private final long offset;
+        private final int compressedLength;
+        private final int uncompressedLength;
+        private final int documentCount;
+        private final int checksum;
+
+        private Chunk(int index, long offset, int compressedLength, int uncompressedLength, int documentCount, int checksum) {
+            this.index = index;
+            this.offset = offset;
+            this.compressedLength = compressedLength;
+            this.uncompressedLength = uncompressedLength;
+            this.documentCount = documentCount;
+            this.checksum = checksum;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public int getCompressedLength() {
+            return compressedLength;
+        }
+
+        public int getDocumentCount() {
+            return documentCount;
+        }
+    }
+}
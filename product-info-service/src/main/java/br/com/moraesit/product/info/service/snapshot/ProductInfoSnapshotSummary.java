@@ -0,0 +1,57 @@
+package br.com.moraesit.product.info.service.snapshot;
+
+import java.time.Duration;
+
+public class ProductInfoSnapshotSummary {
+    private final int chunks;
+    // chunks a resumed import found already done in its checkpoint
+    private final int skippedChunks;
+    private final long documents;
+    // documents an import actually wrote, the rest were already in the collection
+    private final long written;
+    private final long bytes;
+    private final Duration elapsed;
+
+    public ProductInfoSnapshotSummary(int chunks, int skippedChunks, long documents, long written, long bytes, Duration elapsed) {
+        this.chunks = chunks;
+        this.skippedChunks = skippedChunks;
+        this.documents = documents;
+        this.written = written;
+        this.bytes = bytes;
+        this.elapsed = elapsed;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public int getSkippedChunks() {
+        return skippedChunks;
+    }
+
+    public long getDocuments() {
+        return documents;
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    public long getDocumentsPerSecond() {
+        return documents * 1000 / Math.max(1, elapsed.toMillis());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d documents (%d written) in %d chunks (%d skipped), %d MiB, in %.1f s, %d documents/s",
+                documents, written, chunks, skippedChunks, bytes >> 20, elapsed.toMillis() / 1000.0, getDocumentsPerSecond());
+    }
+}
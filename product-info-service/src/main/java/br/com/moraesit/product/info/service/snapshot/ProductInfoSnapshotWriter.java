@@ -0,0 +1,172 @@
+package br.com.moraesit.product.info.service.snapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a product info snapshot file, little endian like the BSON in it:
+ * <pre>
+ * header   long magic, long created at (epoch millis)
+ * chunk    int compressed length, int uncompressed length, int documents, int CRC32C of the uncompressed bytes,
+ *          then the raw BSON documents back to back, deflated without a zlib wrapper
+ * trailer  int -1, int chunks, long documents
+ * </pre>
+ * The file is written next to its final name and moved there once the trailer is on disk, so a snapshot that exists is
+ * complete.
+ */
+public class ProductInfoSnapshotWriter implements Closeable {
+    static final long MAGIC = 0x31_30_50_41_4E_53_49_50L; // "PISNAP01"
+    static final int HEADER_SIZE = 16;
+    static final int CHUNK_HEADER_SIZE = 16;
+    static final int TRAILER_SIZE = 16;
+    static final int END_OF_CHUNKS = -1;
+
+    private final Path file;
+    private final Path partial;
+    private final FileChannel channel;
+    private final ByteBuffer chunkHeader = ByteBuffer.allocate(CHUNK_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private int chunkCount;
+    private long documentCount;
+    private boolean finished;
+
+    private ProductInfoSnapshotWriter(Path file, Instant createdAt) throws IOException {
+        this.file = file;
+        this.partial = file.resolveSibling(file.getFileName() + ".partial");
+        this.channel = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        writeFully(ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+                .putLong(MAGIC)
+                .putLong(createdAt.toEpochMilli())
+                .flip());
+    }
+
+    /**
+     * @param createdAt when the documents started being read, anything written to the collection before then is in the
+     *                  snapshot
+     */
+    public static ProductInfoSnapshotWriter create(Path file, Instant createdAt) throws IOException {
+        return new ProductInfoSnapshotWriter(file, createdAt);
+    }
+
+    /**
+     * Compresses {@code length} bytes of raw BSON documents into a chunk, safe to call from several threads at once.
+     */
+    public static CompressedChunk compress(byte[] documents, int length, int documentCount, int level) {
+        var checksum = new CRC32C();
+        checksum.update(documents, 0, length);
+
+        var deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(documents, 0, length);
+            deflater.finish();
+            // stored blocks add a few bytes per 16 KiB when nothing compresses
+            var compressed = new byte[length + (length >> 11) + 64];
+            int compressedLength = 0;
+            while (!deflater.finished()) {
+                if (compressedLength == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+            }
+            return new CompressedChunk(compressed, compressedLength, length, documentCount, (int) checksum.getValue());
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public void write(CompressedChunk chunk) throws IOException {
+        chunkHeader.clear()
+                .putInt(chunk.compressedLength)
+                .putInt(chunk.uncompressedLength)
+                .putInt(chunk.documentCount)
+                .putInt(chunk.checksum)
+                .flip();
+        var buffers = new ByteBuffer[]{chunkHeader, ByteBuffer.wrap(chunk.data, 0, chunk.compressedLength)};
+        long remaining = CHUNK_HEADER_SIZE + chunk.compressedLength;
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+        chunkCount++;
+        documentCount += chunk.documentCount;
+    }
+
+    public void finish() throws IOException {
+        writeFully(ByteBuffer.allocate(TRAILER_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(END_OF_CHUNKS)
+                .putInt(chunkCount)
+                .putLong(documentCount)
+                .flip());
+        channel.force(true);
+        channel.close();
+        Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        finished = true;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    public long getDocumentCount() {
+        return documentCount;
+    }
+
+    // an unfinished snapshot is thrown away
+    @Override
+    public void close() {
+        if (finished) {
+            return;
+        }
+        try {
+            channel.close();
+            Files.deleteIfExists(partial);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    public static final class CompressedChunk {
+        private final byte[] data;
+        private final int compressedLength;
+        private final int uncompressedLength;
+        private final int documentCount;
+        private final int checksum;
+
+        private CompressedChunk(byte[] data, int compressedLength, int uncompressedLength, int documentCount, int checksum) {
+            this.data = data;
+            this.compressedLength = compressedLength;
+            this.uncompressedLength = uncompressedLength;
+            this.documentCount = documentCount;
+            this.checksum = checksum;
+        }
+
+        public int getCompressedLength() {
+            return compressedLength;
+        }
+
+        public int getUncompressedLength() {
+            return uncompressedLength;
+        }
+
+        public int getDocumentCount() {
+            return documentCount;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package br.com.moraesit.product.info.service.change;
+
+import br.com.moraesit.product.info.service.cache.ProductInfoCache;
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.domain.ProductInfoChange;
+import br.com.moraesit.product.info.service.repository.ProductInfoRepository;
+import br.com.moraesit.product.info.service.service.ProductInfoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs against an embedded single-node replica set, which change streams require.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.mongodb.embedded.storage.repl-set-name=rs0",
+        "product-info.change-stream.enabled=true",
+        "product-info.change-stream.min-retry-backoff=100ms"})
+@ActiveProfiles("test")
+@AutoConfigureWebTestClient(timeout = "10s")
+class ProductInfoChangeStreamIntegrationTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    // gives the subscription time to reach the sink before the write it waits for
+    private static final Duration SUBSCRIBE_DELAY = Duration.ofMillis(500);
+
+    @Autowired
+    private ProductInfoRepository productInfoRepository;
+
+    @Autowired
+    private ProductInfoService productInfoService;
+
+    @Autowired
+    private ProductInfoCache productInfoCache;
+
+    @Autowired
+    private ProductInfoChangeStream productInfoChangeStream;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @AfterEach
+    void tearDown() {
+        productInfoRepository.deleteAll().block();
+        productInfoCache.invalidateAll();
+    }
+
+    @Test
+    void changesArePushedToSubscribers() {
+        var productInfo = productInfo("Samsung Galaxy A13");
+
+        var changes = webTestClient
+                .get()
+                .uri("/v1/product-infos/changes")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(ProductInfoChange.class)
+                .getResponseBody();
+
+        StepVerifier.create(changes)
+                .then(() -> Mono.delay(SUBSCRIBE_DELAY)
+                        .then(productInfoRepository.save(productInfo))
+                        .then(productInfoRepository.deleteById(productInfo.getId()))
+                        .subscribe())
+                .assertNext(change -> {
+                    assertEquals(ProductInfoChange.Type.UPSERT, change.getType());
+                    assertEquals(productInfo.getId(), change.getId());
+                    assertEquals("Samsung Galaxy A13", change.getProductInfo().getName());
+                })
+                .assertNext(change -> {
+                    assertEquals(ProductInfoChange.Type.DELETE, change.getType());
+                    assertEquals(productInfo.getId(), change.getId());
+                })
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void cacheFollowsWritesItDidNotMake() {
+        var productInfo = productInfoRepository.save(productInfo("Samsung Galaxy A13")).block();
+        assertEquals("Samsung Galaxy A13", productInfoService.getProductInfoById(productInfo.getId()).block().getName());
+
+        // written behind the service's back, as another instance would
+        productInfo.setName("Samsung Galaxy A13 Updated");
+        productInfoRepository.save(productInfo).block();
+
+        StepVerifier.create(Mono.defer(() -> productInfoService.getProductInfoById(productInfo.getId()))
+                        .filter(cached -> cached.getName().endsWith("Updated"))
+                        .repeatWhenEmpty(repeat -> repeat.delayElements(Duration.ofMillis(100))))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void resumesAfterTheLastHandledChange() {
+        var handled = productInfo("Handled before the restart");
+        StepVerifier.create(productInfoChangeStream.changes())
+                .then(() -> Mono.delay(SUBSCRIBE_DELAY).then(productInfoRepository.save(handled)).subscribe())
+                .assertNext(change -> assertEquals(handled.getId(), change.getId()))
+                .thenCancel()
+                .verify(TIMEOUT);
+
+        productInfoChangeStream.stop();
+        var missed = productInfoRepository.save(productInfo("Written while stopped")).block();
+
+        // replays from the checkpoint: the change written while stopped arrives, the handled one does not again
+        StepVerifier.create(productInfoChangeStream.changes())
+                .then(productInfoChangeStream::start)
+                .assertNext(change -> assertEquals(missed.getId(), change.getId()))
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void subscribersResumeFromTheirLastEventId() {
+        var seen = productInfo("Seen before reconnecting");
+        var missed = productInfo("Written while disconnected");
+
+        var lastEventId = productInfoChangeStream.changes()
+                .doOnSubscribe(subscription -> Mono.delay(SUBSCRIBE_DELAY).then(productInfoRepository.save(seen)).subscribe())
+                .blockFirst(TIMEOUT)
+                .getEventId();
+        productInfoRepository.save(missed).block();
+
+        var changes = webTestClient
+                .get()
+                .uri("/v1/product-infos/changes")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header("Last-Event-ID", lastEventId)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(ProductInfoChange.class)
+                .getResponseBody();
+
+        StepVerifier.create(changes)
+                .assertNext(change -> assertEquals(missed.getId(), change.getId()))
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    private static ProductInfo productInfo(String name) {
+        return ProductInfo.builder()
+                .id(UUID.randomUUID().toString())
+                .name(name)
+                .price(new BigDecimal("1200.50"))
+                .build();
+    }
+}
@@ -0,0 +1,119 @@
+package br.com.moraesit.product.info.service.change;
+
+import br.com.moraesit.product.info.service.config.ProductInfoChangeStreamProperties;
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.domain.ProductInfoChange;
+import br.com.moraesit.product.info.service.repository.ProductInfoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Resumes from event ids the shared history no longer holds, which a history of one change makes easy to get.
+ */
+@SpringBootTest(properties = {
+        "spring.mongodb.embedded.storage.repl-set-name=rs0",
+        "product-info.change-stream.enabled=true",
+        "product-info.change-stream.history-size=1",
+        "product-info.change-stream.max-resumes=1"})
+@ActiveProfiles("test")
+class ProductInfoChangeStreamResumeIntegrationTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    // gives the subscription time to reach the sink before the write it waits for
+    private static final Duration SUBSCRIBE_DELAY = Duration.ofMillis(500);
+
+    @Autowired
+    private ProductInfoRepository productInfoRepository;
+
+    @Autowired
+    private ProductInfoChangeStream productInfoChangeStream;
+
+    @Autowired
+    private ProductInfoChangeStreamProperties productInfoChangeStreamProperties;
+
+    @AfterEach
+    void tearDown() {
+        productInfoRepository.deleteAll().block();
+    }
+
+    @Test
+    void replayedGapJoinsTheSharedStream() {
+        var seen = productInfo("Seen before reconnecting");
+        var lastEventId = productInfoChangeStream.changes()
+                .doOnSubscribe(subscription -> Mono.delay(SUBSCRIBE_DELAY).then(productInfoRepository.save(seen)).subscribe())
+                .blockFirst(TIMEOUT)
+                .getEventId();
+        var missed = productInfo("Written while disconnected");
+        var alsoMissed = productInfo("Also written while disconnected");
+        var published = published(alsoMissed);
+        productInfoRepository.save(missed).then(productInfoRepository.save(alsoMissed)).block();
+        // the shared history now holds only the last of them
+        published.block(TIMEOUT);
+        var live = productInfo("Written after reconnecting");
+
+        StepVerifier.create(productInfoChangeStream.changes(lastEventId))
+                .assertNext(change -> assertEquals(missed.getId(), change.getId()))
+                .assertNext(change -> assertEquals(alsoMissed.getId(), change.getId()))
+                .then(() -> productInfoRepository.save(live).subscribe())
+                .assertNext(change -> assertEquals(live.getId(), change.getId()))
+                .thenCancel()
+                .verify(TIMEOUT);
+
+        // the first replay gave its cursor back when it joined, so the only slot is free again
+        StepVerifier.create(productInfoChangeStream.changes(lastEventId))
+                .assertNext(change -> assertEquals(missed.getId(), change.getId()))
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void resumesBeyondTheCapAreToldToResync() {
+        var seen = productInfo("Seen before reconnecting");
+        var lastEventId = productInfoChangeStream.changes()
+                .doOnSubscribe(subscription -> Mono.delay(SUBSCRIBE_DELAY).then(productInfoRepository.save(seen)).subscribe())
+                .blockFirst(TIMEOUT)
+                .getEventId();
+        var pushedOut = productInfo("Pushes the seen change out of the history");
+        var published = published(pushedOut);
+        productInfoRepository.save(pushedOut).block();
+        published.block(TIMEOUT);
+
+        // every slot taken, as by replays still waiting for their gap
+        productInfoChangeStreamProperties.setMaxResumes(0);
+        try {
+            StepVerifier.create(productInfoChangeStream.changes(lastEventId))
+                    .assertNext(change -> assertEquals(ProductInfoChange.Type.INVALIDATE, change.getType()))
+                    .thenCancel()
+                    .verify(TIMEOUT);
+        } finally {
+            productInfoChangeStreamProperties.setMaxResumes(1);
+        }
+    }
+
+    // subscribed before the write, so it cannot miss the change
+    private Mono<ProductInfoChange> published(ProductInfo productInfo) {
+        var change = productInfoChangeStream.changes()
+                .filter(published -> productInfo.getId().equals(published.getId()))
+                .next()
+                .toFuture();
+        return Mono.fromFuture(change);
+    }
+
+    private static ProductInfo productInfo(String name) {
+        return ProductInfo.builder()
+                .id(UUID.randomUUID().toString())
+                .name(name)
+                .price(new BigDecimal("1200.50"))
+                .build();
+    }
+}
@@ -1,6 +1,9 @@
 package br.com.moraesit.product.info.service.controller;
 
+import br.com.moraesit.product.info.service.cache.ProductInfoCache;
 import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.domain.ProductInfoBulkOperation;
+import br.com.moraesit.product.info.service.domain.ProductInfoBulkResult;
 import br.com.moraesit.product.info.service.repository.ProductInfoRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,14 +11,19 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -28,6 +36,9 @@ class ProductInfoControllerIntegrationTest {
     @Autowired
     private ProductInfoRepository productInfoRepository;
 
+    @Autowired
+    private ProductInfoCache productInfoCache;
+
     @Autowired
     private WebTestClient webTestClient;
 
@@ -59,6 +70,7 @@ class ProductInfoControllerIntegrationTest {
     @AfterEach
     void tearDown() {
         productInfoRepository.deleteAll().block();
+        productInfoCache.invalidateAll();
     }
 
     @Test
@@ -87,6 +99,49 @@ class ProductInfoControllerIntegrationTest {
                 });
     }
 
+    @Test
+    void addProductInfoWithExistingIdAndVersion() {
+        var productInfo = ProductInfo.builder()
+                .id(ID)
+                .name("Samsung Galaxy A13 Overwritten")
+                .price(new BigDecimal("1.00"))
+                .version(0L)
+                .build();
+
+        webTestClient
+                .post()
+                .uri(PRODUCT_INFOS_URL)
+                .bodyValue(productInfo)
+                .exchange()
+                .expectStatus()
+                .isEqualTo(409);
+
+        assertEquals("Samsung Galaxy A13", productInfoRepository.findById(ID).block().getName());
+    }
+
+    // over the offload threshold, so decoded and encoded off the event loop; BlockHound fails the test on a blocking call
+    @Test
+    void addProductInfoWithLargeProperties() {
+        var properties = IntStream.range(0, 2000).boxed()
+                .collect(Collectors.<Integer, String, Object>toMap(i -> "Propriedade " + i, i -> "Valor da propriedade " + i));
+        var productInfo = ProductInfo.builder()
+                .name("Motorola Moto G80")
+                .description("Smartphone Motorola Moto G80 256GB Azul 4G")
+                .price(new BigDecimal("2310.16"))
+                .properties(properties)
+                .build();
+
+        webTestClient
+                .post()
+                .uri(PRODUCT_INFOS_URL)
+                .bodyValue(productInfo)
+                .exchange()
+                .expectStatus()
+                .isCreated()
+                .expectBody(ProductInfo.class)
+                .consumeWith(result -> assertEquals(properties, result.getResponseBody().getProperties()));
+    }
+
     @Test
     void updateProductInfo() {
         var productInfo = ProductInfo.builder()
@@ -116,6 +171,70 @@ class ProductInfoControllerIntegrationTest {
                 });
     }
 
+    @Test
+    void bulkWriteProductInfos() {
+        var operations = Flux.just(
+                ProductInfoBulkOperation.upsert(ProductInfo.builder()
+                        .id(ID)
+                        .name("Samsung Galaxy A13 Updated")
+                        .price(new BigDecimal("1151.24"))
+                        .build()),
+                ProductInfoBulkOperation.upsert(ProductInfo.builder()
+                        .name("Motorola Moto G80")
+                        .price(new BigDecimal("2310.16"))
+                        .build()),
+                ProductInfoBulkOperation.delete(ID));
+
+        var results = webTestClient
+                .post()
+                .uri(PRODUCT_INFOS_URL + "/bulk?ordered=true")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .body(operations, ProductInfoBulkOperation.class)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .returnResult(ProductInfoBulkResult.class)
+                .getResponseBody();
+
+        StepVerifier.create(results)
+                .assertNext(result -> assertEquals(ProductInfoBulkResult.Status.OK, result.getStatus()))
+                .assertNext(result -> assertNotNull(result.getId()))
+                .assertNext(result -> assertEquals(ID, result.getId()))
+                .verifyComplete();
+
+        StepVerifier.create(productInfoRepository.findAll())
+                .expectNextCount(2)
+                .verifyComplete();
+    }
+
+    @Test
+    void patchProductInfo() {
+        webTestClient
+                .patch()
+                .uri(PRODUCT_INFOS_URL + "/{id}", ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"price\": 1151.24, \"properties\": {\"Cor\": \"Preto\"}, \"version\": 0}")
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Samsung Galaxy A13")
+                .jsonPath("$.price").isEqualTo(1151.24)
+                .jsonPath("$.properties.Marca").isEqualTo("Samsung")
+                .jsonPath("$.properties.Cor").isEqualTo("Preto")
+                .jsonPath("$.version").isEqualTo(1);
+
+        webTestClient
+                .patch()
+                .uri(PRODUCT_INFOS_URL + "/{id}", ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"price\": 1000.00, \"version\": 0}")
+                .exchange()
+                .expectStatus()
+                .isEqualTo(409);
+    }
+
     @Test
     void getAllProductInfos() {
         webTestClient
@@ -133,6 +252,25 @@ class ProductInfoControllerIntegrationTest {
                 });
     }
 
+    @Test
+    void getAllProductInfosAsEventStream() {
+        var productInfoFlux = webTestClient
+                .get()
+                .uri(PRODUCT_INFOS_URL)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectHeader()
+                .contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .returnResult(ProductInfo.class)
+                .getResponseBody();
+
+        StepVerifier.create(productInfoFlux)
+                .expectNextCount(2)
+                .verifyComplete();
+    }
+
     @Test
     void getProductInfoById() {
         webTestClient
@@ -0,0 +1,141 @@
+package br.com.moraesit.product.info.service.outbox;
+
+import br.com.moraesit.product.info.service.cache.ProductInfoCache;
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.domain.ProductInfoEvent;
+import br.com.moraesit.product.info.service.repository.ProductInfoOutboxRepository;
+import br.com.moraesit.product.info.service.repository.ProductInfoRepository;
+import br.com.moraesit.product.info.service.service.ProductInfoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Runs against an embedded single-node replica set, which transactions require.
+ */
+@SpringBootTest(properties = {
+        "spring.mongodb.embedded.storage.repl-set-name=rs0",
+        "product-info.outbox.enabled=true",
+        "product-info.outbox.sink=memory",
+        "product-info.outbox.poll-interval=100ms",
+        "product-info.outbox.min-retry-backoff=100ms"})
+@ActiveProfiles("test")
+class ProductInfoOutboxIntegrationTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private ProductInfoService productInfoService;
+
+    @Autowired
+    private ProductInfoRepository productInfoRepository;
+
+    @Autowired
+    private ProductInfoOutboxRepository outboxRepository;
+
+    @Autowired
+    private ProductInfoCache productInfoCache;
+
+    private final InMemoryProductInfoEventSink sink;
+
+    @Autowired
+    ProductInfoOutboxIntegrationTest(ProductInfoEventSink sink) {
+        this.sink = (InMemoryProductInfoEventSink) sink;
+    }
+
+    @AfterEach
+    void tearDown() {
+        productInfoRepository.deleteAll().block();
+        outboxRepository.deleteAll().block();
+        productInfoCache.invalidateAll();
+        sink.clear();
+    }
+
+    @Test
+    void writesArePublishedInOrder() {
+        var id = UUID.randomUUID().toString();
+        productInfoService.addProductInfo(productInfo(id)).block();
+        productInfoService.updateProductInfo(id, ProductInfo.builder().name("Samsung Galaxy A13 Updated").build()).block();
+        productInfoService.deleteProductInfo(id).block();
+
+        var events = awaitEvents(3);
+
+        assertEquals(List.of(ProductInfoEvent.Type.UPSERT, ProductInfoEvent.Type.UPSERT, ProductInfoEvent.Type.DELETE),
+                events.stream().map(ProductInfoEvent::getType).collect(Collectors.toList()));
+        assertEquals(List.of(1L, 2L, 3L), events.stream().map(ProductInfoEvent::getSequence).collect(Collectors.toList()));
+        assertEquals("Samsung Galaxy A13 Updated", events.get(1).getProductInfo().getName());
+        assertNull(events.get(2).getProductInfo());
+
+        StepVerifier.create(outboxRepository.count())
+                .expectNext(0L)
+                .verifyComplete();
+    }
+
+    @Test
+    void recreatedProductKeepsCountingUp() {
+        var id = UUID.randomUUID().toString();
+        productInfoService.addProductInfo(productInfo(id)).block();
+        productInfoService.updateProductInfo(id, ProductInfo.builder().name("Samsung Galaxy A13 Updated").build()).block();
+        productInfoService.deleteProductInfo(id).block();
+        // back at version 0, but not at sequence 0
+        productInfoService.addProductInfo(productInfo(id)).block();
+
+        var events = awaitEvents(4);
+
+        assertEquals(List.of(ProductInfoEvent.Type.UPSERT, ProductInfoEvent.Type.UPSERT, ProductInfoEvent.Type.DELETE,
+                        ProductInfoEvent.Type.UPSERT),
+                events.stream().map(ProductInfoEvent::getType).collect(Collectors.toList()));
+        assertEquals(List.of(1L, 2L, 3L, 4L), events.stream().map(ProductInfoEvent::getSequence).collect(Collectors.toList()));
+    }
+
+    @Test
+    void failedWriteRecordsNoEvent() {
+        var id = UUID.randomUUID().toString();
+        productInfoService.addProductInfo(productInfo(id)).block();
+        awaitEvents(1);
+
+        StepVerifier.create(productInfoService.updateProductInfo(id, ProductInfo.builder().name("Stale").version(5L).build()))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+
+        StepVerifier.create(outboxRepository.count())
+                .expectNext(0L)
+                .verifyComplete();
+        assertEquals(1, sink.getEvents().size());
+    }
+
+    private List<ProductInfoEvent> awaitEvents(int count) {
+        var deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (sink.getEvents().size() < count && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        assertEquals(count, sink.getEvents().size());
+        return sink.getEvents();
+    }
+
+    private static ProductInfo productInfo(String id) {
+        return ProductInfo.builder()
+                .id(id)
+                .name("Samsung Galaxy A13")
+                .description("Smartphone Samsung Galaxy A13 128GB Azul 4G")
+                .price(new BigDecimal("1200.50"))
+                .build();
+    }
+}
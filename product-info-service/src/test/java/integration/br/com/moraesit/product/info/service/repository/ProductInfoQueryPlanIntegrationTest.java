@@ -0,0 +1,198 @@
+package br.com.moraesit.product.info.service.repository;
+
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.domain.ProductInfoBulkOperation;
+import br.com.moraesit.product.info.service.domain.ProductInfoPageRequest;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs every {@link ProductInfoRepository} query method once, explains each command it sent and fails on a
+ * collection scan. A new query method has to be added to {@link #queries()} before this test passes again.
+ */
+@DataMongoTest
+@ActiveProfiles("test")
+@ExtendWith(SpringExtension.class)
+@Import(ProductInfoIndexInitializer.class)
+class ProductInfoQueryPlanIntegrationTest {
+    private static final Set<String> EXPLAINABLE_COMMANDS = Set.of("find", "aggregate", "count", "distinct", "findAndModify", "update", "delete");
+    private static final Set<String> NON_COMMAND_FIELDS = Set.of("$db", "lsid", "$clusterTime", "$readPreference", "txnNumber", "readConcern", "writeConcern");
+    // streams the whole collection, where a collection scan is the cheapest plan
+    private static final Set<String> FULL_SCANS = Set.of("findAll");
+
+    private static final List<BsonDocument> commands = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    ProductInfoRepository productInfoRepository;
+
+    @Autowired
+    ReactiveMongoTemplate reactiveMongoTemplate;
+
+    private final String ID = "product-00000000";
+
+    @TestConfiguration
+    static class CommandCaptureConfiguration {
+        @Bean
+        MongoClientSettingsBuilderCustomizer commandCapture() {
+            return builder -> builder.addCommandListener(new CommandListener() {
+                @Override
+                public void commandStarted(CommandStartedEvent event) {
+                    if (EXPLAINABLE_COMMANDS.contains(event.getCommandName())) {
+                        // the event's document is only valid during the callback
+                        commands.add(event.getCommand().clone());
+                    }
+                }
+            });
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        // enough documents that the planner has a reason to prefer an index
+        productInfoRepository.saveAll(Flux.range(0, 500)
+                        .map(i -> ProductInfo.builder()
+                                .id(String.format("product-%08d", i))
+                                .name("Product " + i)
+                                .description("Description " + i)
+                                .price(BigDecimal.valueOf(i * 10L))
+                                .properties(Map.of("Marca", "Marca " + (i % 10), "Cor", i % 2 == 0 ? "Azul" : "Preto"))
+                                .build()))
+                .blockLast();
+        commands.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productInfoRepository.deleteAll().block();
+    }
+
+    @Test
+    void everyQueryMethodIsCovered() {
+        var declared = Stream.of(ProductInfoRepository.class, ProductInfoRepositoryCustom.class)
+                .flatMap(type -> Arrays.stream(type.getDeclaredMethods()))
+                .map(Method::getName)
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        assertTrue(queries().keySet().containsAll(declared), "Not covered by the query plan check: " + declared);
+    }
+
+    @Test
+    void queriesUseAnIndex() {
+        var collectionScans = new ArrayList<String>();
+
+        queries().forEach((method, query) -> {
+            commands.clear();
+            Flux.from(query.get()).blockLast();
+            assertFalse(commands.isEmpty(), method + " sent no command");
+
+            for (BsonDocument command : commands) {
+                if (hasStage(explain(command).get("queryPlanner", Document.class).get("winningPlan"), "COLLSCAN")
+                        && !FULL_SCANS.contains(method)) {
+                    collectionScans.add(method + ": " + command.toJson());
+                }
+            }
+        });
+
+        assertEquals(List.of(), collectionScans);
+    }
+
+    private Map<String, Supplier<Publisher<?>>> queries() {
+        var queries = new LinkedHashMap<String, Supplier<Publisher<?>>>();
+        queries.put("findAll", () -> productInfoRepository.findAll());
+        queries.put("findById", () -> productInfoRepository.findById(ID));
+        queries.put("findAllById", () -> productInfoRepository.findAllById(List.of(ID, "product-00000001")));
+        queries.put("existsById", () -> productInfoRepository.existsById(ID));
+        queries.put("findPage", () -> Flux.concat(
+                productInfoRepository.findPage(pageRequest(request -> request.setAfter("product-00000100")), 21),
+                productInfoRepository.findPage(pageRequest(request -> request.setMinPrice(new BigDecimal("100"))), 21),
+                productInfoRepository.findPage(pageRequest(request -> request.setMaxPrice(new BigDecimal("100"))), 21),
+                productInfoRepository.findPage(pageRequest(request -> request.setNamePrefix("Product 1")), 21),
+                productInfoRepository.findPage(pageRequest(request -> {
+                    request.setNamePrefix("Product 1");
+                    request.setMinPrice(new BigDecimal("100"));
+                    request.setMaxPrice(new BigDecimal("2000"));
+                }), 21)));
+        queries.put("save", () -> productInfoRepository.findById(ID)
+                .flatMap(productInfo -> {
+                    productInfo.setName("Product 0 Updated");
+                    return productInfoRepository.save(productInfo);
+                }));
+        queries.put("replaceFields", () -> productInfoRepository.replaceFields(ID,
+                ProductInfo.builder().name("Product 0").price(BigDecimal.ONE).build()));
+        queries.put("patchFields", () -> productInfoRepository.patchFields(ID,
+                ProductInfo.builder().properties(Map.of("Cor", "Verde")).build()));
+        queries.put("bulkWrite", () -> productInfoRepository.bulkWrite(List.of(ProductInfoBulkOperation.upsert(
+                ProductInfo.builder().id("product-00000002").name("Product 2").build())), 0, true));
+        queries.put("deleteById", () -> productInfoRepository.deleteById("product-00000003"));
+        queries.put("findRevisionById", () -> productInfoRepository.findRevisionById(ID));
+        queries.put("findCatalogRevision", () -> productInfoRepository.findCatalogRevision());
+        queries.put("incrementCatalogRevision", () -> productInfoRepository.incrementCatalogRevision());
+        queries.put("findAndDeleteById", () -> productInfoRepository.findAndDeleteById("product-00000004"));
+        return queries;
+    }
+
+    private static ProductInfoPageRequest pageRequest(Consumer<ProductInfoPageRequest> customizer) {
+        var pageRequest = new ProductInfoPageRequest();
+        customizer.accept(pageRequest);
+        return pageRequest;
+    }
+
+    private Document explain(BsonDocument command) {
+        var explainable = command.clone();
+        NON_COMMAND_FIELDS.forEach(explainable::remove);
+        var explain = new BsonDocument("explain", explainable).append("verbosity", new BsonString("queryPlanner"));
+
+        return reactiveMongoTemplate.getMongoDatabase()
+                .flatMap(database -> Mono.from(database.runCommand(explain)))
+                .block();
+    }
+
+    private static boolean hasStage(Object plan, String stage) {
+        if (plan instanceof Document) {
+            var document = (Document) plan;
+            return stage.equals(document.get("stage")) || document.values().stream().anyMatch(value -> hasStage(value, stage));
+        }
+        if (plan instanceof List) {
+            return ((List<?>) plan).stream().anyMatch(value -> hasStage(value, stage));
+        }
+        return false;
+    }
+}
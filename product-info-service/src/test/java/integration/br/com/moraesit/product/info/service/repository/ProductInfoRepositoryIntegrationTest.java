@@ -1,12 +1,20 @@
 package br.com.moraesit.product.info.service.repository;
 
 import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.domain.ProductInfoBulkOperation;
+import br.com.moraesit.product.info.service.domain.ProductInfoMigration;
+import br.com.moraesit.product.info.service.domain.ProductInfoPageRequest;
+import br.com.moraesit.product.info.service.domain.ProductInfoRevision;
+import org.bson.Document;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import reactor.core.publisher.Flux;
@@ -15,11 +23,15 @@ import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 @DataMongoTest
 @ActiveProfiles("test")
@@ -28,6 +40,9 @@ class ProductInfoRepositoryIntegrationTest {
     @Autowired
     ProductInfoRepository productInfoRepository;
 
+    @Autowired
+    ReactiveMongoTemplate reactiveMongoTemplate;
+
     private final String ID = "d215b5f8-0249-4dc5-89a3-51fd148cfb41";
 
     @BeforeEach
@@ -128,4 +143,190 @@ class ProductInfoRepositoryIntegrationTest {
                 .expectNextCount(1)
                 .verifyComplete();
     }
-}
\ No newline at end of file
+
+    @Test
+    void findPageSeeksPastCursor() {
+        var pageRequest = new ProductInfoPageRequest();
+        var firstPage = productInfoRepository.findPage(pageRequest, 1).collectList().block();
+
+        assertNotNull(firstPage);
+        assertEquals(1, firstPage.size());
+
+        pageRequest.setAfter(firstPage.get(0).getId());
+
+        StepVerifier.create(productInfoRepository.findPage(pageRequest, 10))
+                .assertNext(productInfo -> assertNotEquals(firstPage.get(0).getId(), productInfo.getId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void findPageWithPriceRangeAndNamePrefix() {
+        var pageRequest = new ProductInfoPageRequest();
+        pageRequest.setMinPrice(new BigDecimal("1000.00"));
+        pageRequest.setMaxPrice(new BigDecimal("1300.00"));
+
+        StepVerifier.create(productInfoRepository.findPage(pageRequest, 10))
+                .assertNext(productInfo -> assertEquals(ID, productInfo.getId()))
+                .verifyComplete();
+
+        pageRequest = new ProductInfoPageRequest();
+        pageRequest.setNamePrefix("Motorola");
+
+        StepVerifier.create(productInfoRepository.findPage(pageRequest, 10))
+                .assertNext(productInfo -> assertEquals("Motorola Moto G52", productInfo.getName()))
+                .verifyComplete();
+    }
+
+    @Test
+    void stringPricesAreConvertedToDecimal() {
+        var collection = reactiveMongoTemplate.getCollectionName(ProductInfo.class);
+        reactiveMongoTemplate.getCollection(collection)
+                .flatMap(products -> Mono.from(products.insertMany(List.of(
+                        new Document("_id", "legacy-1").append("name", "Legacy").append("price", "1250.00"),
+                        new Document("_id", "legacy-2").append("name", "Legacy").append("price", "not a price")))))
+                .block();
+
+        var initializer = new ProductInfoIndexInitializer(reactiveMongoTemplate);
+        reactiveMongoTemplate.remove(new Query(), ProductInfoMigration.class).block();
+
+        StepVerifier.create(initializer.migratePrices())
+                .expectNext(1L)
+                .verifyComplete();
+        // recorded, so the next startup does not look for string prices again
+        StepVerifier.create(initializer.migratePrices())
+                .verifyComplete();
+
+        var pageRequest = new ProductInfoPageRequest();
+        pageRequest.setMinPrice(new BigDecimal("1240.00"));
+        pageRequest.setMaxPrice(new BigDecimal("1260.00"));
+        StepVerifier.create(productInfoRepository.findPage(pageRequest, 10))
+                .assertNext(productInfo -> assertEquals("legacy-1", productInfo.getId()))
+                .verifyComplete();
+
+        StepVerifier.create(reactiveMongoTemplate.findById("legacy-2", Document.class, collection))
+                .assertNext(document -> assertEquals("not a price", document.get("price")))
+                .verifyComplete();
+    }
+
+    @Test
+    void findPageWithProjection() {
+        var pageRequest = new ProductInfoPageRequest();
+        pageRequest.setFields(List.of("name", "price"));
+
+        StepVerifier.create(productInfoRepository.findPage(pageRequest, 10))
+                .assertNext(productInfo -> {
+                    assertNotNull(productInfo.getId());
+                    assertNotNull(productInfo.getName());
+                    assertNotNull(productInfo.getPrice());
+                    assertNull(productInfo.getDescription());
+                    assertNull(productInfo.getProperties());
+                })
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void patchFieldsOnlyTouchesGivenProperties() {
+        var properties = new HashMap<String, Object>();
+        properties.put("Cor", "Verde");
+        properties.put("Modelo", null);
+
+        var patch = ProductInfo.builder()
+                .price(new BigDecimal("999.90"))
+                .properties(properties)
+                .build();
+
+        StepVerifier.create(productInfoRepository.patchFields(ID, patch))
+                .assertNext(productInfo -> {
+                    assertEquals("Samsung Galaxy A13", productInfo.getName());
+                    assertEquals(new BigDecimal("999.90"), productInfo.getPrice());
+                    assertEquals(Map.of("Marca", "Samsung", "Cor", "Verde"), productInfo.getProperties());
+                    assertEquals(1L, productInfo.getVersion());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void replaceFieldsWithStaleVersion() {
+        var productInfo = ProductInfo.builder()
+                .name("Samsung Galaxy A13 Updated")
+                .version(0L)
+                .build();
+
+        StepVerifier.create(productInfoRepository.replaceFields(ID, productInfo))
+                .assertNext(updated -> assertEquals(1L, updated.getVersion()))
+                .verifyComplete();
+
+        StepVerifier.create(productInfoRepository.replaceFields(ID, productInfo))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+
+        StepVerifier.create(productInfoRepository.replaceFields("missing", productInfo))
+                .verifyComplete();
+    }
+
+    @Test
+    void bulkUpsertReplacesTheOperationIdAndAssignsTheVersion() {
+        var stored = productInfoRepository.findById(ID).block();
+        var replacement = ProductInfo.builder()
+                .name("Samsung Galaxy A13 Bulk")
+                .price(new BigDecimal("1100.00"))
+                .version(99L)
+                .build();
+        var operations = List.of(
+                new ProductInfoBulkOperation(ProductInfoBulkOperation.Type.UPSERT, ID, replacement),
+                new ProductInfoBulkOperation(ProductInfoBulkOperation.Type.UPSERT, "bulk-new", ProductInfo.builder().name("New").version(7L).build()));
+
+        StepVerifier.create(productInfoRepository.bulkWrite(operations, 0, true))
+                .assertNext(results -> {
+                    assertEquals(ID, results.get(0).getId());
+                    assertEquals("bulk-new", results.get(1).getId());
+                })
+                .verifyComplete();
+
+        StepVerifier.create(productInfoRepository.findById(ID))
+                .assertNext(productInfo -> {
+                    assertEquals("Samsung Galaxy A13 Bulk", productInfo.getName());
+                    assertNull(productInfo.getDescription());
+                    assertEquals(stored.getVersion() + 1, productInfo.getVersion());
+                    // the operation carries what was stored, for the catalog and search index
+                    assertEquals(productInfo.getLastModified(), replacement.getLastModified());
+                    assertNull(replacement.getVersion());
+                })
+                .verifyComplete();
+
+        StepVerifier.create(productInfoRepository.findById("bulk-new"))
+                .assertNext(productInfo -> assertEquals(0L, productInfo.getVersion()))
+                .verifyComplete();
+
+        StepVerifier.create(productInfoRepository.count())
+                .expectNext(3L)
+                .verifyComplete();
+    }
+
+    @Test
+    void revisionsFollowWrites() {
+        var before = productInfoRepository.findCatalogRevision().block();
+
+        var updated = productInfoRepository.replaceFields(ID, ProductInfo.builder().name("Samsung Galaxy A13 Updated").build())
+                .block();
+        assertNotNull(updated.getLastModified());
+
+        StepVerifier.create(productInfoRepository.findRevisionById(ID))
+                .assertNext(revision -> {
+                    assertEquals(updated.getVersion(), revision.getVersion());
+                    assertEquals(ProductInfoRevision.of(updated).getETag(), revision.getETag());
+                })
+                .verifyComplete();
+
+        StepVerifier.create(productInfoRepository.incrementCatalogRevision().then(productInfoRepository.findCatalogRevision()))
+                .assertNext(revision -> {
+                    assertEquals(before.getRevision() + 1, revision.getRevision());
+                    assertNotEquals(before.getETag(), revision.getETag());
+                })
+                .verifyComplete();
+
+        StepVerifier.create(productInfoRepository.findRevisionById("missing"))
+                .verifyComplete();
+    }
+}
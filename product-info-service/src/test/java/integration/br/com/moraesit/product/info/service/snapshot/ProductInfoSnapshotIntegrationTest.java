@@ -0,0 +1,94 @@
+package br.com.moraesit.product.info.service.snapshot;
+
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.repository.ProductInfoRepository;
+import org.bson.RawBsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataMongoTest
+@ActiveProfiles("test")
+@ExtendWith(SpringExtension.class)
+class ProductInfoSnapshotIntegrationTest {
+    @Autowired
+    private ProductInfoRepository productInfoRepository;
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() {
+        productInfoRepository.deleteAll().block();
+    }
+
+    @Test
+    void clonesTheCollection() {
+        var productInfos = IntStream.range(0, 2500)
+                .mapToObj(i -> ProductInfo.builder()
+                        .id(String.format("p%05d", i))
+                        .name("Produto " + i)
+                        .description("Descrição do produto " + i)
+                        .price(new BigDecimal(i % 100 + ".90"))
+                        .properties(Map.of("Marca", "Samsung", "Cor", "Preto"))
+                        .build())
+                .collect(Collectors.toList());
+        productInfoRepository.saveAll(productInfos).blockLast();
+        var file = directory.resolve("catalog.snapshot");
+        var collection = reactiveMongoTemplate.getCollection(reactiveMongoTemplate.getCollectionName(ProductInfo.class))
+                .block()
+                .withDocumentClass(RawBsonDocument.class);
+
+        var exported = new ProductInfoSnapshotExporter(64 * 1024, ProductInfoSnapshotExporter.DEFAULT_LEVEL, 2,
+                Schedulers.parallel(), Schedulers.boundedElastic())
+                .export(Flux.from(collection.find()), file)
+                .block();
+        assertEquals(2500, exported.getDocuments());
+
+        // a third is still there, as if an earlier import had been cut short
+        productInfoRepository.deleteAll(productInfos.subList(0, 1700)).block();
+        var imported = new ProductInfoSnapshotImporter(4, 100, Schedulers.boundedElastic())
+                .importSnapshot(file, directory.resolve("catalog.snapshot.checkpoint"), ProductInfoSnapshotImporter.insert(collection))
+                .block();
+        assertEquals(2500, imported.getDocuments());
+        assertEquals(1700, imported.getWritten());
+
+        var cloned = productInfoRepository.findAll()
+                .sort(Comparator.comparing(ProductInfo::getId))
+                .collectList()
+                .block();
+        assertEquals(names(productInfos), names(cloned));
+
+        var upserted = new ProductInfoSnapshotImporter(4, 100, Schedulers.boundedElastic())
+                .importSnapshot(file, null, ProductInfoSnapshotImporter.upsert(collection))
+                .block();
+        assertEquals(0, upserted.getWritten());
+        assertEquals(2500L, Mono.from(collection.countDocuments()).block());
+    }
+
+    private static List<String> names(List<ProductInfo> productInfos) {
+        return productInfos.stream().map(ProductInfo::getName).collect(Collectors.toList());
+    }
+}
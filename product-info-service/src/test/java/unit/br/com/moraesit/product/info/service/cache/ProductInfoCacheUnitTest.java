@@ -0,0 +1,75 @@
+package br.com.moraesit.product.info.service.cache;
+
+import br.com.moraesit.product.info.service.config.ProductInfoCacheProperties;
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ProductInfoCacheUnitTest {
+
+    private final String ID = "d215b5f8-0249-4dc5-89a3-51fd148cfb41";
+
+    @Test
+    void concurrentMissesShareOneLoad() {
+        var productInfoCache = new ProductInfoCache(new ProductInfoCacheProperties());
+        var loads = new AtomicInteger();
+        Sinks.One<ProductInfo> result = Sinks.one();
+
+        var first = productInfoCache.get(ID, id -> {
+            loads.incrementAndGet();
+            return result.asMono();
+        });
+        var second = productInfoCache.get(ID, id -> {
+            loads.incrementAndGet();
+            return result.asMono();
+        });
+
+        StepVerifier.create(Mono.zip(first, second))
+                .then(() -> result.tryEmitValue(ProductInfo.builder().id(ID).name("Samsung Galaxy A13").build()))
+                .assertNext(tuple -> {
+                    assertEquals("Samsung Galaxy A13", tuple.getT1().getName());
+                    assertEquals("Samsung Galaxy A13", tuple.getT2().getName());
+                })
+                .verifyComplete();
+
+        assertEquals(1, loads.get());
+        assertEquals(1, productInfoCache.asCache().stats().missCount());
+    }
+
+    @Test
+    void emptyLoadIsNotCached() {
+        var productInfoCache = new ProductInfoCache(new ProductInfoCacheProperties());
+        var loads = new AtomicInteger();
+
+        StepVerifier.create(productInfoCache.get(ID, id -> {
+                    loads.incrementAndGet();
+                    return Mono.empty();
+                }))
+                .verifyComplete();
+        StepVerifier.create(productInfoCache.get(ID, id -> {
+                    loads.incrementAndGet();
+                    return Mono.empty();
+                }))
+                .verifyComplete();
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void putRefreshesEntry() {
+        var productInfoCache = new ProductInfoCache(new ProductInfoCacheProperties());
+
+        productInfoCache.get(ID, id -> Mono.just(ProductInfo.builder().id(ID).name("Samsung Galaxy A13").build())).block();
+        productInfoCache.put(ProductInfo.builder().id(ID).name("Samsung Galaxy A13 Updated").build());
+
+        StepVerifier.create(productInfoCache.get(ID, id -> Mono.error(new IllegalStateException("should not load"))))
+                .assertNext(productInfo -> assertEquals("Samsung Galaxy A13 Updated", productInfo.getName()))
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,288 @@
+package br.com.moraesit.product.info.service.catalog;
+
+import br.com.moraesit.product.info.service.codec.ProductInfoBsonCodec;
+import br.com.moraesit.product.info.service.codec.PropertyNameDictionary;
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.domain.ProductInfoPageRequest;
+import com.mongodb.MongoClientSettings;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProductInfoCatalogUnitTest {
+
+    private static final Instant NOW = Instant.parse("2023-02-01T10:00:00Z");
+
+    private final ProductInfoBsonCodec codec = new ProductInfoBsonCodec(MongoClientSettings.getDefaultCodecRegistry(),
+            PropertyNameDictionary.of(List.of("Marca", "Cor")));
+    private final ProductInfoCatalog catalog = new ProductInfoCatalog(true, codec, 64L * ProductInfoCatalog.PAGE_SIZE);
+
+    @Test
+    void getsWhatWasPut() {
+        var objectId = new ObjectId().toHexString();
+        catalog.put(productInfo(objectId, "Samsung Galaxy A13", "1299.90", 3, NOW));
+        catalog.put(productInfo("cafetière-01", "Cafeteira Italiana", "89.90", 1, NOW.plusSeconds(1)));
+
+        var productInfo = catalog.get(objectId);
+        assertEquals(objectId, productInfo.getId());
+        assertEquals("Samsung Galaxy A13", productInfo.getName());
+        assertEquals(new BigDecimal("1299.90"), productInfo.getPrice());
+        assertEquals(Map.of("Marca", "Samsung", "Cor", "Preto"), Map.copyOf(productInfo.getProperties()));
+        assertEquals(3L, productInfo.getVersion());
+        assertEquals(NOW, productInfo.getLastModified());
+        assertEquals("Cafeteira Italiana", catalog.get("cafetière-01").getName());
+        assertNull(catalog.get("cafetiere-01"));
+
+        var revision = catalog.getRevision(objectId);
+        assertEquals(3L, revision.getVersion());
+        assertEquals(NOW, revision.getLastModified());
+
+        assertEquals(2, catalog.size());
+    }
+
+    @Test
+    void catalogRevisionMovesOnEveryChange() {
+        var empty = catalog.getCatalogRevision();
+        catalog.put(productInfo("1", "Version 2", "10.00", 2, NOW));
+        var stored = catalog.getCatalogRevision();
+        assertNotEquals(empty.getETag(), stored.getETag());
+
+        // an older copy changes nothing
+        catalog.put(productInfo("1", "Version 1", "10.00", 1, NOW.minusSeconds(1)));
+        assertEquals(stored.getETag(), catalog.getCatalogRevision().getETag());
+
+        // a replacement with the same lastModified still moves it
+        catalog.put(productInfo("1", "Version 3", "10.00", 3, NOW));
+        var replaced = catalog.getCatalogRevision();
+        assertNotEquals(stored.getETag(), replaced.getETag());
+
+        catalog.remove("1");
+        assertNotEquals(replaced.getETag(), catalog.getCatalogRevision().getETag());
+
+        // another catalog counting the same number of changes does not hand out the same tag
+        var other = new ProductInfoCatalog(true, codec, 0);
+        assertNotEquals(empty.getETag(), other.getCatalogRevision().getETag());
+    }
+
+    @Test
+    void keepsTheNewestCopy() {
+        catalog.put(productInfo("1", "Version 2", "10.00", 2, NOW));
+
+        catalog.put(productInfo("1", "Version 1", "10.00", 1, NOW.minusSeconds(1)));
+        assertEquals("Version 2", catalog.get("1").getName());
+
+        catalog.put(productInfo("1", "Version 3", "10.00", 3, NOW));
+        assertEquals("Version 3", catalog.get("1").getName());
+
+        // a copy without a lastModified replaces what is stored, and is replaced by the next copy that has one
+        catalog.put(productInfo("1", "Bulk", "10.00", 3, null));
+        assertEquals("Bulk", catalog.get("1").getName());
+        catalog.put(productInfo("1", "Synced", "10.00", 3, NOW.minusSeconds(5)));
+        assertEquals("Synced", catalog.get("1").getName());
+
+        assertTrue(catalog.remove("1"));
+        assertFalse(catalog.remove("1"));
+        catalog.put(productInfo("1", "Synced", "10.00", 3, NOW.minusSeconds(5)));
+        assertNull(catalog.get("1"));
+        assertEquals(0, catalog.size());
+
+        catalog.put(productInfo("1", "Created again", "10.00", 0, NOW.plusSeconds(1)));
+        assertEquals("Created again", catalog.get("1").getName());
+        assertEquals(1, catalog.size());
+    }
+
+    @Test
+    void pagesByIdWithFiltersAndFields() {
+        var ids = IntStream.range(0, 3000).mapToObj(i -> String.format("p%05d", i)).collect(Collectors.toList());
+        var shuffled = new ArrayList<>(ids);
+        Collections.shuffle(shuffled, new Random(42));
+        shuffled.subList(0, 2000).forEach(id -> catalog.put(productInfo(id, "Produto " + id, price(id), 0, NOW)));
+
+        catalog.prepareOrder();
+        // added after the ids were sorted
+        shuffled.subList(2000, 3000).forEach(id -> catalog.put(productInfo(id, "Produto " + id, price(id), 0, NOW)));
+        catalog.remove("p00011");
+
+        assertEquals(List.of("p00000", "p00001", "p00002"), pageIds(null, 3));
+        assertEquals(List.of("p00010", "p00012", "p00013"), pageIds("p00009", 3));
+        assertEquals(List.of(), pageIds("p02999", 3));
+
+        var all = new ArrayList<String>();
+        String after = null;
+        List<String> page;
+        while (!(page = pageIds(after, 500)).isEmpty()) {
+            all.addAll(page);
+            after = page.get(page.size() - 1);
+        }
+        var expected = new ArrayList<>(ids);
+        expected.remove("p00011");
+        assertEquals(expected, all);
+
+        var filtered = new ProductInfoPageRequest();
+        filtered.setMinPrice(new BigDecimal("10"));
+        filtered.setMaxPrice(new BigDecimal("12"));
+        filtered.setNamePrefix("Produto p001");
+        filtered.setFields(List.of("name", "properties.Cor"));
+        var productInfos = catalog.findPage(filtered, 100);
+        assertEquals(ids.stream()
+                .filter(id -> id.startsWith("p001"))
+                .filter(id -> new BigDecimal(price(id)).compareTo(new BigDecimal("12")) <= 0)
+                .filter(id -> new BigDecimal(price(id)).compareTo(new BigDecimal("10")) >= 0)
+                .collect(Collectors.toList()), productInfos.stream().map(ProductInfo::getId).collect(Collectors.toList()));
+        for (ProductInfo productInfo : productInfos) {
+            assertTrue(productInfo.getName().startsWith("Produto p001"));
+            assertNull(productInfo.getPrice());
+            assertEquals(Map.of("Cor", "Preto"), productInfo.getProperties());
+        }
+    }
+
+    @Test
+    void compactsReplacedRecords() {
+        var compacting = new ProductInfoCatalog(true, codec, 1);
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 2000; i++) {
+                compacting.put(productInfo("p" + i, "Round " + round, "10.00", round, NOW.plusSeconds(round)));
+            }
+        }
+        for (int i = 0; i < 2000; i += 2) {
+            compacting.remove("p" + i);
+        }
+
+        assertEquals(1000, compacting.size());
+        assertEquals("Round 19", compacting.get("p1").getName());
+        assertNull(compacting.get("p0"));
+        assertEquals(1000, StreamSupport.stream(compacting.all().spliterator(), false).count());
+        // 20 rounds of 2000 records would take several pages, the live ones fit in a couple
+        assertTrue(compacting.memoryBytes() < 3L * ProductInfoCatalog.PAGE_SIZE, "memory " + compacting.memoryBytes());
+    }
+
+    @Test
+    void bulkCopyYieldsToTheSyncedCopyOfTheSameWrite() {
+        catalog.put(productInfo("1", "Version 3", "10.00", 3, NOW.minusSeconds(5)));
+
+        // stored by a bulk write: the lastModified it was written with, but not the version Mongo assigned
+        catalog.put(new ProductInfo("1", "Bulk", null, new BigDecimal("10.00"), null, null, NOW));
+        assertEquals("Bulk", catalog.get("1").getName());
+        catalog.put(productInfo("1", "Version 3", "10.00", 3, NOW.minusSeconds(5)));
+        assertEquals("Bulk", catalog.get("1").getName());
+
+        catalog.put(productInfo("1", "Synced", "10.00", 4, NOW));
+        assertEquals("Synced", catalog.get("1").getName());
+        assertEquals(4L, catalog.getRevision("1").getVersion());
+    }
+
+    @Test
+    void removedProductStaysRemovedThroughARebuild() {
+        catalog.put(productInfo("1", "Synced", "10.00", 3, NOW.minusSeconds(5)));
+        assertTrue(catalog.remove("1"));
+        // enough new ids to outgrow the table, which is rebuilt without the removed slot
+        for (int i = 0; i < 1000; i++) {
+            catalog.put(productInfo("p" + i, "Filler", "10.00", 0, NOW));
+        }
+
+        // a sync page read before the remove
+        catalog.put(productInfo("1", "Synced", "10.00", 3, NOW.minusSeconds(5)));
+        assertNull(catalog.get("1"));
+        assertEquals(1000, catalog.size());
+
+        // still kept until the sync reads nothing that old
+        catalog.forgetRemovedBefore(NOW.minusSeconds(5));
+        catalog.put(productInfo("1", "Synced", "10.00", 3, NOW.minusSeconds(5)));
+        assertNull(catalog.get("1"));
+
+        catalog.put(productInfo("1", "Created again", "10.00", 0, NOW.plusSeconds(1)));
+        assertEquals("Created again", catalog.get("1").getName());
+    }
+
+    @Test
+    void sweepRemovesWhatMongoNoLongerHas() {
+        catalog.put(productInfo("1", "Kept", "10.00", 0, NOW.minusSeconds(60)));
+        catalog.put(productInfo("2", "Deleted elsewhere", "10.00", 0, NOW.minusSeconds(60)));
+        catalog.put(productInfo("3", "Written during the sweep", "10.00", 0, NOW));
+
+        var sweep = catalog.startSweep();
+        sweep.mark("1");
+        sweep.mark("4");
+
+        var removed = new ArrayList<String>();
+        assertEquals(1, sweep.finish(NOW.minusSeconds(10), removed::add));
+        assertEquals(List.of("2"), removed);
+        assertEquals("Kept", catalog.get("1").getName());
+        assertNull(catalog.get("2"));
+        assertEquals("Written during the sweep", catalog.get("3").getName());
+    }
+
+    @Test
+    void readsWhileWritersReplaceAndCompact() throws InterruptedException {
+        var compacting = new ProductInfoCatalog(true, codec, 1);
+        for (int i = 0; i < 1000; i++) {
+            compacting.put(productInfo("p" + i, "Round 0", "10.00", 0, NOW));
+        }
+        var done = new AtomicBoolean();
+        var failure = new AtomicReference<Throwable>();
+        var readers = IntStream.range(0, 4).mapToObj(r -> new Thread(() -> {
+            var random = new Random(r);
+            try {
+                while (!done.get()) {
+                    var id = "p" + random.nextInt(1000);
+                    var productInfo = compacting.get(id);
+                    if (productInfo == null || !id.equals(productInfo.getId())) {
+                        throw new AssertionError("Lost " + id);
+                    }
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        })).collect(Collectors.toList());
+        readers.forEach(Thread::start);
+
+        for (int round = 1; round < 50; round++) {
+            for (int i = 0; i < 1000; i++) {
+                compacting.put(productInfo("p" + i, "Round " + round, "10.00", round, NOW.plusSeconds(round)));
+                compacting.put(productInfo("t" + round + "-" + i, "Temporary", "10.00", 0, NOW));
+                compacting.remove("t" + round + "-" + i);
+            }
+        }
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertNull(failure.get());
+        assertEquals(1000, compacting.size());
+        assertEquals("Round 49", compacting.get("p999").getName());
+    }
+
+    private List<String> pageIds(String after, int size) {
+        var pageRequest = new ProductInfoPageRequest();
+        pageRequest.setAfter(after);
+        return catalog.findPage(pageRequest, size).stream().map(ProductInfo::getId).collect(Collectors.toList());
+    }
+
+    private static String price(String id) {
+        return Integer.parseInt(id.substring(4)) % 20 + ".00";
+    }
+
+    private static ProductInfo productInfo(String id, String name, String price, long version, Instant lastModified) {
+        return new ProductInfo(id, name, "Descrição de " + name, new BigDecimal(price), Map.of("Marca", "Samsung", "Cor", "Preto"),
+                version, lastModified);
+    }
+}
@@ -0,0 +1,153 @@
+package br.com.moraesit.product.info.service.codec;
+
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ProductInfoBsonCodecUnitTest {
+
+    private final PropertyNameDictionary names = PropertyNameDictionary.of(List.of("Marca", "Cor"));
+    private final ProductInfoBsonCodec codec = new ProductInfoBsonCodec(MongoClientSettings.getDefaultCodecRegistry(), names);
+    private MappingMongoConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        // set up like Boot does, which is what stored the documents the codec reads
+        var conversions = new MongoCustomConversions(List.of());
+        var mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+    }
+
+    @Test
+    void readsWhatTheMappingConverterWrites() {
+        var bson = write(productInfo());
+
+        var decoded = codec.decode(new BsonBinaryReader(ByteBuffer.wrap(bson)), DecoderContext.builder().build());
+        var expected = converter.read(ProductInfo.class, readDocument(bson));
+
+        assertEquals(expected.getId(), decoded.getId());
+        assertEquals(expected.getName(), decoded.getName());
+        assertNull(decoded.getDescription());
+        assertEquals(expected.getPrice(), decoded.getPrice());
+        assertEquals(expected.getVersion(), decoded.getVersion());
+        assertEquals(expected.getLastModified(), decoded.getLastModified());
+        assertInstanceOf(BsonProperties.class, decoded.getProperties());
+        assertEquals(expected.getProperties(), decoded.getProperties());
+        assertThrows(UnsupportedOperationException.class, () -> decoded.getProperties().put("Cor", "Verde"));
+    }
+
+    @Test
+    void serializesLikeTheBeanSerializer() throws Exception {
+        var bson = write(productInfo());
+        var decoded = codec.decode(new BsonBinaryReader(ByteBuffer.wrap(bson)), DecoderContext.builder().build());
+
+        var beanMapper = Jackson2ObjectMapperBuilder.json().build();
+        ObjectMapper streamingMapper = Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(new SimpleModule().addSerializer(ProductInfo.class, new ProductInfoJsonSerializer(names)))
+                .build();
+
+        var expected = beanMapper.readTree(beanMapper.writeValueAsString(converter.read(ProductInfo.class, readDocument(bson))));
+        assertEquals(expected, streamingMapper.readTree(streamingMapper.writeValueAsString(decoded)));
+        // byte output takes the path that copies UTF-8 straight from the BSON
+        assertEquals(expected, streamingMapper.readTree(streamingMapper.writeValueAsBytes(decoded)));
+        // a map that did not come from BSON goes through the regular serializers
+        assertEquals(beanMapper.readTree(beanMapper.writeValueAsString(productInfo())),
+                streamingMapper.readTree(streamingMapper.writeValueAsString(productInfo())));
+    }
+
+    @Test
+    void internsCommonNames() {
+        var bson = write(productInfo());
+        var decoded = codec.decode(new BsonBinaryReader(ByteBuffer.wrap(bson)), DecoderContext.builder().build());
+
+        var marca = decoded.getProperties().keySet().stream().filter("Marca"::equals).findFirst().orElseThrow();
+        assertSame(names.intern(new String("Marca")), marca);
+        assertSame(names.serialized("Cor"), names.serialized("Cor".getBytes(StandardCharsets.UTF_8), 0, 3));
+        assertNull(names.serialized("Cores".getBytes(StandardCharsets.UTF_8), 0, 5));
+    }
+
+    @Test
+    void writesPropertiesBackUnchanged() {
+        var bson = write(productInfo());
+        var decoded = codec.decode(new BsonBinaryReader(ByteBuffer.wrap(bson)), DecoderContext.builder().build());
+
+        var buffer = new BasicOutputBuffer();
+        codec.encode(new BsonBinaryWriter(buffer), decoded, EncoderContext.builder().build());
+        var reencoded = codec.decode(new BsonBinaryReader(ByteBuffer.wrap(buffer.toByteArray())), DecoderContext.builder().build());
+
+        assertArrayEquals(((BsonProperties) decoded.getProperties()).getBson(), ((BsonProperties) reencoded.getProperties()).getBson());
+        assertEquals(decoded.getPrice(), reencoded.getPrice());
+        assertEquals(decoded.getLastModified(), reencoded.getLastModified());
+    }
+
+    private byte[] write(ProductInfo productInfo) {
+        var document = new Document();
+        converter.write(productInfo, document);
+        var buffer = new BasicOutputBuffer();
+        new DocumentCodec().encode(new BsonBinaryWriter(buffer), document, EncoderContext.builder().build());
+        return buffer.toByteArray();
+    }
+
+    private static Document readDocument(byte[] bson) {
+        return new DocumentCodec().decode(new BsonBinaryReader(ByteBuffer.wrap(bson)), DecoderContext.builder().build());
+    }
+
+    private static ProductInfo productInfo() {
+        var properties = new LinkedHashMap<String, Object>();
+        properties.put("Marca", "Samsung");
+        properties.put("Cor", "Azul");
+        properties.put("Armazenamento", 128);
+        properties.put("Peso", 0.186);
+        properties.put("Dual Chip", true);
+        properties.put("Cores", List.of("Azul", "Preto"));
+        properties.put("Dimensoes", Map.of("Altura", 16.5));
+        properties.put("Lancamento", null);
+        properties.put("Memória", "4 GB");
+        properties.put("Garantia", 12L);
+        properties.put("Atualizado", Date.from(Instant.parse("2023-01-15T08:00:00Z")));
+
+        return ProductInfo.builder()
+                .id("63d9e0b2f5c1a53f2c9b7e11")
+                .name("Samsung Galaxy A13")
+                .price(new BigDecimal("1200.50"))
+                .properties(properties)
+                .version(3L)
+                .lastModified(Instant.parse("2023-02-01T10:15:30.123Z"))
+                .build();
+    }
+}
@@ -0,0 +1,64 @@
+package br.com.moraesit.product.info.service.config;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadConcernLevel;
+import com.mongodb.ReadPreference;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ProductInfoMongoConfigurationUnitTest {
+
+    private final ProductInfoMongoConfiguration configuration = new ProductInfoMongoConfiguration();
+
+    @Test
+    void appliesConfiguredSettings() {
+        var properties = new ProductInfoMongoProperties();
+        properties.getPool().setMinSize(10);
+        properties.getPool().setMaxSize(100);
+        properties.getPool().setMaxWaitTime(Duration.ofSeconds(2));
+        properties.getSocket().setConnectTimeout(Duration.ofSeconds(2));
+        properties.getSocket().setReadTimeout(Duration.ofSeconds(10));
+        properties.setServerSelectionTimeout(Duration.ofSeconds(5));
+        properties.setCompressors(List.of(ProductInfoMongoProperties.Compressor.ZSTD, ProductInfoMongoProperties.Compressor.SNAPPY));
+        properties.getRead().setReadPreference("secondaryPreferred");
+        properties.getRead().setReadConcern(ReadConcernLevel.MAJORITY);
+
+        var builder = MongoClientSettings.builder();
+        configuration.productInfoMongoClientSettings(properties).customize(builder);
+        var settings = builder.build();
+
+        assertEquals(10, settings.getConnectionPoolSettings().getMinSize());
+        assertEquals(100, settings.getConnectionPoolSettings().getMaxSize());
+        assertEquals(2000, settings.getConnectionPoolSettings().getMaxWaitTime(TimeUnit.MILLISECONDS));
+        assertEquals(2000, settings.getSocketSettings().getConnectTimeout(TimeUnit.MILLISECONDS));
+        assertEquals(10000, settings.getSocketSettings().getReadTimeout(TimeUnit.MILLISECONDS));
+        assertEquals(5000, settings.getClusterSettings().getServerSelectionTimeout(TimeUnit.MILLISECONDS));
+        assertEquals(List.of("zstd", "snappy"), settings.getCompressorList().stream()
+                .map(MongoCompressor::getName)
+                .collect(Collectors.toList()));
+        assertEquals(ReadPreference.secondaryPreferred(), settings.getReadPreference());
+        assertEquals(ReadConcern.MAJORITY, settings.getReadConcern());
+    }
+
+    @Test
+    void keepsDriverDefaultsWhenUnset() {
+        var defaults = MongoClientSettings.builder().build();
+
+        var builder = MongoClientSettings.builder();
+        configuration.productInfoMongoClientSettings(new ProductInfoMongoProperties()).customize(builder);
+        var settings = builder.build();
+
+        assertEquals(defaults.getConnectionPoolSettings(), settings.getConnectionPoolSettings());
+        assertEquals(defaults.getSocketSettings(), settings.getSocketSettings());
+        assertEquals(defaults.getCompressorList(), settings.getCompressorList());
+        assertEquals(defaults.getReadPreference(), settings.getReadPreference());
+    }
+}
@@ -1,17 +1,47 @@
 package br.com.moraesit.product.info.service.controller;
 
+import br.com.moraesit.product.info.service.change.ProductInfoChangeStream;
+import br.com.moraesit.product.info.service.codec.BinaryMediaTypes;
+import br.com.moraesit.product.info.service.config.ProductInfoCodecConfiguration;
 import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.domain.ProductInfoBulkOperation;
+import br.com.moraesit.product.info.service.domain.ProductInfoBulkResult;
+import br.com.moraesit.product.info.service.domain.ProductInfoCatalogRevision;
+import br.com.moraesit.product.info.service.domain.ProductInfoChange;
+import br.com.moraesit.product.info.service.domain.ProductInfoPage;
+import br.com.moraesit.product.info.service.domain.ProductInfoPageRequest;
+import br.com.moraesit.product.info.service.domain.ProductInfoRevision;
+import br.com.moraesit.product.info.service.domain.ProductInfoSearchRequest;
+import br.com.moraesit.product.info.service.domain.ProductInfoSearchResult;
+import br.com.moraesit.product.info.service.search.SearchIndexNotReadyException;
+import br.com.moraesit.product.info.service.service.FeatureDisabledException;
 import br.com.moraesit.product.info.service.service.ProductInfoService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -19,11 +49,18 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @WebFluxTest(controllers = ProductInfoController.class)
 @AutoConfigureWebTestClient
+@Import(ProductInfoCodecConfiguration.class)
 public class ProductInfoControllerUnitTest {
 
     @Autowired
@@ -32,10 +69,21 @@ public class ProductInfoControllerUnitTest {
     @MockBean
     private ProductInfoService productInfoServiceMock;
 
+    @MockBean
+    private ProductInfoChangeStream productInfoChangeStreamMock;
+
     private final String ID = "d215b5f8-0249-4dc5-89a3-51fd148cfb41";
 
     static String PRODUCT_INFOS_URL = "/v1/product-infos";
 
+    private final ProductInfoCatalogRevision catalogRevision =
+            new ProductInfoCatalogRevision("m", 2);
+
+    @BeforeEach
+    void setUp() {
+        when(productInfoServiceMock.getCatalogRevision()).thenReturn(Mono.just(catalogRevision));
+    }
+
     @Test
     void getAllProductInfos() {
         var products = Arrays.asList(
@@ -71,6 +119,275 @@ public class ProductInfoControllerUnitTest {
                 });
     }
 
+    @Test
+    void getAllProductInfosAsNdjson() {
+        var products = Arrays.asList(
+                ProductInfo.builder()
+                        .id(ID)
+                        .name("Samsung Galaxy A13")
+                        .price(new BigDecimal("1200.50"))
+                        .build(),
+                ProductInfo.builder()
+                        .id(UUID.randomUUID().toString())
+                        .name("Motorola Moto G52")
+                        .price(new BigDecimal("1310.16"))
+                        .build());
+
+        when(productInfoServiceMock.getAllProductInfos()).thenReturn(Flux.fromIterable(products));
+
+        var productInfoFlux = webTestClient
+                .get()
+                .uri(PRODUCT_INFOS_URL)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectHeader()
+                .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(ProductInfo.class)
+                .getResponseBody();
+
+        StepVerifier.create(productInfoFlux)
+                .assertNext(productInfo -> assertEquals("Samsung Galaxy A13", productInfo.getName()))
+                .assertNext(productInfo -> assertEquals("Motorola Moto G52", productInfo.getName()))
+                .verifyComplete();
+    }
+
+    @Test
+    void getAllProductInfosAsCbor() throws IOException {
+        var products = Arrays.asList(
+                ProductInfo.builder()
+                        .id(ID)
+                        .name("Samsung Galaxy A13")
+                        .price(new BigDecimal("1200.50"))
+                        .build(),
+                ProductInfo.builder()
+                        .id(UUID.randomUUID().toString())
+                        .name("Motorola Moto G52")
+                        .price(new BigDecimal("1310.16"))
+                        .build());
+
+        when(productInfoServiceMock.getAllProductInfos()).thenReturn(Flux.fromIterable(products));
+
+        var body = webTestClient
+                .get()
+                .uri(PRODUCT_INFOS_URL)
+                .accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectHeader()
+                .contentTypeCompatibleWith(MediaType.APPLICATION_CBOR)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        List<ProductInfo> productInfos = new ObjectMapper(new CBORFactory()).readValue(body, new TypeReference<>() {
+        });
+        assertEquals(2, productInfos.size());
+        assertEquals("Samsung Galaxy A13", productInfos.get(0).getName());
+        assertEquals(new BigDecimal("1310.16"), productInfos.get(1).getPrice());
+    }
+
+    @Test
+    void getAllProductInfosAsSmileStream() {
+        var products = Arrays.asList(
+                ProductInfo.builder()
+                        .id(ID)
+                        .name("Samsung Galaxy A13")
+                        .properties(Map.of("Marca", "Samsung"))
+                        .build(),
+                ProductInfo.builder()
+                        .id(UUID.randomUUID().toString())
+                        .name("Motorola Moto G52")
+                        .build());
+
+        when(productInfoServiceMock.getAllProductInfos()).thenReturn(Flux.fromIterable(products));
+
+        var productInfoFlux = webTestClient
+                .get()
+                .uri(PRODUCT_INFOS_URL)
+                .accept(BinaryMediaTypes.APPLICATION_STREAM_SMILE)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectHeader()
+                .contentTypeCompatibleWith(BinaryMediaTypes.APPLICATION_STREAM_SMILE)
+                .returnResult(ProductInfo.class)
+                .getResponseBody();
+
+        StepVerifier.create(productInfoFlux)
+                .assertNext(productInfo -> assertEquals(Map.of("Marca", "Samsung"), productInfo.getProperties()))
+                .assertNext(productInfo -> assertEquals("Motorola Moto G52", productInfo.getName()))
+                .verifyComplete();
+    }
+
+    @Test
+    void getProductInfoByIdAsCbor() {
+        var product = ProductInfo.builder()
+                .id(ID)
+                .name("Samsung Galaxy A13")
+                .price(new BigDecimal("1200.50"))
+                .properties(Map.of("Marca", "Samsung", "Modelo", "A13"))
+                .build();
+
+        when(productInfoServiceMock.getProductInfoById(isA(String.class))).thenReturn(Mono.just(product));
+
+        webTestClient
+                .get()
+                .uri(PRODUCT_INFOS_URL + "/{id}", ID)
+                .accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectHeader()
+                .contentTypeCompatibleWith(MediaType.APPLICATION_CBOR)
+                .expectBody(ProductInfo.class)
+                .consumeWith(productInfoEntityExchangeResult -> {
+                    ProductInfo productInfo = productInfoEntityExchangeResult.getResponseBody();
+                    assertNotNull(productInfo);
+                    assertEquals("Samsung Galaxy A13", productInfo.getName());
+                    assertEquals(new BigDecimal("1200.50"), productInfo.getPrice());
+                });
+    }
+
+    @Test
+    void getAllProductInfosDefaultsToJson() {
+        when(productInfoServiceMock.getAllProductInfos())
+                .thenReturn(Flux.just(ProductInfo.builder().id(ID).name("Samsung Galaxy A13").build()));
+
+        webTestClient
+                .get()
+                .uri(PRODUCT_INFOS_URL)
+                .accept(MediaType.ALL)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectHeader()
+                .contentTypeCompatibleWith(MediaType.APPLICATION_JSON);
+    }
+
+    @Test
+    void getAllProductInfosNotModified() {
+        when(productInfoServiceMock.getAllProductInfos())
+                .thenReturn(Flux.error(new IllegalStateException("should not stream")));
+
+        webTestClient
+                .get()
+                .uri(PRODUCT_INFOS_URL)
+                .ifNoneMatch(catalogRevision.getETag())
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.NOT_MODIFIED)
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, catalogRevision.getETag())
+                .expectBody()
+                .isEmpty();
+    }
+
+    @Test
+    void getProductInfoPage() {
+        var product = ProductInfo.builder()
+                .id(ID)
+                .name("Samsung Galaxy A13")
+                .price(new BigDecimal("1200.50"))
+                .build();
+
+        when(productInfoServiceMock.getProductInfoPage(argThat(pageRequest ->
+                pageRequest.getSize() == 1
+                        && "abc".equals(pageRequest.getAfter())
+                        && List.of("name", "price").equals(pageRequest.getFields())
+                        && new BigDecimal("1000").equals(pageRequest.getMinPrice()))))
+                .thenReturn(Mono.just(new ProductInfoPage(List.of(product), ID)));
+
+        webTestClient
+                .get()
+                .uri(PRODUCT_INFOS_URL + "/page?after=abc&size=1&fields=name,price&minPrice=1000")
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectBody()
+                .jsonPath("$.items[0].name").isEqualTo("Samsung Galaxy A13")
+                .jsonPath("$.next").isEqualTo(ID);
+    }
+
+    @Test
+    void getProductInfoPageWithUnknownField() {
+        when(productInfoServiceMock.getProductInfoPage(isA(ProductInfoPageRequest.class)))
+                .thenReturn(Mono.error(new IllegalArgumentException("Unknown field: $where")));
+
+        webTestClient
+                .get()
+                .uri(PRODUCT_INFOS_URL + "/page?fields=$where")
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @Test
+    void searchProductInfos() {
+        var product = ProductInfo.builder()
+                .id(ID)
+                .name("Samsung Galaxy A13")
+                .build();
+
+        when(productInfoServiceMock.searchProductInfos(argThat(searchRequest ->
+                "galaxy a13".equals(searchRequest.getQ())
+                        && List.of("Marca:Samsung").equals(searchRequest.getFilter())
+                        && searchRequest.getSize() == 5)))
+                .thenReturn(Mono.just(new ProductInfoSearchResult(List.of(product), 1, Map.of("Marca", Map.of("Samsung", 1)))));
+
+        webTestClient
+                .get()
+                .uri(PRODUCT_INFOS_URL + "/search?q=galaxy a13&filter=Marca:Samsung&size=5")
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectBody()
+                .jsonPath("$.items[0].name").isEqualTo("Samsung Galaxy A13")
+                .jsonPath("$.total").isEqualTo(1)
+                .jsonPath("$.facets.Marca.Samsung").isEqualTo(1);
+    }
+
+    @Test
+    void searchProductInfosWhileIndexLoads() {
+        when(productInfoServiceMock.searchProductInfos(isA(ProductInfoSearchRequest.class)))
+                .thenReturn(Mono.error(new SearchIndexNotReadyException("loading")));
+
+        webTestClient
+                .get()
+                .uri(PRODUCT_INFOS_URL + "/search?q=galaxy")
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    void searchProductInfosWhenDisabled() {
+        when(productInfoServiceMock.searchProductInfos(isA(ProductInfoSearchRequest.class)))
+                .thenReturn(Mono.error(new FeatureDisabledException("disabled")));
+
+        webTestClient
+                .get()
+                .uri(PRODUCT_INFOS_URL + "/search?q=galaxy")
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.NOT_IMPLEMENTED);
+    }
+
+    @Test
+    void searchProductInfosByUnknownFacet() {
+        when(productInfoServiceMock.searchProductInfos(isA(ProductInfoSearchRequest.class)))
+                .thenReturn(Mono.error(new IllegalArgumentException("Not a facet: Peso")));
+
+        webTestClient
+                .get()
+                .uri(PRODUCT_INFOS_URL + "/search?filter=Peso:100")
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
     @Test
     void getProductInfoById() {
         var product = ProductInfo.builder()
@@ -97,6 +414,71 @@ public class ProductInfoControllerUnitTest {
                 });
     }
 
+    @Test
+    void getProductInfoByIdNotModified() {
+        var revision = new ProductInfoRevision(ID, 3L, Instant.parse("2023-02-01T10:15:30.123Z"));
+
+        when(productInfoServiceMock.getProductInfoRevision(ID)).thenReturn(Mono.just(revision));
+        when(productInfoServiceMock.getProductInfoById(ID)).thenReturn(Mono.error(new IllegalStateException("should not load")));
+
+        webTestClient
+                .get()
+                .uri(PRODUCT_INFOS_URL + "/{id}", ID)
+                .ifNoneMatch(revision.getETag())
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.NOT_MODIFIED)
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, revision.getETag())
+                .expectBody()
+                .isEmpty();
+    }
+
+    @Test
+    void getProductInfoByIdNotModifiedSince() {
+        var lastModified = Instant.parse("2023-02-01T10:15:30Z");
+        var revision = new ProductInfoRevision(ID, 3L, lastModified);
+
+        when(productInfoServiceMock.getProductInfoRevision(ID)).thenReturn(Mono.just(revision));
+
+        webTestClient
+                .get()
+                .uri(PRODUCT_INFOS_URL + "/{id}", ID)
+                .ifModifiedSince(lastModified.atZone(ZoneOffset.UTC))
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        verify(productInfoServiceMock, never()).getProductInfoById(ID);
+    }
+
+    @Test
+    void getProductInfoByIdWithStaleETag() {
+        var product = ProductInfo.builder()
+                .id(ID)
+                .name("Samsung Galaxy A13")
+                .version(4L)
+                .lastModified(Instant.parse("2023-02-02T08:00:00.000Z"))
+                .build();
+        var current = ProductInfoRevision.of(product);
+        var stale = new ProductInfoRevision(ID, 3L, Instant.parse("2023-02-01T10:15:30.123Z"));
+
+        when(productInfoServiceMock.getProductInfoRevision(ID)).thenReturn(Mono.just(current));
+        when(productInfoServiceMock.getProductInfoById(ID)).thenReturn(Mono.just(product));
+
+        webTestClient
+                .get()
+                .uri(PRODUCT_INFOS_URL + "/{id}", ID)
+                .ifNoneMatch(stale.getETag())
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .valueEquals(HttpHeaders.ETAG, current.getETag())
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Samsung Galaxy A13");
+    }
+
     @Test
     void addProductInfo() {
         var productInfo = ProductInfo.builder()
@@ -133,6 +515,75 @@ public class ProductInfoControllerUnitTest {
                 });
     }
 
+    @Test
+    void bulkWriteProductInfosWhenDisabled() {
+        when(productInfoServiceMock.bulkWriteProductInfos(any(), eq(false)))
+                .thenReturn(Flux.error(new FeatureDisabledException("disabled")));
+
+        webTestClient
+                .post()
+                .uri(PRODUCT_INFOS_URL + "/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"type\":\"DELETE\",\"id\":\"mockId\"}\n")
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.NOT_IMPLEMENTED);
+    }
+
+    @Test
+    void bulkWriteProductInfosFailing() {
+        when(productInfoServiceMock.bulkWriteProductInfos(any(), eq(false)))
+                .thenReturn(Flux.error(new IllegalStateException("boom")));
+
+        webTestClient
+                .post()
+                .uri(PRODUCT_INFOS_URL + "/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"type\":\"DELETE\",\"id\":\"mockId\"}\n")
+                .exchange()
+                .expectStatus()
+                .is5xxServerError();
+    }
+
+    @Test
+    void bulkWriteProductInfos() {
+        when(productInfoServiceMock.bulkWriteProductInfos(any(), eq(true))).thenAnswer(invocation -> {
+            Flux<ProductInfoBulkOperation> operations = invocation.getArgument(0);
+            return operations.index().map(operation -> new ProductInfoBulkResult(operation.getT1(), operation.getT2().getType(),
+                    operation.getT2().getId(), ProductInfoBulkResult.Status.OK, null));
+        });
+
+        var body = "{\"type\":\"UPSERT\",\"productInfo\":{\"id\":\"" + ID + "\",\"name\":\"Samsung Galaxy A13\"}}\n" +
+                "{\"type\":\"DELETE\",\"id\":\"mockId\"}\n";
+
+        var results = webTestClient
+                .post()
+                .uri(PRODUCT_INFOS_URL + "/bulk?ordered=true")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .returnResult(ProductInfoBulkResult.class)
+                .getResponseBody();
+
+        StepVerifier.create(results)
+                .assertNext(result -> {
+                    assertEquals(0, result.getIndex());
+                    assertEquals(ID, result.getId());
+                    assertEquals(ProductInfoBulkOperation.Type.UPSERT, result.getType());
+                })
+                .assertNext(result -> {
+                    assertEquals(1, result.getIndex());
+                    assertEquals("mockId", result.getId());
+                    assertEquals(ProductInfoBulkResult.Status.OK, result.getStatus());
+                })
+                .verifyComplete();
+    }
+
     @Test
     void updateProductInfo() {
         var productInfo = ProductInfo.builder()
@@ -173,6 +624,84 @@ public class ProductInfoControllerUnitTest {
                 });
     }
 
+    @Test
+    void addProductInfoWithExistingId() {
+        var productInfo = ProductInfo.builder()
+                .id(ID)
+                .name("Samsung Galaxy A13")
+                .build();
+
+        when(productInfoServiceMock.addProductInfo(isA(ProductInfo.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("duplicate")))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("conflict")));
+
+        webTestClient
+                .post()
+                .uri(PRODUCT_INFOS_URL)
+                .bodyValue(productInfo)
+                .exchange()
+                .expectStatus()
+                .isEqualTo(409);
+
+        webTestClient
+                .post()
+                .uri(PRODUCT_INFOS_URL)
+                .bodyValue(productInfo)
+                .exchange()
+                .expectStatus()
+                .isEqualTo(409);
+    }
+
+    @Test
+    void updateProductInfoWithStaleVersion() {
+        var productInfo = ProductInfo.builder()
+                .id(ID)
+                .name("Samsung Galaxy A13 Updated")
+                .version(3L)
+                .build();
+
+        when(productInfoServiceMock.updateProductInfo(isA(String.class), isA(ProductInfo.class)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("conflict")));
+
+        webTestClient
+                .put()
+                .uri(PRODUCT_INFOS_URL + "/{id}", ID)
+                .bodyValue(productInfo)
+                .exchange()
+                .expectStatus()
+                .isEqualTo(409);
+    }
+
+    @Test
+    void patchProductInfo() {
+        when(productInfoServiceMock.patchProductInfo(eq(ID), argThat(patch ->
+                new BigDecimal("1151.24").equals(patch.getPrice()) && patch.getName() == null)))
+                .thenReturn(Mono.just(
+                        ProductInfo.builder()
+                                .id(ID)
+                                .name("Samsung Galaxy A13")
+                                .price(new BigDecimal("1151.24"))
+                                .version(4L)
+                                .build()
+                ));
+
+        webTestClient
+                .patch()
+                .uri(PRODUCT_INFOS_URL + "/{id}", ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"price\": 1151.24}")
+                .exchange()
+                .expectStatus()
+                .is2xxSuccessful()
+                .expectBody(ProductInfo.class)
+                .consumeWith(productInfoEntityExchangeResult -> {
+                    ProductInfo patchedProductInfo = productInfoEntityExchangeResult.getResponseBody();
+                    assertNotNull(patchedProductInfo);
+                    assertEquals("Samsung Galaxy A13", patchedProductInfo.getName());
+                    assertEquals(4L, patchedProductInfo.getVersion());
+                });
+    }
+
     @Test
     void deleteProductInfo() {
 
@@ -185,4 +714,81 @@ public class ProductInfoControllerUnitTest {
                 .expectStatus()
                 .isNoContent();
     }
+
+    @Test
+    void getProductInfoChanges() {
+        when(productInfoChangeStreamMock.changes(isNull())).thenReturn(Flux.just(
+                new ProductInfoChange(ProductInfoChange.Type.UPSERT, ID, ProductInfo.builder().id(ID).name("Samsung Galaxy A13").build()),
+                new ProductInfoChange(ProductInfoChange.Type.DELETE, ID, null)));
+
+        var changes = webTestClient
+                .get()
+                .uri(PRODUCT_INFOS_URL + "/changes")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(ProductInfoChange.class)
+                .getResponseBody();
+
+        StepVerifier.create(changes)
+                .assertNext(change -> {
+                    assertEquals(ProductInfoChange.Type.UPSERT, change.getType());
+                    assertEquals("Samsung Galaxy A13", change.getProductInfo().getName());
+                })
+                .assertNext(change -> assertEquals(ProductInfoChange.Type.DELETE, change.getType()))
+                .verifyComplete();
+    }
+
+    @Test
+    void streamProductInfoChangesResumesFromLastEventId() {
+        when(productInfoChangeStreamMock.changes("8263A1")).thenReturn(Flux.just(
+                new ProductInfoChange(ProductInfoChange.Type.DELETE, ID, null, "8263A2")));
+
+        var events = webTestClient
+                .get()
+                .uri(PRODUCT_INFOS_URL + "/changes")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header("Last-Event-ID", "8263A1")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<ProductInfoChange>>() {
+                })
+                .getResponseBody();
+
+        StepVerifier.create(events)
+                .assertNext(event -> {
+                    assertEquals("8263A2", event.id());
+                    assertEquals(ProductInfoChange.Type.DELETE, event.data().getType());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getProductInfoChangesWithMalformedLastEventId() {
+        when(productInfoChangeStreamMock.changes("not-a-token")).thenReturn(Flux.error(new IllegalArgumentException("malformed")));
+
+        webTestClient
+                .get()
+                .uri(PRODUCT_INFOS_URL + "/changes")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .header("Last-Event-ID", "not-a-token")
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @Test
+    void getProductInfoChangesWhenDisabled() {
+        when(productInfoChangeStreamMock.changes(any())).thenReturn(Flux.error(new FeatureDisabledException("disabled")));
+
+        webTestClient
+                .get()
+                .uri(PRODUCT_INFOS_URL + "/changes")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.NOT_IMPLEMENTED);
+    }
 }
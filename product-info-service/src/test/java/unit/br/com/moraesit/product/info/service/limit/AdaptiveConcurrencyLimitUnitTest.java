@@ -0,0 +1,105 @@
+package br.com.moraesit.product.info.service.limit;
+
+import br.com.moraesit.product.info.service.config.ProductInfoLimiterProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AdaptiveConcurrencyLimitUnitTest {
+
+    private static final long MS = Duration.ofMillis(1).toNanos();
+    private static final String READ = "read";
+    private static final String WRITE = "write";
+
+    @Test
+    void fastResponsesGrowTheLimitOnlyWhenItIsUsed() {
+        var limit = new AdaptiveConcurrencyLimit(properties());
+
+        limit.onSample(READ, 0, 10 * MS, 1, false);
+        assertEquals(10.0, limit.getLimit());
+
+        limit.onSample(READ, 20 * MS, 10 * MS, 5, false);
+        assertEquals(11.0, limit.getLimit());
+    }
+
+    @Test
+    void slowBurstShrinksTheLimitOnce() {
+        var limit = new AdaptiveConcurrencyLimit(properties());
+        warmUp(limit, READ, 10 * MS);
+
+        // three slow responses to requests all started before the first decrease
+        limit.onSample(READ, 1000 * MS, 100 * MS, 1, false);
+        limit.onSample(READ, 1001 * MS, 100 * MS, 1, false);
+        limit.onSample(READ, 1002 * MS, 100 * MS, 1, false);
+        assertEquals(5.0, limit.getLimit());
+
+        limit.onSample(READ, 1200 * MS, 100 * MS, 1, false);
+        assertEquals(2.5, limit.getLimit());
+    }
+
+    @Test
+    void mixOfFastAndSlowResponsesIsNotCongestion() {
+        var limit = new AdaptiveConcurrencyLimit(properties());
+
+        // cache hits and Mongo lookups on the same route
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(READ, i * 100 * MS, (i % 4 == 0 ? 20 : 1) * MS, 1, false);
+        }
+
+        assertEquals(10.0, limit.getLimit());
+    }
+
+    @Test
+    void eachRequestClassKeepsItsOwnBaseline() {
+        var limit = new AdaptiveConcurrencyLimit(properties());
+        warmUp(limit, READ, MS);
+
+        // writes are steadily slower than reads, which is not congestion
+        warmUp(limit, WRITE, 50 * MS);
+        assertEquals(10.0, limit.getLimit());
+
+        limit.onSample(READ, 5000 * MS, 50 * MS, 1, false);
+        assertEquals(5.0, limit.getLimit());
+    }
+
+    @Test
+    void failuresShrinkTheLimitDownToTheMinimum() {
+        var limit = new AdaptiveConcurrencyLimit(properties());
+
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(WRITE, i * 100 * MS, MS, 5, true);
+        }
+
+        assertEquals(2.0, limit.getLimit());
+    }
+
+    @Test
+    void shareCapsConcurrencyPerClass() {
+        var limit = new AdaptiveConcurrencyLimit(properties());
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i + 1, limit.tryAcquire(0.5));
+        }
+        assertEquals(-1, limit.tryAcquire(0.5));
+        assertEquals(6, limit.tryAcquire(1.0));
+
+        limit.release();
+        assertEquals(5, limit.getInFlight());
+    }
+
+    private static void warmUp(AdaptiveConcurrencyLimit limit, String requestClass, long rttNanos) {
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(requestClass, i * 10 * MS, rttNanos, 1, false);
+        }
+    }
+
+    private static ProductInfoLimiterProperties properties() {
+        var properties = new ProductInfoLimiterProperties();
+        properties.setInitialLimit(10);
+        properties.setMinLimit(2);
+        properties.setBackoffRatio(0.5);
+        return properties;
+    }
+}
@@ -0,0 +1,118 @@
+package br.com.moraesit.product.info.service.limit;
+
+import br.com.moraesit.product.info.service.config.ProductInfoLimiterProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class LoadSheddingWebFilterUnitTest {
+
+    private static final String ROUTE = "/v1/product-infos/{id}";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Sinks.Empty<Void> release = Sinks.empty();
+    private final AtomicInteger passed = new AtomicInteger();
+    private final WebFilterChain heldChain = exchange -> {
+        passed.incrementAndGet();
+        return release.asMono();
+    };
+
+    @Test
+    void readsAreShedBeforeWrites() {
+        var filter = new LoadSheddingWebFilter(properties(), exchange -> Mono.just(ROUTE), meterRegistry);
+
+        filter.filter(get(), heldChain).subscribe();
+        var read = get();
+        filter.filter(read, heldChain).block();
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, read.getResponse().getStatusCode());
+        assertEquals("1", read.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        filter.filter(put(), heldChain).subscribe();
+        var write = put();
+        filter.filter(write, heldChain).block();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, write.getResponse().getStatusCode());
+        assertEquals(2, passed.get());
+        assertEquals(2.0, meterRegistry.get(LoadSheddingWebFilter.IN_FLIGHT).tag("route", ROUTE).gauge().value());
+        assertEquals(1.0, meterRegistry.get(LoadSheddingWebFilter.REJECTED).tags("class", "write", "status", "503").counter().count());
+    }
+
+    @Test
+    void completedRequestsFreeTheirSlot() {
+        var filter = new LoadSheddingWebFilter(properties(), exchange -> Mono.just(ROUTE), meterRegistry);
+
+        filter.filter(get(), heldChain).subscribe();
+        release.tryEmitEmpty();
+        var next = get();
+        filter.filter(next, heldChain).block();
+
+        assertNull(next.getResponse().getStatusCode());
+        assertEquals(2, passed.get());
+    }
+
+    @Test
+    void unmappedAndExcludedPathsAreNotLimited() {
+        var properties = properties();
+        properties.setMaxLimit(1);
+        properties.setInitialLimit(1);
+        properties.setMinLimit(1);
+        var filter = new LoadSheddingWebFilter(properties, exchange -> Mono.empty(), meterRegistry);
+
+        filter.filter(get(), heldChain).subscribe();
+        filter.filter(get(), heldChain).subscribe();
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/v1/product-infos/changes")), heldChain).subscribe();
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/actuator/health")), heldChain).subscribe();
+
+        assertEquals(4, passed.get());
+    }
+
+    @Test
+    void streamedAndBulkRoutesAreNotLimited() {
+        var properties = properties();
+        properties.setMaxLimit(1);
+        properties.setInitialLimit(1);
+        properties.setMinLimit(1);
+        var filter = new LoadSheddingWebFilter(properties, exchange -> Mono.just("/v1/product-infos"), meterRegistry);
+
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/v1/product-infos")), heldChain).subscribe();
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/v1/product-infos")), heldChain).subscribe();
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.post("/v1/product-infos/bulk")), heldChain).subscribe();
+        assertEquals(3, passed.get());
+
+        // creates share the listing's path but not its method, so they are still limited
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.post("/v1/product-infos")), heldChain).subscribe();
+        var create = MockServerWebExchange.from(MockServerHttpRequest.post("/v1/product-infos"));
+        filter.filter(create, heldChain).block();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, create.getResponse().getStatusCode());
+        assertEquals(4, passed.get());
+    }
+
+    private static MockServerWebExchange get() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/v1/product-infos/1"));
+    }
+
+    private static MockServerWebExchange put() {
+        return MockServerWebExchange.from(MockServerHttpRequest.put("/v1/product-infos/1"));
+    }
+
+    private static ProductInfoLimiterProperties properties() {
+        var properties = new ProductInfoLimiterProperties();
+        properties.setInitialLimit(2);
+        properties.setMinLimit(2);
+        properties.setReadShare(0.5);
+        return properties;
+    }
+}
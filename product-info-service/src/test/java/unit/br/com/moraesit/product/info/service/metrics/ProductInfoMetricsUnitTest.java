@@ -0,0 +1,74 @@
+package br.com.moraesit.product.info.service.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ProductInfoMetricsUnitTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ProductInfoMetrics productInfoMetrics = new ProductInfoMetrics(meterRegistry);
+
+    @Test
+    void timedFluxRecordsOutcomeAndResultSize() {
+        StepVerifier.create(productInfoMetrics.timed("getAllProductInfos", Flux.just("a", "b", "c")))
+                .expectNextCount(3)
+                .verifyComplete();
+
+        var timer = meterRegistry.find(ProductInfoMetrics.SERVICE_TIMER)
+                .tags("method", "getAllProductInfos", "outcome", "SUCCESS", "exception", "none")
+                .timer();
+        var resultSize = meterRegistry.find(ProductInfoMetrics.RESULT_SIZE)
+                .tags("method", "getAllProductInfos")
+                .summary();
+
+        assertEquals(1, timer.count());
+        assertEquals(1, resultSize.count());
+        assertEquals(3, resultSize.totalAmount());
+    }
+
+    @Test
+    void timedMonoRecordsErrors() {
+        StepVerifier.create(productInfoMetrics.timed("getProductInfoById", Mono.error(new IllegalStateException("boom"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        var timer = meterRegistry.find(ProductInfoMetrics.SERVICE_TIMER)
+                .tags("method", "getProductInfoById", "outcome", "ERROR", "exception", "IllegalStateException")
+                .timer();
+
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void timedMonoUsesResultSizeFunction() {
+        StepVerifier.create(productInfoMetrics.timed("getProductInfoPage", Mono.just(List.of(1, 2)), List::size))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        var resultSize = meterRegistry.find(ProductInfoMetrics.RESULT_SIZE)
+                .tags("method", "getProductInfoPage")
+                .summary();
+
+        assertEquals(2, resultSize.totalAmount());
+    }
+
+    @Test
+    void timedIsRecordedPerSubscription() {
+        var mono = productInfoMetrics.timed("getProductInfoById", Mono.just("a"));
+
+        mono.block();
+        mono.block();
+
+        assertEquals(2, meterRegistry.find(ProductInfoMetrics.SERVICE_TIMER).tags("method", "getProductInfoById").timer().count());
+        assertNull(meterRegistry.find(ProductInfoMetrics.SERVICE_TIMER).tags("outcome", "ERROR").timer());
+    }
+}
@@ -0,0 +1,49 @@
+package br.com.moraesit.product.info.service.outbox;
+
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.domain.ProductInfoEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class FileProductInfoEventSinkUnitTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void appendsOneLinePerEvent() throws IOException {
+        var file = directory.resolve("events.ndjson");
+        var sink = new FileProductInfoEventSink(file, objectMapper, Schedulers.boundedElastic());
+        var productInfo = ProductInfo.builder().id("a").name("Samsung Galaxy A13").price(new BigDecimal("1200.50")).version(0L).build();
+
+        sink.publish(List.of(ProductInfoEvent.upsert(productInfo, 1))).block();
+        sink.publish(List.of(ProductInfoEvent.delete("a", 2))).block();
+
+        var lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+
+        var upsert = objectMapper.readValue(lines.get(0), ProductInfoEvent.class);
+        assertEquals(ProductInfoEvent.Type.UPSERT, upsert.getType());
+        assertEquals(1L, upsert.getSequence());
+        assertEquals("Samsung Galaxy A13", upsert.getProductInfo().getName());
+
+        var delete = objectMapper.readValue(lines.get(1), ProductInfoEvent.class);
+        assertEquals(ProductInfoEvent.Type.DELETE, delete.getType());
+        assertEquals(2L, delete.getSequence());
+        assertNull(delete.getProductInfo());
+    }
+}
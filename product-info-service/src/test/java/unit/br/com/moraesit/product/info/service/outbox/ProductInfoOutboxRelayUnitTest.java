@@ -0,0 +1,139 @@
+package br.com.moraesit.product.info.service.outbox;
+
+import br.com.moraesit.product.info.service.config.ProductInfoOutboxProperties;
+import br.com.moraesit.product.info.service.domain.OutboxLease;
+import br.com.moraesit.product.info.service.domain.ProductInfoEvent;
+import br.com.moraesit.product.info.service.repository.ProductInfoOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.mockito.stubbing.OngoingStubbing;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ProductInfoOutboxRelayUnitTest {
+
+    private final ProductInfoOutboxRepository outboxRepository = mock(ProductInfoOutboxRepository.class);
+    private final ReactiveMongoTemplate reactiveMongoTemplate = mock(ReactiveMongoTemplate.class);
+    private final List<String> deleted = new CopyOnWriteArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        when(outboxRepository.deleteAllById(anyIterable())).thenAnswer(invocation -> {
+            Iterable<String> ids = invocation.getArgument(0);
+            return Mono.fromRunnable(() -> ids.forEach(deleted::add));
+        });
+        whenLeaseRenewed().thenReturn(Mono.just(new OutboxLease("productInfoOutbox", "relay", Instant.now())));
+    }
+
+    @Test
+    void publishesEachProductInSequenceOrder() {
+        var events = List.of(event("1", "a", 2), event("2", "b", 0), event("3", "a", 1), event("4", "a", 3));
+        when(outboxRepository.findBy(any(Pageable.class))).thenReturn(Flux.fromIterable(events));
+        var sink = new InMemoryProductInfoEventSink();
+
+        StepVerifier.create(relay(sink, 10).relayBatch())
+                .expectNext(false)
+                .verifyComplete();
+
+        var productA = sink.getEvents().stream()
+                .filter(event -> event.getProductId().equals("a"))
+                .map(ProductInfoEvent::getSequence)
+                .collect(Collectors.toList());
+        assertEquals(List.of(1L, 2L, 3L), productA);
+        assertEquals(4, sink.getEvents().size());
+        assertTrue(deleted.containsAll(List.of("1", "2", "3", "4")));
+        assertEquals(4.0, meterRegistry.get(ProductInfoOutboxRelay.PUBLISHED).counter().count());
+    }
+
+    @Test
+    void failedProductStaysInTheOutbox() {
+        var events = List.of(event("1", "a", 0), event("2", "b", 0));
+        when(outboxRepository.findBy(any(Pageable.class))).thenReturn(Flux.fromIterable(events));
+        var published = new ArrayList<ProductInfoEvent>();
+        ProductInfoEventSink sink = batch -> batch.get(0).getProductId().equals("a")
+                ? Mono.error(new IllegalStateException("broker unavailable"))
+                : Mono.fromRunnable(() -> published.addAll(batch));
+
+        // a full batch normally continues right away, but not after a failure
+        StepVerifier.create(relay(sink, 2).relayBatch())
+                .expectNext(false)
+                .verifyComplete();
+
+        assertEquals(List.of("2"), deleted);
+        assertEquals(1, published.size());
+        assertEquals(1.0, meterRegistry.get(ProductInfoOutboxRelay.FAILED).counter().count());
+    }
+
+    @Test
+    void fullBatchAsksForMore() {
+        when(outboxRepository.findBy(any(Pageable.class))).thenReturn(Flux.just(event("1", "a", 0), event("2", "b", 0)));
+
+        StepVerifier.create(relay(new InMemoryProductInfoEventSink(), 2).relayBatch())
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    @Test
+    void lostLeaseStopsPublishing() {
+        when(outboxRepository.findBy(any(Pageable.class))).thenReturn(Flux.just(event("1", "a", 0), event("2", "b", 0)));
+        whenLeaseRenewed().thenReturn(Mono.just(new OutboxLease("productInfoOutbox", "relay", Instant.now())), Mono.empty());
+        var sink = new InMemoryProductInfoEventSink();
+        var properties = properties(2);
+        // renewed before every product
+        properties.setLeaseDuration(Duration.ZERO);
+        properties.setConcurrency(1);
+
+        StepVerifier.create(relay(sink, properties).relayBatch())
+                .expectNext(false)
+                .verifyComplete();
+
+        assertEquals(List.of("a"), sink.getEvents().stream().map(ProductInfoEvent::getProductId).collect(Collectors.toList()));
+        assertEquals(List.of("1"), deleted);
+    }
+
+    private OngoingStubbing<Mono<OutboxLease>> whenLeaseRenewed() {
+        return when(reactiveMongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(OutboxLease.class)));
+    }
+
+    private ProductInfoOutboxRelay relay(ProductInfoEventSink sink, int batchSize) {
+        return relay(sink, properties(batchSize));
+    }
+
+    private ProductInfoOutboxRelay relay(ProductInfoEventSink sink, ProductInfoOutboxProperties properties) {
+        return new ProductInfoOutboxRelay(outboxRepository, reactiveMongoTemplate, sink, properties, meterRegistry);
+    }
+
+    private static ProductInfoOutboxProperties properties(int batchSize) {
+        var properties = new ProductInfoOutboxProperties();
+        properties.setBatchSize(batchSize);
+        return properties;
+    }
+
+    private static ProductInfoEvent event(String id, String productId, long sequence) {
+        return new ProductInfoEvent(id, productId, ProductInfoEvent.Type.UPSERT, sequence, null, Instant.now());
+    }
+}
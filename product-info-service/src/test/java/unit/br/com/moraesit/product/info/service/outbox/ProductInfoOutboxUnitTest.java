@@ -0,0 +1,98 @@
+package br.com.moraesit.product.info.service.outbox;
+
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.domain.ProductInfoEvent;
+import br.com.moraesit.product.info.service.domain.ProductInfoSequence;
+import br.com.moraesit.product.info.service.repository.ProductInfoOutboxRepository;
+import com.mongodb.MongoException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ProductInfoOutboxUnitTest {
+
+    private final ProductInfoOutboxRepository outboxRepository = mock(ProductInfoOutboxRepository.class);
+    private final ReactiveMongoTemplate reactiveMongoTemplate = mock(ReactiveMongoTemplate.class);
+    private final TransactionalOperator transactionalOperator = mock(TransactionalOperator.class);
+    private final ProductInfoOutbox outbox = new ProductInfoOutbox(outboxRepository, reactiveMongoTemplate, transactionalOperator);
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(outboxRepository.save(any(ProductInfoEvent.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(reactiveMongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(ProductInfoSequence.class))).thenReturn(Mono.just(new ProductInfoSequence("123", 1)));
+    }
+
+    @Test
+    void eventsTakeTheProductsNextSequenceNotItsVersion() {
+        when(reactiveMongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(ProductInfoSequence.class))).thenReturn(Mono.just(new ProductInfoSequence("123", 7)));
+        var saved = ArgumentCaptor.forClass(ProductInfoEvent.class);
+
+        // created again after a delete, so back at version 0
+        outbox.recordUpsert(Mono.just(ProductInfo.builder().id("123").version(0L).build())).block();
+
+        verify(outboxRepository).save(saved.capture());
+        assertEquals(7L, saved.getValue().getSequence());
+    }
+
+    @Test
+    void writeConflictRetriesTheTransaction() {
+        var writeConflict = new MongoException(112, "WriteConflict");
+
+        StepVerifier.create(outbox.recordUpsert(failingFirst(new UncategorizedMongoDbException("write conflict", writeConflict))))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertEquals(2, attempts.get());
+        verify(outboxRepository, times(1)).save(any(ProductInfoEvent.class));
+    }
+
+    @Test
+    void transientTransactionErrorRetriesTheTransaction() {
+        var transientError = new MongoException(251, "NoSuchTransaction");
+        transientError.addLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL);
+
+        StepVerifier.create(outbox.recordUpsert(failingFirst(transientError)))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void otherErrorsAreNotRetried() {
+        StepVerifier.create(outbox.recordUpsert(failingFirst(new MongoException(11000, "E11000 duplicate key"))))
+                .expectError(MongoException.class)
+                .verify();
+
+        assertEquals(1, attempts.get());
+    }
+
+    private Mono<ProductInfo> failingFirst(Throwable error) {
+        return Mono.defer(() -> attempts.getAndIncrement() == 0
+                ? Mono.error(error)
+                : Mono.just(ProductInfo.builder().id("123").version(0L).build()));
+    }
+}
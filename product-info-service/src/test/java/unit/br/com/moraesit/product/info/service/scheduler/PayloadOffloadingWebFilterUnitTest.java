@@ -0,0 +1,84 @@
+package br.com.moraesit.product.info.service.scheduler;
+
+import br.com.moraesit.product.info.service.config.ProductInfoSchedulerProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PayloadOffloadingWebFilterUnitTest {
+
+    private final Scheduler scheduler = ProductInfoSchedulers.newBounded(ProductInfoSchedulers.CPU, 1, 10, true,
+            new SimpleMeterRegistry());
+    private final PayloadOffloadingWebFilter filter = new PayloadOffloadingWebFilter(scheduler, new ProductInfoSchedulerProperties());
+    private final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+    @AfterEach
+    void tearDown() {
+        scheduler.dispose();
+    }
+
+    @Test
+    void decodesLargeRequestBodiesOnTheScheduler() {
+        var body = "x".repeat(128 * 1024);
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/v1/product-infos")
+                .contentLength(body.length())
+                .body(body));
+        WebFilterChain readBody = filtered -> DataBufferUtils.join(filtered.getRequest().getBody())
+                .doOnNext(read -> threads.add(Thread.currentThread().getName()))
+                .then();
+
+        filter.filter(exchange, readBody).block();
+
+        assertOffloaded();
+    }
+
+    @Test
+    void encodesListedResponsesOnTheScheduler() {
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/v1/product-infos/page"));
+        WebFilterChain writeBody = filtered -> filtered.getResponse().writeWith(Flux.range(0, 3)
+                .map(i -> {
+                    threads.add(Thread.currentThread().getName());
+                    return buffer("product " + i);
+                }));
+
+        filter.filter(exchange, writeBody).block();
+
+        assertOffloaded();
+        assertEquals("product 0product 1product 2", exchange.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void leavesSmallRequestsOnTheCallingThread() {
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/v1/product-infos/a"));
+        WebFilterChain chain = filtered -> Mono.fromRunnable(() -> threads.add(Thread.currentThread().getName()));
+
+        filter.filter(exchange, chain).block();
+
+        assertEquals(Set.of(Thread.currentThread().getName()), threads);
+    }
+
+    private void assertOffloaded() {
+        assertTrue(!threads.isEmpty() && threads.stream().allMatch(thread -> thread.startsWith(ProductInfoSchedulers.CPU + "-")),
+                threads.toString());
+    }
+
+    private static DataBuffer buffer(String value) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,108 @@
+package br.com.moraesit.product.info.service.scheduler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.blockhound.BlockingOperationError;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProductInfoSchedulersUnitTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Scheduler> schedulers = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        schedulers.forEach(Scheduler::dispose);
+    }
+
+    @Test
+    void blockingOnTheCpuSchedulerFails() {
+        var cpu = scheduler(ProductInfoSchedulers.CPU, 1, 10, true);
+
+        var error = assertThrows(Throwable.class, () -> sleep().subscribeOn(cpu).block());
+        assertTrue(Exceptions.unwrap(error) instanceof BlockingOperationError, error.toString());
+    }
+
+    @Test
+    void idleCpuWorkersWaitForWork() throws InterruptedException {
+        var uncaught = new ConcurrentLinkedQueue<Throwable>();
+        var previous = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((thread, error) -> uncaught.add(error));
+        try {
+            var cpu = scheduler(ProductInfoSchedulers.CPU, 1, 10, true);
+            var first = threadName().subscribeOn(cpu).block();
+            // long enough for the worker to find the queue empty and wait on it
+            Thread.sleep(100);
+
+            assertEquals(first, threadName().subscribeOn(cpu).block());
+            assertTrue(uncaught.isEmpty(), uncaught.toString());
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(previous);
+        }
+    }
+
+    @Test
+    void blockingOnTheIoSchedulerIsAllowed() {
+        var io = scheduler(ProductInfoSchedulers.IO, 1, 10, false);
+
+        assertTrue(sleep().subscribeOn(io).block().startsWith(ProductInfoSchedulers.IO + "-"));
+    }
+
+    @Test
+    void rejectsWorkWhenTheQueueIsFull() throws InterruptedException {
+        var io = scheduler(ProductInfoSchedulers.IO, 1, 1, false);
+        var running = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        io.schedule(() -> {
+            running.countDown();
+            await(release);
+        });
+        running.await();
+        io.schedule(() -> {
+        });
+
+        assertEquals(1.0, meterRegistry.get("executor.queued").tag("name", ProductInfoSchedulers.IO).gauge().value());
+        assertThrows(RejectedExecutionException.class, () -> io.schedule(() -> {
+        }));
+        release.countDown();
+    }
+
+    private Scheduler scheduler(String name, int threads, int queueCapacity, boolean nonBlocking) {
+        var scheduler = ProductInfoSchedulers.newBounded(name, threads, queueCapacity, nonBlocking, meterRegistry);
+        schedulers.add(scheduler);
+        return scheduler;
+    }
+
+    private static Mono<String> threadName() {
+        return Mono.fromCallable(() -> Thread.currentThread().getName());
+    }
+
+    private static Mono<String> sleep() {
+        return Mono.fromCallable(() -> {
+            Thread.sleep(1);
+            return Thread.currentThread().getName();
+        });
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
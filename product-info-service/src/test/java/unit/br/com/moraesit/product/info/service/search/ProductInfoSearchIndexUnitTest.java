@@ -0,0 +1,126 @@
+package br.com.moraesit.product.info.service.search;
+
+import br.com.moraesit.product.info.service.config.ProductInfoSearchProperties;
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ProductInfoSearchIndexUnitTest {
+
+    private ProductInfoSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        var properties = new ProductInfoSearchProperties();
+        properties.setFacetKeys(List.of("Marca", "Cor"));
+        searchIndex = new ProductInfoSearchIndex(properties);
+    }
+
+    @Test
+    void ranksProductsMatchingEveryTerm() {
+        searchIndex.load(List.of(
+                productInfo("1", "Capa para Galaxy A13", "Capa de silicone compatível com Samsung Galaxy A13", "Genérica", "Preto", 0),
+                productInfo("2", "Samsung Galaxy A13", "Smartphone Samsung Galaxy A13 128GB Azul", "Samsung", "Azul", 0),
+                productInfo("3", "Motorola Moto G52", "Smartphone Motorola Moto G52 128GB Preto", "Motorola", "Preto", 0)));
+        searchIndex.finishLoading();
+
+        assertEquals(List.of("2", "1"), search("galaxy a13", Map.of()).getIds());
+        assertEquals(List.of("2"), search("SAMSUNG smartphone", Map.of()).getIds());
+        assertEquals(List.of("1"), search("compativel", Map.of()).getIds());
+        assertEquals(List.of(), search("galaxy iphone", Map.of()).getIds());
+    }
+
+    @Test
+    void countsAndFiltersFacets() {
+        searchIndex.load(List.of(
+                productInfo("1", "Samsung Galaxy A13", "Smartphone", "Samsung", "Azul", 0),
+                productInfo("2", "Samsung Galaxy S22", "Smartphone", "Samsung", "Preto", 0),
+                productInfo("3", "Motorola Moto G52", "Smartphone", "Motorola", "Preto", 0)));
+        searchIndex.finishLoading();
+
+        var hits = search("smartphone", Map.of());
+        assertEquals(3, hits.getTotal());
+        assertEquals(Map.of("Samsung", 2, "Motorola", 1), hits.getFacets().get("Marca"));
+        assertEquals(Map.of("Preto", 2, "Azul", 1), hits.getFacets().get("Cor"));
+
+        hits = search(null, Map.of("Cor", "Preto"));
+        assertEquals(List.of("2", "3"), hits.getIds());
+        assertEquals(Map.of("Samsung", 1, "Motorola", 1), hits.getFacets().get("Marca"));
+
+        assertEquals(0, search(null, Map.of("Cor", "Verde")).getTotal());
+        assertThrows(IllegalArgumentException.class, () -> search(null, Map.of("Peso", "100")));
+    }
+
+    @Test
+    void writesReplaceAndRemoveProducts() {
+        searchIndex.finishLoading();
+        searchIndex.index(productInfo("1", "Samsung Galaxy A13", null, "Samsung", "Azul", 1));
+        searchIndex.index(productInfo("1", "Samsung Galaxy A14", null, "Samsung", "Azul", 2));
+        // a write that completes late does not bring the older version back
+        searchIndex.index(productInfo("1", "Samsung Galaxy A13", null, "Samsung", "Azul", 1));
+
+        assertEquals(List.of(), search("a13", Map.of()).getIds());
+        assertEquals(List.of("1"), search("a14", Map.of()).getIds());
+        assertEquals(1, search("samsung", Map.of()).getTotal());
+
+        searchIndex.remove("1");
+
+        assertEquals(0, search("samsung", Map.of()).getTotal());
+        assertEquals(0, searchIndex.size());
+    }
+
+    @Test
+    void writesDuringLoadingWin() {
+        searchIndex.index(productInfo("1", "Samsung Galaxy A14", null, "Samsung", "Azul", 2));
+        searchIndex.remove("2");
+        assertThrows(SearchIndexNotReadyException.class, () -> search("samsung", Map.of()));
+
+        searchIndex.load(List.of(
+                productInfo("1", "Samsung Galaxy A13", null, "Samsung", "Azul", 1),
+                productInfo("2", "Samsung Galaxy S22", null, "Samsung", "Preto", 1)));
+        searchIndex.finishLoading();
+
+        assertEquals(List.of("1"), search("samsung", Map.of()).getIds());
+        assertEquals(List.of("1"), search("a14", Map.of()).getIds());
+    }
+
+    @Test
+    void compactsDeletedDocuments() {
+        searchIndex.load(IntStream.range(0, 5000)
+                .mapToObj(i -> productInfo(String.valueOf(i), "Produto " + i, i % 2 == 0 ? "par" : "impar", "Marca" + i % 3, "Azul", 0))
+                .collect(Collectors.toList()));
+        searchIndex.finishLoading();
+        IntStream.range(0, 5000).filter(i -> i % 2 == 0).forEach(i -> searchIndex.remove(String.valueOf(i)));
+
+        assertEquals(2500, searchIndex.size());
+        assertEquals(0, search("par", Map.of()).getTotal());
+        assertEquals(2500, search("impar", Map.of()).getTotal());
+        assertEquals(List.of("4999"), search("produto 4999", Map.of()).getIds());
+        assertEquals(833, search("impar", Map.of("Marca", "Marca0")).getTotal());
+
+        searchIndex.index(productInfo("1", "Produto 1 atualizado", "impar", "Marca1", "Azul", 1));
+        assertEquals(List.of("1"), search("atualizado", Map.of()).getIds());
+    }
+
+    private ProductInfoSearchHits search(String text, Map<String, String> filters) {
+        return searchIndex.search(text, filters, 10);
+    }
+
+    private static ProductInfo productInfo(String id, String name, String description, String marca, String cor, long version) {
+        return ProductInfo.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .properties(Map.of("Marca", marca, "Cor", cor))
+                .version(version)
+                .build();
+    }
+}
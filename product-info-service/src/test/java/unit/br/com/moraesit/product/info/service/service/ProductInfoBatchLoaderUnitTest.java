@@ -0,0 +1,133 @@
+package br.com.moraesit.product.info.service.service;
+
+import br.com.moraesit.product.info.service.config.ProductInfoBatchProperties;
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class ProductInfoBatchLoaderUnitTest {
+    private static final String SLOW = "slow";
+
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+    private ProductInfoBatchLoader batchLoader;
+
+    @AfterEach
+    void tearDown() {
+        batchLoader.dispose();
+    }
+
+    @Test
+    void lookupIsLoadedRightAwayWhenNothingElseIsLoading() {
+        batchLoader = batchLoader(10, Duration.ofMinutes(1), this::found);
+
+        StepVerifier.create(batchLoader.load("a"))
+                .expectNextCount(1)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertEquals(List.of(List.of("a")), batches);
+    }
+
+    @Test
+    void identicalIdsShareOneLookup() {
+        batchLoader = batchLoader(3, Duration.ofMillis(50), this::slowFirst);
+        batchLoader.load(SLOW).subscribe();
+
+        StepVerifier.create(Flux.merge(batchLoader.load("a"), batchLoader.load("b"), batchLoader.load("a")).collectList())
+                .assertNext(productInfos -> assertEquals(3, productInfos.size()))
+                .verifyComplete();
+
+        assertEquals(List.of(List.of(SLOW), List.of("a", "b")), batches);
+    }
+
+    @Test
+    void fullBatchIsLoadedWithoutWaiting() {
+        batchLoader = batchLoader(2, Duration.ofMinutes(1), this::slowFirst);
+        batchLoader.load(SLOW).subscribe();
+
+        StepVerifier.create(Flux.merge(batchLoader.load("a"), batchLoader.load("b")))
+                .expectNextCount(2)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertEquals(List.of(List.of(SLOW), List.of("a", "b")), batches);
+    }
+
+    @Test
+    void lookupsBeyondMaxPendingFailFast() {
+        batchLoader = batchLoader(10, Duration.ofMinutes(1), 2, this::slowFirst);
+        batchLoader.load(SLOW).subscribe();
+        // still waiting when the loader is disposed, which fails them
+        batchLoader.load("a").onErrorResume(e -> Mono.empty()).subscribe();
+        batchLoader.load("b").onErrorResume(e -> Mono.empty()).subscribe();
+
+        StepVerifier.create(batchLoader.load("c"))
+                .expectError(RejectedExecutionException.class)
+                .verify(Duration.ofSeconds(5));
+
+        assertEquals(List.of(List.of(SLOW)), batches);
+    }
+
+    @Test
+    void missingIdCompletesEmpty() {
+        batchLoader = batchLoader(10, Duration.ofMillis(10), ids -> found(List.of("a")));
+
+        StepVerifier.create(Mono.zip(batchLoader.load("a"), batchLoader.load("missing").hasElement()))
+                .assertNext(tuple -> {
+                    assertEquals("a", tuple.getT1().getId());
+                    assertFalse(tuple.getT2());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void failedLookupFailsTheBatchButNotTheLoader() {
+        batchLoader = batchLoader(10, Duration.ofMillis(10), ids -> batches.size() == 1
+                ? Flux.error(new IllegalStateException("boom"))
+                : found(ids));
+
+        StepVerifier.create(batchLoader.load("a"))
+                .expectErrorMessage("boom")
+                .verify();
+        StepVerifier.create(batchLoader.load("a"))
+                .assertNext(productInfo -> assertEquals("a", productInfo.getId()))
+                .verifyComplete();
+    }
+
+    private ProductInfoBatchLoader batchLoader(int maxBatchSize, Duration maxWait, Function<List<String>, Flux<ProductInfo>> lookup) {
+        return batchLoader(maxBatchSize, maxWait, 1000, lookup);
+    }
+
+    private ProductInfoBatchLoader batchLoader(int maxBatchSize, Duration maxWait, int maxPending,
+                                               Function<List<String>, Flux<ProductInfo>> lookup) {
+        var properties = new ProductInfoBatchProperties();
+        properties.setMaxBatchSize(maxBatchSize);
+        properties.setMaxWait(maxWait);
+        properties.setMaxPending(maxPending);
+        return new ProductInfoBatchLoader(ids -> {
+            batches.add(ids);
+            return lookup.apply(ids);
+        }, properties);
+    }
+
+    // keeps a batch loading while the test queues the lookups behind it
+    private Flux<ProductInfo> slowFirst(List<String> ids) {
+        return ids.contains(SLOW) ? found(ids).delaySubscription(Duration.ofSeconds(1)) : found(ids);
+    }
+
+    private Flux<ProductInfo> found(List<String> ids) {
+        return Flux.fromIterable(ids).map(id -> ProductInfo.builder().id(id).build());
+    }
+}
@@ -1,11 +1,34 @@
 package br.com.moraesit.product.info.service.service;
 
+import br.com.moraesit.product.info.service.cache.ProductInfoCache;
+import br.com.moraesit.product.info.service.catalog.ProductInfoCatalog;
+import br.com.moraesit.product.info.service.codec.ProductInfoBsonCodec;
+import br.com.moraesit.product.info.service.codec.PropertyNameDictionary;
+import br.com.moraesit.product.info.service.config.ProductInfoBatchProperties;
+import br.com.moraesit.product.info.service.config.ProductInfoBulkProperties;
+import br.com.moraesit.product.info.service.config.ProductInfoCacheProperties;
+import br.com.moraesit.product.info.service.config.ProductInfoSearchProperties;
+import br.com.moraesit.product.info.service.config.ProductInfoServingProperties;
 import br.com.moraesit.product.info.service.domain.ProductInfo;
+import br.com.moraesit.product.info.service.domain.ProductInfoBulkOperation;
+import br.com.moraesit.product.info.service.domain.ProductInfoBulkResult;
+import br.com.moraesit.product.info.service.domain.ProductInfoPageRequest;
+import br.com.moraesit.product.info.service.domain.ProductInfoRevision;
+import br.com.moraesit.product.info.service.domain.ProductInfoSearchRequest;
+import br.com.moraesit.product.info.service.metrics.ProductInfoMetrics;
+import br.com.moraesit.product.info.service.outbox.ProductInfoOutbox;
+import br.com.moraesit.product.info.service.search.ProductInfoSearchIndex;
+import com.mongodb.MongoClientSettings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import br.com.moraesit.product.info.service.repository.ProductInfoRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import reactor.core.publisher.Flux;
@@ -13,13 +36,28 @@ import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
@@ -32,6 +70,35 @@ public class ProductInfoServiceUnitTest {
     @Mock
     private ProductInfoRepository productInfoRepository;
 
+    @Spy
+    private ProductInfoCache productInfoCache = new ProductInfoCache(new ProductInfoCacheProperties());
+
+    @Spy
+    private ProductInfoBulkProperties bulkProperties = new ProductInfoBulkProperties();
+
+    // lookups go straight to findById here, batching has its own test below
+    @Spy
+    private ProductInfoBatchProperties batchProperties = batchProperties(false);
+
+    @Spy
+    private ProductInfoMetrics productInfoMetrics = new ProductInfoMetrics(new SimpleMeterRegistry());
+
+    // transactions need a replica set, the outbox is covered by its integration test
+    @Spy
+    private ProductInfoOutbox productInfoOutbox = ProductInfoOutbox.disabled();
+
+    @Spy
+    private ProductInfoSearchIndex productInfoSearchIndex = searchIndex();
+
+    // reads go to the repository, the in-memory serving mode has its own tests below
+    @Spy
+    private ProductInfoCatalog productInfoCatalog = catalog(ProductInfoServingProperties.Mode.MONGO);
+
+    @BeforeEach
+    void setUp() {
+        when(productInfoRepository.incrementCatalogRevision()).thenReturn(Mono.empty());
+    }
+
     @Test
     void getProductInfoById() {
         String id = UUID.randomUUID().toString();
@@ -59,6 +126,121 @@ public class ProductInfoServiceUnitTest {
                 }).verifyComplete();
     }
 
+    @Test
+    void addProductInfoAlwaysInserts() {
+        when(productInfoRepository.save(isA(ProductInfo.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        var saved = ArgumentCaptor.forClass(ProductInfo.class);
+
+        // the id and version of a product that already exists, which must not turn the create into an update
+        productInfoService.addProductInfo(ProductInfo.builder().id("123").name("Samsung Galaxy A13").version(3L).build()).block();
+
+        verify(productInfoRepository).save(saved.capture());
+        assertEquals("123", saved.getValue().getId());
+        assertNull(saved.getValue().getVersion());
+    }
+
+    @Test
+    void getProductInfoByIdIsServedFromCache() {
+        String id = UUID.randomUUID().toString();
+
+        when(productInfoRepository.findById(id)).thenReturn(Mono.just(
+                ProductInfo.builder()
+                        .id(id)
+                        .name("Product Name")
+                        .build()
+        ));
+
+        productInfoService.getProductInfoById(id).block();
+
+        StepVerifier.create(productInfoService.getProductInfoById(id))
+                .consumeNextWith(productInfo -> assertEquals("Product Name", productInfo.getName()))
+                .verifyComplete();
+
+        verify(productInfoRepository, times(1)).findById(id);
+    }
+
+    @Test
+    void getProductInfoByIdBatchesConcurrentLookups() {
+        var batchingService = new ProductInfoService(productInfoRepository, productInfoCache, bulkProperties,
+                batchProperties(true), new ProductInfoMetrics(new SimpleMeterRegistry()), productInfoOutbox,
+                productInfoSearchIndex, productInfoCatalog);
+        var ids = IntStream.range(0, 5).mapToObj(i -> UUID.randomUUID().toString()).collect(Collectors.toList());
+
+        when(productInfoRepository.findAllById(anyList())).thenAnswer(invocation -> {
+            List<String> requested = invocation.getArgument(0);
+            return Flux.fromIterable(requested).map(id -> ProductInfo.builder().id(id).name("Product " + id).build())
+                    .delaySubscription(Duration.ofMillis(100));
+        });
+
+        StepVerifier.create(Flux.fromIterable(ids).flatMap(batchingService::getProductInfoById))
+                .expectNextCount(5)
+                .verifyComplete();
+
+        // the first lookup finds nothing loading and goes alone, the rest wait for it together
+        verify(productInfoRepository, times(2)).findAllById(anyList());
+        verify(productInfoRepository, never()).findById(isA(String.class));
+        batchingService.close();
+    }
+
+    @Test
+    void getProductInfoRevisionIsServedFromCache() {
+        String id = UUID.randomUUID().toString();
+        var lastModified = Instant.parse("2023-02-01T10:15:30.123Z");
+
+        when(productInfoRepository.findById(id)).thenReturn(Mono.just(
+                ProductInfo.builder()
+                        .id(id)
+                        .name("Product Name")
+                        .version(3L)
+                        .lastModified(lastModified)
+                        .build()
+        ));
+
+        productInfoService.getProductInfoById(id).block();
+
+        StepVerifier.create(productInfoService.getProductInfoRevision(id))
+                .consumeNextWith(revision -> {
+                    assertEquals(3L, revision.getVersion());
+                    assertEquals(lastModified, revision.getLastModified());
+                })
+                .verifyComplete();
+
+        verify(productInfoRepository, never()).findRevisionById(id);
+    }
+
+    @Test
+    void getProductInfoRevisionOnCacheMissUsesProjection() {
+        String id = UUID.randomUUID().toString();
+        var revision = new ProductInfoRevision(id, 1L, Instant.parse("2023-02-01T10:15:30.123Z"));
+
+        when(productInfoRepository.findRevisionById(id)).thenReturn(Mono.just(revision));
+
+        StepVerifier.create(productInfoService.getProductInfoRevision(id))
+                .expectNext(revision)
+                .verifyComplete();
+
+        verify(productInfoRepository, never()).findById(id);
+    }
+
+    @Test
+    void deleteProductInfoInvalidatesCache() {
+        String id = UUID.randomUUID().toString();
+
+        when(productInfoRepository.findById(id)).thenReturn(Mono.just(
+                ProductInfo.builder()
+                        .id(id)
+                        .name("Product Name")
+                        .build()
+        ));
+        when(productInfoRepository.deleteById(id)).thenReturn(Mono.empty());
+
+        productInfoService.getProductInfoById(id).block();
+        productInfoService.deleteProductInfo(id).block();
+        productInfoService.getProductInfoById(id).block();
+
+        verify(productInfoRepository, times(2)).findById(id);
+    }
+
     @Test
     void getAllProductInfos() {
         when(productInfoRepository.findAll()).thenReturn(Flux.fromIterable(
@@ -84,4 +266,319 @@ public class ProductInfoServiceUnitTest {
                 .expectNextCount(2)
                 .verifyComplete();
     }
+
+    @Test
+    void getProductInfoPage() {
+        var pageRequest = new ProductInfoPageRequest();
+        pageRequest.setSize(2);
+
+        when(productInfoRepository.findPage(isA(ProductInfoPageRequest.class), eq(3))).thenReturn(Flux.just(
+                ProductInfo.builder().id("123").build(),
+                ProductInfo.builder().id("456").build(),
+                ProductInfo.builder().id("789").build()
+        ));
+
+        StepVerifier.create(productInfoService.getProductInfoPage(pageRequest))
+                .consumeNextWith(productInfoPage -> {
+                    assertEquals(2, productInfoPage.getItems().size());
+                    assertEquals("456", productInfoPage.getNext());
+                }).verifyComplete();
+    }
+
+    @Test
+    void getLastProductInfoPage() {
+        var pageRequest = new ProductInfoPageRequest();
+        pageRequest.setAfter("456");
+        pageRequest.setSize(2);
+
+        when(productInfoRepository.findPage(isA(ProductInfoPageRequest.class), eq(3))).thenReturn(Flux.just(
+                ProductInfo.builder().id("789").build()
+        ));
+
+        StepVerifier.create(productInfoService.getProductInfoPage(pageRequest))
+                .consumeNextWith(productInfoPage -> {
+                    assertEquals(1, productInfoPage.getItems().size());
+                    assertNull(productInfoPage.getNext());
+                }).verifyComplete();
+    }
+
+    @Test
+    void searchProductInfosKeepsRankOrder() {
+        var best = ProductInfo.builder().id("123").name("Samsung Galaxy A13").description("Samsung").version(0L).build();
+        var other = ProductInfo.builder().id("456").name("Capa para Galaxy").description("Capa Samsung Galaxy A13").version(0L).build();
+        when(productInfoRepository.save(isA(ProductInfo.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        productInfoService.addProductInfo(other).block();
+        productInfoService.addProductInfo(best).block();
+        // other is served from the cache, best comes from the repository
+        productInfoCache.invalidate("123");
+        when(productInfoRepository.findAllById(List.of("123"))).thenReturn(Flux.just(best));
+
+        var searchRequest = new ProductInfoSearchRequest();
+        searchRequest.setQ("samsung galaxy");
+
+        StepVerifier.create(productInfoService.searchProductInfos(searchRequest))
+                .consumeNextWith(searchResult -> {
+                    assertEquals(List.of("123", "456"), searchResult.getItems().stream().map(ProductInfo::getId).collect(Collectors.toList()));
+                    assertEquals(2, searchResult.getTotal());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void deletedProductInfoIsNotSearchable() {
+        var productInfo = ProductInfo.builder().id("123").name("Samsung Galaxy A13").version(0L).build();
+        when(productInfoRepository.save(productInfo)).thenReturn(Mono.just(productInfo));
+        when(productInfoRepository.deleteById("123")).thenReturn(Mono.empty());
+        productInfoService.addProductInfo(productInfo).block();
+        productInfoService.deleteProductInfo("123").block();
+
+        var searchRequest = new ProductInfoSearchRequest();
+        searchRequest.setQ("samsung");
+
+        StepVerifier.create(productInfoService.searchProductInfos(searchRequest))
+                .consumeNextWith(searchResult -> assertEquals(0, searchResult.getTotal()))
+                .verifyComplete();
+    }
+
+    @Test
+    void searchProductInfosWithMalformedFilter() {
+        var searchRequest = new ProductInfoSearchRequest();
+        searchRequest.setFilter(List.of("Samsung"));
+
+        StepVerifier.create(productInfoService.searchProductInfos(searchRequest))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
+    @Test
+    void getProductInfoPageWithUnknownField() {
+        var pageRequest = new ProductInfoPageRequest();
+        pageRequest.setFields(List.of("name", "$where"));
+
+        StepVerifier.create(productInfoService.getProductInfoPage(pageRequest))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
+    @Test
+    void bulkWriteProductInfosInBatches() {
+        bulkProperties.setBatchSize(2);
+
+        when(productInfoRepository.bulkWrite(anyList(), anyLong(), anyBoolean())).thenAnswer(invocation -> {
+            List<ProductInfoBulkOperation> batch = invocation.getArgument(0);
+            long firstIndex = invocation.getArgument(1);
+            return Mono.just(IntStream.range(0, batch.size())
+                    .mapToObj(i -> new ProductInfoBulkResult(firstIndex + i, batch.get(i).getType(), batch.get(i).getId(),
+                            ProductInfoBulkResult.Status.OK, null))
+                    .collect(Collectors.toList()));
+        });
+
+        var operations = Flux.just(
+                ProductInfoBulkOperation.upsert(ProductInfo.builder().id("123").name("Product Name 1").build()),
+                ProductInfoBulkOperation.upsert(ProductInfo.builder().id("456").name("Product Name 2").build()),
+                ProductInfoBulkOperation.delete("789"));
+
+        StepVerifier.create(productInfoService.bulkWriteProductInfos(operations, false))
+                .assertNext(result -> assertEquals(0, result.getIndex()))
+                .assertNext(result -> assertEquals(1, result.getIndex()))
+                .assertNext(result -> {
+                    assertEquals(2, result.getIndex());
+                    assertEquals("789", result.getId());
+                    assertEquals(ProductInfoBulkOperation.Type.DELETE, result.getType());
+                })
+                .verifyComplete();
+
+        verify(productInfoRepository).bulkWrite(anyList(), eq(0L), eq(false));
+        verify(productInfoRepository).bulkWrite(anyList(), eq(2L), eq(false));
+    }
+
+    @Test
+    void orderedBulkWriteSkipsBatchesAfterFailure() {
+        bulkProperties.setBatchSize(1);
+
+        when(productInfoRepository.bulkWrite(anyList(), eq(0L), eq(true))).thenReturn(Mono.just(List.of(
+                new ProductInfoBulkResult(0, ProductInfoBulkOperation.Type.UPSERT, "123", ProductInfoBulkResult.Status.FAILED, "duplicate key")
+        )));
+
+        var operations = Flux.just(
+                ProductInfoBulkOperation.upsert(ProductInfo.builder().id("123").build()),
+                ProductInfoBulkOperation.delete("456"));
+
+        StepVerifier.create(productInfoService.bulkWriteProductInfos(operations, true))
+                .assertNext(result -> assertEquals(ProductInfoBulkResult.Status.FAILED, result.getStatus()))
+                .assertNext(result -> {
+                    assertEquals(1, result.getIndex());
+                    assertEquals(ProductInfoBulkResult.Status.SKIPPED, result.getStatus());
+                })
+                .verifyComplete();
+
+        verify(productInfoRepository, never()).bulkWrite(anyList(), eq(1L), anyBoolean());
+    }
+
+    @Test
+    void bulkWriteIsRejectedWhileTheOutboxIsEnabled() {
+        doReturn(true).when(productInfoOutbox).isEnabled();
+
+        StepVerifier.create(productInfoService.bulkWriteProductInfos(Flux.just(ProductInfoBulkOperation.delete("123")), false))
+                .expectError(FeatureDisabledException.class)
+                .verify();
+
+        verify(productInfoRepository, never()).bulkWrite(anyList(), anyLong(), anyBoolean());
+    }
+
+    @Test
+    void updateProductInfoRefreshesCache() {
+        String id = UUID.randomUUID().toString();
+        var updatedProductInfo = ProductInfo.builder()
+                .id(id)
+                .name("Product Name Updated")
+                .version(1L)
+                .build();
+
+        when(productInfoRepository.replaceFields(id, updatedProductInfo)).thenReturn(Mono.just(
+                ProductInfo.builder()
+                        .id(id)
+                        .name("Product Name Updated")
+                        .version(2L)
+                        .build()
+        ));
+
+        StepVerifier.create(productInfoService.updateProductInfo(id, updatedProductInfo))
+                .consumeNextWith(productInfo -> assertEquals(2L, productInfo.getVersion()))
+                .verifyComplete();
+
+        StepVerifier.create(productInfoService.getProductInfoById(id))
+                .consumeNextWith(productInfo -> assertEquals("Product Name Updated", productInfo.getName()))
+                .verifyComplete();
+
+        verify(productInfoRepository, never()).findById(id);
+    }
+
+    @Test
+    void readsAreServedFromTheCatalog() {
+        var catalog = catalog(ProductInfoServingProperties.Mode.MEMORY);
+        var servingService = new ProductInfoService(productInfoRepository, productInfoCache, bulkProperties, batchProperties,
+                productInfoMetrics, productInfoOutbox, productInfoSearchIndex, catalog);
+        var lastModified = Instant.parse("2023-02-01T10:00:00Z");
+        catalog.put(new ProductInfo("1", "Product Name 1", null, new BigDecimal("200.00"), Map.of("key", "value"), 1L, lastModified));
+        catalog.put(new ProductInfo("2", "Product Name 2", null, new BigDecimal("300.00"), Map.of("key", "value"), 4L, lastModified));
+        catalog.finishLoading();
+
+        StepVerifier.create(servingService.getProductInfoById("2"))
+                .consumeNextWith(productInfo -> assertEquals("Product Name 2", productInfo.getName()))
+                .verifyComplete();
+        StepVerifier.create(servingService.getProductInfoById("3"))
+                .verifyComplete();
+        StepVerifier.create(servingService.getProductInfoRevision("2"))
+                .consumeNextWith(revision -> assertEquals(4L, revision.getVersion()))
+                .verifyComplete();
+        StepVerifier.create(servingService.getAllProductInfos())
+                .expectNextCount(2)
+                .verifyComplete();
+        var pageRequest = new ProductInfoPageRequest();
+        pageRequest.setSize(1);
+        StepVerifier.create(servingService.getProductInfoPage(pageRequest))
+                .consumeNextWith(productInfoPage -> {
+                    assertEquals("1", productInfoPage.getItems().get(0).getId());
+                    assertEquals("1", productInfoPage.getNext());
+                })
+                .verifyComplete();
+        StepVerifier.create(servingService.getCatalogRevision())
+                .consumeNextWith(catalogRevision -> assertEquals(catalog.getCatalogRevision().getETag(), catalogRevision.getETag()))
+                .verifyComplete();
+
+        verifyNoInteractions(productInfoRepository);
+    }
+
+    @Test
+    void writesAreAppliedToTheCatalog() {
+        var catalog = catalog(ProductInfoServingProperties.Mode.MEMORY);
+        var servingService = new ProductInfoService(productInfoRepository, productInfoCache, bulkProperties, batchProperties,
+                productInfoMetrics, productInfoOutbox, productInfoSearchIndex, catalog);
+        catalog.finishLoading();
+        String id = UUID.randomUUID().toString();
+        var patch = ProductInfo.builder().name("Product Name Patched").build();
+
+        when(productInfoRepository.patchFields(id, patch)).thenReturn(Mono.just(
+                new ProductInfo(id, "Product Name Patched", null, null, null, 2L, Instant.now())));
+        when(productInfoRepository.deleteById(id)).thenReturn(Mono.empty());
+
+        servingService.patchProductInfo(id, patch).block();
+        StepVerifier.create(servingService.getProductInfoById(id))
+                .consumeNextWith(productInfo -> assertEquals("Product Name Patched", productInfo.getName()))
+                .verifyComplete();
+
+        servingService.deleteProductInfo(id).block();
+        StepVerifier.create(servingService.getProductInfoById(id))
+                .verifyComplete();
+
+        verify(productInfoRepository, never()).findById(id);
+    }
+
+    @Test
+    void bulkWritesReachTheCatalogAsStored() {
+        var catalog = catalog(ProductInfoServingProperties.Mode.MEMORY);
+        var servingService = new ProductInfoService(productInfoRepository, productInfoCache, bulkProperties, batchProperties,
+                productInfoMetrics, productInfoOutbox, productInfoSearchIndex, catalog);
+        catalog.finishLoading();
+        var lastModified = Instant.parse("2023-02-01T10:00:00Z");
+
+        // the repository stamps what it stored over the client's copy
+        when(productInfoRepository.bulkWrite(anyList(), anyLong(), anyBoolean())).thenAnswer(invocation -> {
+            List<ProductInfoBulkOperation> batch = invocation.getArgument(0);
+            batch.get(0).getProductInfo().setLastModified(lastModified);
+            batch.get(0).getProductInfo().setVersion(null);
+            return Mono.just(List.of(new ProductInfoBulkResult(0, ProductInfoBulkOperation.Type.UPSERT, "123",
+                    ProductInfoBulkResult.Status.OK, null)));
+        });
+
+        var operations = Flux.just(ProductInfoBulkOperation.upsert(ProductInfo.builder().id("123").name("Bulk").version(99L).build()));
+        servingService.bulkWriteProductInfos(operations, false).blockLast();
+
+        var revision = catalog.getRevision("123");
+        assertEquals(lastModified, revision.getLastModified());
+        assertNull(revision.getVersion());
+    }
+
+    @Test
+    void patchProductInfoConflictInvalidatesCache() {
+        String id = UUID.randomUUID().toString();
+        var patch = ProductInfo.builder()
+                .price(new BigDecimal("150.00"))
+                .version(1L)
+                .build();
+
+        when(productInfoRepository.findById(id)).thenReturn(Mono.just(ProductInfo.builder().id(id).version(1L).build()));
+        when(productInfoRepository.patchFields(id, patch)).thenReturn(Mono.error(new OptimisticLockingFailureException("conflict")));
+
+        productInfoService.getProductInfoById(id).block();
+
+        StepVerifier.create(productInfoService.patchProductInfo(id, patch))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+
+        productInfoService.getProductInfoById(id).block();
+
+        verify(productInfoRepository, times(2)).findById(id);
+    }
+
+    private static ProductInfoSearchIndex searchIndex() {
+        var searchIndex = new ProductInfoSearchIndex(new ProductInfoSearchProperties());
+        searchIndex.finishLoading();
+        return searchIndex;
+    }
+
+    private static ProductInfoCatalog catalog(ProductInfoServingProperties.Mode mode) {
+        var properties = new ProductInfoServingProperties();
+        properties.setMode(mode);
+        return new ProductInfoCatalog(properties, new ProductInfoBsonCodec(MongoClientSettings.getDefaultCodecRegistry(),
+                PropertyNameDictionary.empty()));
+    }
+
+    private static ProductInfoBatchProperties batchProperties(boolean enabled) {
+        var batchProperties = new ProductInfoBatchProperties();
+        batchProperties.setEnabled(enabled);
+        batchProperties.setMaxWait(Duration.ofMillis(50));
+        return batchProperties;
+    }
 }
@@ -0,0 +1,117 @@
+package br.com.moraesit.product.info.service.snapshot;
+
+import org.bson.RawBsonDocument;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProductInfoSnapshotUnitTest {
+
+    private final List<RawBsonDocument> documents = IntStream.range(0, 5000)
+            .mapToObj(i -> RawBsonDocument.parse(String.format("{\"_id\": \"p%05d\", \"name\": \"Produto %d\", "
+                    + "\"price\": {\"$numberDecimal\": \"%d.90\"}, \"version\": {\"$numberLong\": \"0\"}}", i, i, i % 100)))
+            .collect(Collectors.toList());
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackWhatWasExported() throws IOException {
+        var file = directory.resolve("catalog.snapshot");
+        var summary = new ProductInfoSnapshotExporter(16 * 1024, ProductInfoSnapshotExporter.DEFAULT_LEVEL, 4,
+                Schedulers.parallel(), Schedulers.boundedElastic())
+                .export(Flux.fromIterable(documents), file)
+                .block();
+
+        assertEquals(5000, summary.getDocuments());
+        assertTrue(summary.getChunks() > 10, "chunks " + summary.getChunks());
+        assertFalse(Files.exists(directory.resolve("catalog.snapshot.partial")));
+
+        try (var reader = ProductInfoSnapshotReader.open(file)) {
+            assertEquals(summary.getChunks(), reader.getChunks().size());
+            assertEquals(5000, reader.getDocumentCount());
+            var read = new ArrayList<RawBsonDocument>();
+            for (var chunk : reader.getChunks()) {
+                read.addAll(reader.read(chunk));
+            }
+            assertEquals(documents, read);
+        }
+    }
+
+    @Test
+    void rejectsDamagedSnapshots() throws IOException {
+        var file = directory.resolve("catalog.snapshot");
+        new ProductInfoSnapshotExporter(16 * 1024, ProductInfoSnapshotExporter.DEFAULT_LEVEL, 4,
+                Schedulers.parallel(), Schedulers.boundedElastic())
+                .export(Flux.fromIterable(documents), file)
+                .block();
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            // in the compressed bytes of the first chunk
+            channel.write(ByteBuffer.wrap(new byte[]{0x5A, 0x5A, 0x5A, 0x5A}), 1024);
+        }
+        try (var reader = ProductInfoSnapshotReader.open(file)) {
+            assertThrows(IOException.class, () -> reader.read(reader.getChunks().get(0)));
+            assertEquals(documents.subList(documents.size() - reader.getChunks().get(reader.getChunks().size() - 1).getDocumentCount(),
+                    documents.size()), reader.read(reader.getChunks().get(reader.getChunks().size() - 1)));
+        }
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 100);
+        }
+        assertThrows(IOException.class, () -> ProductInfoSnapshotReader.open(file));
+    }
+
+    @Test
+    void resumesAnInterruptedImport() {
+        var file = directory.resolve("catalog.snapshot");
+        var checkpoint = directory.resolve("catalog.snapshot.checkpoint");
+        new ProductInfoSnapshotExporter(16 * 1024, ProductInfoSnapshotExporter.DEFAULT_LEVEL, 4,
+                Schedulers.parallel(), Schedulers.boundedElastic())
+                .export(Flux.fromIterable(documents), file)
+                .block();
+
+        Set<String> collection = ConcurrentHashMap.newKeySet();
+        var batches = new AtomicInteger();
+        ProductInfoSnapshotImporter.BatchWriter insert = batch -> Mono.fromCallable(() -> batch.stream()
+                .filter(document -> collection.add(document.getString("_id").getValue()))
+                .count());
+        ProductInfoSnapshotImporter.BatchWriter failing = batch -> batches.incrementAndGet() > 20
+                ? Mono.error(new IllegalStateException("Connection lost"))
+                : insert.write(batch);
+
+        var importer = new ProductInfoSnapshotImporter(2, 50, Schedulers.boundedElastic());
+        assertThrows(IllegalStateException.class, () -> importer.importSnapshot(file, checkpoint, failing).block());
+        assertTrue(Files.exists(checkpoint));
+        int imported = collection.size();
+
+        var summary = importer.importSnapshot(file, checkpoint, insert).block();
+        assertTrue(summary.getSkippedChunks() > 0, "skipped " + summary.getSkippedChunks());
+        assertEquals(5000, collection.size());
+        // only chunks cut short by the failure are written again, and what they already wrote is found there
+        assertEquals(5000 - imported, summary.getWritten());
+        assertTrue(summary.getDocuments() < 5000, "documents " + summary.getDocuments());
+        assertFalse(Files.exists(checkpoint));
+    }
+}
@@ -0,0 +1,63 @@
+package br.com.moraesit.product.review.service.controller;
+
+import br.com.moraesit.product.review.service.domain.ProductReview;
+import br.com.moraesit.product.review.service.domain.ProductReviewPage;
+import br.com.moraesit.product.review.service.domain.ProductReviewSummary;
+import br.com.moraesit.product.review.service.service.ProductReviewService;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/v1/product-reviews")
+public class ProductReviewController {
+    private final ProductReviewService productReviewService;
+
+    public ProductReviewController(ProductReviewService productReviewService) {
+        this.productReviewService = productReviewService;
+    }
+
+    @GetMapping("/products/{productId}")
+    public Mono<ProductReviewPage> getProductReviewPage(@PathVariable String productId,
+                                                        @RequestParam(required = false) String after,
+                                                        @RequestParam(defaultValue = "" + ProductReviewService.DEFAULT_PAGE_SIZE) int size) {
+        return productReviewService.getProductReviewPage(productId, after, size)
+                .onErrorMap(IllegalArgumentException.class,
+                        e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e));
+    }
+
+    @GetMapping("/products/{productId}/summary")
+    public Mono<ProductReviewSummary> getProductReviewSummary(@PathVariable String productId) {
+        return productReviewService.getProductReviewSummary(productId);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ProductReview> getProductReviewById(@PathVariable String id) {
+        return productReviewService.getProductReviewById(id);
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<ProductReview> addProductReview(@RequestBody ProductReview productReview) {
+        return productReviewService.addProductReview(productReview)
+                .onErrorMap(IllegalArgumentException.class,
+                        e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ProductReview> updateProductReview(@PathVariable String id, @RequestBody ProductReview updatedProductReview) {
+        return productReviewService.updateProductReview(id, updatedProductReview)
+                .onErrorMap(OptimisticLockingFailureException.class,
+                        e -> new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e))
+                .onErrorMap(IllegalArgumentException.class,
+                        e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e));
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteProductReview(@PathVariable String id) {
+        return productReviewService.deleteProductReview(id);
+    }
+}
@@ -0,0 +1,122 @@
+package br.com.moraesit.product.review.service.domain;
+
+import lombok.Builder;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Builder
+@Document
+// listing a product's reviews newest first is an index range scan, ids being ObjectIds in creation order
+@CompoundIndex(name = "productId_id", def = "{'productId': 1, '_id': -1}")
+public class ProductReview {
+    public static final int MIN_RATING = 1;
+    public static final int MAX_RATING = 5;
+
+    @Id
+    private String id;
+    private String productId;
+    private String author;
+    private int rating;
+    private String comment;
+    private Instant createdAt;
+    @Version
+    private Long version;
+
+    public ProductReview(String id, String productId, String author, int rating, String comment, Instant createdAt, Long version) {
+        this.id = id;
+        this.productId = productId;
+        this.author = author;
+        this.rating = rating;
+        this.comment = comment;
+        this.createdAt = createdAt;
+        this.version = version;
+    }
+
+    public ProductReview() {
+
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public int getRating() {
+        return rating;
+    }
+
+    public void setRating(int rating) {
+        this.rating = rating;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public void setComment(String comment) {
+        this.comment = comment;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ProductReview that = (ProductReview) o;
+
+        return id.equals(that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return id.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "ProductReview{" +
+                "id='" + id + '\'' +
+                ", productId='" + productId + '\'' +
+                ", author='" + author + '\'' +
+                ", rating=" + rating +
+                ", comment='" + comment + '\'' +
+                ", createdAt=" + createdAt +
+                ", version=" + version +
+                '}';
+    }
+}
@@ -0,0 +1,66 @@
+package br.com.moraesit.product.review.service.domain;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-product review aggregates, kept up to date with {@code $inc} on every review write so that reading them
+ * never has to scan the product's reviews. The id is the product id.
+ */
+@Document
+public class ProductReviewSummary {
+    @Id
+    private String productId;
+    private long count;
+    private long ratingTotal;
+    private Map<String, Long> ratings = new HashMap<>();
+
+    public ProductReviewSummary(String productId, long count, long ratingTotal, Map<String, Long> ratings) {
+        this.productId = productId;
+        this.count = count;
+        this.ratingTotal = ratingTotal;
+        this.ratings = ratings;
+    }
+
+    public ProductReviewSummary() {
+
+    }
+
+    public static ProductReviewSummary empty(String productId) {
+        return new ProductReviewSummary(productId, 0, 0, new HashMap<>());
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getRatingTotal() {
+        return ratingTotal;
+    }
+
+    // rating histogram, keyed by rating
+    public Map<String, Long> getRatings() {
+        return ratings;
+    }
+
+    public double getAverageRating() {
+        return count == 0 ? 0 : (double) ratingTotal / count;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductReviewSummary{" +
+                "productId='" + productId + '\'' +
+                ", count=" + count +
+                ", ratingTotal=" + ratingTotal +
+                ", ratings=" + ratings +
+                '}';
+    }
+}
@@ -0,0 +1,34 @@
+package br.com.moraesit.product.review.service.repository;
+
+import br.com.moraesit.product.review.service.domain.ProductReview;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/**
+ * Creates the indexes declared on {@link ProductReview} before the application starts serving.
+ */
+@Component
+public class ProductReviewIndexInitializer {
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    public ProductReviewIndexInitializer(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void onContextRefreshed() {
+        ensureIndexes().blockLast();
+    }
+
+    public Flux<String> ensureIndexes() {
+        var indexResolver = IndexResolver.create(reactiveMongoTemplate.getConverter().getMappingContext());
+        var indexOperations = reactiveMongoTemplate.indexOps(ProductReview.class);
+
+        return Flux.fromIterable(indexResolver.resolveIndexFor(ProductReview.class))
+                .concatMap(indexOperations::ensureIndex);
+    }
+}
@@ -0,0 +1,9 @@
+package br.com.moraesit.product.review.service.repository;
+
+import br.com.moraesit.product.review.service.domain.ProductReview;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProductReviewRepository extends ReactiveMongoRepository<ProductReview, String>, ProductReviewRepositoryCustom {
+}
@@ -0,0 +1,12 @@
+package br.com.moraesit.product.review.service.repository;
+
+import br.com.moraesit.product.review.service.domain.ProductReview;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ProductReviewRepositoryCustom {
+
+    Flux<ProductReview> findPage(String productId, String after, int limit);
+
+    Mono<ProductReview> findAndDeleteById(String id);
+}
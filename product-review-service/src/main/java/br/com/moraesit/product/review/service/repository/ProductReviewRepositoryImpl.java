@@ -0,0 +1,36 @@
+package br.com.moraesit.product.review.service.repository;
+
+import br.com.moraesit.product.review.service.domain.ProductReview;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class ProductReviewRepositoryImpl implements ProductReviewRepositoryCustom {
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    public ProductReviewRepositoryImpl(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    @Override
+    public Flux<ProductReview> findPage(String productId, String after, int limit) {
+        var query = Query.query(Criteria.where("productId").is(productId))
+                .with(Sort.by(Sort.Direction.DESC, "id"))
+                .limit(limit)
+                .cursorBatchSize(limit);
+
+        if (after != null) {
+            query.addCriteria(Criteria.where("id").lt(after));
+        }
+
+        return reactiveMongoTemplate.find(query, ProductReview.class);
+    }
+
+    @Override
+    public Mono<ProductReview> findAndDeleteById(String id) {
+        return reactiveMongoTemplate.findAndRemove(Query.query(Criteria.where("id").is(id)), ProductReview.class);
+    }
+}
@@ -0,0 +1,9 @@
+package br.com.moraesit.product.review.service.repository;
+
+import br.com.moraesit.product.review.service.domain.ProductReviewSummary;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProductReviewSummaryRepository extends ReactiveMongoRepository<ProductReviewSummary, String>, ProductReviewSummaryRepositoryCustom {
+}
@@ -0,0 +1,13 @@
+package br.com.moraesit.product.review.service.repository;
+
+import br.com.moraesit.product.review.service.domain.ProductReviewSummary;
+import reactor.core.publisher.Mono;
+
+public interface ProductReviewSummaryRepositoryCustom {
+
+    /**
+     * Atomically moves one review of the product from {@code removedRating} to {@code addedRating}. A null
+     * {@code removedRating} counts a new review and a null {@code addedRating} a deleted one.
+     */
+    Mono<ProductReviewSummary> applyRatingChange(String productId, Integer removedRating, Integer addedRating);
+}
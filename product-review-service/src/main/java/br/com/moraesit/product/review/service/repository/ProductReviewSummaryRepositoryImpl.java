@@ -0,0 +1,48 @@
+package br.com.moraesit.product.review.service.repository;
+
+import br.com.moraesit.product.review.service.domain.ProductReviewSummary;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.util.Objects;
+
+public class ProductReviewSummaryRepositoryImpl implements ProductReviewSummaryRepositoryCustom {
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    public ProductReviewSummaryRepositoryImpl(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    @Override
+    public Mono<ProductReviewSummary> applyRatingChange(String productId, Integer removedRating, Integer addedRating) {
+        var query = Query.query(Criteria.where("productId").is(productId));
+        if (Objects.equals(removedRating, addedRating)) {
+            return reactiveMongoTemplate.findOne(query, ProductReviewSummary.class);
+        }
+
+        long countDelta = 0;
+        long ratingTotalDelta = 0;
+        var update = new Update();
+        if (removedRating != null) {
+            update.inc("ratings." + removedRating, -1);
+            countDelta--;
+            ratingTotalDelta -= removedRating;
+        }
+        if (addedRating != null) {
+            update.inc("ratings." + addedRating, 1);
+            countDelta++;
+            ratingTotalDelta += addedRating;
+        }
+        if (countDelta != 0) {
+            update.inc("count", countDelta);
+        }
+        update.inc("ratingTotal", ratingTotalDelta);
+
+        return reactiveMongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), ProductReviewSummary.class);
+    }
+}
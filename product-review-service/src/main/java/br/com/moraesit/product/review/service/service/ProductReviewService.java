@@ -0,0 +1,104 @@
+package br.com.moraesit.product.review.service.service;
+
+import br.com.moraesit.product.review.service.domain.ProductReview;
+import br.com.moraesit.product.review.service.domain.ProductReviewPage;
+import br.com.moraesit.product.review.service.domain.ProductReviewSummary;
+import br.com.moraesit.product.review.service.repository.ProductReviewRepository;
+import br.com.moraesit.product.review.service.repository.ProductReviewSummaryRepository;
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * Review writes and the matching summary {@code $inc} are two single-document operations, not a transaction:
+ * each summary update is atomic, but a crash between the two leaves that one review out of the summary.
+ */
+@Service
+public class ProductReviewService {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final ProductReviewRepository productReviewRepository;
+    private final ProductReviewSummaryRepository productReviewSummaryRepository;
+
+    public ProductReviewService(ProductReviewRepository productReviewRepository,
+                                ProductReviewSummaryRepository productReviewSummaryRepository) {
+        this.productReviewRepository = productReviewRepository;
+        this.productReviewSummaryRepository = productReviewSummaryRepository;
+    }
+
+    public Mono<ProductReview> addProductReview(ProductReview productReview) {
+        if (productReview.getProductId() == null || productReview.getProductId().isEmpty()) {
+            return Mono.error(new IllegalArgumentException("Missing productId"));
+        }
+        if (!isValidRating(productReview.getRating())) {
+            return Mono.error(new IllegalArgumentException("Invalid rating: " + productReview.getRating()));
+        }
+        var newProductReview = ProductReview.builder()
+                .productId(productReview.getProductId())
+                .author(productReview.getAuthor())
+                .rating(productReview.getRating())
+                .comment(productReview.getComment())
+                .createdAt(Instant.now())
+                .build();
+
+        return productReviewRepository.save(newProductReview)
+                .flatMap(saved -> productReviewSummaryRepository.applyRatingChange(saved.getProductId(), null, saved.getRating())
+                        .thenReturn(saved));
+    }
+
+    public Mono<ProductReview> getProductReviewById(String id) {
+        return productReviewRepository.findById(id);
+    }
+
+    public Mono<ProductReviewPage> getProductReviewPage(String productId, String after, int size) {
+        if (after != null && !ObjectId.isValid(after)) {
+            return Mono.error(new IllegalArgumentException("Invalid cursor: " + after));
+        }
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        return productReviewRepository.findPage(productId, after, limit + 1)
+                .collectList()
+                .map(productReviews -> productReviews.size() > limit
+                        ? new ProductReviewPage(productReviews.subList(0, limit), productReviews.get(limit - 1).getId())
+                        : new ProductReviewPage(productReviews, null));
+    }
+
+    public Mono<ProductReviewSummary> getProductReviewSummary(String productId) {
+        return productReviewSummaryRepository.findById(productId)
+                .defaultIfEmpty(ProductReviewSummary.empty(productId));
+    }
+
+    public Mono<ProductReview> updateProductReview(String id, ProductReview updatedProductReview) {
+        if (!isValidRating(updatedProductReview.getRating())) {
+            return Mono.error(new IllegalArgumentException("Invalid rating: " + updatedProductReview.getRating()));
+        }
+        return productReviewRepository.findById(id)
+                .flatMap(productReview -> {
+                    int previousRating = productReview.getRating();
+                    productReview.setAuthor(updatedProductReview.getAuthor());
+                    productReview.setRating(updatedProductReview.getRating());
+                    productReview.setComment(updatedProductReview.getComment());
+                    if (updatedProductReview.getVersion() != null) {
+                        productReview.setVersion(updatedProductReview.getVersion());
+                    }
+                    // the version check makes a concurrent update fail instead of applying a delta from a stale rating
+                    return productReviewRepository.save(productReview)
+                            .flatMap(saved -> productReviewSummaryRepository.applyRatingChange(saved.getProductId(), previousRating, saved.getRating())
+                                    .thenReturn(saved));
+                });
+    }
+
+    public Mono<Void> deleteProductReview(String id) {
+        // only the caller that actually removed the review gets it back, so it is subtracted once
+        return productReviewRepository.findAndDeleteById(id)
+                .flatMap(deleted -> productReviewSummaryRepository.applyRatingChange(deleted.getProductId(), deleted.getRating(), null))
+                .then();
+    }
+
+    private static boolean isValidRating(int rating) {
+        return rating >= ProductReview.MIN_RATING && rating <= ProductReview.MAX_RATING;
+    }
+}
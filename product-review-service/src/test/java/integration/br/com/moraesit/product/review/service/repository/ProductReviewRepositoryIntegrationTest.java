@@ -0,0 +1,87 @@
+package br.com.moraesit.product.review.service.repository;
+
+import br.com.moraesit.product.review.service.domain.ProductReview;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataMongoTest
+@ActiveProfiles("test")
+@ExtendWith(SpringExtension.class)
+class ProductReviewRepositoryIntegrationTest {
+    @Autowired
+    ProductReviewRepository productReviewRepository;
+
+    @Autowired
+    ProductReviewSummaryRepository productReviewSummaryRepository;
+
+    private final String PRODUCT_ID = "d215b5f8-0249-4dc5-89a3-51fd148cfb41";
+
+    @AfterEach
+    void tearDown() {
+        productReviewRepository.deleteAll().block();
+        productReviewSummaryRepository.deleteAll().block();
+    }
+
+    @Test
+    void findPageWalksNewestFirst() {
+        var saved = Flux.range(0, 5)
+                .concatMap(i -> productReviewRepository.save(ProductReview.builder().productId(PRODUCT_ID).rating(i % 5 + 1).build()))
+                .collectList()
+                .block();
+        productReviewRepository.save(ProductReview.builder().productId("other-product").rating(1).build()).block();
+
+        var firstPage = productReviewRepository.findPage(PRODUCT_ID, null, 3).collectList().block();
+        var secondPage = productReviewRepository.findPage(PRODUCT_ID, firstPage.get(2).getId(), 3).collectList().block();
+
+        assertEquals(List.of(saved.get(4).getId(), saved.get(3).getId(), saved.get(2).getId()), ids(firstPage));
+        assertEquals(List.of(saved.get(1).getId(), saved.get(0).getId()), ids(secondPage));
+    }
+
+    @Test
+    void applyRatingChangeKeepsAggregates() {
+        Flux.range(0, 100)
+                .flatMap(i -> productReviewSummaryRepository.applyRatingChange(PRODUCT_ID, null, i % 5 + 1), 16)
+                .blockLast();
+        productReviewSummaryRepository.applyRatingChange(PRODUCT_ID, 1, 5).block();
+        productReviewSummaryRepository.applyRatingChange(PRODUCT_ID, 2, null).block();
+
+        StepVerifier.create(productReviewSummaryRepository.findById(PRODUCT_ID))
+                .assertNext(summary -> {
+                    assertEquals(99, summary.getCount());
+                    assertEquals(300 + 4 - 2, summary.getRatingTotal());
+                    assertEquals(19L, summary.getRatings().get("1"));
+                    assertEquals(19L, summary.getRatings().get("2"));
+                    assertEquals(21L, summary.getRatings().get("5"));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void findAndDeleteByIdReturnsDocumentOnce() {
+        var saved = productReviewRepository.save(ProductReview.builder().productId(PRODUCT_ID).rating(4).build()).block();
+
+        StepVerifier.create(productReviewRepository.findAndDeleteById(saved.getId()))
+                .assertNext(deleted -> assertEquals(4, deleted.getRating()))
+                .verifyComplete();
+        StepVerifier.create(productReviewRepository.findAndDeleteById(saved.getId()))
+                .verifyComplete();
+        assertNull(productReviewRepository.findById(saved.getId()).block());
+    }
+
+    private static List<String> ids(List<ProductReview> productReviews) {
+        return productReviews.stream().map(ProductReview::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,120 @@
+package br.com.moraesit.product.review.service.controller;
+
+import br.com.moraesit.product.review.service.domain.ProductReview;
+import br.com.moraesit.product.review.service.domain.ProductReviewPage;
+import br.com.moraesit.product.review.service.domain.ProductReviewSummary;
+import br.com.moraesit.product.review.service.service.ProductReviewService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(controllers = ProductReviewController.class)
+@AutoConfigureWebTestClient
+public class ProductReviewControllerUnitTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ProductReviewService productReviewServiceMock;
+
+    private final String PRODUCT_ID = "d215b5f8-0249-4dc5-89a3-51fd148cfb41";
+
+    private final String ID = "63f1e2a4c1d2e3f4a5b6c7d8";
+
+    static String PRODUCT_REVIEWS_URL = "/v1/product-reviews";
+
+    @Test
+    void getProductReviewPage() {
+        var productReview = ProductReview.builder().id(ID).productId(PRODUCT_ID).author("Maria").rating(5).build();
+
+        when(productReviewServiceMock.getProductReviewPage(PRODUCT_ID, null, 20))
+                .thenReturn(Mono.just(new ProductReviewPage(List.of(productReview), ID)));
+
+        webTestClient
+                .get()
+                .uri(PRODUCT_REVIEWS_URL + "/products/{productId}", PRODUCT_ID)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(ProductReviewPage.class)
+                .consumeWith(result -> {
+                    var page = result.getResponseBody();
+                    assertNotNull(page);
+                    assertEquals(1, page.getItems().size());
+                    assertEquals(ID, page.getNext());
+                });
+    }
+
+    @Test
+    void getProductReviewPageWithInvalidCursor() {
+        when(productReviewServiceMock.getProductReviewPage(PRODUCT_ID, "x", 20))
+                .thenReturn(Mono.error(new IllegalArgumentException("Invalid cursor: x")));
+
+        webTestClient
+                .get()
+                .uri(PRODUCT_REVIEWS_URL + "/products/{productId}?after=x", PRODUCT_ID)
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @Test
+    void getProductReviewSummary() {
+        when(productReviewServiceMock.getProductReviewSummary(PRODUCT_ID))
+                .thenReturn(Mono.just(new ProductReviewSummary(PRODUCT_ID, 4, 14, Map.of("3", 2L, "4", 1L, "5", 1L))));
+
+        webTestClient
+                .get()
+                .uri(PRODUCT_REVIEWS_URL + "/products/{productId}/summary", PRODUCT_ID)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.count").isEqualTo(4)
+                .jsonPath("$.averageRating").isEqualTo(3.5)
+                .jsonPath("$.ratings.3").isEqualTo(2);
+    }
+
+    @Test
+    void addProductReviewWithInvalidRating() {
+        when(productReviewServiceMock.addProductReview(isA(ProductReview.class)))
+                .thenReturn(Mono.error(new IllegalArgumentException("Invalid rating: 0")));
+
+        webTestClient
+                .post()
+                .uri(PRODUCT_REVIEWS_URL)
+                .bodyValue(ProductReview.builder().productId(PRODUCT_ID).rating(0).build())
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @Test
+    void updateProductReviewConflict() {
+        when(productReviewServiceMock.updateProductReview(eq(ID), isA(ProductReview.class)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("stale")));
+
+        webTestClient
+                .put()
+                .uri(PRODUCT_REVIEWS_URL + "/{id}", ID)
+                .bodyValue(ProductReview.builder().rating(4).version(1L).build())
+                .exchange()
+                .expectStatus()
+                .isEqualTo(409);
+    }
+}
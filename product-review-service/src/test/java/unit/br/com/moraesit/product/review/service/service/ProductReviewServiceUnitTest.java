@@ -0,0 +1,151 @@
+package br.com.moraesit.product.review.service.service;
+
+import br.com.moraesit.product.review.service.domain.ProductReview;
+import br.com.moraesit.product.review.service.domain.ProductReviewSummary;
+import br.com.moraesit.product.review.service.repository.ProductReviewRepository;
+import br.com.moraesit.product.review.service.repository.ProductReviewSummaryRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+public class ProductReviewServiceUnitTest {
+
+    @InjectMocks
+    private ProductReviewService productReviewService;
+
+    @Mock
+    private ProductReviewRepository productReviewRepository;
+
+    @Mock
+    private ProductReviewSummaryRepository productReviewSummaryRepository;
+
+    private final String PRODUCT_ID = "d215b5f8-0249-4dc5-89a3-51fd148cfb41";
+
+    private final String ID = "63f1e2a4c1d2e3f4a5b6c7d8";
+
+    @Test
+    void addProductReviewCountsRating() {
+        var productReview = ProductReview.builder().productId(PRODUCT_ID).author("Maria").rating(4).comment("Muito bom").build();
+
+        when(productReviewRepository.save(isA(ProductReview.class))).thenAnswer(invocation -> {
+            ProductReview toSave = invocation.getArgument(0);
+            return Mono.just(ProductReview.builder().id(ID).productId(toSave.getProductId()).rating(toSave.getRating())
+                    .createdAt(toSave.getCreatedAt()).version(0L).build());
+        });
+        when(productReviewSummaryRepository.applyRatingChange(PRODUCT_ID, null, 4))
+                .thenReturn(Mono.just(new ProductReviewSummary(PRODUCT_ID, 1, 4, Map.of("4", 1L))));
+
+        StepVerifier.create(productReviewService.addProductReview(productReview))
+                .assertNext(saved -> {
+                    assertEquals(ID, saved.getId());
+                    assertNotNull(saved.getCreatedAt());
+                })
+                .verifyComplete();
+
+        verify(productReviewSummaryRepository).applyRatingChange(PRODUCT_ID, null, 4);
+    }
+
+    @Test
+    void addProductReviewRejectsInvalidRating() {
+        var productReview = ProductReview.builder().productId(PRODUCT_ID).rating(6).build();
+
+        StepVerifier.create(productReviewService.addProductReview(productReview))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verify(productReviewRepository, never()).save(any(ProductReview.class));
+    }
+
+    @Test
+    void updateProductReviewMovesRating() {
+        var existing = ProductReview.builder().id(ID).productId(PRODUCT_ID).rating(2).version(3L).build();
+
+        when(productReviewRepository.findById(ID)).thenReturn(Mono.just(existing));
+        when(productReviewRepository.save(isA(ProductReview.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(productReviewSummaryRepository.applyRatingChange(PRODUCT_ID, 2, 5))
+                .thenReturn(Mono.just(new ProductReviewSummary(PRODUCT_ID, 1, 5, Map.of("5", 1L))));
+
+        StepVerifier.create(productReviewService.updateProductReview(ID, ProductReview.builder().rating(5).comment("Melhorou").build()))
+                .assertNext(updated -> {
+                    assertEquals(5, updated.getRating());
+                    assertEquals(3L, updated.getVersion());
+                })
+                .verifyComplete();
+
+        verify(productReviewSummaryRepository).applyRatingChange(PRODUCT_ID, 2, 5);
+    }
+
+    @Test
+    void deleteProductReviewSubtractsRatingOnce() {
+        when(productReviewRepository.findAndDeleteById(ID))
+                .thenReturn(Mono.just(ProductReview.builder().id(ID).productId(PRODUCT_ID).rating(3).build()))
+                .thenReturn(Mono.empty());
+        when(productReviewSummaryRepository.applyRatingChange(PRODUCT_ID, 3, null))
+                .thenReturn(Mono.just(ProductReviewSummary.empty(PRODUCT_ID)));
+
+        StepVerifier.create(productReviewService.deleteProductReview(ID)).verifyComplete();
+        StepVerifier.create(productReviewService.deleteProductReview(ID)).verifyComplete();
+
+        verify(productReviewSummaryRepository).applyRatingChange(eq(PRODUCT_ID), eq(3), isNull());
+    }
+
+    @Test
+    void getProductReviewSummaryDefaultsToEmpty() {
+        when(productReviewSummaryRepository.findById(PRODUCT_ID)).thenReturn(Mono.empty());
+
+        StepVerifier.create(productReviewService.getProductReviewSummary(PRODUCT_ID))
+                .assertNext(summary -> {
+                    assertEquals(PRODUCT_ID, summary.getProductId());
+                    assertEquals(0, summary.getCount());
+                    assertEquals(0, summary.getAverageRating());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getProductReviewPage() {
+        var productReviews = IntStream.range(0, 3)
+                .mapToObj(i -> ProductReview.builder().id(new ObjectId().toHexString()).productId(PRODUCT_ID).rating(5).build())
+                .collect(Collectors.toList());
+
+        when(productReviewRepository.findPage(PRODUCT_ID, null, 3)).thenReturn(Flux.fromIterable(productReviews));
+
+        StepVerifier.create(productReviewService.getProductReviewPage(PRODUCT_ID, null, 2))
+                .assertNext(page -> {
+                    assertEquals(2, page.getItems().size());
+                    assertEquals(productReviews.get(1).getId(), page.getNext());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getProductReviewPageRejectsInvalidCursor() {
+        StepVerifier.create(productReviewService.getProductReviewPage(PRODUCT_ID, "not-an-id", 20))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verify(productReviewRepository, never()).findPage(any(), any(), anyInt());
+    }
+}
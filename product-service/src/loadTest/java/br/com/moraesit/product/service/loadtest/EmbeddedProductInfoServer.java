@@ -0,0 +1,44 @@
+package br.com.moraesit.product.service.loadtest;
+
+import br.com.moraesit.product.info.service.ProductInfoServiceApplication;
+import br.com.moraesit.product.info.service.repository.ProductInfoRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * product-info-service in the same JVM, backed by embedded Mongo and seeded with generated documents.
+ */
+class EmbeddedProductInfoServer implements AutoCloseable {
+    private final ConfigurableApplicationContext context;
+
+    EmbeddedProductInfoServer(int documents, int propertiesPerDocument, List<String> profiles) {
+        var activeProfiles = new ArrayList<String>();
+        activeProfiles.add("test");
+        activeProfiles.addAll(profiles);
+        this.context = new SpringApplicationBuilder(ProductInfoServiceApplication.class)
+                .properties("server.port=0", "logging.level.root=WARN")
+                .run("--spring.profiles.active=" + String.join(",", activeProfiles));
+
+        var repository = context.getBean(ProductInfoRepository.class);
+        repository.deleteAll()
+                .thenMany(Flux.range(0, documents)
+                        .map(i -> LoadTestFixtures.productInfo(String.format("product-%08d", i), propertiesPerDocument))
+                        .buffer(1000)
+                        .concatMap(repository::saveAll))
+                .then()
+                .block();
+    }
+
+    String getBaseUrl() {
+        return "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
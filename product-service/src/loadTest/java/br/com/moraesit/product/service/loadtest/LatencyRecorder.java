@@ -0,0 +1,58 @@
+package br.com.moraesit.product.service.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-operation latency histograms (microseconds, 3 significant digits, up to one minute) and error counts.
+ */
+class LatencyRecorder {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final LongAdder dropped = new LongAdder();
+
+    LatencyRecorder() {
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    void recordSuccess(Operation operation, long latencyNanos) {
+        recorders.get(operation).recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+    }
+
+    void recordError(Operation operation) {
+        errors.get(operation).increment();
+    }
+
+    /**
+     * Open-loop arrivals that could not be sent because every connection slot was busy.
+     */
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    /**
+     * Returns what was recorded since the previous call and starts a new interval.
+     */
+    Interval nextInterval() {
+        var histograms = new EnumMap<Operation, Histogram>(Operation.class);
+        var errorCounts = new EnumMap<Operation, Long>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, recorders.get(operation).getIntervalHistogram());
+            errorCounts.put(operation, errors.get(operation).sumThenReset());
+        }
+        return new Interval(histograms, errorCounts, dropped.sumThenReset());
+    }
+
+    record Interval(Map<Operation, Histogram> histograms, Map<Operation, Long> errors, long dropped) {
+    }
+}
@@ -0,0 +1,63 @@
+package br.com.moraesit.product.service.loadtest;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+
+class LoadGenerator {
+    private final ProductInfoLoadClient client;
+    private final OperationMix mix;
+    private final LatencyRecorder recorder;
+    private final int maxInFlight;
+    private final Scheduler arrivalScheduler = Schedulers.newSingle("load-test-arrivals");
+
+    LoadGenerator(ProductInfoLoadClient client, OperationMix mix, LatencyRecorder recorder, int maxInFlight) {
+        this.client = client;
+        this.mix = mix;
+        this.recorder = recorder;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Closed loop: {@code users} concurrent callers, each sending its next request as soon as the previous one completes.
+     */
+    void runClosedLoop(int users, Duration duration) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        Flux.range(0, users)
+                .flatMap(user -> Mono.defer(() -> send(mix.next(), System.nanoTime()))
+                        .repeat(() -> System.nanoTime() < deadline), users)
+                .blockLast();
+    }
+
+    /**
+     * Open loop: requests arrive at a fixed rate regardless of how fast earlier ones complete. Latency is measured from
+     * the intended arrival time, so a stalled server shows up in the histogram instead of silently lowering the rate.
+     */
+    void runOpenLoop(int requestsPerSecond, Duration duration) {
+        long periodNanos = Duration.ofSeconds(1).toNanos() / requestsPerSecond;
+        long arrivals = duration.toNanos() / periodNanos;
+        long start = System.nanoTime();
+
+        Flux.interval(Duration.ofNanos(periodNanos), arrivalScheduler)
+                .take(arrivals)
+                .onBackpressureDrop(tick -> recorder.recordDropped())
+                .flatMap(tick -> send(mix.next(), start + (tick + 1) * periodNanos), maxInFlight)
+                .blockLast();
+    }
+
+    void close() {
+        arrivalScheduler.dispose();
+    }
+
+    private Mono<Void> send(Operation operation, long startNanos) {
+        return client.execute(operation)
+                .doOnSuccess(ignored -> recorder.recordSuccess(operation, System.nanoTime() - startNanos))
+                .onErrorResume(e -> {
+                    recorder.recordError(operation);
+                    return Mono.empty();
+                });
+    }
+}
@@ -0,0 +1,66 @@
+package br.com.moraesit.product.service.loadtest;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Load test for the {@code /v1/product-infos} endpoints of product-info-service.
+ * <p>
+ * Runs a warmup followed by one measured stage per entry of {@code --stages}, either as a closed loop (fixed number
+ * of concurrent users) or an open loop (fixed arrival rate). See {@link LoadTestOptions} for every option; to compare
+ * server profiles, run it once per profile, e.g. {@code --server-profiles=server-h2c --protocol=h2c --mix=get=50,page=50}.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws IOException {
+        var options = new LoadTestOptions(args);
+        var mix = new OperationMix(options.getMix());
+
+        EmbeddedProductInfoServer embeddedServer = null;
+        String target = options.getTarget();
+        if (target == null) {
+            System.out.printf("Starting product-info-service on embedded Mongo with %d documents, profiles %s%n",
+                    options.getDocuments(), options.getServerProfiles());
+            embeddedServer = new EmbeddedProductInfoServer(options.getDocuments(), options.getPropertiesPerDocument(),
+                    options.getServerProfiles());
+            target = embeddedServer.getBaseUrl();
+        }
+
+        var client = new ProductInfoLoadClient(target, options.getMaxConnections(), options.getProtocol(), options.isCompress(),
+                options.getTimeout());
+        var recorder = new LatencyRecorder();
+        var generator = new LoadGenerator(client, mix, recorder, options.getMaxConnections());
+        try {
+            client.discoverIds(options.getDocuments());
+            System.out.printf("Target %s over %s%s, %d ids, %s loop, %.0f%% writes%n",
+                    target, options.getProtocol().name().toLowerCase(), options.isCompress() ? " with compression" : "",
+                    client.knownIds(), options.getMode().name().toLowerCase(), mix.writeRatio() * 100);
+
+            var report = new LoadTestReport(options.getOutput(), options.getMode());
+            var stages = options.getStages();
+
+            run(generator, options.getMode(), stages.get(0), options.getWarmup());
+            recorder.nextInterval();
+
+            for (int stage : stages) {
+                run(generator, options.getMode(), stage, options.getStageDuration());
+                report.addStage(stage, options.getStageDuration(), recorder.nextInterval());
+            }
+            report.write();
+        } finally {
+            generator.close();
+            client.close();
+            if (embeddedServer != null) {
+                embeddedServer.close();
+            }
+        }
+    }
+
+    private static void run(LoadGenerator generator, LoadTestOptions.Mode mode, int stage, Duration duration) {
+        if (mode == LoadTestOptions.Mode.CLOSED) {
+            generator.runClosedLoop(stage, duration);
+        } else {
+            generator.runOpenLoop(stage, duration);
+        }
+    }
+}
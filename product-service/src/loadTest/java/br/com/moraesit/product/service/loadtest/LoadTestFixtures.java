@@ -0,0 +1,38 @@
+package br.com.moraesit.product.service.loadtest;
+
+import br.com.moraesit.product.info.service.domain.ProductInfo;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+final class LoadTestFixtures {
+
+    private LoadTestFixtures() {
+    }
+
+    static ProductInfo productInfo(String id, int propertyCount) {
+        return ProductInfo.builder()
+                .id(id)
+                .name("Samsung Galaxy A13 " + ThreadLocalRandom.current().nextInt(1_000_000))
+                .description("Smartphone Samsung Galaxy A13 128GB Azul 4G, Tela 6.6\", Camera Quadrupla 50MP")
+                .price(BigDecimal.valueOf(ThreadLocalRandom.current().nextInt(1_000, 1_000_000), 2))
+                .properties(properties(propertyCount))
+                .build();
+    }
+
+    private static Map<String, Object> properties(int propertyCount) {
+        var properties = new LinkedHashMap<String, Object>();
+        for (int i = 0; i < propertyCount; i++) {
+            switch (i % 4) {
+                case 0 -> properties.put("Marca" + i, "Samsung");
+                case 1 -> properties.put("Armazenamento" + i, 128 + i);
+                case 2 -> properties.put("Dual Chip" + i, i % 3 == 0);
+                default -> properties.put("Cores" + i, List.of("Azul", "Preto", "Branco"));
+            }
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,115 @@
+package br.com.moraesit.product.service.loadtest;
+
+import reactor.netty.http.HttpProtocol;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Command line options, all given as {@code --name=value}. When the same option is given twice the last one wins.
+ */
+class LoadTestOptions {
+    enum Mode {
+        CLOSED, OPEN
+    }
+
+    private final Map<String, String> values = new HashMap<>();
+
+    LoadTestOptions(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+    }
+
+    /**
+     * Base URL of a running product-info-service; when absent one is started against embedded Mongo.
+     */
+    String getTarget() {
+        return values.get("target");
+    }
+
+    Mode getMode() {
+        return Mode.valueOf(values.getOrDefault("mode", "closed").toUpperCase());
+    }
+
+    /**
+     * Concurrent users per stage in closed-loop mode, requests per second per stage in open-loop mode.
+     */
+    List<Integer> getStages() {
+        var defaultStages = getMode() == Mode.CLOSED ? "8,32,128" : "250,500,1000";
+        return Arrays.stream(values.getOrDefault("stages", defaultStages).split(","))
+                .map(String::trim)
+                .map(Integer::valueOf)
+                .collect(Collectors.toList());
+    }
+
+    Duration getStageDuration() {
+        return Duration.parse("PT" + values.getOrDefault("stage-duration", "30s").toUpperCase());
+    }
+
+    Duration getWarmup() {
+        return Duration.parse("PT" + values.getOrDefault("warmup", "10s").toUpperCase());
+    }
+
+    Duration getTimeout() {
+        return Duration.parse("PT" + values.getOrDefault("timeout", "5s").toUpperCase());
+    }
+
+    /**
+     * Relative weights per operation, e.g. {@code get=80,page=10,patch=10}.
+     */
+    Map<Operation, Integer> getMix() {
+        return Arrays.stream(values.getOrDefault("mix", "get=80,page=10,patch=10").split(","))
+                .map(weight -> weight.split("="))
+                .collect(Collectors.toMap(weight -> Operation.valueOf(weight[0].trim().toUpperCase()),
+                        weight -> Integer.valueOf(weight[1].trim())));
+    }
+
+    int getDocuments() {
+        return Integer.parseInt(values.getOrDefault("documents", "10000"));
+    }
+
+    int getPropertiesPerDocument() {
+        return Integer.parseInt(values.getOrDefault("properties", "20"));
+    }
+
+    /**
+     * Profiles the embedded product-info-service runs with besides {@code test}, e.g. {@code server-h2c}.
+     */
+    List<String> getServerProfiles() {
+        return Arrays.stream(values.getOrDefault("server-profiles", "").split(","))
+                .map(String::trim)
+                .filter(profile -> !profile.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * {@code http11}, or {@code h2c} for HTTP/2 with prior knowledge.
+     */
+    HttpProtocol getProtocol() {
+        return HttpProtocol.valueOf(values.getOrDefault("protocol", "http11").toUpperCase());
+    }
+
+    /**
+     * Whether to ask for compressed responses.
+     */
+    boolean isCompress() {
+        return Boolean.parseBoolean(values.getOrDefault("compress", "false"));
+    }
+
+    int getMaxConnections() {
+        return Integer.parseInt(values.getOrDefault("max-connections", "512"));
+    }
+
+    Path getOutput() {
+        return Path.of(values.getOrDefault("output", "build/reports/load-test"));
+    }
+}
@@ -0,0 +1,74 @@
+package br.com.moraesit.product.service.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Prints a per-stage table and keeps machine-readable results: one {@code summary.csv} row per stage and
+ * operation, plus the full percentile distribution of each in HdrHistogram's {@code .hgrm} format.
+ */
+class LoadTestReport {
+    private static final String HEADER = "mode,stage,operation,count,errors,dropped,throughput,p50_ms,p90_ms,p99_ms,p999_ms,max_ms";
+
+    private final Path output;
+    private final LoadTestOptions.Mode mode;
+    private final StringBuilder csv = new StringBuilder(HEADER).append('\n');
+
+    LoadTestReport(Path output, LoadTestOptions.Mode mode) throws IOException {
+        this.output = Files.createDirectories(output);
+        this.mode = mode;
+    }
+
+    void addStage(int stage, Duration duration, LatencyRecorder.Interval interval) throws IOException {
+        var out = System.out;
+        out.printf(Locale.ROOT, "%n%s stage %d (%s)%n", mode, stage, mode == LoadTestOptions.Mode.CLOSED ? "users" : "req/s");
+        out.printf(Locale.ROOT, "%-6s %9s %7s %10s %9s %9s %9s %9s %9s%n",
+                "op", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        if (interval.dropped() > 0) {
+            out.printf(Locale.ROOT, "dropped %d arrivals: every connection slot was busy%n", interval.dropped());
+        }
+
+        for (var entry : interval.histograms().entrySet()) {
+            var operation = entry.getKey();
+            var histogram = entry.getValue();
+            long errors = interval.errors().get(operation);
+            if (histogram.getTotalCount() == 0 && errors == 0) {
+                continue;
+            }
+            double throughput = histogram.getTotalCount() / (duration.toMillis() / 1000.0);
+            print(out, operation, histogram, errors, throughput);
+
+            csv.append(String.format(Locale.ROOT, "%s,%d,%s,%d,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+                    mode, stage, operation, histogram.getTotalCount(), errors, interval.dropped(), throughput,
+                    millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                    histogram.getMaxValue() / 1000.0));
+
+            try (var hgrm = new PrintStream(Files.newOutputStream(output.resolve(
+                    String.format(Locale.ROOT, "%s-%d-%s.hgrm", mode, stage, operation).toLowerCase(Locale.ROOT))))) {
+                histogram.outputPercentileDistribution(hgrm, 1000.0);
+            }
+        }
+    }
+
+    void write() throws IOException {
+        Files.writeString(output.resolve("summary.csv"), csv);
+        System.out.printf("%nResults written to %s%n", output.toAbsolutePath());
+    }
+
+    private static void print(PrintStream out, Operation operation, Histogram histogram, long errors, double throughput) {
+        out.printf(Locale.ROOT, "%-6s %9d %7d %10.1f %9.3f %9.3f %9.3f %9.3f %9.3f%n",
+                operation, histogram.getTotalCount(), errors, throughput,
+                millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
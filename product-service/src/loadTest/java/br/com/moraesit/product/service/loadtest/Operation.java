@@ -0,0 +1,15 @@
+package br.com.moraesit.product.service.loadtest;
+
+enum Operation {
+    GET(false), PAGE(false), PATCH(true), PUT(true), POST(true);
+
+    private final boolean write;
+
+    Operation(boolean write) {
+        this.write = write;
+    }
+
+    boolean isWrite() {
+        return write;
+    }
+}
@@ -0,0 +1,48 @@
+package br.com.moraesit.product.service.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+class OperationMix {
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    OperationMix(Map<Operation, Integer> weights) {
+        var sorted = new EnumMap<>(weights);
+        this.operations = new Operation[sorted.size()];
+        this.cumulativeWeights = new int[sorted.size()];
+        int total = 0;
+        int i = 0;
+        for (Map.Entry<Operation, Integer> weight : sorted.entrySet()) {
+            total += weight.getValue();
+            operations[i] = weight.getKey();
+            cumulativeWeights[i++] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("The operation mix needs at least one positive weight");
+        }
+    }
+
+    Operation next() {
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    double writeRatio() {
+        int writes = 0;
+        int previous = 0;
+        for (int i = 0; i < operations.length; i++) {
+            if (operations[i].isWrite()) {
+                writes += cumulativeWeights[i] - previous;
+            }
+            previous = cumulativeWeights[i];
+        }
+        return (double) writes / cumulativeWeights[cumulativeWeights.length - 1];
+    }
+}
@@ -0,0 +1,121 @@
+package br.com.moraesit.product.service.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+class ProductInfoLoadClient {
+    private static final String PRODUCT_INFOS_URL = "/v1/product-infos";
+
+    private final WebClient webClient;
+    private final ConnectionProvider connectionProvider;
+    private final Duration timeout;
+    private List<String> ids = List.of();
+
+    ProductInfoLoadClient(String baseUrl, int maxConnections, HttpProtocol protocol, boolean compress, Duration timeout) {
+        this.connectionProvider = ConnectionProvider.builder("load-test")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        this.webClient = WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)
+                        .protocol(protocol)
+                        .compress(compress)))
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(16 * 1024 * 1024))
+                .build();
+        this.timeout = timeout;
+    }
+
+    /**
+     * Walks the keyset-paginated listing, projected to ids only, to learn which documents the target holds.
+     */
+    void discoverIds(int limit) {
+        var discovered = new ArrayList<String>();
+        String after = null;
+        do {
+            var cursor = after;
+            var page = webClient.get()
+                    .uri(uriBuilder -> {
+                        uriBuilder.path(PRODUCT_INFOS_URL + "/page")
+                                .queryParam("size", 500)
+                                .queryParam("fields", "id");
+                        if (cursor != null) {
+                            uriBuilder.queryParam("after", cursor);
+                        }
+                        return uriBuilder.build();
+                    })
+                    .retrieve()
+                    .bodyToMono(JsonNode.class)
+                    .block(timeout);
+            if (page == null) {
+                break;
+            }
+            page.path("items").forEach(item -> discovered.add(item.path("id").asText()));
+            after = page.path("next").isTextual() ? page.path("next").asText() : null;
+        } while (after != null && discovered.size() < limit);
+
+        if (discovered.isEmpty()) {
+            throw new IllegalStateException("The target has no product infos to read");
+        }
+        this.ids = List.copyOf(discovered);
+    }
+
+    int knownIds() {
+        return ids.size();
+    }
+
+    Mono<Void> execute(Operation operation) {
+        var request = switch (operation) {
+            case GET -> webClient.get()
+                    .uri(PRODUCT_INFOS_URL + "/{id}", randomId());
+            case PAGE -> webClient.get()
+                    .uri(PRODUCT_INFOS_URL + "/page?size=20&after={after}", randomId());
+            case PATCH -> webClient.patch()
+                    .uri(PRODUCT_INFOS_URL + "/{id}", randomId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of("price", randomPrice()));
+            case PUT -> {
+                var id = randomId();
+                yield webClient.put()
+                        .uri(PRODUCT_INFOS_URL + "/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(LoadTestFixtures.productInfo(id, 20));
+            }
+            case POST -> webClient.post()
+                    .uri(PRODUCT_INFOS_URL)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(LoadTestFixtures.productInfo(null, 20));
+        };
+
+        return request.exchangeToMono(response -> response.releaseBody()
+                        .then(response.statusCode().is2xxSuccessful()
+                                ? Mono.<Void>empty()
+                                : Mono.error(new IllegalStateException(operation + " returned " + response.rawStatusCode()))))
+                .timeout(timeout);
+    }
+
+    void close() {
+        connectionProvider.dispose();
+    }
+
+    private String randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private static BigDecimal randomPrice() {
+        return BigDecimal.valueOf(ThreadLocalRandom.current().nextInt(1_000, 1_000_000), 2);
+    }
+}
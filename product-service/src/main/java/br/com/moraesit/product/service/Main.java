@@ -1,7 +0,0 @@
-package br.com.moraesit.product.service;
-
-public class Main {
-    public static void main(String[] args) {
-        System.out.println("Hello world!");
-    }
-}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package br.com.moraesit.product.service.client;
+
+import br.com.moraesit.product.service.config.ProductServiceProperties;
+import br.com.moraesit.product.service.domain.ProductInfo;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+@Component
+public class ProductInfoClient {
+    private static final String PRODUCT_INFOS_URL = "/v1/product-infos";
+
+    private final WebClient webClient;
+
+    public ProductInfoClient(WebClient.Builder webClientBuilder, ProductServiceProperties properties) {
+        this.webClient = webClientBuilder.baseUrl(properties.getInfo().getBaseUrl()).build();
+    }
+
+    public Mono<ProductInfo> getProductInfo(String id) {
+        return webClient.get()
+                .uri(PRODUCT_INFOS_URL + "/{id}", id)
+                .exchangeToMono(response -> {
+                    // a 404 still carries product-info's error body, which must not be read as a product
+                    if (response.statusCode() == HttpStatus.NOT_FOUND) {
+                        return response.releaseBody().then(Mono.empty());
+                    }
+                    if (response.statusCode().isError()) {
+                        return response.createException().flatMap(Mono::error);
+                    }
+                    return response.bodyToMono(ProductInfo.class);
+                });
+    }
+}
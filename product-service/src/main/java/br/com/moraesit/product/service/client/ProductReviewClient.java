@@ -0,0 +1,33 @@
+package br.com.moraesit.product.service.client;
+
+import br.com.moraesit.product.service.config.ProductServiceProperties;
+import br.com.moraesit.product.service.domain.ProductReviewPage;
+import br.com.moraesit.product.service.domain.ProductReviewSummary;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+@Component
+public class ProductReviewClient {
+    private static final String PRODUCT_REVIEWS_URL = "/v1/product-reviews";
+
+    private final WebClient webClient;
+
+    public ProductReviewClient(WebClient.Builder webClientBuilder, ProductServiceProperties properties) {
+        this.webClient = webClientBuilder.baseUrl(properties.getReview().getBaseUrl()).build();
+    }
+
+    public Mono<ProductReviewSummary> getProductReviewSummary(String productId) {
+        return webClient.get()
+                .uri(PRODUCT_REVIEWS_URL + "/products/{productId}/summary", productId)
+                .retrieve()
+                .bodyToMono(ProductReviewSummary.class);
+    }
+
+    public Mono<ProductReviewPage> getProductReviewPage(String productId, int size) {
+        return webClient.get()
+                .uri(PRODUCT_REVIEWS_URL + "/products/{productId}?size={size}", productId, size)
+                .retrieve()
+                .bodyToMono(ProductReviewPage.class);
+    }
+}
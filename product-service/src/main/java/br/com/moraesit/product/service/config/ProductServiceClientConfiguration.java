@@ -0,0 +1,42 @@
+package br.com.moraesit.product.service.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+@Configuration
+@EnableConfigurationProperties(ProductServiceProperties.class)
+public class ProductServiceClientConfiguration {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider productServiceConnectionProvider(ProductServiceProperties properties) {
+        var http = properties.getHttp();
+        return ConnectionProvider.builder("product-service")
+                .maxConnections(http.getMaxConnections())
+                .pendingAcquireTimeout(http.getPendingAcquireTimeout())
+                .maxIdleTime(http.getMaxIdleTime())
+                // closes idle connections before the servers do, instead of finding out on the next request
+                .evictInBackground(Duration.ofSeconds(15))
+                .metrics(true)
+                .build();
+    }
+
+    // Boot's WebClient.Builder picks this connector up, so both downstream clients share one connection pool
+    @Bean
+    public ReactorClientHttpConnector productServiceClientHttpConnector(ConnectionProvider productServiceConnectionProvider,
+                                                                       ProductServiceProperties properties) {
+        var http = properties.getHttp();
+        var httpClient = HttpClient.create(productServiceConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) http.getConnectTimeout().toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(http.getResponseTimeout())
+                .compress(true);
+        return new ReactorClientHttpConnector(httpClient);
+    }
+}
@@ -0,0 +1,133 @@
+package br.com.moraesit.product.service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "product-service")
+public class ProductServiceProperties {
+    private final Client info = new Client("http://localhost:8080", Duration.ofMillis(500));
+    private final Client review = new Client("http://localhost:8081", Duration.ofMillis(300));
+    private final Http http = new Http();
+    private final Batch batch = new Batch();
+    private int recentReviews = 3;
+
+    public Client getInfo() {
+        return info;
+    }
+
+    public Client getReview() {
+        return review;
+    }
+
+    public Http getHttp() {
+        return http;
+    }
+
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public int getRecentReviews() {
+        return recentReviews;
+    }
+
+    public void setRecentReviews(int recentReviews) {
+        this.recentReviews = recentReviews;
+    }
+
+    public static class Client {
+        private String baseUrl;
+        private Duration timeout;
+
+        public Client(String baseUrl, Duration timeout) {
+            this.baseUrl = baseUrl;
+            this.timeout = timeout;
+        }
+
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+
+        public void setBaseUrl(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    public static class Http {
+        private int maxConnections = 500;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(1);
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        private Duration connectTimeout = Duration.ofSeconds(1);
+        private Duration responseTimeout = Duration.ofSeconds(5);
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public Duration getPendingAcquireTimeout() {
+            return pendingAcquireTimeout;
+        }
+
+        public void setPendingAcquireTimeout(Duration pendingAcquireTimeout) {
+            this.pendingAcquireTimeout = pendingAcquireTimeout;
+        }
+
+        public Duration getMaxIdleTime() {
+            return maxIdleTime;
+        }
+
+        public void setMaxIdleTime(Duration maxIdleTime) {
+            this.maxIdleTime = maxIdleTime;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getResponseTimeout() {
+            return responseTimeout;
+        }
+
+        public void setResponseTimeout(Duration responseTimeout) {
+            this.responseTimeout = responseTimeout;
+        }
+    }
+
+    public static class Batch {
+        private int maxIds = 100;
+        private int concurrency = 16;
+
+        public int getMaxIds() {
+            return maxIds;
+        }
+
+        public void setMaxIds(int maxIds) {
+            this.maxIds = maxIds;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+    }
+}
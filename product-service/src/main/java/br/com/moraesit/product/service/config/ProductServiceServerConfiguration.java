@@ -0,0 +1,30 @@
+package br.com.moraesit.product.service.config;
+
+import br.com.moraesit.netty.server.NettyServerPropertiesCustomizer;
+import br.com.moraesit.netty.server.NettyServerResources;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorResourceFactory;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableConfigurationProperties(ProductServiceServerProperties.class)
+public class ProductServiceServerConfiguration {
+
+    @Bean
+    public NettyServerPropertiesCustomizer productServiceNettyServerCustomizer(ProductServiceServerProperties properties,
+                                                                             MeterRegistry meterRegistry) {
+        return new NettyServerPropertiesCustomizer(properties, "product.service", meterRegistry);
+    }
+
+    // the server takes its loops from this factory; the downstream clients keep the global ones
+    @Bean
+    @ConditionalOnProperty(prefix = "product-service.server", name = "event-loop-threads")
+    public ReactorResourceFactory productServiceResourceFactory(ProductServiceServerProperties properties) {
+        return NettyServerResources.eventLoops("product-service-http", properties);
+    }
+}
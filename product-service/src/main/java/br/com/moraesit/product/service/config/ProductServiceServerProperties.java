@@ -0,0 +1,19 @@
+package br.com.moraesit.product.service.config;
+
+import br.com.moraesit.netty.server.NettyServerProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings of the server side of product-service; see {@code product-service.http} for its clients. Compression,
+ * HTTP/2, the idle timeout and keep-alive are Boot's own {@code server.*} properties.
+ */
+@ConfigurationProperties(prefix = "product-service.server")
+public class ProductServiceServerProperties extends NettyServerProperties {
+
+    public ProductServiceServerProperties() {
+        getMetrics().setUriTemplates(new ArrayList<>(List.of("/v1/products", "/v1/products/{id}", "/actuator/**")));
+    }
+}
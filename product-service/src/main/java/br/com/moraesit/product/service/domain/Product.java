@@ -0,0 +1,55 @@
+package br.com.moraesit.product.service.domain;
+
+import java.util.List;
+
+/**
+ * A product as composed from product-info-service and product-review-service. Sections whose call failed or timed
+ * out are null and named in {@code missing}, so clients can tell a partial view from a product without reviews.
+ */
+public class Product {
+    public static final String INFO = "info";
+    public static final String REVIEW_SUMMARY = "reviewSummary";
+    public static final String RECENT_REVIEWS = "recentReviews";
+
+    private String id;
+    private ProductInfo info;
+    private ProductReviewSummary reviewSummary;
+    private List<ProductReview> recentReviews;
+    private List<String> missing;
+
+    public Product(String id, ProductInfo info, ProductReviewSummary reviewSummary, List<ProductReview> recentReviews, List<String> missing) {
+        this.id = id;
+        this.info = info;
+        this.reviewSummary = reviewSummary;
+        this.recentReviews = recentReviews;
+        this.missing = missing;
+    }
+
+    public Product() {
+
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public ProductInfo getInfo() {
+        return info;
+    }
+
+    public ProductReviewSummary getReviewSummary() {
+        return reviewSummary;
+    }
+
+    public List<ProductReview> getRecentReviews() {
+        return recentReviews;
+    }
+
+    public List<String> getMissing() {
+        return missing;
+    }
+
+    public boolean isPartial() {
+        return missing != null && !missing.isEmpty();
+    }
+}
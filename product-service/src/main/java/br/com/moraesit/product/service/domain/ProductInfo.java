@@ -0,0 +1,53 @@
+package br.com.moraesit.product.service.domain;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Builder
+public class ProductInfo {
+    private String id;
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private Map<String, Object> properties;
+    private Long version;
+
+    public ProductInfo(String id, String name, String description, BigDecimal price, Map<String, Object> properties, Long version) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.properties = properties;
+        this.version = version;
+    }
+
+    public ProductInfo() {
+
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public Map<String, Object> getProperties() {
+        return properties;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+}
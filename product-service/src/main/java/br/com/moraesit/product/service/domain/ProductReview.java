@@ -0,0 +1,52 @@
+package br.com.moraesit.product.service.domain;
+
+import lombok.Builder;
+
+import java.time.Instant;
+
+@Builder
+public class ProductReview {
+    private String id;
+    private String productId;
+    private String author;
+    private int rating;
+    private String comment;
+    private Instant createdAt;
+
+    public ProductReview(String id, String productId, String author, int rating, String comment, Instant createdAt) {
+        this.id = id;
+        this.productId = productId;
+        this.author = author;
+        this.rating = rating;
+        this.comment = comment;
+        this.createdAt = createdAt;
+    }
+
+    public ProductReview() {
+
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public int getRating() {
+        return rating;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,25 @@
+package br.com.moraesit.product.service.domain;
+
+import java.util.List;
+
+public class ProductReviewPage {
+    private List<ProductReview> items;
+    private String next;
+
+    public ProductReviewPage(List<ProductReview> items, String next) {
+        this.items = items;
+        this.next = next;
+    }
+
+    public ProductReviewPage() {
+
+    }
+
+    public List<ProductReview> getItems() {
+        return items;
+    }
+
+    public String getNext() {
+        return next;
+    }
+}
@@ -0,0 +1,37 @@
+package br.com.moraesit.product.service.domain;
+
+import java.util.Map;
+
+public class ProductReviewSummary {
+    private String productId;
+    private long count;
+    private double averageRating;
+    private Map<String, Long> ratings;
+
+    public ProductReviewSummary(String productId, long count, double averageRating, Map<String, Long> ratings) {
+        this.productId = productId;
+        this.count = count;
+        this.averageRating = averageRating;
+        this.ratings = ratings;
+    }
+
+    public ProductReviewSummary() {
+
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getAverageRating() {
+        return averageRating;
+    }
+
+    public Map<String, Long> getRatings() {
+        return ratings;
+    }
+}
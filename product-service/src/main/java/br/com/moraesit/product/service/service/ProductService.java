@@ -0,0 +1,100 @@
+package br.com.moraesit.product.service.service;
+
+import br.com.moraesit.product.service.client.ProductInfoClient;
+import br.com.moraesit.product.service.client.ProductReviewClient;
+import br.com.moraesit.product.service.config.ProductServiceProperties;
+import br.com.moraesit.product.service.domain.Product;
+import br.com.moraesit.product.service.domain.ProductInfo;
+import br.com.moraesit.product.service.domain.ProductReview;
+import br.com.moraesit.product.service.domain.ProductReviewPage;
+import br.com.moraesit.product.service.domain.ProductReviewSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+@Service
+public class ProductService {
+    private static final Logger log = LoggerFactory.getLogger(ProductService.class);
+
+    private final ProductInfoClient productInfoClient;
+    private final ProductReviewClient productReviewClient;
+    private final ProductServiceProperties properties;
+
+    public ProductService(ProductInfoClient productInfoClient, ProductReviewClient productReviewClient,
+                          ProductServiceProperties properties) {
+        this.productInfoClient = productInfoClient;
+        this.productReviewClient = productReviewClient;
+        this.properties = properties;
+    }
+
+    /**
+     * Calls both services at once, so the view costs the slowest call rather than the sum of them. A call that
+     * fails or outlives its timeout leaves its section out instead of failing the product; a product that
+     * product-info-service does not know completes empty.
+     */
+    public Mono<Product> getProduct(String id) {
+        var info = fetch(id, Product.INFO, productInfoClient.getProductInfo(id), properties.getInfo().getTimeout());
+        var reviewSummary = fetch(id, Product.REVIEW_SUMMARY, productReviewClient.getProductReviewSummary(id),
+                properties.getReview().getTimeout());
+        var recentReviews = fetch(id, Product.RECENT_REVIEWS,
+                productReviewClient.getProductReviewPage(id, properties.getRecentReviews()).map(ProductReviewPage::getItems),
+                properties.getReview().getTimeout());
+
+        return Mono.zip(info, reviewSummary, recentReviews)
+                .flatMap(parts -> {
+                    Section<ProductInfo> infoSection = parts.getT1();
+                    Section<ProductReviewSummary> reviewSummarySection = parts.getT2();
+                    Section<List<ProductReview>> recentReviewsSection = parts.getT3();
+                    if (!infoSection.failed && infoSection.value == null) {
+                        return Mono.empty();
+                    }
+                    var missing = new ArrayList<String>();
+                    for (Section<?> section : List.of(infoSection, reviewSummarySection, recentReviewsSection)) {
+                        if (section.failed) {
+                            missing.add(section.name);
+                        }
+                    }
+                    return Mono.just(new Product(id, infoSection.value, reviewSummarySection.value, recentReviewsSection.value, missing));
+                });
+    }
+
+    public Flux<Product> getProducts(List<String> ids) {
+        var distinctIds = new LinkedHashSet<>(ids);
+        if (distinctIds.size() > properties.getBatch().getMaxIds()) {
+            return Flux.error(new IllegalArgumentException("At most " + properties.getBatch().getMaxIds() + " ids per request"));
+        }
+        // keeps the requested order while capping how many products are being composed at once
+        return Flux.fromIterable(distinctIds)
+                .flatMapSequential(this::getProduct, properties.getBatch().getConcurrency());
+    }
+
+    private static <T> Mono<Section<T>> fetch(String id, String name, Mono<T> call, Duration timeout) {
+        return call
+                .timeout(timeout)
+                .map(value -> new Section<>(name, value, false))
+                .defaultIfEmpty(new Section<>(name, null, false))
+                .onErrorResume(e -> {
+                    log.warn("Leaving {} out of product {}: {}", name, id, e.toString());
+                    return Mono.just(new Section<>(name, null, true));
+                });
+    }
+
+    private static class Section<T> {
+        private final String name;
+        private final T value;
+        private final boolean failed;
+
+        private Section(String name, T value, boolean failed) {
+            this.name = name;
+            this.value = value;
+            this.failed = failed;
+        }
+    }
+}
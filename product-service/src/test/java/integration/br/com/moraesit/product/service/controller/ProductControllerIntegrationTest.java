@@ -0,0 +1,179 @@
+package br.com.moraesit.product.service.controller;
+
+import br.com.moraesit.product.service.domain.Product;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the aggregator against stub product-info and product-review servers whose latency each test controls.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"product-service.info.timeout=1s", "product-service.review.timeout=500ms"})
+@AutoConfigureWebTestClient(timeout = "10s")
+class ProductControllerIntegrationTest {
+    private static final String PRODUCTS_URL = "/v1/products";
+    private static final String MISSING_ID = "missing";
+
+    private static DisposableServer productInfoServer;
+    private static DisposableServer productReviewServer;
+    private static volatile Duration infoDelay = Duration.ZERO;
+    private static volatile Duration reviewDelay = Duration.ZERO;
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @BeforeAll
+    static void startStubs() {
+        productInfoServer = HttpServer.create()
+                .port(0)
+                .route(routes -> routes.get("/v1/product-infos/{id}", (request, response) -> {
+                    var id = request.param("id");
+                    if (MISSING_ID.equals(id)) {
+                        // the error body product-info sends with its 404s
+                        return response.status(HttpStatus.NOT_FOUND.value())
+                                .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                                .sendString(Mono.just("{\"status\":404,\"error\":\"Not Found\",\"path\":\"/v1/product-infos/" + id + "\"}"));
+                    }
+                    return response.header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                            .sendString(Mono.just("{\"id\":\"" + id + "\",\"name\":\"Product " + id + "\",\"price\":10.5}")
+                                    .delayElement(infoDelay));
+                }))
+                .bindNow();
+        productReviewServer = HttpServer.create()
+                .port(0)
+                .route(routes -> routes
+                        .get("/v1/product-reviews/products/{productId}/summary", (request, response) -> response
+                                .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                                .sendString(Mono.just("{\"productId\":\"" + request.param("productId")
+                                        + "\",\"count\":2,\"averageRating\":4.5,\"ratings\":{\"4\":1,\"5\":1}}").delayElement(reviewDelay)))
+                        .get("/v1/product-reviews/products/{productId}", (request, response) -> response
+                                .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                                .sendString(Mono.just("{\"items\":[{\"id\":\"r1\",\"productId\":\"" + request.param("productId")
+                                        + "\",\"rating\":5}],\"next\":null}").delayElement(reviewDelay))))
+                .bindNow();
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        productInfoServer.disposeNow();
+        productReviewServer.disposeNow();
+    }
+
+    @DynamicPropertySource
+    static void stubProperties(DynamicPropertyRegistry registry) {
+        registry.add("product-service.info.base-url", () -> "http://localhost:" + productInfoServer.port());
+        registry.add("product-service.review.base-url", () -> "http://localhost:" + productReviewServer.port());
+    }
+
+    @BeforeEach
+    void setUp() {
+        infoDelay = Duration.ZERO;
+        reviewDelay = Duration.ZERO;
+    }
+
+    @Test
+    void getProduct() {
+        webTestClient
+                .get()
+                .uri(PRODUCTS_URL + "/{id}", "p1")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(Product.class)
+                .consumeWith(result -> {
+                    var product = result.getResponseBody();
+                    assertNotNull(product);
+                    assertEquals("Product p1", product.getInfo().getName());
+                    assertEquals(4.5, product.getReviewSummary().getAverageRating());
+                    assertEquals(1, product.getRecentReviews().size());
+                    assertFalse(product.isPartial());
+                });
+    }
+
+    @Test
+    void getProductCostsTheSlowestCall() {
+        infoDelay = Duration.ofMillis(300);
+        reviewDelay = Duration.ofMillis(300);
+        // warms up the connection pool so connect time does not count
+        webTestClient.get().uri(PRODUCTS_URL + "/{id}", "warmup").exchange().expectStatus().isOk();
+
+        long start = System.nanoTime();
+        webTestClient
+                .get()
+                .uri(PRODUCTS_URL + "/{id}", "p1")
+                .exchange()
+                .expectStatus()
+                .isOk();
+        var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // three sequential calls would take at least 900ms
+        assertTrue(elapsed.compareTo(Duration.ofMillis(700)) < 0, "took " + elapsed);
+    }
+
+    @Test
+    void getProductReturnsPartialViewWhenReviewsAreSlow() {
+        reviewDelay = Duration.ofSeconds(2);
+
+        webTestClient
+                .get()
+                .uri(PRODUCTS_URL + "/{id}", "p1")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(Product.class)
+                .consumeWith(result -> {
+                    var product = result.getResponseBody();
+                    assertNotNull(product);
+                    assertEquals("Product p1", product.getInfo().getName());
+                    assertNull(product.getReviewSummary());
+                    assertEquals(List.of(Product.REVIEW_SUMMARY, Product.RECENT_REVIEWS), product.getMissing());
+                });
+    }
+
+    @Test
+    void getProductNotFound() {
+        webTestClient
+                .get()
+                .uri(PRODUCTS_URL + "/{id}", MISSING_ID)
+                .exchange()
+                .expectStatus()
+                .isNotFound();
+    }
+
+    @Test
+    void getProducts() {
+        webTestClient
+                .get()
+                .uri(PRODUCTS_URL + "?ids=p1,missing,p2,p3")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(Product.class)
+                .consumeWith(result -> assertEquals(List.of("p1", "p2", "p3"),
+                        result.getResponseBody().stream().map(Product::getId).collect(Collectors.toList())));
+    }
+}
@@ -0,0 +1,145 @@
+package br.com.moraesit.product.service.service;
+
+import br.com.moraesit.product.service.client.ProductInfoClient;
+import br.com.moraesit.product.service.client.ProductReviewClient;
+import br.com.moraesit.product.service.config.ProductServiceProperties;
+import br.com.moraesit.product.service.domain.Product;
+import br.com.moraesit.product.service.domain.ProductInfo;
+import br.com.moraesit.product.service.domain.ProductReview;
+import br.com.moraesit.product.service.domain.ProductReviewPage;
+import br.com.moraesit.product.service.domain.ProductReviewSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+public class ProductServiceUnitTest {
+
+    @InjectMocks
+    private ProductService productService;
+
+    @Mock
+    private ProductInfoClient productInfoClient;
+
+    @Mock
+    private ProductReviewClient productReviewClient;
+
+    @Spy
+    private ProductServiceProperties properties = new ProductServiceProperties();
+
+    private final String ID = "d215b5f8-0249-4dc5-89a3-51fd148cfb41";
+
+    @BeforeEach
+    void setUp() {
+        properties.getInfo().setTimeout(Duration.ofMillis(200));
+        properties.getReview().setTimeout(Duration.ofMillis(200));
+    }
+
+    @Test
+    void getProductComposesAllSections() {
+        when(productInfoClient.getProductInfo(ID)).thenReturn(Mono.just(productInfo(ID)));
+        when(productReviewClient.getProductReviewSummary(ID)).thenReturn(Mono.just(new ProductReviewSummary(ID, 2, 4.5, Map.of("4", 1L, "5", 1L))));
+        when(productReviewClient.getProductReviewPage(ID, 3)).thenReturn(Mono.just(new ProductReviewPage(
+                List.of(ProductReview.builder().id("r1").productId(ID).rating(5).build()), null)));
+
+        StepVerifier.create(productService.getProduct(ID))
+                .assertNext(product -> {
+                    assertEquals("Samsung Galaxy A13", product.getInfo().getName());
+                    assertEquals(4.5, product.getReviewSummary().getAverageRating());
+                    assertEquals(1, product.getRecentReviews().size());
+                    assertFalse(product.isPartial());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getProductLeavesOutSlowSection() {
+        when(productInfoClient.getProductInfo(ID)).thenReturn(Mono.just(productInfo(ID)));
+        when(productReviewClient.getProductReviewSummary(ID)).thenReturn(Mono.never());
+        when(productReviewClient.getProductReviewPage(ID, 3)).thenReturn(Mono.error(new IllegalStateException("boom")));
+
+        StepVerifier.create(productService.getProduct(ID))
+                .assertNext(product -> {
+                    assertEquals("Samsung Galaxy A13", product.getInfo().getName());
+                    assertNull(product.getReviewSummary());
+                    assertNull(product.getRecentReviews());
+                    assertTrue(product.isPartial());
+                    assertEquals(List.of(Product.REVIEW_SUMMARY, Product.RECENT_REVIEWS), product.getMissing());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getProductIsEmptyWhenInfoNotFound() {
+        when(productInfoClient.getProductInfo(ID)).thenReturn(Mono.empty());
+        when(productReviewClient.getProductReviewSummary(ID)).thenReturn(Mono.just(new ProductReviewSummary(ID, 0, 0, Map.of())));
+        when(productReviewClient.getProductReviewPage(ID, 3)).thenReturn(Mono.just(new ProductReviewPage(List.of(), null)));
+
+        StepVerifier.create(productService.getProduct(ID))
+                .verifyComplete();
+    }
+
+    @Test
+    void getProductsKeepsOrderWithBoundedConcurrency() {
+        properties.getBatch().setConcurrency(2);
+        var inFlight = new AtomicInteger();
+        var maxInFlight = new AtomicInteger();
+        var ids = IntStream.range(0, 6).mapToObj(i -> "product-" + i).collect(Collectors.toList());
+
+        when(productInfoClient.getProductInfo(anyString())).thenAnswer(invocation -> {
+            String id = invocation.getArgument(0);
+            // later ids answer sooner, so only flatMapSequential keeps them in request order
+            return Mono.just(productInfo(id))
+                    .delayElement(Duration.ofMillis(60 - ids.indexOf(id) * 10L))
+                    .doOnSubscribe(subscription -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                    .doOnTerminate(inFlight::decrementAndGet);
+        });
+        when(productReviewClient.getProductReviewSummary(anyString())).thenReturn(Mono.just(new ProductReviewSummary()));
+        when(productReviewClient.getProductReviewPage(anyString(), anyInt())).thenReturn(Mono.just(new ProductReviewPage(List.of(), null)));
+
+        StepVerifier.create(productService.getProducts(ids).map(Product::getId).collectList())
+                .assertNext(productIds -> assertEquals(ids, productIds))
+                .verifyComplete();
+
+        assertEquals(2, maxInFlight.get());
+    }
+
+    @Test
+    void getProductsRejectsTooManyIds() {
+        properties.getBatch().setMaxIds(2);
+
+        StepVerifier.create(productService.getProducts(List.of("a", "b", "c")))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
+    private static ProductInfo productInfo(String id) {
+        return ProductInfo.builder()
+                .id(id)
+                .name("Samsung Galaxy A13")
+                .price(new BigDecimal("1200.50"))
+                .build();
+    }
+}
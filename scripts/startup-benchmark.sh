@@ -0,0 +1,125 @@
+#!/usr/bin/env bash
+# Measures how fast a service becomes useful when started from its boot jar (jvm), from the plain jar with its AppCDS
+# archive (cds) and as a native image (native). Builds that have not been produced are skipped.
+#
+# For each run it records, from process start:
+#   ready  - until /actuator/health/readiness answers 200
+#   first  - until the first request to --path has been answered
+#   rss    - resident set size right after that first request
+# and prints the median of each over all runs.
+#
+# Usually started through Gradle, which fills in the artifact locations:
+#   ./gradlew :product-info-service:cdsArchive :product-info-service:startupBenchmark -PstartupBenchmarkArgs="--runs=10"
+#   ./gradlew -Pnative :product-info-service:nativeCompile
+set -euo pipefail
+
+service=""
+jar=""
+cds_args=""
+native=""
+runs=5
+port=18081
+path="/actuator/health"
+native_profiles=""
+
+for arg in "$@"; do
+  case "$arg" in
+    --service=*) service="${arg#*=}" ;;
+    --jar=*) jar="${arg#*=}" ;;
+    --cds-args=*) cds_args="${arg#*=}" ;;
+    --native=*) native="${arg#*=}" ;;
+    --runs=*) runs="${arg#*=}" ;;
+    --port=*) port="${arg#*=}" ;;
+    --path=*) path="${arg#*=}" ;;
+    --native-profiles=*) native_profiles="${arg#*=}" ;;
+    *) echo "Unknown option: $arg" >&2; exit 2 ;;
+  esac
+done
+
+app_args=("--server.port=$port" "--management.endpoint.health.probes.enabled=true")
+
+now_ms() {
+  date +%s%3N
+}
+
+rss_kb() {
+  if [[ -r "/proc/$1/status" ]]; then
+    awk '/^VmRSS:/ { print $2 }' "/proc/$1/status"
+  else
+    ps -o rss= -p "$1" | tr -d ' '
+  fi
+}
+
+median() {
+  sort -n | awk '{ values[NR] = $1 } END { print (NR % 2) ? values[(NR + 1) / 2] : int((values[NR / 2] + values[NR / 2 + 1]) / 2) }'
+}
+
+# prints "<ready ms> <first response ms> <rss kb>" for one start of the given command
+measure() {
+  local log
+  log="$(mktemp)"
+  local started
+  started="$(now_ms)"
+  "$@" "${app_args[@]}" >"$log" 2>&1 &
+  local pid=$!
+
+  until curl -fs -o /dev/null "http://localhost:$port/actuator/health/readiness"; do
+    if ! kill -0 "$pid" 2>/dev/null || (($(now_ms) - started > 120000)); then
+      echo "Service did not become ready, its output follows:" >&2
+      cat "$log" >&2
+      kill "$pid" 2>/dev/null || true
+      return 1
+    fi
+    sleep 0.01
+  done
+  local ready=$(($(now_ms) - started))
+
+  curl -s -o /dev/null "http://localhost:$port$path"
+  local first=$(($(now_ms) - started))
+  local rss
+  rss="$(rss_kb "$pid")"
+
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  rm -f "$log"
+  echo "$ready $first $rss"
+}
+
+benchmark() {
+  local mode="$1"
+  shift
+  local results=()
+  for ((run = 1; run <= runs; run++)); do
+    results+=("$(measure "$@")")
+  done
+  local ready first rss
+  ready="$(printf '%s\n' "${results[@]}" | awk '{ print $1 }' | median)"
+  first="$(printf '%s\n' "${results[@]}" | awk '{ print $2 }' | median)"
+  rss="$(printf '%s\n' "${results[@]}" | awk '{ print $3 }' | median)"
+  printf '%-8s %10s %10s %10s\n' "$mode" "$ready" "$first" "$((rss / 1024))"
+}
+
+echo "$service, median of $runs runs"
+printf '%-8s %10s %10s %10s\n' "mode" "ready ms" "first ms" "rss MiB"
+
+if [[ -f "$jar" ]]; then
+  benchmark jvm java -jar "$jar"
+else
+  echo "jvm      skipped, no boot jar at $jar"
+fi
+
+if [[ -f "$cds_args" ]]; then
+  benchmark cds java "@$cds_args"
+else
+  echo "cds      skipped, run cdsArchive first"
+fi
+
+if [[ -x "$native" ]]; then
+  if [[ -n "$native_profiles" ]]; then
+    benchmark native "$native" "--spring.profiles.include=$native_profiles"
+  else
+    benchmark native "$native"
+  fi
+else
+  echo "native   skipped, run nativeCompile with -Pnative first"
+fi